@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.BitMatrix;
+import game.BufferedMatrix;
+
+/**
+ * Measures the cell accessors of {@link BufferedMatrix}: reading every cell with
+ * {@code get}, writing every cell of the next state with {@code set}, and
+ * advancing with {@code next}, for the generic matrix of Boolean values and for
+ * the bit-packed {@link BitMatrix}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferedMatrixBenchmark {
+    /**
+     * The number of rows and columns of the matrix.
+     */
+    @Param({ "64", "1024" })
+    public int size;
+
+    /**
+     * The representation of the matrix: {@code boxed} or {@code bits}.
+     */
+    @Param({ "boxed", "bits" })
+    public String representation;
+
+    /**
+     * The matrix being accessed.
+     */
+    private BufferedMatrix<Boolean> matrix;
+
+    /**
+     * Creates the matrix and seeds it with a random soup.
+     */
+    @Setup
+    public void createMatrix() {
+        matrix = representation.equals("boxed") ? new BufferedMatrix<>(size, size, false) : new BitMatrix(size, size);
+        CellularAutomataBenchmark.seed(matrix, 0.35, 42);
+    }
+
+    /**
+     * Reads every cell of the current state.
+     *
+     * @return the number of live cells, so that the reads are not eliminated
+     */
+    @Benchmark
+    public int get() {
+        int alive = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (matrix.get(i, j)) alive++;
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Writes every cell of the next state.
+     */
+    @Benchmark
+    public void set() {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix.set(i, j, ((i ^ j) & 1) == 0);
+            }
+        }
+    }
+
+    /**
+     * Advances the matrix to its next state, which also clears the new next state.
+     */
+    @Benchmark
+    public void next() {
+        matrix.next();
+    }
+}
@@ -0,0 +1,131 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.ActiveRegionEngine;
+import game.BitMatrix;
+import game.BufferedMatrix;
+import game.CellularAutomata;
+import game.LookupTableEngine;
+import game.ParallelEngine;
+import game.StepEngine;
+import game.SwarEngine;
+import game.VectorEngine;
+
+/**
+ * Measures {@link CellularAutomata#next()} on square boards of several sizes and
+ * densities, for every stepping engine and for the generic
+ * {@link BufferedMatrix} of Boolean values that is stepped cell by cell, which
+ * is the baseline the engines are compared against.
+ *
+ * <p>The board is seeded again before every iteration, so that a board that dies
+ * out or settles down does not make later iterations cheaper.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class CellularAutomataBenchmark {
+    /**
+     * The number of rows and columns of the board.
+     */
+    @Param({ "64", "512", "2048" })
+    public int size;
+
+    /**
+     * The fraction of live cells the board is seeded with.
+     */
+    @Param({ "0.05", "0.35" })
+    public double density;
+
+    /**
+     * The matrix and engine stepping it: {@code boxed} for the generic matrix, or the
+     * name of an engine stepping a {@link BitMatrix}.
+     */
+    @Param({ "boxed", "swar", "parallel", "active", "lookup", "vector" })
+    public String engine;
+
+    /**
+     * The board being stepped.
+     */
+    private BufferedMatrix<Boolean> matrix;
+
+    /**
+     * The automaton stepping the board.
+     */
+    private CellularAutomata automata;
+
+    /**
+     * Creates the board and the automaton for the parameters.
+     */
+    @Setup(Level.Trial)
+    public void createBoard() {
+        StepEngine stepEngine = switch (engine) {
+            case "parallel" -> new ParallelEngine();
+            case "active" -> new ActiveRegionEngine();
+            case "lookup" -> new LookupTableEngine();
+            case "vector" -> new VectorEngine();
+            default -> new SwarEngine();
+        };
+        matrix = engine.equals("boxed") ? new BufferedMatrix<>(size, size, false) : new BitMatrix(size, size);
+        automata = new CellularAutomata(matrix, stepEngine);
+    }
+
+    /**
+     * Seeds the board with the same random soup before every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void seedBoard() {
+        seed(matrix, density, 42);
+    }
+
+    /**
+     * Stops the worker threads of a parallel engine.
+     */
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        if (automata.getEngine() instanceof ParallelEngine parallel) parallel.shutdown();
+    }
+
+    /**
+     * Computes a single generation.
+     */
+    @Benchmark
+    public void next() {
+        automata.next();
+    }
+
+    /**
+     * Fills the specified matrix with a random soup.
+     *
+     * @param matrix  the matrix to fill
+     * @param density the fraction of live cells
+     * @param seed    the seed of the random numbers
+     */
+    static void seed(BufferedMatrix<Boolean> matrix, double density, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        matrix.clear();
+        for (int i = 0; i < matrix.getSizeX(); i++) {
+            for (int j = 0; j < matrix.getSizeY(); j++) {
+                matrix.update(i, j, random.nextDouble() < density);
+            }
+        }
+    }
+}
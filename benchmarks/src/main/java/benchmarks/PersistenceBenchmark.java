@@ -0,0 +1,95 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.BitMatrix;
+import game.BufferedMatrix;
+
+/**
+ * Measures saving a matrix with {@code toJson} and loading it back with
+ * {@code fromJson}, for the generic matrix of Boolean values and for the
+ * bit-packed {@link BitMatrix}. The file is written to the temporary directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    /**
+     * The number of rows and columns of the matrix.
+     */
+    @Param({ "64", "512" })
+    public int size;
+
+    /**
+     * The representation of the matrix: {@code boxed} or {@code bits}.
+     */
+    @Param({ "boxed", "bits" })
+    public String representation;
+
+    /**
+     * The matrix that is saved.
+     */
+    private BufferedMatrix<Boolean> matrix;
+
+    /**
+     * The matrix the file is loaded into.
+     */
+    private BufferedMatrix<Boolean> loaded;
+
+    /**
+     * The file the matrix is saved to.
+     */
+    private File file;
+
+    /**
+     * Creates both matrices, seeds the saved one and creates the file.
+     *
+     * @throws IOException if the temporary file cannot be created
+     */
+    @Setup
+    public void createMatrix() throws IOException {
+        boolean boxed = representation.equals("boxed");
+        matrix = boxed ? new BufferedMatrix<>(size, size, false) : new BitMatrix(size, size);
+        loaded = boxed ? new BufferedMatrix<>(1, 1, false) : new BitMatrix(1, 1);
+        CellularAutomataBenchmark.seed(matrix, 0.35, 42);
+        file = File.createTempFile("matrix", ".json");
+    }
+
+    /**
+     * Deletes the file.
+     */
+    @TearDown
+    public void deleteFile() {
+        file.delete();
+    }
+
+    /**
+     * Saves the matrix and loads it back.
+     *
+     * @return the loaded matrix, so that loading is not eliminated
+     */
+    @Benchmark
+    public BufferedMatrix<Boolean> roundTrip() {
+        matrix.toJson(file);
+        loaded.fromJson(file);
+        return loaded;
+    }
+}
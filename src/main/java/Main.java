@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 import javax.swing.JFrame;
 
 import game.*;
@@ -31,30 +33,77 @@ public class Main {
      *
      * <p>The game uses a {@link CardLayoutSwitcherPanel} to switch between different
      * screens in the game, such as the main menu, the game grid, and other control panels.
+     *
+     * <p>Generations are computed by a {@link ParallelEngine}, or by a {@link VectorEngine}
+     * when the JVM is started with {@code --add-modules jdk.incubator.vector -Dgame.vector=true}.
+     * A {@link CycleDetector} stops playing once the board has stabilised, and the grid
+     * shows the {@link GenerationStats} collected by the engine. A {@link GenerationPipeline}
+     * computes the next generations while the current one is drawn, so stepping with N
+     * takes effect at once.
+     *
+     * <p>When arguments are given, no window is opened: they are passed to a
+     * {@link BatchSimulation}, which runs headless and prints a throughput summary. When
+     * the first argument is {@code soup}, the others are passed to a {@link SoupSearch},
+     * and when it is {@code sweep}, to a {@link RuleSweep}.
      * 
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments for a headless batch run, or none to open the game
      */
     public static void main(String[] args) {
-        JFrame frame = new JFrame("The Game Of Life");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(600, 600);
+        if (args.length > 0 && args[0].equals("soup")) {
+            SoupSearch.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("sweep")) {
+            RuleSweep.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0) {
+            BatchSimulation.main(args);
+            return;
+        }
+        Window.open();
+    }
+
+    /**
+     * Builds the game window. It is kept in its own class, so that a headless batch run
+     * never loads a Swing class.
+     */
+    private static final class Window {
+        /**
+         * Creates the main frame with every panel of the game and shows it.
+         */
+        static void open() {
+            JFrame frame = new JFrame("The Game Of Life");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setSize(600, 600);
 
-        frame.setLocationRelativeTo(null);
+            frame.setLocationRelativeTo(null);
 
-        BufferedMatrix<Boolean> bufferedMatrix = new BufferedMatrix<>(40,40,false);
+            BitMatrix bufferedMatrix = new BitMatrix(40,40);
 
-        CardLayoutSwitcherPanel switcher = new CardLayoutSwitcherPanel();
-        switcher.addPanel("home", new MainMenuPanel(switcher,bufferedMatrix));
-        switcher.addPanel("pause", new PauseMenuPanel(switcher,bufferedMatrix));
-        switcher.addPanel("matrixSize", new MatrixSizeMenuPanel(switcher, bufferedMatrix));
-        switcher.addPanel("grid", new ScalableGridPanel(bufferedMatrix));
-        switcher.addPanel("nextStep",new CellularAutomataPanel(new CellularAutomata(bufferedMatrix)));
-        switcher.addPanel("gameControls",new GameControlsPanel(switcher));
+            CardLayoutSwitcherPanel switcher = new CardLayoutSwitcherPanel();
+            switcher.addPanel("home", new MainMenuPanel(switcher,bufferedMatrix));
+            switcher.addPanel("pause", new PauseMenuPanel(switcher,bufferedMatrix));
+            switcher.addPanel("matrixSize", new MatrixSizeMenuPanel(switcher, bufferedMatrix));
+            CycleDetector cycleDetector = new CycleDetector(bufferedMatrix);
+            StepEngine engine = VectorEngine.isEnabled() ? new VectorEngine() : new ParallelEngine();
+            CellularAutomata cellularAutomata = new CellularAutomata(bufferedMatrix, engine);
+            cellularAutomata.setCycleDetector(cycleDetector);
+            cellularAutomata.setCollectingStatistics(true);
+            cellularAutomata.setPipelineDepth(GenerationPipeline.DEFAULT_DEPTH);
+            ScalableGridPanel grid = new ScalableGridPanel(bufferedMatrix);
+            grid.setCellularAutomata(cellularAutomata);
+            CellularAutomataPanel controls = new CellularAutomataPanel(cellularAutomata);
+            grid.setScheduler(controls.getScheduler());
+            switcher.addPanel("grid", grid);
+            switcher.addPanel("nextStep",controls);
+            switcher.addPanel("gameControls",new GameControlsPanel(switcher));
 
-        switcher.switchTo("home");
+            switcher.switchTo("home");
 
-        frame.add(switcher);
+            frame.add(switcher);
 
-        frame.setVisible(true);
+            frame.setVisible(true);
+        }
     }
 }
@@ -0,0 +1,300 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A stepping engine that only recomputes the parts of the board that can change.
+ *
+ * <p>The board is divided into tiles of {@value #TILE_ROWS} rows by one word (64
+ * columns). For every tile the engine remembers whether it changed in the
+ * previous generation; in the next generation only those tiles and their eight
+ * neighbouring tiles (wrapping around the torus, which for the other boundaries
+ * only marks a few tiles too many) are recomputed, because a cell can only
+ * change if something within one cell of it did.</p>
+ *
+ * <p>Tiles that are skipped need no copying: {@link CellularAutomata} swaps the
+ * buffers after every step, so the next buffer still holds the generation before
+ * the current one, and a tile that did not change between those two generations
+ * is already correct in it. The step cost is therefore proportional to the
+ * activity on the board rather than to its area.</p>
+ *
+ * <p>The bookkeeping is only valid while the engine is the sole writer of the
+ * matrix. If the matrix was edited, cleared, resized or loaded, or its rule or
+ * boundary was changed, since the last step, or the engine is handed a different
+ * matrix, the whole board is recomputed once.</p>
+ *
+ * <p>When statistics are collected, every recomputed tile remembers its
+ * population, which of its rows hold live cells and the OR of its words. Births
+ * and deaths can only happen in recomputed tiles, and the population and bounding
+ * box of the board are assembled from the remembered values of all tiles, so
+ * skipped tiles are not read either.</p>
+ */
+public class ActiveRegionEngine implements StepEngine {
+    /**
+     * The number of rows of a tile. A tile is one word, 64 columns, wide.
+     */
+    public static final int TILE_ROWS = 64;
+
+    /**
+     * The matrix stepped last, or null if the engine has not stepped yet.
+     */
+    private BitMatrix lastMatrix;
+
+    /**
+     * The buffer written by the last step, which becomes the current buffer after the swap.
+     */
+    private long[] lastOutput;
+
+    /**
+     * The modification count of the matrix right after the last step.
+     */
+    private long lastModificationCount;
+
+    /**
+     * The number of rows of tiles.
+     */
+    private int tileRows;
+
+    /**
+     * The number of columns of tiles.
+     */
+    private int tileCols;
+
+    /**
+     * Whether each tile changed in the last step.
+     */
+    private boolean[] changed = new boolean[0];
+
+    /**
+     * Whether each tile has to be recomputed in the current step.
+     */
+    private boolean[] active = new boolean[0];
+
+    /**
+     * The number of tiles recomputed in the last step.
+     */
+    private int activeTiles;
+
+    /**
+     * Whether statistics are collected.
+     */
+    private boolean collecting;
+
+    /**
+     * Whether the remembered statistics of the tiles describe the buffer written by the last step.
+     */
+    private boolean tileStatsValid;
+
+    /**
+     * The number of live cells of each tile.
+     */
+    private int[] tilePopulation = new int[0];
+
+    /**
+     * For each tile, bit {@code r} is set if row {@code r} of the tile holds a live cell.
+     */
+    private long[] tileRowBits = new long[0];
+
+    /**
+     * The OR of the words of each tile.
+     */
+    private long[] tileColumns = new long[0];
+
+    /**
+     * The number of births and deaths counted in the current step.
+     */
+    private long births, deaths;
+
+    /**
+     * The statistics of the generation computed by the last step, or null.
+     */
+    private volatile GenerationStats statistics;
+
+    /**
+     * Computes the next generation of the specified matrix into its next buffer,
+     * recomputing only the tiles around the ones that changed in the previous step.
+     *
+     * @param matrix the matrix to step
+     */
+    @Override
+    public void step(BitMatrix matrix) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int wordsPerRow = matrix.getWordsPerRow();
+        long[] src = matrix.getCurrentWords();
+        long[] dst = matrix.getNextWords();
+        Rule rule = matrix.getRule();
+        Boundary boundary = matrix.getBoundary();
+
+        boolean incremental = matrix == lastMatrix && src == lastOutput
+                && matrix.getModificationCount() == lastModificationCount
+                && (!collecting || tileStatsValid);
+
+        if (!incremental) {
+            tileRows = (rows + TILE_ROWS - 1) / TILE_ROWS;
+            tileCols = wordsPerRow;
+            if (changed.length != tileRows * tileCols) {
+                changed = new boolean[tileRows * tileCols];
+                active = new boolean[tileRows * tileCols];
+            }
+            if (collecting && tilePopulation.length != tileRows * tileCols) {
+                tilePopulation = new int[tileRows * tileCols];
+                tileRowBits = new long[tileRows * tileCols];
+                tileColumns = new long[tileRows * tileCols];
+            }
+            Arrays.fill(active, true);
+        } else {
+            markActiveTiles();
+        }
+
+        activeTiles = 0;
+        births = 0;
+        deaths = 0;
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            for (int w = 0; w < tileCols; w++) {
+                int tile = tileRow * tileCols + w;
+                changed[tile] = active[tile] && stepTile(rule, boundary, src, dst, rows, cols, wordsPerRow, tileRow, w);
+                if (active[tile]) activeTiles++;
+            }
+        }
+        if (collecting) statistics = summarize();
+        tileStatsValid = collecting;
+
+        lastMatrix = matrix;
+        lastOutput = dst;
+        lastModificationCount = matrix.getModificationCount();
+    }
+
+    /**
+     * Assembles the statistics of the board from the remembered statistics of the tiles.
+     *
+     * @return the statistics of the generation computed by the step
+     */
+    private GenerationStats summarize() {
+        long population = 0;
+        int minRow = -1, maxRow = -1, minCol = Integer.MAX_VALUE, maxCol = -1;
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            for (int w = 0; w < tileCols; w++) {
+                int tile = tileRow * tileCols + w;
+                if (tilePopulation[tile] == 0) continue;
+
+                population += tilePopulation[tile];
+                int first = tileRow * TILE_ROWS + Long.numberOfTrailingZeros(tileRowBits[tile]);
+                int last = tileRow * TILE_ROWS + 63 - Long.numberOfLeadingZeros(tileRowBits[tile]);
+                if (minRow < 0 || first < minRow) minRow = first;
+                maxRow = Math.max(maxRow, last);
+                minCol = Math.min(minCol, w * 64 + Long.numberOfTrailingZeros(tileColumns[tile]));
+                maxCol = Math.max(maxCol, w * 64 + 63 - Long.numberOfLeadingZeros(tileColumns[tile]));
+            }
+        }
+        return new GenerationStats(population, births, deaths, minRow, maxRow, maxCol < 0 ? -1 : minCol, maxCol);
+    }
+
+    /**
+     * Turns collecting statistics during steps on or off. Turning it on recomputes the
+     * whole board once, so that every tile has its statistics.
+     *
+     * @param collecting whether statistics should be collected
+     */
+    @Override
+    public void setCollectingStatistics(boolean collecting) {
+        this.collecting = collecting;
+        if (!collecting) statistics = null;
+    }
+
+    /**
+     * Returns the statistics of the generation computed by the last step.
+     *
+     * @return the statistics, or null if none were collected
+     */
+    @Override
+    public GenerationStats getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Marks every tile that changed in the last step, together with its eight
+     * neighbours, as active.
+     */
+    private void markActiveTiles() {
+        Arrays.fill(active, false);
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            for (int w = 0; w < tileCols; w++) {
+                if (!changed[tileRow * tileCols + w]) continue;
+
+                for (int i = -1; i <= 1; i++) {
+                    int row = (tileRow + i + tileRows) % tileRows;
+                    for (int j = -1; j <= 1; j++) {
+                        active[row * tileCols + (w + j + tileCols) % tileCols] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the next generation of a single tile.
+     *
+     * @param rule        the rule to apply
+     * @param boundary    what lies beyond the edges of the board
+     * @param src         the packed current state
+     * @param dst         the packed next state
+     * @param rows        the number of rows of the board
+     * @param cols        the number of columns of the board
+     * @param wordsPerRow the number of words per row
+     * @param tileRow     the row of the tile in the tile grid
+     * @param w           the index of the word column of the tile
+     * @return true if any cell of the tile changed
+     */
+    private boolean stepTile(Rule rule, Boundary boundary, long[] src, long[] dst, int rows, int cols,
+                             int wordsPerRow, int tileRow, int w) {
+        long difference = 0;
+        int population = 0;
+        long rowBits = 0, columns = 0;
+        int fromRow = tileRow * TILE_ROWS;
+        int toRow = Math.min(rows, fromRow + TILE_ROWS);
+        for (int row = fromRow; row < toRow; row++) {
+            int above = SwarEngine.rowOffset(boundary, row - 1, rows, wordsPerRow);
+            int middle = row * wordsPerRow;
+            int below = SwarEngine.rowOffset(boundary, row + 1, rows, wordsPerRow);
+
+            long next = SwarEngine.stepWord(rule, boundary, src, above, middle, below, w, wordsPerRow, cols);
+            long previous = src[middle + w];
+            difference |= next ^ previous;
+            dst[middle + w] = next;
+
+            if (collecting) {
+                population += Long.bitCount(next);
+                births += Long.bitCount(next & ~previous);
+                deaths += Long.bitCount(previous & ~next);
+                if (next != 0) rowBits |= 1L << (row - fromRow);
+                columns |= next;
+            }
+        }
+        if (collecting) {
+            int tile = tileRow * tileCols + w;
+            tilePopulation[tile] = population;
+            tileRowBits[tile] = rowBits;
+            tileColumns[tile] = columns;
+        }
+        return difference != 0;
+    }
+
+    /**
+     * Returns the number of tiles that were recomputed in the last step.
+     *
+     * @return the number of active tiles
+     */
+    public int getActiveTiles() {
+        return activeTiles;
+    }
+
+    /**
+     * Returns the total number of tiles of the board stepped last.
+     *
+     * @return the number of tiles
+     */
+    public int getTileCount() {
+        return tileRows * tileCols;
+    }
+}
@@ -0,0 +1,322 @@
+package game;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Runs a simulation from the command line without a window: a pattern saved as
+ * JSON is loaded, advanced by a number of generations with the chosen
+ * {@link StepEngine}, and written back out, followed by a throughput summary.
+ *
+ * <p>Only classes of the {@code game} package are used, so a batch run never
+ * initialises AWT or Swing and works on machines without a display.</p>
+ *
+ * <p>The arguments are given as {@code --name value} pairs:
+ * <ul>
+ * <li>{@code --input}: the pattern to load, as saved by the game (required)</li>
+ * <li>{@code --output}: where the final state is saved (required)</li>
+ * <li>{@code --generations}: how many generations to compute (required)</li>
+ * <li>{@code --rule}: a B/S rule such as {@code B36/S23}, or a Larger-than-Life rule
+ * such as {@code R5,C0,M1,S34..58,B34..45,NM}; defaults to the rule of the pattern</li>
+ * <li>{@code --engine}: {@code swar}, {@code parallel}, {@code active}, {@code lookup},
+ * {@code vector} or {@code blocked} for temporal blocking; defaults to
+ * {@code parallel}. Larger-than-Life rules are always played by a
+ * {@link LargerThanLifeEngine}.</li>
+ * </ul>
+ * </p>
+ */
+public final class BatchSimulation {
+    /**
+     * The usage message printed when the arguments cannot be parsed.
+     */
+    public static final String USAGE = "Usage: --input <pattern.json> --output <result.json> --generations <count>"
+            + " [--rule <B3/S23 | R1,C0,M0,S2..3,B3..3,NM>] [--engine swar|parallel|active|lookup|vector|blocked]";
+
+    /**
+     * The names of the engines that can be chosen.
+     */
+    private static final String[] ENGINES = { "swar", "parallel", "active", "lookup", "vector", "blocked" };
+
+    /**
+     * The file the pattern is loaded from.
+     */
+    private final File input;
+
+    /**
+     * The file the final state is saved to.
+     */
+    private final File output;
+
+    /**
+     * The number of generations to compute.
+     */
+    private final int generations;
+
+    /**
+     * The rule to play, or null to play the rule of the pattern.
+     */
+    private final String rule;
+
+    /**
+     * The name of the engine computing the generations.
+     */
+    private final String engine;
+
+    /**
+     * Constructs a batch simulation.
+     *
+     * @param input       the file the pattern is loaded from
+     * @param output      the file the final state is saved to
+     * @param generations the number of generations to compute
+     * @param rule        the B/S or Larger-than-Life rule to play, or null for the rule of the pattern
+     * @param engine      the name of the engine, one of {@code swar}, {@code parallel},
+     *                    {@code active}, {@code lookup}, {@code vector} and {@code blocked}
+     * @throws IllegalArgumentException if the generation count, rule or engine is invalid
+     */
+    public BatchSimulation(File input, File output, int generations, String rule, String engine) {
+        if (generations < 0) throw new IllegalArgumentException("Invalid generation count.");
+        if (!Arrays.asList(ENGINES).contains(engine)) throw new IllegalArgumentException("Unknown engine: " + engine + ".");
+        if (rule != null) {
+            if (isLargerThanLife(rule)) {
+                LargerThanLifeRule.parse(rule);
+            } else {
+                Rule.parse(rule);
+            }
+        }
+        this.input = input;
+        this.output = output;
+        this.generations = generations;
+        this.rule = rule;
+        this.engine = engine;
+    }
+
+    /**
+     * Parses the command-line arguments of a batch simulation.
+     *
+     * @param args the arguments, as {@code --name value} pairs
+     * @return the simulation described by the arguments
+     * @throws IllegalArgumentException if an argument is missing, unknown or invalid
+     */
+    public static BatchSimulation parse(String[] args) {
+        File input = null;
+        File output = null;
+        String generations = null;
+        String rule = null;
+        String engine = "parallel";
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value of " + args[i] + ".");
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--input" -> input = new File(value);
+                case "--output" -> output = new File(value);
+                case "--generations" -> generations = value;
+                case "--rule" -> rule = value;
+                case "--engine" -> engine = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i] + ".");
+            }
+        }
+
+        if (input == null || output == null || generations == null) throw new IllegalArgumentException("Missing option.");
+        if (!input.isFile()) throw new IllegalArgumentException("Missing input file: " + input + ".");
+        try {
+            return new BatchSimulation(input, output, Integer.parseInt(generations), rule, engine);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid generation count.", e);
+        }
+    }
+
+    /**
+     * Returns whether the specified rule is written in Larger-than-Life notation.
+     *
+     * @param rule the rule
+     * @return true if the rule starts with its range
+     */
+    private static boolean isLargerThanLife(String rule) {
+        return rule.startsWith("R") || rule.startsWith("r");
+    }
+
+    /**
+     * Creates the engine chosen for the simulation.
+     *
+     * @return the engine
+     */
+    private StepEngine createEngine() {
+        if (rule != null && isLargerThanLife(rule)) return new LargerThanLifeEngine(LargerThanLifeRule.parse(rule));
+        return switch (engine) {
+            case "parallel" -> new ParallelEngine();
+            case "active" -> new ActiveRegionEngine();
+            case "lookup" -> new LookupTableEngine();
+            case "vector" -> new VectorEngine();
+            default -> new SwarEngine();
+        };
+    }
+
+    /**
+     * Loads the pattern, computes the generations, saves the final state and returns
+     * how long the generations took. Loading and saving are not timed. A
+     * Larger-than-Life rule is saved next to the B/S rule of the pattern, which it
+     * leaves unchanged.
+     *
+     * @return the summary of the run
+     * @throws UncheckedIOException if the pattern cannot be loaded or the result cannot be saved
+     */
+    public Summary run() {
+        BitMatrix matrix = new BitMatrix(1, 1);
+        try {
+            matrix.readJson(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (rule != null && !isLargerThanLife(rule)) matrix.setRule(Rule.parse(rule));
+
+        StepEngine stepEngine = createEngine();
+        CellularAutomata automata = new CellularAutomata(matrix, stepEngine);
+        automata.setCollectingStatistics(true);
+        long start = System.nanoTime();
+        if (engine.equals("blocked")) {
+            automata.next(generations);
+        } else {
+            for (int generation = 0; generation < generations; generation++) {
+                automata.next();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (stepEngine instanceof ParallelEngine parallel) parallel.shutdown();
+
+        try {
+            matrix.writeJson(output, rule != null && isLargerThanLife(rule) ? rule : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        GenerationStats statistics = generations > 0 ? automata.getStatistics() : GenerationStats.of(matrix);
+        return new Summary(generations, (long) matrix.getSizeX() * matrix.getSizeY(), elapsed, statistics.getPopulation());
+    }
+
+    /**
+     * Runs a batch simulation described by the command-line arguments and prints its
+     * summary. Invalid arguments print the usage and exit with status 2, and a pattern
+     * that cannot be loaded or a result that cannot be saved exits with status 1.
+     *
+     * @param args the arguments, as {@code --name value} pairs
+     */
+    public static void main(String[] args) {
+        BatchSimulation simulation;
+        try {
+            simulation = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            System.out.println(simulation.run());
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getCause().getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The outcome of a batch simulation: how many generations of how many cells were
+     * computed, and how long it took.
+     */
+    public static final class Summary {
+        /**
+         * The number of generations computed.
+         */
+        private final int generations;
+
+        /**
+         * The number of cells of the board.
+         */
+        private final long cells;
+
+        /**
+         * The time the generations took, in nanoseconds.
+         */
+        private final long nanos;
+
+        /**
+         * The number of live cells in the final state.
+         */
+        private final long population;
+
+        /**
+         * Constructs a summary.
+         *
+         * @param generations the number of generations computed
+         * @param cells       the number of cells of the board
+         * @param nanos       the time the generations took, in nanoseconds
+         * @param population  the number of live cells in the final state
+         */
+        Summary(int generations, long cells, long nanos, long population) {
+            this.generations = generations;
+            this.cells = cells;
+            this.nanos = nanos;
+            this.population = population;
+        }
+
+        /**
+         * Returns the number of generations computed.
+         *
+         * @return the number of generations
+         */
+        public int getGenerations() {
+            return generations;
+        }
+
+        /**
+         * Returns the number of live cells in the final state.
+         *
+         * @return the final population
+         */
+        public long getPopulation() {
+            return population;
+        }
+
+        /**
+         * Returns the time the generations took.
+         *
+         * @return the elapsed time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the number of generations computed per second.
+         *
+         * @return the generations per second
+         */
+        public double getGenerationsPerSecond() {
+            return generations * 1e9 / Math.max(1, nanos);
+        }
+
+        /**
+         * Returns the number of cell updates per second.
+         *
+         * @return the cells per second
+         */
+        public double getCellsPerSecond() {
+            return getGenerationsPerSecond() * cells;
+        }
+
+        /**
+         * Returns a one-line description of the run.
+         *
+         * @return the summary
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d generations of %d cells in %.3f s: %.1f generations/s, %.3e cells/s, population %d",
+                    generations, cells, nanos / 1e9, getGenerationsPerSecond(), getCellsPerSecond(), population);
+        }
+    }
+}
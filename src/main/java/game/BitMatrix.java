@@ -0,0 +1,453 @@
+package game;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A bit-packed {@link BufferedMatrix} of Boolean values. Every cell occupies a
+ * single bit: a row is stored as {@code ceil(y / 64)} consecutive {@code long}
+ * words, and the rows are laid out one after another in a single flat array per
+ * buffer (row-major order).
+ *
+ * <p>Cell {@code (x, y)} lives in word {@code x * wordsPerRow + (y >>> 6)} at bit
+ * {@code y & 63}. The bits past the last column of each row are padding and are
+ * always kept at zero, so that stepping engines can operate on whole words.</p>
+ *
+ * <p>The class keeps the get/update/set/next/clear/changeSize contract of
+ * {@link BufferedMatrix}, and saves to and loads from the same JSON layout, so
+ * games saved with either representation can be loaded by both.</p>
+ */
+public class BitMatrix extends BufferedMatrix<Boolean> {
+    /**
+     * The number of {@code long} words used to store a single row.
+     */
+    private int wordsPerRow;
+
+    /**
+     * The current state of the matrix, packed 64 cells per word.
+     */
+    private long[] currentWords;
+
+    /**
+     * The next state of the matrix, packed 64 cells per word.
+     */
+    private long[] nextWords;
+
+    /**
+     * A counter incremented whenever the cells change other than by {@link #swap()}. It is
+     * volatile so that other threads can tell whether a snapshot of the cells is out of date.
+     */
+    private volatile long modificationCount;
+
+    /**
+     * Constructs a new BitMatrix with the specified dimensions, with every cell dead.
+     *
+     * @param x the number of rows in the matrix
+     * @param y the number of columns in the matrix
+     */
+    public BitMatrix(int x, int y) {
+        super(x, y);
+        allocate(x, y);
+    }
+
+    /**
+     * Allocates both buffers for a matrix of the specified dimensions.
+     *
+     * @param x the number of rows
+     * @param y the number of columns
+     */
+    private void allocate(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.wordsPerRow = wordsPerRow(y);
+        this.currentWords = new long[x * wordsPerRow];
+        this.nextWords = new long[x * wordsPerRow];
+        this.modificationCount++;
+    }
+
+    /**
+     * Returns the number of words needed to store a row of the specified width.
+     *
+     * @param y the number of columns
+     * @return the number of words per row
+     */
+    public static int wordsPerRow(int y) {
+        return (y + 63) >>> 6;
+    }
+
+    /**
+     * Returns the mask of the valid bits in the last word of a row of the specified width.
+     *
+     * @param y the number of columns
+     * @return the mask of the bits that belong to real cells
+     */
+    public static long lastWordMask(int y) {
+        return -1L >>> (-y & 63);
+    }
+
+    /**
+     * Retrieves the value at the specified position in the current matrix.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return the value at the specified position
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    @Override
+    public Boolean get(int x, int y) {
+        return isAlive(x, y);
+    }
+
+    /**
+     * Retrieves the value at the specified position in the current matrix without boxing.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return true if the cell is alive
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    public boolean isAlive(int x, int y) {
+        validateIndices(x, y);
+        return (currentWords[x * wordsPerRow + (y >>> 6)] & (1L << y)) != 0;
+    }
+
+    /**
+     * Updates the value at the specified position in the current matrix.
+     *
+     * @param x     the row index
+     * @param y     the column index
+     * @param value the new value to set
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    @Override
+    public void update(int x, int y, Boolean value) {
+        validateIndices(x, y);
+        writeBit(currentWords, x, y, value);
+    }
+
+    /**
+     * Sets a value at the specified position in the next matrix.
+     *
+     * @param x     the row index
+     * @param y     the column index
+     * @param value the value to set
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    @Override
+    public void set(int x, int y, Boolean value) {
+        validateIndices(x, y);
+        writeBit(nextWords, x, y, value);
+    }
+
+    /**
+     * Writes a single bit of the specified buffer.
+     *
+     * @param words the buffer to write
+     * @param x     the row index
+     * @param y     the column index
+     * @param value the value of the bit
+     */
+    private void writeBit(long[] words, int x, int y, boolean value) {
+        modificationCount++;
+        int index = x * wordsPerRow + (y >>> 6);
+        if (value) {
+            words[index] |= 1L << y;
+        } else {
+            words[index] &= ~(1L << y);
+        }
+    }
+
+    /**
+     * Advances the current matrix to the next state and clears the next matrix.
+     * The two buffers are swapped and reused, so no memory is allocated.
+     */
+    @Override
+    public void next() {
+        swap();
+        Arrays.fill(nextWords, 0L);
+        modificationCount++;
+    }
+
+    /**
+     * Advances the current matrix to the next state without clearing the next matrix,
+     * which is left holding the previous generation. Intended for stepping engines that
+     * overwrite every word of the next buffer anyway.
+     */
+    public void swap() {
+        long[] previous = currentWords;
+        currentWords = nextWords;
+        nextWords = previous;
+    }
+
+    /**
+     * Advances the current matrix to the specified state as if it had been computed into
+     * the next buffer and swapped in: the words become the current state without being
+     * copied, and the next buffer is left holding the previous generation. The buffer
+     * that is no longer used is returned, so that it can be filled again.
+     *
+     * @param words the packed words of the next generation, owned by the matrix afterwards
+     * @return the buffer the matrix let go of
+     * @throws IllegalArgumentException if the number of words does not match the matrix size
+     */
+    long[] swap(long[] words) {
+        if (words.length != currentWords.length) throw new IllegalArgumentException("Invalid matrix size.");
+        long[] recycled = nextWords;
+        nextWords = currentWords;
+        currentWords = words;
+        return recycled;
+    }
+
+    /**
+     * Replaces the current state with a copy of the specified packed words, laid out
+     * like {@link #getCurrentWords()}.
+     *
+     * @param words the packed words of the new state
+     * @throws IllegalArgumentException if the number of words does not match the matrix size
+     */
+    public void loadWords(long[] words) {
+        if (words.length != currentWords.length) throw new IllegalArgumentException("Invalid matrix size.");
+        System.arraycopy(words, 0, currentWords, 0, words.length);
+        modificationCount++;
+    }
+
+    /**
+     * Records that the cells were changed by something other than a single step, so
+     * that engines keeping state between generations start over.
+     */
+    void markModified() {
+        modificationCount++;
+    }
+
+    /**
+     * Clears both the current and next matrices, resetting every cell to dead.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(currentWords, 0L);
+        Arrays.fill(nextWords, 0L);
+        modificationCount++;
+    }
+
+    /**
+     * Changes the size of the matrix to the specified dimensions, clearing the current
+     * and next matrices.
+     *
+     * @param x the new number of rows
+     * @param y the new number of columns
+     * @throws IndexOutOfBoundsException if the new size is less than 1
+     */
+    @Override
+    public void changeSize(int x, int y) {
+        if (x < 1 || y < 1) throw new IndexOutOfBoundsException("Invalid matrix size.");
+        allocate(x, y);
+    }
+
+    /**
+     * Sets the rule of the game played on the matrix. Changing the rule counts as a
+     * modification, since the next generation no longer follows from the last one.
+     *
+     * @param rule the new rule
+     */
+    @Override
+    public void setRule(Rule rule) {
+        super.setRule(rule);
+        modificationCount++;
+    }
+
+    /**
+     * Sets what lies beyond the edges of the matrix. Changing the boundary counts as a
+     * modification, since the next generation no longer follows from the last one.
+     *
+     * @param boundary the new boundary
+     */
+    @Override
+    public void setBoundary(Boundary boundary) {
+        super.setBoundary(boundary);
+        modificationCount++;
+    }
+
+    /**
+     * Returns the number of words used to store a single row.
+     *
+     * @return the number of words per row
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Returns a counter that is incremented whenever cells are changed by anything other
+     * than {@link #swap()}: edits, clearing, resizing, loading, rule and boundary
+     * changes and {@link #next()}. Engines that keep state between generations use it
+     * to detect outside changes.
+     *
+     * @return the modification counter
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Returns the packed words of the current state. The array is owned by the matrix
+     * and is replaced whenever the matrix advances or changes size.
+     *
+     * @return the words of the current state
+     */
+    public long[] getCurrentWords() {
+        return currentWords;
+    }
+
+    /**
+     * Returns the packed words of the next state. The array is owned by the matrix
+     * and is replaced whenever the matrix advances or changes size.
+     *
+     * @return the words of the next state
+     */
+    public long[] getNextWords() {
+        return nextWords;
+    }
+
+    /**
+     * Serializes the current state of the matrix to a JSON file, using the same layout
+     * as {@link BufferedMatrix#toJson(File)}. The cells are streamed straight from the
+     * packed words, without building an intermediate Boolean matrix.
+     *
+     * @param file the file to which the matrix should be saved
+     */
+    @Override
+    public void toJson(File file) {
+        try {
+            writeJson(file, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Serializes the current state of the matrix to a JSON file like {@link #toJson(File)},
+     * but reports a failure to the caller.
+     *
+     * @param file               the file to which the matrix should be saved
+     * @param largerThanLifeRule the Larger-than-Life rule the cells were played by, saved
+     *                           next to the B/S rule of the matrix, or null
+     * @throws IOException if the file cannot be written
+     */
+    void writeJson(File file, String largerThanLifeRule) throws IOException {
+        try (JsonWriter writer = new JsonWriter(new FileWriter(file))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("x").value(x);
+            writer.name("y").value(y);
+            writer.name("currentMatrix");
+            writer.beginArray();
+            for (int i = 0; i < x; i++) {
+                writer.beginArray();
+                for (int j = 0; j < y; j++) {
+                    writer.value((currentWords[i * wordsPerRow + (j >>> 6)] & (1L << j)) != 0);
+                }
+                writer.endArray();
+            }
+            writer.endArray();
+            writer.name("defaultValue").value(false);
+            writer.name("rule").value(getRule().toString());
+            writer.name("boundary").value(getBoundary().name());
+            if (largerThanLifeRule != null) writer.name("largerThanLifeRule").value(largerThanLifeRule);
+            writer.endObject();
+        }
+    }
+
+    /**
+     * Deserializes the matrix state from a JSON file written by either
+     * {@link BufferedMatrix#toJson(File)} or {@link #toJson(File)}, updating the current
+     * instance. The cells are packed while they are read.
+     *
+     * @param file the file from which to load the matrix
+     */
+    @Override
+    public void fromJson(File file) {
+        try {
+            readJson(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Deserializes the matrix state from a JSON file like {@link #fromJson(File)}, but
+     * reports a failure to the caller. The matrix is left unchanged if the file cannot
+     * be loaded.
+     *
+     * @param file the file from which to load the matrix
+     * @throws IOException if the file cannot be read or does not hold a valid matrix
+     */
+    void readJson(File file) throws IOException {
+        try (JsonReader reader = new JsonReader(new FileReader(file))) {
+            int rows = -1;
+            int cols = -1;
+            Rule rule = Rule.CONWAY;
+            Boundary boundary = Boundary.TORUS;
+            List<long[]> packedRows = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "x" -> rows = reader.nextInt();
+                    case "y" -> cols = reader.nextInt();
+                    case "currentMatrix" -> readRows(reader, packedRows);
+                    case "rule" -> rule = Rule.parse(reader.nextString());
+                    case "boundary" -> boundary = Boundary.valueOf(reader.nextString());
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (rows < 1 || cols < 1) throw new IOException("Missing matrix size.");
+            allocate(rows, cols);
+            setRule(rule);
+            setBoundary(boundary);
+
+            for (int i = 0; i < Math.min(rows, packedRows.size()); i++) {
+                long[] row = packedRows.get(i);
+                int length = Math.min(row.length, wordsPerRow);
+                System.arraycopy(row, 0, currentWords, i * wordsPerRow, length);
+                currentWords[(i + 1) * wordsPerRow - 1] &= lastWordMask(cols);
+            }
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new IOException("Invalid matrix file: " + file + ".", e);
+        }
+    }
+
+    /**
+     * Reads the rows of a JSON cell matrix, packing every row into words.
+     *
+     * @param reader the reader positioned at the start of the matrix array
+     * @param rows   the list that receives the packed rows
+     * @throws IOException if the JSON cannot be read
+     */
+    static void readRows(JsonReader reader, List<long[]> rows) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            long[] row = new long[1];
+            int column = 0;
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if ((column >>> 6) == row.length) row = Arrays.copyOf(row, row.length * 2);
+                if (reader.nextBoolean()) row[column >>> 6] |= 1L << column;
+                column++;
+            }
+            reader.endArray();
+
+            rows.add(row);
+        }
+        reader.endArray();
+    }
+}
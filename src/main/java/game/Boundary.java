@@ -0,0 +1,53 @@
+package game;
+
+/**
+ * What lies beyond the edges of a fixed-size board.
+ *
+ * <p>Stepping code handles the interior of the board, where every neighbour
+ * exists, without consulting the boundary at all, and only asks the boundary
+ * about the outer ring of cells. {@link #map(int, int)} resolves a row or column
+ * index that may fall one or more cells outside the board.</p>
+ */
+public enum Boundary {
+    /**
+     * The board wraps around: the row above the first row is the last row, and the
+     * column left of the first column is the last column.
+     */
+    TORUS {
+        @Override
+        public int map(int index, int size) {
+            return Math.floorMod(index, size);
+        }
+    },
+
+    /**
+     * Everything beyond the edges is dead.
+     */
+    DEAD {
+        @Override
+        public int map(int index, int size) {
+            return index >= 0 && index < size ? index : -1;
+        }
+    },
+
+    /**
+     * The board is mirrored at its edges, so the row above the first row is the first
+     * row itself, the row above that the second row, and so on.
+     */
+    MIRROR {
+        @Override
+        public int map(int index, int size) {
+            int period = Math.floorMod(index, 2 * size);
+            return period < size ? period : 2 * size - 1 - period;
+        }
+    };
+
+    /**
+     * Resolves a row or column index against the boundary.
+     *
+     * @param index the index, which may lie outside the board
+     * @param size  the number of rows or columns of the board
+     * @return the index of the cell standing in for it, or -1 if the cell is dead
+     */
+    public abstract int map(int index, int size);
+}
@@ -20,12 +20,12 @@ public class BufferedMatrix<T> {
     /**
      * The number of rows in the matrix.
      */
-    private int x;
+    protected int x;
 
     /**
      * The number of columns in the matrix.
      */
-    private int y;
+    protected int y;
 
     /**
      * The current state of the matrix.
@@ -42,6 +42,23 @@ public class BufferedMatrix<T> {
      */
     private T defaultValue;
 
+    /**
+     * The rule of the game played on the matrix, in B/S notation. It is saved with the
+     * matrix; files without it are played with Conway's Game of Life.
+     */
+    private String rule = Rule.CONWAY.toString();
+
+    /**
+     * The compiled form of {@link #rule}.
+     */
+    private transient Rule compiledRule = Rule.CONWAY;
+
+    /**
+     * What lies beyond the edges of the matrix. It is saved with the matrix; files
+     * without it wrap around like a torus.
+     */
+    private Boundary boundary = Boundary.TORUS;
+
     /**
      * Constructs a new BufferedMatrix with the specified dimensions and default value.
      *
@@ -59,6 +76,19 @@ public class BufferedMatrix<T> {
         fillMatrix(nextMatrix, defaultValue);
     }
 
+    /**
+     * Constructs a BufferedMatrix with the specified dimensions without allocating
+     * the generic storage. Intended for subclasses that keep the cells in their own
+     * representation and override every accessor.
+     *
+     * @param x the number of rows in the matrix
+     * @param y the number of columns in the matrix
+     */
+    protected BufferedMatrix(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
     /**
      * Fills the specified matrix with the given value.
      *
@@ -78,7 +108,7 @@ public class BufferedMatrix<T> {
      * @param y the column index
      * @throws IndexOutOfBoundsException if the indices are out of bounds
      */
-    private void validateIndices(int x, int y) {
+    protected void validateIndices(int x, int y) {
         if (x < 0 || x >= this.x || y < 0 || y >= this.y) {
             throw new IndexOutOfBoundsException("Invalid matrix indices.");
         }
@@ -125,10 +155,12 @@ public class BufferedMatrix<T> {
 
     /**
      * Advances the current matrix to the next state and clears the next matrix.
+     * The two buffers are swapped and reused, so no memory is allocated.
      */
     public void next() {
+        T[][] previousMatrix = currentMatrix;
         currentMatrix = nextMatrix;
-        nextMatrix = (T[][]) new Object[this.x][this.y];
+        nextMatrix = previousMatrix;
         fillMatrix(nextMatrix, defaultValue);
     }
 
@@ -176,6 +208,43 @@ public class BufferedMatrix<T> {
         return y;
     }
 
+    /**
+     * Returns the rule of the game played on the matrix.
+     *
+     * @return the rule, Conway's Game of Life unless another one was set or loaded
+     */
+    public Rule getRule() {
+        return compiledRule;
+    }
+
+    /**
+     * Sets the rule of the game played on the matrix.
+     *
+     * @param rule the new rule
+     */
+    public void setRule(Rule rule) {
+        this.rule = rule.toString();
+        this.compiledRule = rule;
+    }
+
+    /**
+     * Returns what lies beyond the edges of the matrix.
+     *
+     * @return the boundary, {@link Boundary#TORUS} unless another one was set or loaded
+     */
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    /**
+     * Sets what lies beyond the edges of the matrix.
+     *
+     * @param boundary the new boundary
+     */
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+    }
+
     /**
      * Serializes the current state of the matrix to a JSON file.
      *
@@ -202,6 +271,8 @@ public class BufferedMatrix<T> {
         Gson gson = new GsonBuilder().create();
         try (FileReader reader = new FileReader(file)) {
             BufferedMatrix<T> matrix = gson.fromJson(reader,BufferedMatrix.class);
+            setRule(matrix.rule == null ? Rule.CONWAY : Rule.parse(matrix.rule));
+            setBoundary(matrix.boundary == null ? Boundary.TORUS : matrix.boundary);
             this.x = matrix.x;
             this.y = matrix.y;
             this.defaultValue = matrix.defaultValue;
@@ -214,7 +285,7 @@ public class BufferedMatrix<T> {
                     this.currentMatrix[i][j] = matrix.currentMatrix[i][j];
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             e.printStackTrace();
         }
     }
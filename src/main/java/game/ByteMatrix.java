@@ -0,0 +1,354 @@
+package game;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A double-buffered matrix of multi-state cells, one byte per cell, for
+ * {@link GenerationsRule Generations} rules. Cell {@code (x, y)} is stored at
+ * index {@code x * sizeY + y} of a flat array per buffer (row-major order); a
+ * state is read as an unsigned byte, so up to 256 states fit.
+ *
+ * <p>The matrix holds the rule of the game played on it and its {@link Boundary},
+ * and saves both together with the cells. Saves use the layout of {@link BufferedMatrix#toJson(File)}
+ * with numeric cells, and boolean saves of two-state games load as well.</p>
+ */
+public class ByteMatrix {
+    /**
+     * The number of rows in the matrix.
+     */
+    private int x;
+
+    /**
+     * The number of columns in the matrix.
+     */
+    private int y;
+
+    /**
+     * The current state of the matrix.
+     */
+    private byte[] currentCells;
+
+    /**
+     * The next state of the matrix.
+     */
+    private byte[] nextCells;
+
+    /**
+     * The rule of the game played on the matrix.
+     */
+    private GenerationsRule rule = GenerationsRule.BRIANS_BRAIN;
+
+    /**
+     * What lies beyond the edges of the matrix.
+     */
+    private Boundary boundary = Boundary.TORUS;
+
+    /**
+     * Constructs a new ByteMatrix with the specified dimensions, with every cell dead,
+     * played with Brian's Brain until another rule is set.
+     *
+     * @param x the number of rows in the matrix
+     * @param y the number of columns in the matrix
+     */
+    public ByteMatrix(int x, int y) {
+        allocate(x, y);
+    }
+
+    /**
+     * Allocates both buffers for the specified dimensions, with every cell dead.
+     *
+     * @param x the number of rows
+     * @param y the number of columns
+     */
+    private void allocate(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.currentCells = new byte[x * y];
+        this.nextCells = new byte[x * y];
+    }
+
+    /**
+     * Validates the specified indices to ensure they are within the matrix bounds.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    private void validateIndices(int x, int y) {
+        if (x < 0 || x >= this.x || y < 0 || y >= this.y) {
+            throw new IndexOutOfBoundsException("Invalid matrix indices.");
+        }
+    }
+
+    /**
+     * Returns the state of the cell at the specified position in the current matrix.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return the state of the cell, 0 for dead and 1 for alive
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    public int get(int x, int y) {
+        validateIndices(x, y);
+        return currentCells[x * this.y + y] & 0xFF;
+    }
+
+    /**
+     * Updates the state of the cell at the specified position in the current matrix.
+     *
+     * @param x     the row index
+     * @param y     the column index
+     * @param state the new state of the cell
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     * @throws IllegalArgumentException  if the state is not a state of the rule
+     */
+    public void update(int x, int y, int state) {
+        validateIndices(x, y);
+        if (state < 0 || state >= rule.getStates()) throw new IllegalArgumentException("Invalid cell state.");
+        currentCells[x * this.y + y] = (byte) state;
+    }
+
+    /**
+     * Swaps the current and next buffers, making the next state current. The old
+     * current buffer is not cleared, since a step overwrites every cell of it.
+     */
+    public void swap() {
+        byte[] previous = currentCells;
+        currentCells = nextCells;
+        nextCells = previous;
+    }
+
+    /**
+     * Clears both the current and next matrices, resetting every cell to dead.
+     */
+    public void clear() {
+        Arrays.fill(currentCells, (byte) 0);
+        Arrays.fill(nextCells, (byte) 0);
+    }
+
+    /**
+     * Changes the size of the matrix to the specified dimensions, clearing the current
+     * and next matrices.
+     *
+     * @param x the new number of rows
+     * @param y the new number of columns
+     * @throws IndexOutOfBoundsException if the new size is less than 1
+     */
+    public void changeSize(int x, int y) {
+        if (x < 1 || y < 1) throw new IndexOutOfBoundsException("Invalid matrix size.");
+        allocate(x, y);
+    }
+
+    /**
+     * Returns the current number of rows in the matrix.
+     *
+     * @return the number of rows
+     */
+    public int getSizeX() {
+        return x;
+    }
+
+    /**
+     * Returns the current number of columns in the matrix.
+     *
+     * @return the number of columns
+     */
+    public int getSizeY() {
+        return y;
+    }
+
+    /**
+     * Returns the rule of the game played on the matrix.
+     *
+     * @return the rule
+     */
+    public GenerationsRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Sets the rule of the game played on the matrix. Cells in a state the new rule
+     * does not have are killed.
+     *
+     * @param rule the new rule
+     */
+    public void setRule(GenerationsRule rule) {
+        this.rule = rule;
+        for (int i = 0; i < currentCells.length; i++) {
+            if ((currentCells[i] & 0xFF) >= rule.getStates()) currentCells[i] = 0;
+        }
+    }
+
+    /**
+     * Returns what lies beyond the edges of the matrix.
+     *
+     * @return the boundary, {@link Boundary#TORUS} unless another one was set or loaded
+     */
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    /**
+     * Sets what lies beyond the edges of the matrix.
+     *
+     * @param boundary the new boundary
+     */
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+    }
+
+    /**
+     * Returns the cells of the current state. The array is owned by the matrix and is
+     * replaced whenever the matrix advances or changes size.
+     *
+     * @return the cells of the current state
+     */
+    public byte[] getCurrentCells() {
+        return currentCells;
+    }
+
+    /**
+     * Returns the cells of the next state, which a step overwrites entirely.
+     *
+     * @return the cells of the next state
+     */
+    public byte[] getNextCells() {
+        return nextCells;
+    }
+
+    /**
+     * Serializes the current state of the matrix, its rule and its boundary to a JSON file.
+     *
+     * @param file the file to which the matrix should be saved
+     */
+    public void toJson(File file) {
+        try (JsonWriter writer = new JsonWriter(new FileWriter(file))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("x").value(x);
+            writer.name("y").value(y);
+            writer.name("currentMatrix");
+            writer.beginArray();
+            for (int i = 0; i < x; i++) {
+                writer.beginArray();
+                for (int j = 0; j < y; j++) {
+                    writer.value(currentCells[i * y + j] & 0xFF);
+                }
+                writer.endArray();
+            }
+            writer.endArray();
+            writer.name("defaultValue").value(0);
+            writer.name("rule").value(rule.toString());
+            writer.name("boundary").value(boundary.name());
+            writer.endObject();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Deserializes the matrix state, its rule and its boundary from a JSON file written
+     * by {@link #toJson(File)} or by a Boolean matrix, updating the current instance.
+     * Files without a rule are played with Conway's Game of Life, and files without a
+     * boundary on a torus.
+     *
+     * @param file the file from which to load the matrix
+     */
+    public void fromJson(File file) {
+        try (JsonReader reader = new JsonReader(new FileReader(file))) {
+            int rows = -1;
+            int cols = -1;
+            GenerationsRule rule = new GenerationsRule(Rule.CONWAY, 2);
+            Boundary boundary = Boundary.TORUS;
+            List<int[]> cellRows = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "x" -> rows = reader.nextInt();
+                    case "y" -> cols = reader.nextInt();
+                    case "currentMatrix" -> readRows(reader, cellRows);
+                    case "rule" -> rule = GenerationsRule.parse(reader.nextString());
+                    case "boundary" -> boundary = Boundary.valueOf(reader.nextString());
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (rows < 1 || cols < 1) throw new IOException("Missing matrix size.");
+            allocate(rows, cols);
+            this.rule = rule;
+            this.boundary = boundary;
+
+            for (int i = 0; i < Math.min(rows, cellRows.size()); i++) {
+                int[] row = cellRows.get(i);
+                for (int j = 0; j < Math.min(cols, row.length); j++) {
+                    if (row[j] > 0 && row[j] < rule.getStates()) currentCells[i * cols + j] = (byte) row[j];
+                }
+            }
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the rows of a JSON cell matrix, accepting numeric states as well as
+     * booleans, which stand for alive and dead.
+     *
+     * @param reader the reader positioned at the start of the matrix array
+     * @param rows   the list that receives the rows
+     * @throws IOException if the JSON cannot be read
+     */
+    private static void readRows(JsonReader reader, List<int[]> rows) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int[] row = new int[8];
+            int column = 0;
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (column == row.length) row = Arrays.copyOf(row, row.length * 2);
+                row[column++] = reader.peek() == JsonToken.BOOLEAN ? (reader.nextBoolean() ? 1 : 0) : reader.nextInt();
+            }
+            reader.endArray();
+
+            rows.add(Arrays.copyOf(row, column));
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads the rule saved in a JSON file without loading the cells.
+     *
+     * @param file the file to read
+     * @return the saved rule, Conway's Game of Life if the file has none, or null if
+     *         the file cannot be read
+     */
+    public static GenerationsRule readRule(File file) {
+        try (JsonReader reader = new JsonReader(new FileReader(file))) {
+            GenerationsRule rule = new GenerationsRule(Rule.CONWAY, 2);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("rule")) {
+                    rule = GenerationsRule.parse(reader.nextString());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            return rule;
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package game;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
 /**
  * The {@code CellularAutomata} class represents a cellular automaton system,
- * where each cell can be either alive or dead. This class implements the rules
- * of Conway's Game of Life on a 2D matrix of boolean values.
+ * where each cell can be either alive or dead. This class implements Life-like
+ * rules on a 2D matrix of boolean values.
  * 
  * <p>
  * The state of the cells is updated in discrete time steps, where the next 
@@ -11,15 +16,46 @@ package game;
  * </p>
  *
  * <p>
- * The rules for updating the state of each cell are as follows:
+ * The rule is the {@link Rule} of the matrix, Conway's Game of Life (B3/S23)
+ * unless another one was set:
  * <ul>
  * <li>Any live cell with two or three live neighbors survives.</li>
  * <li>Any dead cell with exactly three live neighbors becomes a live cell.</li>
  * <li>All other live cells die in the next generation. Similarly, all other dead cells remain dead.</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * When the matrix is a {@link BitMatrix}, generations are computed by a
+ * {@link StepEngine} working on the packed words, and an {@link OffHeapBitMatrix}
+ * is streamed through the same engine band by band; any other matrix is stepped
+ * cell by cell. When an unbounded {@link ChunkedUniverse} or a multi-state
+ * {@link GenerationsAutomata} is attached, it is stepped instead of the matrix.
+ * An attached {@link CycleDetector} lets a bit-packed board that has settled into
+ * still lifes and oscillators be advanced without computing generations.
+ * </p>
+ *
+ * <p>
+ * With a {@link GenerationPipeline}, the generations of a bit-packed board are
+ * computed ahead on a worker thread while the current one is drawn, and a step
+ * only swaps in the next one, so single steps take effect at once.
+ * </p>
+ *
+ * <p>
+ * The automaton is usually stepped on one thread while the board is drawn and
+ * edited on another. Generations are computed and edits are applied one at a
+ * time, and completed generations are published as immutable {@link Snapshot}s,
+ * so the renderer always draws a whole generation and never holds up a step.
+ * </p>
+ *
+ * <p>
+ * What lies beyond the edges is the {@link Boundary} of the matrix. Cells in the
+ * interior of the board count their neighbors directly, and only the outer ring
+ * of cells asks the boundary.
+ * </p>
  * 
  * @see BufferedMatrix
+ * @see StepEngine
  */
 public class CellularAutomata {
     
@@ -30,13 +66,261 @@ public class CellularAutomata {
     private final BufferedMatrix<Boolean> matrix;
 
     /**
-     * Constructs a {@code CellularAutomata} instance with the specified matrix.
+     * The engine used to step the matrix when it is a {@link BitMatrix}.
+     */
+    private StepEngine engine;
+
+    /**
+     * The unbounded universe stepped instead of the matrix, or null to step the matrix.
+     */
+    private volatile ChunkedUniverse universe;
+
+    /**
+     * The multi-state automaton stepped instead of the matrix, or null to step the matrix.
+     */
+    private volatile GenerationsAutomata generations;
+
+    /**
+     * The detector told about every step of a bit-packed matrix, or null.
+     */
+    private volatile CycleDetector cycleDetector;
+
+    /**
+     * Whether the engine collects statistics about the generations it computes.
+     */
+    private boolean collectingStatistics;
+
+    /**
+     * Computes the generations of a bit-packed matrix ahead of time, or null to compute
+     * them when asked for.
+     */
+    private volatile GenerationPipeline pipeline;
+
+    /**
+     * Advances bit-packed matrices several generations at a time.
+     */
+    private final TemporalBlocking temporalBlocking = new TemporalBlocking();
+
+    /**
+     * Held while a generation is computed or an edit is applied, so that the two never
+     * overlap. Readers of snapshots never take it.
+     */
+    private final ReentrantLock stepLock = new ReentrantLock();
+
+    /**
+     * The edits waiting for the generation being computed to complete, bound to the
+     * board they change.
+     */
+    private final Queue<Runnable> pendingEdits = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of generations computed so far. Only written while holding the step lock.
+     */
+    private volatile long generationCount;
+
+    /**
+     * The number of edits applied through {@link #edit(Consumer)} and
+     * {@link #editGenerations(Consumer)}, which tells whether a board that keeps no
+     * modification count of its own was changed. Only written while holding the step lock.
+     */
+    private volatile long editCount;
+
+    /**
+     * The last published snapshot, or null if none was asked for yet.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Whether a snapshot was asked for since the stepping thread last published one.
+     */
+    private volatile boolean snapshotRequested;
+
+    /**
+     * Constructs a {@code CellularAutomata} instance with the specified matrix,
+     * stepped by a {@link SwarEngine} when the matrix is bit-packed.
      *
      * @param matrix the initial state of the cellular automaton, represented 
      *               as a {@link BufferedMatrix} of Boolean values.
      */
     public CellularAutomata(BufferedMatrix<Boolean> matrix) {
+        this(matrix, new SwarEngine());
+    }
+
+    /**
+     * Constructs a {@code CellularAutomata} instance with the specified matrix and engine.
+     *
+     * @param matrix the initial state of the cellular automaton, represented
+     *               as a {@link BufferedMatrix} of Boolean values.
+     * @param engine the engine used to step the matrix when it is a {@link BitMatrix}
+     *               or an {@link OffHeapBitMatrix}.
+     */
+    public CellularAutomata(BufferedMatrix<Boolean> matrix, StepEngine engine) {
         this.matrix = matrix;
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the engine used to step bit-packed matrices.
+     *
+     * @return the current stepping engine.
+     */
+    public StepEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Replaces the engine used to step bit-packed matrices.
+     *
+     * @param engine the new stepping engine.
+     */
+    public void setEngine(StepEngine engine) {
+        engine.setCollectingStatistics(collectingStatistics);
+        this.engine = engine;
+        restartPipeline();
+    }
+
+    /**
+     * Turns collecting statistics about the generations of a bit-packed matrix on or off.
+     * They are counted by the engine while it steps, so no extra pass over the board is
+     * made, but a small object is allocated per generation while collecting.
+     *
+     * @param collecting whether statistics should be collected.
+     */
+    public void setCollectingStatistics(boolean collecting) {
+        this.collectingStatistics = collecting;
+        engine.setCollectingStatistics(collecting);
+        restartPipeline();
+    }
+
+    /**
+     * Returns the number of generations of a bit-packed matrix computed ahead of time.
+     *
+     * @return the depth of the pipeline, or 0 if generations are computed when asked for.
+     */
+    public int getPipelineDepth() {
+        GenerationPipeline pipeline = this.pipeline;
+        return pipeline != null ? pipeline.getDepth() : 0;
+    }
+
+    /**
+     * Sets the number of generations of a bit-packed matrix computed ahead of time by a
+     * {@link GenerationPipeline}. The engine then steps a copy of the board on the worker
+     * thread of the pipeline, and stepping the automaton swaps in the generations it has
+     * completed; the generations it has queued are thrown away whenever the board is
+     * changed. Boards that are not bit-packed, unbounded or multi-state are stepped as
+     * usual.
+     *
+     * @param depth the number of generations to compute ahead, or 0 to compute them when asked for.
+     * @throws IllegalArgumentException if the depth is negative.
+     */
+    public void setPipelineDepth(int depth) {
+        if (depth < 0) throw new IllegalArgumentException("Invalid pipeline depth.");
+        stepLock.lock();
+        try {
+            GenerationPipeline pipeline = this.pipeline;
+            if (pipeline != null) pipeline.shutdown();
+            this.pipeline = depth > 0 ? new GenerationPipeline(engine, depth) : null;
+            syncPipeline();
+        } finally {
+            stepLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the pipeline, if there is one, so that the generations are computed again
+     * with the current engine and settings.
+     */
+    private void restartPipeline() {
+        if (pipeline != null) setPipelineDepth(pipeline.getDepth());
+    }
+
+    /**
+     * Lets the pipeline, if there is one, start computing the generations following the
+     * current state of a bit-packed matrix. The caller holds the step lock.
+     */
+    private void syncPipeline() {
+        GenerationPipeline pipeline = this.pipeline;
+        if (pipeline != null && matrix instanceof BitMatrix bits && universe == null && generations == null) {
+            pipeline.sync(bits);
+        }
+    }
+
+    /**
+     * Returns the statistics of the last generation computed by the engine: population,
+     * births, deaths and the bounding box of the live cells. Generations copied from a
+     * confirmed cycle are not computed and leave the statistics unchanged.
+     *
+     * @return the statistics, or null if they are not collected, the engine cannot
+     *         collect them or an unbounded or multi-state board is attached.
+     */
+    public GenerationStats getStatistics() {
+        if (universe != null || generations != null || !(matrix instanceof BitMatrix)) return null;
+        GenerationPipeline pipeline = this.pipeline;
+        return pipeline != null ? pipeline.getStatistics() : engine.getStatistics();
+    }
+
+    /**
+     * Returns the unbounded universe stepped instead of the matrix.
+     *
+     * @return the attached universe, or null if the matrix is stepped.
+     */
+    public ChunkedUniverse getUniverse() {
+        return universe;
+    }
+
+    /**
+     * Attaches an unbounded universe to be stepped instead of the matrix, or
+     * detaches it to go back to the fixed-size torus.
+     *
+     * @param universe the universe to step, or null to step the matrix.
+     */
+    public void setUniverse(ChunkedUniverse universe) {
+        this.universe = universe;
+    }
+
+    /**
+     * Returns the multi-state automaton stepped instead of the matrix.
+     *
+     * @return the attached automaton, or null if the matrix is stepped.
+     */
+    public GenerationsAutomata getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Attaches a multi-state automaton to be stepped instead of the matrix, or
+     * detaches it to go back to the two-state game. The snapshot of the board that was
+     * stepped before is dropped.
+     *
+     * @param generations the automaton to step, or null to step the matrix.
+     */
+    public void setGenerations(GenerationsAutomata generations) {
+        stepLock.lock();
+        try {
+            this.generations = generations;
+            snapshot = null;
+        } finally {
+            stepLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the detector that watches the bit-packed matrix for cycles.
+     *
+     * @return the attached detector, or null if cycles are not detected.
+     */
+    public CycleDetector getCycleDetector() {
+        return cycleDetector;
+    }
+
+    /**
+     * Attaches a detector that watches the bit-packed matrix for cycles. Once it has
+     * confirmed a cycle, generations are copied from the cycle instead of computed.
+     *
+     * @param cycleDetector the detector observing the matrix, or null to stop detecting cycles.
+     */
+    public void setCycleDetector(CycleDetector cycleDetector) {
+        this.cycleDetector = cycleDetector;
     }
 
     /**
@@ -45,48 +329,342 @@ public class CellularAutomata {
      * @param x the x-coordinate of the cell whose neighbors are to be counted.
      * @param y the y-coordinate of the cell whose neighbors are to be counted.
      * @return the number of alive neighbors surrounding the cell at (x, y).
-     *         The count includes wrapping around the edges of the matrix.
+     *         Neighbors beyond the edges are resolved by the boundary of the matrix.
      */
     private int countNeighbors(int x, int y) {
+        Boundary boundary = matrix.getBoundary();
         int count = 0;
 
         for (int i = -1; i <= 1; i++) {
+            int nx = boundary.map(x + i, matrix.getSizeX());
+            if (nx < 0) continue;
             for (int j = -1; j <= 1; j++) {
                 if (i == 0 && j == 0) continue;
 
-                int nx = (x + i + matrix.getSizeX()) % matrix.getSizeX();
-                int ny = (y + j + matrix.getSizeY()) % matrix.getSizeY();
-
-                if (matrix.get(nx,ny)) count++;
-                if (count > 3) return count;
+                int ny = boundary.map(y + j, matrix.getSizeY());
+                if (ny >= 0 && matrix.get(nx,ny)) count++;
             }
         }
         return count;
     }
 
+    /**
+     * Counts the number of alive neighbors around a cell that is not on the edge of
+     * the matrix, so every neighbor exists and no boundary has to be consulted.
+     *
+     * @param x the x-coordinate of the cell, between 1 and the number of rows minus 2
+     * @param y the y-coordinate of the cell, between 1 and the number of columns minus 2
+     * @return the number of alive neighbors surrounding the cell at (x, y)
+     */
+    private int countInteriorNeighbors(int x, int y) {
+        int count = 0;
+
+        for (int i = x - 1; i <= x + 1; i++) {
+            for (int j = y - 1; j <= y + 1; j++) {
+                if (matrix.get(i,j)) count++;
+            }
+        }
+        return matrix.get(x,y) ? count - 1 : count;
+    }
+
     /**
      * Updates the state of the cellular automaton to the next generation.
      * <p>
      * This method applies the rules of the cellular automaton to all cells 
      * in the matrix and updates their states accordingly. After updating 
      * the state, it invokes the {@code next} method of the matrix to 
-     * prepare for the next generation.
+     * prepare for the next generation. Stepping reuses the two buffers of the
+     * matrix and does not allocate memory, unless a {@link Snapshot} was asked for.
      * </p>
      */
     public void next() {
-        for (int i = 0; i < matrix.getSizeX(); i++) {
-            for (int j = 0; j < matrix.getSizeY(); j++) {
-                int neighbors = countNeighbors(i, j);
-
-                if (matrix.get(i,j)) {
-                    matrix.set(i,j,(neighbors == 2 || neighbors == 3));
-                } else {
-                    matrix.set(i,j,(neighbors == 3));
-                }
+        stepLock.lock();
+        try {
+            drainEdits();
+            step();
+            generationCount++;
+            publishIfRequested();
+        } finally {
+            stepLock.unlock();
+        }
+        applyPendingEdits();
+    }
+
+    /**
+     * Computes the next generation of whichever board is stepped. The caller holds the
+     * step lock.
+     */
+    private void step() {
+        ChunkedUniverse universe = this.universe;
+        if (universe != null) {
+            universe.next(matrix.getRule());
+            return;
+        }
+
+        GenerationsAutomata generations = this.generations;
+        if (generations != null) {
+            generations.next();
+            return;
+        }
+
+        if (matrix instanceof BitMatrix bits) {
+            CycleDetector cycleDetector = this.cycleDetector;
+            if (cycleDetector != null && cycleDetector.isStable()) {
+                cycleDetector.advance(1);
+                return;
+            }
+            GenerationPipeline pipeline = this.pipeline;
+            if (pipeline != null) {
+                pipeline.advance(bits);
+            } else {
+                engine.step(bits);
+                bits.swap();
+            }
+            if (cycleDetector != null) cycleDetector.observe();
+            return;
+        }
+
+        if (matrix instanceof OffHeapBitMatrix offHeap) {
+            offHeap.step(engine);
+            return;
+        }
+
+        Rule rule = matrix.getRule();
+        int sizeX = matrix.getSizeX();
+        int sizeY = matrix.getSizeY();
+        for (int i = 0; i < sizeX; i++) {
+            boolean edgeRow = i == 0 || i == sizeX - 1;
+            for (int j = 0; j < sizeY; j++) {
+                int count = edgeRow || j == 0 || j == sizeY - 1 ? countNeighbors(i, j) : countInteriorNeighbors(i, j);
+                matrix.set(i,j,rule.next(matrix.get(i,j), count));
             }
         }
         matrix.next();
+    }
 
-        System.gc();
+    /**
+     * Advances the cellular automaton by the specified number of generations in one call.
+     * <p>
+     * A bit-packed matrix is advanced with temporal blocking: bands of rows small
+     * enough to stay in the cache are stepped several generations at a time, so a large
+     * board is read and written once per pass instead of once per generation. When
+     * statistics are collected the last generation is stepped by the engine, so they
+     * describe it. A board with a {@link CycleDetector} is advanced generation by
+     * generation until the detector has confirmed a cycle, since the detector has to see
+     * every generation. Unbounded and multi-state boards, boards played by a
+     * {@link LargerThanLifeEngine} and boards computed ahead by a {@link GenerationPipeline}
+     * are stepped one generation at a time.
+     * </p>
+     *
+     * @param generations the number of generations to advance.
+     * @throws IllegalArgumentException if the number of generations is negative.
+     */
+    public void next(int generations) {
+        if (generations < 0) throw new IllegalArgumentException("Invalid generation count.");
+        if (cycleDetector != null) {
+            fastForward(generations);
+            return;
+        }
+
+        stepLock.lock();
+        try {
+            drainEdits();
+            if (universe != null || this.generations != null || !(matrix instanceof BitMatrix bits) || generations < 2
+                    || engine instanceof LargerThanLifeEngine || pipeline != null) {
+                for (int generation = 0; generation < generations; generation++) {
+                    step();
+                }
+            } else {
+                int blocked = collectingStatistics ? generations - 1 : generations;
+                temporalBlocking.advance(bits, blocked);
+                if (blocked < generations) {
+                    engine.step(bits);
+                    bits.swap();
+                }
+            }
+            generationCount += generations;
+            publishIfRequested();
+        } finally {
+            stepLock.unlock();
+        }
+        applyPendingEdits();
+    }
+
+    /**
+     * Advances the cellular automaton by the specified number of generations. Once the
+     * attached {@link CycleDetector} has confirmed a cycle, the remaining generations
+     * are skipped in a single jump to the state the board would reach.
+     *
+     * @param generations the number of generations to advance.
+     */
+    public void fastForward(long generations) {
+        stepLock.lock();
+        try {
+            drainEdits();
+            for (long generation = 0; generation < generations; generation++) {
+                CycleDetector cycleDetector = this.cycleDetector;
+                if (cycleDetector != null && cycleDetector.isStable() && universe == null && this.generations == null) {
+                    cycleDetector.advance(generations - generation);
+                    break;
+                }
+                step();
+            }
+            generationCount += generations;
+            publishIfRequested();
+        } finally {
+            stepLock.unlock();
+        }
+        applyPendingEdits();
+    }
+
+    /**
+     * Applies an edit to the matrix, such as cells drawn by the user, between two
+     * generations. If no generation is being computed the edit is applied right away
+     * by the calling thread; otherwise it is queued and applied by the stepping thread
+     * as soon as the generation is complete, so the caller never waits for a step.
+     *
+     * @param edit the change to make to the matrix.
+     */
+    public void edit(Consumer<BufferedMatrix<Boolean>> edit) {
+        pendingEdits.add(() -> edit.accept(matrix));
+        applyPendingEdits();
+    }
+
+    /**
+     * Applies an edit to the attached multi-state matrix between two generations, the
+     * way {@link #edit(Consumer)} applies one to the matrix.
+     *
+     * @param edit the change to make to the multi-state matrix.
+     * @throws IllegalStateException if no multi-state automaton is attached.
+     */
+    public void editGenerations(Consumer<ByteMatrix> edit) {
+        GenerationsAutomata generations = this.generations;
+        if (generations == null) throw new IllegalStateException("No multi-state board is attached.");
+        ByteMatrix board = generations.getMatrix();
+        pendingEdits.add(() -> edit.accept(board));
+        applyPendingEdits();
+    }
+
+    /**
+     * Applies the queued edits unless another thread holds the step lock, in which case
+     * that thread applies them once it releases the lock. Checking the queue again after
+     * every release ensures that no edit is left behind.
+     */
+    private void applyPendingEdits() {
+        while (!pendingEdits.isEmpty() && stepLock.tryLock()) {
+            try {
+                drainEdits();
+                publishIfRequested();
+            } finally {
+                stepLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies every queued edit to its board. The caller holds the step lock.
+     */
+    private void drainEdits() {
+        Runnable edit;
+        boolean edited = false;
+        while ((edit = pendingEdits.poll()) != null) {
+            edit.run();
+            editCount++;
+            edited = true;
+        }
+        if (edited) syncPipeline();
+    }
+
+    /**
+     * Returns the last completed generation of the matrix as an immutable snapshot that
+     * can be read from any thread, for instance to draw it.
+     * <p>
+     * Asking for a snapshot makes the stepping thread publish a new one once it has
+     * completed the next generation, so generations nobody asks for are never copied.
+     * When generations were computed or the matrix was changed while no generation was
+     * being computed, such as by loading a file, the snapshot is refreshed right away;
+     * otherwise the same snapshot is returned again. The caller never waits for a step;
+     * while one is in progress it gets the previous generation.
+     * </p>
+     *
+     * @return the snapshot, or null if an unbounded board is attached or no generation
+     *         is complete yet.
+     */
+    public Snapshot getSnapshot() {
+        if (universe != null) return null;
+        snapshotRequested = true;
+        if (isStale(snapshot) && stepLock.tryLock()) {
+            try {
+                if (isStale(snapshot)) publish();
+            } finally {
+                stepLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the last snapshot published by the stepping thread and asks it to publish
+     * the generation it completes next. Unlike {@link #getSnapshot()} this never takes
+     * the step lock, not even to refresh a stale snapshot, so a reader calling it once per
+     * frame never holds up a simulation running flat out; it sees only the latest
+     * completed generation at that time and skips the ones computed in between.
+     *
+     * @return the snapshot, or null if an unbounded board is attached or none was
+     *         published yet.
+     */
+    public Snapshot getLatestSnapshot() {
+        if (universe != null) return null;
+        snapshotRequested = true;
+        return snapshot;
+    }
+
+    /**
+     * Returns whether generations were computed or the matrix was changed since the
+     * specified snapshot was taken. A {@link BitMatrix} counts its own modifications;
+     * other matrices and multi-state boards are only known to change through
+     * {@link #edit(Consumer)} and {@link #editGenerations(Consumer)}.
+     *
+     * @param snapshot the last published snapshot, or null
+     * @return true if the snapshot has to be taken again
+     */
+    private boolean isStale(Snapshot snapshot) {
+        return snapshot == null || snapshot.getGeneration() != generationCount
+                || snapshot.getModificationCount() != getModificationCount();
+    }
+
+    /**
+     * Returns the modification count of the stepped board, or the number of edits applied
+     * if it keeps none.
+     *
+     * @return the modification count
+     */
+    private long getModificationCount() {
+        return generations == null && matrix instanceof BitMatrix bits ? bits.getModificationCount() : editCount;
+    }
+
+    /**
+     * Publishes a snapshot of the current generation if one was asked for since the last
+     * one. The caller holds the step lock.
+     */
+    private void publishIfRequested() {
+        if (snapshotRequested) {
+            snapshotRequested = false;
+            publish();
+        }
+    }
+
+    /**
+     * Publishes a snapshot of the current generation. The caller holds the step lock.
+     */
+    private void publish() {
+        GenerationsAutomata generations = this.generations;
+        if (generations != null) {
+            snapshot = Snapshot.of(generations.getMatrix(), generationCount, editCount);
+            return;
+        }
+        CycleDetector cycleDetector = this.cycleDetector;
+        snapshot = Snapshot.of(matrix, generationCount, getModificationCount(), getStatistics(),
+                cycleDetector != null ? cycleDetector.getPeriod() : 0);
     }
 }
@@ -0,0 +1,318 @@
+package game;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An unbounded Game of Life universe backed by a sparse map of fixed-size chunks.
+ *
+ * <p>The plane is divided into chunks of {@value #CHUNK_SIZE} by {@value #CHUNK_SIZE}
+ * cells, keyed by their chunk coordinates. A chunk is stored as
+ * {@value #CHUNK_SIZE} words, one per row, with column {@code j} of the chunk at
+ * bit {@code j}. Only chunks holding at least one live cell are kept: chunks are
+ * allocated on demand when a cell is set or a pattern grows into them, and they
+ * are dropped by the first generation in which they are empty. Gliders therefore fly away for ever
+ * instead of wrapping around and hitting their source.</p>
+ *
+ * <p>Generations are computed with the {@link SwarEngine} adder network, one chunk
+ * row at a time, taking the carries across chunk edges from the neighbouring
+ * chunks. Any {@link Rule} without B0 can be played; with B0 the empty plane
+ * itself would come alive.</p>
+ *
+ * <p>The chunk map is never modified after it has been published: stepping builds
+ * a new map, and edits that add a chunk copy it. Readers such as the renderer may
+ * therefore iterate the chunks at any time without locking.</p>
+ */
+public class ChunkedUniverse {
+    /**
+     * The width and height of a chunk in cells.
+     */
+    public static final int CHUNK_SIZE = 64;
+
+    /**
+     * The chunks holding live cells, keyed by {@link #key(int, int)}.
+     */
+    private volatile Map<Long, long[]> chunks = new HashMap<>();
+
+    /**
+     * Returns the key of the chunk at the specified chunk coordinates.
+     *
+     * @param chunkRow the row of the chunk
+     * @param chunkCol the column of the chunk
+     * @return the key of the chunk
+     */
+    public static long key(int chunkRow, int chunkCol) {
+        return ((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the chunk row encoded in a chunk key.
+     *
+     * @param key the key of the chunk
+     * @return the row of the chunk
+     */
+    public static int chunkRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Returns the chunk column encoded in a chunk key.
+     *
+     * @param key the key of the chunk
+     * @return the column of the chunk
+     */
+    public static int chunkCol(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Returns whether the cell at the specified coordinates is alive.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return true if the cell is alive
+     */
+    public boolean get(int row, int col) {
+        long[] chunk = chunks.get(key(row >> 6, col >> 6));
+        return chunk != null && (chunk[row & 63] & (1L << col)) != 0;
+    }
+
+    /**
+     * Sets the cell at the specified coordinates, allocating its chunk if needed.
+     *
+     * @param row   the row of the cell
+     * @param col   the column of the cell
+     * @param value true to make the cell alive, false to kill it
+     */
+    public synchronized void update(int row, int col, boolean value) {
+        long key = key(row >> 6, col >> 6);
+        long[] chunk = chunks.get(key);
+
+        if (chunk == null) {
+            if (!value) return;
+            chunk = new long[CHUNK_SIZE];
+            Map<Long, long[]> copy = new HashMap<>(chunks);
+            copy.put(key, chunk);
+            chunk[row & 63] |= 1L << col;
+            chunks = copy;
+        } else if (value) {
+            chunk[row & 63] |= 1L << col;
+        } else {
+            chunk[row & 63] &= ~(1L << col);
+        }
+    }
+
+    /**
+     * Kills every cell and drops every chunk.
+     */
+    public synchronized void clear() {
+        chunks = new HashMap<>();
+    }
+
+    /**
+     * Returns a read-only view of the chunks holding live cells, keyed by
+     * {@link #key(int, int)}. The view is a snapshot: it does not change when the
+     * universe is stepped.
+     *
+     * @return the chunks of the universe
+     */
+    public Map<Long, long[]> getChunks() {
+        return Collections.unmodifiableMap(chunks);
+    }
+
+    /**
+     * Returns the number of chunks currently allocated.
+     *
+     * @return the number of chunks
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns the number of live cells in the universe.
+     *
+     * @return the population
+     */
+    public long getPopulation() {
+        long population = 0;
+        for (long[] chunk : chunks.values()) {
+            for (long word : chunk) population += Long.bitCount(word);
+        }
+        return population;
+    }
+
+    /**
+     * Returns the bounding box of the live cells as {@code {minRow, minCol, maxRow, maxCol}},
+     * all inclusive, or null if the universe is empty.
+     *
+     * @return the bounding box, or null
+     */
+    public int[] getBounds() {
+        int[] bounds = null;
+        for (Map.Entry<Long, long[]> entry : chunks.entrySet()) {
+            long[] chunk = entry.getValue();
+            int top = chunkRow(entry.getKey()) * CHUNK_SIZE;
+            int left = chunkCol(entry.getKey()) * CHUNK_SIZE;
+
+            long columns = 0;
+            int firstRow = -1, lastRow = -1;
+            for (int r = 0; r < CHUNK_SIZE; r++) {
+                if (chunk[r] == 0) continue;
+                if (firstRow < 0) firstRow = r;
+                lastRow = r;
+                columns |= chunk[r];
+            }
+            if (firstRow < 0) continue;
+
+            int minRow = top + firstRow, maxRow = top + lastRow;
+            int minCol = left + Long.numberOfTrailingZeros(columns);
+            int maxCol = left + 63 - Long.numberOfLeadingZeros(columns);
+            if (bounds == null) {
+                bounds = new int[] { minRow, minCol, maxRow, maxCol };
+            } else {
+                bounds[0] = Math.min(bounds[0], minRow);
+                bounds[1] = Math.min(bounds[1], minCol);
+                bounds[2] = Math.max(bounds[2], maxRow);
+                bounds[3] = Math.max(bounds[3], maxCol);
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Copies the live cells inside the bounding box of the universe into a new matrix,
+     * with the top-left corner of the box at cell {@code (0, 0)}. An empty universe
+     * yields a single dead cell.
+     *
+     * @return a matrix holding the live region of the universe
+     */
+    public synchronized BitMatrix toMatrix() {
+        int[] bounds = getBounds();
+        if (bounds == null) return new BitMatrix(1, 1);
+
+        BitMatrix matrix = new BitMatrix(bounds[2] - bounds[0] + 1, bounds[3] - bounds[1] + 1);
+        for (Map.Entry<Long, long[]> entry : chunks.entrySet()) {
+            int top = chunkRow(entry.getKey()) * CHUNK_SIZE;
+            int left = chunkCol(entry.getKey()) * CHUNK_SIZE;
+            long[] chunk = entry.getValue();
+            for (int r = 0; r < CHUNK_SIZE; r++) {
+                long word = chunk[r];
+                while (word != 0) {
+                    int c = Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    matrix.update(top + r - bounds[0], left + c - bounds[1], true);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Advances the universe by one generation of Conway's Game of Life.
+     */
+    public void next() {
+        next(Rule.CONWAY);
+    }
+
+    /**
+     * Advances the universe by one generation of the specified rule. Every allocated
+     * chunk and its eight neighbours are evolved; chunks that end up empty are dropped.
+     *
+     * @param rule the rule to apply
+     * @throws IllegalArgumentException if the rule contains B0
+     */
+    public synchronized void next(Rule rule) {
+        if (rule.hasBirthOnZero()) throw new IllegalArgumentException("Rules with B0 need a bounded board.");
+
+        Map<Long, long[]> current = chunks;
+        Map<Long, long[]> next = new HashMap<>(current.size() * 2);
+        Set<Long> visited = new HashSet<>(current.size() * 4);
+        long[] scratch = new long[CHUNK_SIZE];
+
+        for (long key : current.keySet()) {
+            int chunkRow = chunkRow(key);
+            int chunkCol = chunkCol(key);
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    long candidate = key(chunkRow + i, chunkCol + j);
+                    if (!visited.add(candidate)) continue;
+
+                    if (stepChunk(rule, current, chunkRow + i, chunkCol + j, scratch)) {
+                        next.put(candidate, scratch);
+                        scratch = new long[CHUNK_SIZE];
+                    }
+                }
+            }
+        }
+        chunks = next;
+    }
+
+    /**
+     * Computes the next generation of a single chunk.
+     *
+     * @param rule     the rule to apply
+     * @param current  the chunks of the current generation
+     * @param chunkRow the row of the chunk
+     * @param chunkCol the column of the chunk
+     * @param out      the words receiving the next state of the chunk
+     * @return true if the chunk has any live cell in the next generation
+     */
+    private static boolean stepChunk(Rule rule, Map<Long, long[]> current, int chunkRow, int chunkCol, long[] out) {
+        long[] nw = current.get(key(chunkRow - 1, chunkCol - 1));
+        long[] n = current.get(key(chunkRow - 1, chunkCol));
+        long[] ne = current.get(key(chunkRow - 1, chunkCol + 1));
+        long[] w = current.get(key(chunkRow, chunkCol - 1));
+        long[] c = current.get(key(chunkRow, chunkCol));
+        long[] e = current.get(key(chunkRow, chunkCol + 1));
+        long[] sw = current.get(key(chunkRow + 1, chunkCol - 1));
+        long[] s = current.get(key(chunkRow + 1, chunkCol));
+        long[] se = current.get(key(chunkRow + 1, chunkCol + 1));
+
+        long any = 0;
+        for (int r = 0; r < CHUNK_SIZE; r++) {
+            long a, aWest, aEast, b, bWest, bEast;
+            if (r == 0) {
+                a = word(n, CHUNK_SIZE - 1);
+                aWest = word(nw, CHUNK_SIZE - 1);
+                aEast = word(ne, CHUNK_SIZE - 1);
+            } else {
+                a = word(c, r - 1);
+                aWest = word(w, r - 1);
+                aEast = word(e, r - 1);
+            }
+            if (r == CHUNK_SIZE - 1) {
+                b = word(s, 0);
+                bWest = word(sw, 0);
+                bEast = word(se, 0);
+            } else {
+                b = word(c, r + 1);
+                bWest = word(w, r + 1);
+                bEast = word(e, r + 1);
+            }
+            long m = word(c, r), mWest = word(w, r), mEast = word(e, r);
+
+            long next = SwarEngine.evolve(rule,
+                    (a << 1) | (aWest >>> 63), a, (a >>> 1) | (aEast << 63),
+                    (m << 1) | (mWest >>> 63), m, (m >>> 1) | (mEast << 63),
+                    (b << 1) | (bWest >>> 63), b, (b >>> 1) | (bEast << 63));
+            out[r] = next;
+            any |= next;
+        }
+        return any != 0;
+    }
+
+    /**
+     * Returns a row of a chunk, treating a missing chunk as empty.
+     *
+     * @param chunk the chunk, or null
+     * @param row   the row within the chunk
+     * @return the word of the row
+     */
+    private static long word(long[] chunk, int row) {
+        return chunk == null ? 0 : chunk[row];
+    }
+}
@@ -0,0 +1,338 @@
+package game;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Detects when a {@link BitMatrix} has settled into a cycle of still lifes and
+ * oscillators, so the simulation can stop computing generations it has already
+ * seen.
+ *
+ * <p>The detector keeps a 64-bit Zobrist-style hash of the board: the XOR of a
+ * fixed pseudo-random key for every live cell. After a step only the cells that
+ * changed are visited, found by XOR-ing the new words with the previous ones, so
+ * keeping the hash costs little more than a pass over the words. The hashes of
+ * the last {@code maxPeriod} generations are kept in a ring. When the current
+ * hash was already seen {@code P} generations ago the board is a candidate for a
+ * cycle of period {@code P}; the next {@code P} states are copied while the
+ * hashes keep matching, and the cycle is confirmed once the board is equal, word
+ * for word, to the first copied state. A hash collision can therefore never
+ * confirm a cycle.</p>
+ *
+ * <p>Once a cycle is confirmed any later generation is one of the copied states,
+ * so {@link #advance(long)} jumps to it without stepping. Any change to the
+ * matrix other than a step, such as an edit, clears the history and the cycle.</p>
+ */
+public class CycleDetector {
+    /**
+     * The longest period detected by default.
+     */
+    public static final int DEFAULT_MAX_PERIOD = 32;
+
+    /**
+     * The matrix whose generations are observed.
+     */
+    private final BitMatrix matrix;
+
+    /**
+     * The hashes of the most recent generations, used as a ring.
+     */
+    private final long[] history;
+
+    /**
+     * The slot of the ring that receives the next hash.
+     */
+    private int head;
+
+    /**
+     * The number of hashes in the ring.
+     */
+    private int size;
+
+    /**
+     * The hash of the current state of the matrix.
+     */
+    private long hash;
+
+    /**
+     * The modification count of the matrix when it was last observed, or -1 before the
+     * first observation.
+     */
+    private long lastModificationCount = -1;
+
+    /**
+     * The period of the cycle being confirmed, or 0 if there is no candidate.
+     */
+    private int candidatePeriod;
+
+    /**
+     * The number of states of the candidate cycle copied so far.
+     */
+    private int captured;
+
+    /**
+     * The states of the candidate or confirmed cycle, in order.
+     */
+    private final long[][] states;
+
+    /**
+     * The hashes of the states of the candidate or confirmed cycle.
+     */
+    private final long[] stateHashes;
+
+    /**
+     * The period of the confirmed cycle, or 0 if no cycle is confirmed.
+     */
+    private volatile int period;
+
+    /**
+     * The index of the current state among the states of the confirmed cycle.
+     */
+    private int phase;
+
+    /**
+     * Called with the period when a cycle is confirmed, or null.
+     */
+    private volatile IntConsumer listener;
+
+    /**
+     * Constructs a CycleDetector observing the specified matrix, detecting periods up
+     * to {@value #DEFAULT_MAX_PERIOD}.
+     *
+     * @param matrix the matrix to observe
+     */
+    public CycleDetector(BitMatrix matrix) {
+        this(matrix, DEFAULT_MAX_PERIOD);
+    }
+
+    /**
+     * Constructs a CycleDetector observing the specified matrix.
+     *
+     * @param matrix    the matrix to observe
+     * @param maxPeriod the longest period to detect; up to this many copies of the board
+     *                  are kept while a cycle is confirmed
+     * @throws IllegalArgumentException if the period is less than 1
+     */
+    public CycleDetector(BitMatrix matrix, int maxPeriod) {
+        if (maxPeriod < 1) throw new IllegalArgumentException("Invalid period.");
+        this.matrix = matrix;
+        this.history = new long[maxPeriod];
+        this.states = new long[maxPeriod][];
+        this.stateHashes = new long[maxPeriod];
+    }
+
+    /**
+     * Returns the matrix observed by the detector.
+     *
+     * @return the observed matrix
+     */
+    public BitMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Sets the listener called with the period when a cycle is confirmed. The listener
+     * runs on the thread that steps the simulation.
+     *
+     * @param listener the listener, or null
+     */
+    public void setListener(IntConsumer listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the hash of the current state of the matrix, as of the last observation.
+     *
+     * @return the 64-bit hash of the board
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns whether the matrix is in a confirmed cycle and has not been changed since.
+     *
+     * @return true if the board has stabilised
+     */
+    public boolean isStable() {
+        return period > 0 && matrix.getModificationCount() == lastModificationCount;
+    }
+
+    /**
+     * Returns the period of the confirmed cycle.
+     *
+     * @return the period, or 0 if the board has not stabilised
+     */
+    public int getPeriod() {
+        return isStable() ? period : 0;
+    }
+
+    /**
+     * Observes the matrix right after a step, while its next buffer still holds the
+     * previous generation. If the matrix was changed since the last observation the
+     * hash is computed from scratch and the history starts over.
+     */
+    public void observe() {
+        long[] words = matrix.getCurrentWords();
+        if (matrix.getModificationCount() != lastModificationCount) {
+            reset(words);
+            return;
+        }
+
+        long[] previous = matrix.getNextWords();
+        for (int w = 0; w < words.length; w++) {
+            long changed = words[w] ^ previous[w];
+            while (changed != 0) {
+                hash ^= key(w, Long.numberOfTrailingZeros(changed));
+                changed &= changed - 1;
+            }
+        }
+
+        if (period > 0) {
+            phase = (phase + 1) % period;
+            if (stateHashes[phase] != hash) {
+                period = 0;
+                candidatePeriod = 0;
+            }
+        } else if (candidatePeriod > 0) {
+            confirm(words);
+        } else {
+            findCandidate(words);
+        }
+        push(hash);
+    }
+
+    /**
+     * Advances the matrix by the specified number of generations within the confirmed
+     * cycle, copying the state it would reach instead of stepping.
+     *
+     * @param generations the number of generations to advance
+     * @throws IllegalStateException if the board has not stabilised
+     */
+    public void advance(long generations) {
+        if (!isStable()) throw new IllegalStateException("No confirmed cycle.");
+        phase = (int) ((phase + generations % period) % period);
+        matrix.loadWords(states[phase]);
+        hash = stateHashes[phase];
+        lastModificationCount = matrix.getModificationCount();
+    }
+
+    /**
+     * Starts over from the current state of the matrix.
+     *
+     * @param words the current words of the matrix
+     */
+    private void reset(long[] words) {
+        hash = 0;
+        for (int w = 0; w < words.length; w++) {
+            long live = words[w];
+            while (live != 0) {
+                hash ^= key(w, Long.numberOfTrailingZeros(live));
+                live &= live - 1;
+            }
+        }
+        size = 0;
+        head = 0;
+        period = 0;
+        candidatePeriod = 0;
+        lastModificationCount = matrix.getModificationCount();
+        push(hash);
+    }
+
+    /**
+     * Looks the current hash up in the history and, if it was seen before, starts
+     * confirming a cycle with the shortest matching period.
+     *
+     * @param words the current words of the matrix
+     */
+    private void findCandidate(long[] words) {
+        for (int p = 1; p <= size; p++) {
+            if (hashAgo(p) == hash) {
+                candidatePeriod = p;
+                captured = 0;
+                capture(words);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Continues confirming the candidate cycle with the current state.
+     *
+     * @param words the current words of the matrix
+     */
+    private void confirm(long[] words) {
+        if (captured < candidatePeriod) {
+            if (hashAgo(candidatePeriod) == hash) {
+                capture(words);
+            } else {
+                candidatePeriod = 0;
+                findCandidate(words);
+            }
+            return;
+        }
+
+        if (hash == stateHashes[0] && Arrays.equals(words, states[0])) {
+            phase = 0;
+            period = candidatePeriod;
+            IntConsumer listener = this.listener;
+            if (listener != null) listener.accept(period);
+        } else {
+            candidatePeriod = 0;
+            findCandidate(words);
+        }
+    }
+
+    /**
+     * Copies the current state into the next slot of the candidate cycle.
+     *
+     * @param words the current words of the matrix
+     */
+    private void capture(long[] words) {
+        long[] state = states[captured];
+        if (state == null || state.length != words.length) {
+            state = new long[words.length];
+            states[captured] = state;
+        }
+        System.arraycopy(words, 0, state, 0, words.length);
+        stateHashes[captured] = hash;
+        captured++;
+    }
+
+    /**
+     * Returns the hash of the generation the specified number of steps before the
+     * current one.
+     *
+     * @param generations the distance, from 1 to the number of hashes in the history
+     * @return the hash of that generation
+     */
+    private long hashAgo(int generations) {
+        return history[Math.floorMod(head - generations, history.length)];
+    }
+
+    /**
+     * Appends a hash to the history, dropping the oldest one when the ring is full.
+     *
+     * @param value the hash to append
+     */
+    private void push(long value) {
+        history[head] = value;
+        head = (head + 1) % history.length;
+        if (size < history.length) size++;
+    }
+
+    /**
+     * Returns the key of a cell, a fixed pseudo-random 64-bit value mixed from its bit
+     * position with the SplitMix64 finaliser, so no key table has to be kept.
+     *
+     * @param word the index of the word holding the cell
+     * @param bit  the index of the bit within the word
+     * @return the key of the cell
+     */
+    static long key(int word, int bit) {
+        long z = ((long) word << 6 | bit) * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,381 @@
+package game;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Computes the generations of a {@link BitMatrix} ahead of time on a worker thread,
+ * so that advancing the matrix only has to swap in a generation that is already done.
+ *
+ * <p>The worker steps a private copy of the board and puts every generation it
+ * completes into a bounded queue; once the queue holds {@link #getDepth()}
+ * generations it waits until one is taken. Taking a generation swaps its buffer
+ * into the matrix as the current state, and the buffer the matrix lets go of goes
+ * back to the worker, so after the first generations no memory is allocated and no
+ * board is copied. With the generation on screen, the one being computed and the one
+ * waiting in the queue, the default depth amounts to triple buffering.</p>
+ *
+ * <p>The worker keeps reading the last generation it queued while it computes the
+ * one after it, even once that generation was swapped into the matrix. This is safe
+ * because the matrix only writes its current buffer when it is edited, which bumps
+ * its modification count and makes the worker throw away what it computed.</p>
+ *
+ * <p>When the matrix is changed other than by advancing it, such as by an edit, a new
+ * rule or a new size, the queued generations no longer follow from it. The pipeline
+ * notices this from the modification count of the matrix, throws them away and starts
+ * over from the new state.</p>
+ *
+ * <p>The engine is used by the worker thread only, so it must not step any other
+ * matrix while the pipeline is running.</p>
+ */
+public class GenerationPipeline {
+    /**
+     * The number of generations computed ahead by default.
+     */
+    public static final int DEFAULT_DEPTH = 2;
+
+    /**
+     * A buffer holding a computed generation, together with its statistics.
+     */
+    private static final class Generation {
+        /**
+         * The packed words of the generation.
+         */
+        long[] words;
+
+        /**
+         * The statistics collected by the engine, or null.
+         */
+        GenerationStats statistics;
+
+        /**
+         * Constructs a generation with an empty buffer of the specified size.
+         *
+         * @param words the number of words of the buffer
+         */
+        Generation(int words) {
+            this.words = new long[words];
+        }
+    }
+
+    /**
+     * The engine computing the generations.
+     */
+    private final StepEngine engine;
+
+    /**
+     * The maximum number of generations computed ahead.
+     */
+    private final int depth;
+
+    /**
+     * Guards the state shared with the worker thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled whenever a generation is queued or taken, or the pipeline starts over.
+     */
+    private final Condition changed = lock.newCondition();
+
+    /**
+     * The computed generations, oldest first.
+     */
+    private final ArrayDeque<Generation> ready;
+
+    /**
+     * The buffers the worker can fill.
+     */
+    private final ArrayDeque<Generation> free;
+
+    /**
+     * The worker thread, or null before the pipeline was first started.
+     */
+    private Thread worker;
+
+    /**
+     * The copy of the board stepped by the worker. Only accessed by the worker thread.
+     */
+    private BitMatrix ahead;
+
+    /**
+     * The number of buffers created so far.
+     */
+    private int buffers;
+
+    /**
+     * Whether the worker has to start over from the restart state.
+     */
+    private boolean restartPending;
+
+    /**
+     * The state the worker has to start over from. The worker takes the array over as
+     * the current buffer of its board, so a new one is allocated for the next restart.
+     */
+    private long[] restartWords;
+
+    /**
+     * The size of the state the worker has to start over from.
+     */
+    private int restartRows, restartCols;
+
+    /**
+     * The rule of the state the worker has to start over from.
+     */
+    private Rule restartRule;
+
+    /**
+     * The boundary of the state the worker has to start over from.
+     */
+    private Boundary restartBoundary;
+
+    /**
+     * Incremented whenever the pipeline starts over, so that the worker can tell that
+     * the generation it has just computed is no longer wanted.
+     */
+    private long epoch;
+
+    /**
+     * The matrix the queued generations follow from, or null.
+     */
+    private BitMatrix source;
+
+    /**
+     * The modification count of the matrix when the queued generations were started.
+     */
+    private long sourceModificationCount;
+
+    /**
+     * The statistics of the generation taken last, or null.
+     */
+    private volatile GenerationStats statistics;
+
+    /**
+     * The exception the worker failed with, or null.
+     */
+    private RuntimeException failure;
+
+    /**
+     * Whether the pipeline was shut down.
+     */
+    private boolean stopped;
+
+    /**
+     * Constructs a pipeline computing the specified number of generations ahead.
+     *
+     * @param engine the engine computing the generations, used by the worker thread only
+     * @param depth  the maximum number of generations computed ahead
+     * @throws IllegalArgumentException if the depth is not positive
+     */
+    public GenerationPipeline(StepEngine engine, int depth) {
+        if (depth < 1) throw new IllegalArgumentException("Invalid pipeline depth.");
+        this.engine = engine;
+        this.depth = depth;
+        this.ready = new ArrayDeque<>(depth);
+        this.free = new ArrayDeque<>(depth);
+    }
+
+    /**
+     * Returns the maximum number of generations computed ahead.
+     *
+     * @return the depth of the queue
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of generations computed ahead and waiting to be taken.
+     *
+     * @return the number of queued generations
+     */
+    public int getReady() {
+        lock.lock();
+        try {
+            return ready.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the statistics of the generation taken last.
+     *
+     * @return the statistics, or null if the engine does not collect them
+     */
+    public GenerationStats getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Makes sure the worker computes the generations following the current state of
+     * the matrix, starting over if it was changed since. Calling it right after a change
+     * lets the next generation be computed before it is asked for.
+     *
+     * @param matrix the matrix to compute ahead of
+     * @throws IllegalStateException if the pipeline was shut down
+     */
+    public void sync(BitMatrix matrix) {
+        lock.lock();
+        try {
+            if (stopped) throw new IllegalStateException("Pipeline was shut down.");
+            if (matrix != source || matrix.getModificationCount() != sourceModificationCount) restart(matrix);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the matrix to its next generation by swapping in the generation computed
+     * ahead, waiting for it only if it is not done yet. Like a step, this leaves the
+     * previous generation in the next buffer and the modification count unchanged.
+     *
+     * @param matrix the matrix to advance
+     * @throws IllegalStateException if the pipeline was shut down or the engine failed
+     */
+    public void advance(BitMatrix matrix) {
+        lock.lock();
+        try {
+            sync(matrix);
+            while (ready.isEmpty()) {
+                if (stopped) throw new IllegalStateException("Pipeline was shut down.");
+                if (failure != null) throw new IllegalStateException("Pipeline failed.", failure);
+                changed.awaitUninterruptibly();
+            }
+            Generation generation = ready.poll();
+            generation.words = matrix.swap(generation.words);
+            statistics = generation.statistics;
+            free.add(generation);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the worker for good and waits for it to end.
+     */
+    public void shutdown() {
+        Thread worker;
+        lock.lock();
+        try {
+            stopped = true;
+            changed.signalAll();
+            worker = this.worker;
+        } finally {
+            lock.unlock();
+        }
+        if (worker != null && worker != Thread.currentThread()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Throws the queued generations away and hands the worker a copy of the current
+     * state of the matrix to start over from. The caller holds the lock.
+     *
+     * @param matrix the matrix to compute ahead of
+     */
+    private void restart(BitMatrix matrix) {
+        epoch++;
+        free.addAll(ready);
+        ready.clear();
+
+        long[] words = matrix.getCurrentWords();
+        if (restartWords == null || restartWords.length != words.length) restartWords = new long[words.length];
+        System.arraycopy(words, 0, restartWords, 0, words.length);
+        restartRows = matrix.getSizeX();
+        restartCols = matrix.getSizeY();
+        restartRule = matrix.getRule();
+        restartBoundary = matrix.getBoundary();
+        source = matrix;
+        sourceModificationCount = matrix.getModificationCount();
+        restartPending = true;
+        failure = null;
+
+        for (; buffers < depth; buffers++) {
+            free.add(new Generation(words.length));
+        }
+        if (worker == null) {
+            worker = new Thread(this::run, "pipeline");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        changed.signalAll();
+    }
+
+    /**
+     * The loop of the worker thread: starts over when asked to, waits for a free buffer,
+     * computes the next generation into it and queues it.
+     */
+    private void run() {
+        while (true) {
+            Generation generation;
+            long epoch;
+            lock.lock();
+            try {
+                while (true) {
+                    if (stopped) return;
+                    if (restartPending) {
+                        if (ahead == null || ahead.getSizeX() != restartRows || ahead.getSizeY() != restartCols) {
+                            ahead = new BitMatrix(restartRows, restartCols);
+                        }
+                        ahead.setRule(restartRule);
+                        ahead.setBoundary(restartBoundary);
+                        ahead.swap(restartWords);
+                        ahead.markModified();
+                        restartWords = null;
+                        restartPending = false;
+                    }
+                    if (ahead != null && failure == null && !free.isEmpty()) break;
+                    changed.awaitUninterruptibly();
+                }
+                generation = free.poll();
+                epoch = this.epoch;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                int words = ahead.getCurrentWords().length;
+                if (generation.words.length != words) generation.words = new long[words];
+                // Make the free buffer the next buffer of the board, so that the engine
+                // computes the generation straight into it; the buffer then becomes the
+                // current one, read by the following step, and is queued without a copy.
+                ahead.swap(generation.words);
+                ahead.swap();
+                engine.step(ahead);
+                ahead.swap();
+                generation.statistics = engine.getStatistics();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                lock.lock();
+                try {
+                    failure = e;
+                    free.add(generation);
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                continue;
+            }
+
+            lock.lock();
+            try {
+                if (epoch == this.epoch) {
+                    ready.add(generation);
+                } else {
+                    free.add(generation);
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package game;
+
+/**
+ * Statistics about a single generation, produced by a {@link StepEngine} as a side
+ * effect of computing it: the number of live cells, how many cells were born and
+ * died in the step, and the bounding box of the live cells.
+ *
+ * <p>Instances are immutable, so a reader on another thread always sees the
+ * statistics of one whole generation.</p>
+ *
+ * @see CellularAutomata#getStatistics()
+ */
+public final class GenerationStats {
+    /**
+     * The number of live cells.
+     */
+    private final long population;
+
+    /**
+     * The number of cells that came alive in the step.
+     */
+    private final long births;
+
+    /**
+     * The number of cells that died in the step.
+     */
+    private final long deaths;
+
+    /**
+     * The bounding box of the live cells, inclusive, or -1 if there are none.
+     */
+    private final int minRow, maxRow, minCol, maxCol;
+
+    /**
+     * Constructs the statistics of a generation.
+     *
+     * @param population the number of live cells
+     * @param births     the number of cells that came alive
+     * @param deaths     the number of cells that died
+     * @param minRow     the first row holding a live cell, or -1
+     * @param maxRow     the last row holding a live cell, or -1
+     * @param minCol     the first column holding a live cell, or -1
+     * @param maxCol     the last column holding a live cell, or -1
+     */
+    GenerationStats(long population, long births, long deaths, int minRow, int maxRow, int minCol, int maxCol) {
+        this.population = population;
+        this.births = births;
+        this.deaths = deaths;
+        this.minRow = minRow;
+        this.maxRow = maxRow;
+        this.minCol = minCol;
+        this.maxCol = maxCol;
+    }
+
+    /**
+     * Counts the current state of a matrix as if it had just been computed from an
+     * identical one, for the generation an engine has not stepped yet.
+     *
+     * @param matrix the matrix to count
+     * @return the statistics of the current state, with no births or deaths
+     */
+    static GenerationStats of(BitMatrix matrix) {
+        int wordsPerRow = BitMatrix.wordsPerRow(matrix.getSizeY());
+        long[] words = matrix.getCurrentWords();
+        StatsAccumulator stats = new StatsAccumulator();
+        stats.reset(wordsPerRow);
+        for (int row = 0; row < matrix.getSizeX(); row++) {
+            stats.addRow(words, words, row * wordsPerRow, wordsPerRow, row);
+        }
+        return stats.toStats();
+    }
+
+    /**
+     * Returns the number of live cells.
+     *
+     * @return the population
+     */
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Returns the number of cells that came alive in the step.
+     *
+     * @return the number of births
+     */
+    public long getBirths() {
+        return births;
+    }
+
+    /**
+     * Returns the number of cells that died in the step.
+     *
+     * @return the number of deaths
+     */
+    public long getDeaths() {
+        return deaths;
+    }
+
+    /**
+     * Returns whether the board has no live cells, in which case the bounding box is empty.
+     *
+     * @return true if the population is zero
+     */
+    public boolean isEmpty() {
+        return population == 0;
+    }
+
+    /**
+     * Returns the first row of the bounding box of the live cells.
+     *
+     * @return the row index, or -1 if the board is empty
+     */
+    public int getMinRow() {
+        return minRow;
+    }
+
+    /**
+     * Returns the last row of the bounding box of the live cells.
+     *
+     * @return the row index, or -1 if the board is empty
+     */
+    public int getMaxRow() {
+        return maxRow;
+    }
+
+    /**
+     * Returns the first column of the bounding box of the live cells.
+     *
+     * @return the column index, or -1 if the board is empty
+     */
+    public int getMinCol() {
+        return minCol;
+    }
+
+    /**
+     * Returns the last column of the bounding box of the live cells.
+     *
+     * @return the column index, or -1 if the board is empty
+     */
+    public int getMaxCol() {
+        return maxCol;
+    }
+
+    /**
+     * Returns the statistics in a short human-readable form.
+     *
+     * @return the statistics as text
+     */
+    @Override
+    public String toString() {
+        String box = isEmpty() ? "empty" : "rows " + minRow + ".." + maxRow + ", cols " + minCol + ".." + maxCol;
+        return "population " + population + ", births " + births + ", deaths " + deaths + ", " + box;
+    }
+}
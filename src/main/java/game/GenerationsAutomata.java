@@ -0,0 +1,130 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The {@code GenerationsAutomata} class steps a multi-state {@link ByteMatrix}
+ * with its {@link GenerationsRule}, the way {@link CellularAutomata} steps a
+ * two-state matrix. What lies beyond the edges is the {@link Boundary} of the
+ * matrix, and neighbours are counted with multiplicity, exactly like in the
+ * two-state game.
+ *
+ * <p>A generation takes two passes. The first pass stores, for every cell, the
+ * number of live cells in the horizontal run of three centred on it; the second
+ * adds up the runs of the rows above, at and below the cell, which gives its
+ * live neighbour count plus itself, and looks the next state up in the compiled
+ * rule. Only the first and last column and row ask the boundary; a row beyond a
+ * dead edge is read from an extra row of runs that is always zero. The run
+ * buffer is kept between generations, so stepping does not allocate memory
+ * unless the board changes size.</p>
+ */
+public class GenerationsAutomata {
+    /**
+     * The matrix holding the state of the automaton.
+     */
+    private final ByteMatrix matrix;
+
+    /**
+     * For every cell, the number of live cells among it and its left and right neighbours,
+     * followed by a row of zeros standing in for the rows beyond a dead edge.
+     */
+    private byte[] runs = new byte[0];
+
+    /**
+     * Constructs a {@code GenerationsAutomata} instance stepping the specified matrix.
+     *
+     * @param matrix the matrix holding the state of the automaton
+     */
+    public GenerationsAutomata(ByteMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    /**
+     * Returns the matrix holding the state of the automaton.
+     *
+     * @return the stepped matrix
+     */
+    public ByteMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Updates the state of the automaton to the next generation.
+     */
+    public void next() {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        byte[] src = matrix.getCurrentCells();
+        byte[] dst = matrix.getNextCells();
+        GenerationsRule rule = matrix.getRule();
+        Boundary boundary = matrix.getBoundary();
+
+        if (runs.length != src.length + cols) runs = new byte[src.length + cols];
+        Arrays.fill(runs, src.length, runs.length, (byte) 0);
+
+        for (int row = 0; row < rows; row++) {
+            int base = row * cols;
+            for (int col = 1; col < cols - 1; col++) {
+                runs[base + col] = (byte) (alive(src[base + col - 1]) + alive(src[base + col]) + alive(src[base + col + 1]));
+            }
+            runs[base] = edgeRun(src, base, 0, cols, boundary);
+            runs[base + cols - 1] = edgeRun(src, base, cols - 1, cols, boundary);
+        }
+
+        for (int row = 0; row < rows; row++) {
+            int above = edgeRow(row - 1, rows, boundary) * cols;
+            int base = row * cols;
+            int below = edgeRow(row + 1, rows, boundary) * cols;
+            for (int col = 0; col < cols; col++) {
+                int state = src[base + col] & 0xFF;
+                int neighbors = runs[above + col] + runs[base + col] + runs[below + col] - alive(src[base + col]);
+                dst[base + col] = (byte) rule.next(state, neighbors);
+            }
+        }
+        matrix.swap();
+    }
+
+    /**
+     * Counts the live cells in the horizontal run of three centred on a cell in the first
+     * or last column, resolving the columns beyond the edge through the boundary.
+     *
+     * @param src      the cells of the current state
+     * @param base     the index of the first cell of the row
+     * @param col      the column of the cell
+     * @param cols     the number of columns
+     * @param boundary the boundary of the matrix
+     * @return the number of live cells in the run
+     */
+    private static byte edgeRun(byte[] src, int base, int col, int cols, Boundary boundary) {
+        int run = 0;
+        for (int j = col - 1; j <= col + 1; j++) {
+            int mapped = boundary.map(j, cols);
+            if (mapped >= 0) run += alive(src[base + mapped]);
+        }
+        return (byte) run;
+    }
+
+    /**
+     * Resolves the row above or below a row through the boundary.
+     *
+     * @param row      the row, which may lie one row outside the board
+     * @param rows     the number of rows
+     * @param boundary the boundary of the matrix
+     * @return the row standing in for it, or the row of zeros after the board if it is dead
+     */
+    private static int edgeRow(int row, int rows, Boundary boundary) {
+        if (row >= 0 && row < rows) return row;
+        int mapped = boundary.map(row, rows);
+        return mapped >= 0 ? mapped : rows;
+    }
+
+    /**
+     * Returns 1 if a cell is alive and 0 otherwise, without branching.
+     *
+     * @param cell the state of the cell as a byte
+     * @return whether the cell is in state 1
+     */
+    private static int alive(byte cell) {
+        return (((cell & 0xFF) ^ 1) - 1) >>> 31;
+    }
+}
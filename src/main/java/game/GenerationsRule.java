@@ -0,0 +1,157 @@
+package game;
+
+/**
+ * A multi-state "Generations" rule written in B/S/C notation, such as
+ * {@code B2/S/C3} (Brian's Brain) or {@code B2/S345/C4} (Star Wars).
+ *
+ * <p>Cells have {@code C} states. State 0 is dead and state 1 is alive; the
+ * states in between are dying. A dead cell comes alive with a birth count of
+ * live neighbours, a live cell stays alive with a survival count and starts
+ * dying otherwise, and a dying cell advances one state per generation until it
+ * is dead again. Only live cells count as neighbours. With two states the rule
+ * is the plain Life-like {@link Rule}, so {@code B3/S23} is accepted as well and
+ * means {@code B3/S23/C2}.</p>
+ *
+ * <p>A rule is compiled once into a table indexed by state and neighbour count,
+ * so that stepping a cell is a single lookup.</p>
+ */
+public final class GenerationsRule {
+    /**
+     * Brian's Brain, B2/S/C3.
+     */
+    public static final GenerationsRule BRIANS_BRAIN = new GenerationsRule(new Rule(1 << 2, 0), 3);
+
+    /**
+     * The largest number of states a cell can have, so that states fit in a byte.
+     */
+    public static final int MAX_STATES = 256;
+
+    /**
+     * The number of possible neighbour counts, from 0 to 8.
+     */
+    private static final int COUNTS = 9;
+
+    /**
+     * The birth and survival conditions of the rule.
+     */
+    private final Rule life;
+
+    /**
+     * The number of states of a cell.
+     */
+    private final int states;
+
+    /**
+     * The next state of a cell at index {@code state * 9 + neighbors}.
+     */
+    private final byte[] transitions;
+
+    /**
+     * Constructs a Generations rule from its birth and survival conditions and its
+     * number of states.
+     *
+     * @param life   the birth and survival conditions
+     * @param states the number of states, from 2 to {@value #MAX_STATES}
+     * @throws IllegalArgumentException if the number of states is out of range
+     */
+    public GenerationsRule(Rule life, int states) {
+        if (states < 2 || states > MAX_STATES) throw new IllegalArgumentException("Invalid number of states.");
+        this.life = life;
+        this.states = states;
+        this.transitions = new byte[states * COUNTS];
+        for (int n = 0; n < COUNTS; n++) {
+            transitions[n] = (byte) (life.next(false, n) ? 1 : 0);
+            transitions[COUNTS + n] = (byte) (life.next(true, n) ? 1 : 2 % states);
+            for (int state = 2; state < states; state++) {
+                transitions[state * COUNTS + n] = (byte) ((state + 1) % states);
+            }
+        }
+    }
+
+    /**
+     * Parses a rule in B/S/C notation. The B and S parts follow {@link Rule#parse(String)};
+     * the C part may be left out for a two-state rule.
+     *
+     * @param notation the rule, for example {@code "B2/S345/C4"}
+     * @return the compiled rule
+     * @throws IllegalArgumentException if the notation is not a valid B/S/C rule
+     */
+    public static GenerationsRule parse(String notation) {
+        String[] parts = notation.trim().toUpperCase().split("/", -1);
+        StringBuilder life = new StringBuilder();
+        int states = -1;
+        for (String part : parts) {
+            if (part.startsWith("C") && states < 0) {
+                try {
+                    states = Integer.parseInt(part.substring(1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid rule.");
+                }
+            } else {
+                if (!life.isEmpty()) life.append('/');
+                life.append(part);
+            }
+        }
+        return new GenerationsRule(Rule.parse(life.toString()), states < 0 ? 2 : states);
+    }
+
+    /**
+     * Returns the birth and survival conditions of the rule.
+     *
+     * @return the Life-like part of the rule
+     */
+    public Rule getLifeRule() {
+        return life;
+    }
+
+    /**
+     * Returns the number of states of a cell.
+     *
+     * @return the number of states, including dead and alive
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the next state of a cell.
+     *
+     * @param state     the state of the cell
+     * @param neighbors the number of live neighbours, from 0 to 8
+     * @return the state of the cell in the next generation
+     */
+    public int next(int state, int neighbors) {
+        return transitions[state * COUNTS + neighbors] & 0xFF;
+    }
+
+    /**
+     * Returns the rule in canonical B/S/C notation.
+     *
+     * @return the rule, for example {@code "B2/S345/C4"}
+     */
+    @Override
+    public String toString() {
+        return life + "/C" + states;
+    }
+
+    /**
+     * Returns whether the specified object is a rule with the same conditions and states.
+     *
+     * @param o the object to compare with
+     * @return true if the rules are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GenerationsRule rule && rule.states == states && rule.life.equals(life);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return life.hashCode() * 31 + states;
+    }
+}
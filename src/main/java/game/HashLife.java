@@ -0,0 +1,531 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A HashLife engine for fast-forwarding huge or periodic patterns of Conway's Game of
+ * Life or another Life-like rule.
+ *
+ * <p>The universe is a quadtree of canonical nodes: a node of level {@code k}
+ * covers a {@code 2^k} by {@code 2^k} square and is built from four nodes of level
+ * {@code k - 1}. Nodes are hash-consed, so identical squares anywhere in space or
+ * time are represented by the same object, and each node memoizes the centre of
+ * its future, which lets repeated structure be evolved once and reused.</p>
+ *
+ * <p>Unlike {@link CellularAutomata} the universe is an infinite plane rather than
+ * a torus. A {@link BufferedMatrix} is imported with its cell {@code (0, 0)} at
+ * plane coordinate {@code (0, 0)}, and exporting copies the same window back.</p>
+ *
+ * <p>The node table is bounded: once it holds more than the configured number of
+ * nodes, it is rebuilt from the nodes still reachable from the current universe, and
+ * all memoized results are dropped. This also happens in the middle of a step, so a
+ * single large step cannot grow the table without limit; the nodes of the step in
+ * progress simply stop being shared. If the universe itself needs more nodes than the
+ * bound, the table is allowed to grow to twice the nodes retained, so that it is not
+ * rebuilt over and over.</p>
+ *
+ * <p>Plane coordinates and the generation counter are {@code long}s, so the universe
+ * can cover at most a {@code 2^62} by {@code 2^62} square around the origin, and at
+ * most {@code Long.MAX_VALUE} generations can be counted. A step that would need more
+ * is refused and leaves the universe unchanged.</p>
+ */
+public class HashLife {
+    /**
+     * The default maximum number of nodes kept in the table.
+     */
+    public static final int DEFAULT_MAX_NODES = 1 << 22;
+
+    /**
+     * The smallest level the universe is shrunk to.
+     */
+    private static final int MIN_LEVEL = 3;
+
+    /**
+     * The largest level a node may have, so that its size and the coordinates of its
+     * cells fit in a {@code long}.
+     */
+    private static final int MAX_LEVEL = 62;
+
+    /**
+     * The maximum number of nodes kept in the table before it is collected.
+     */
+    private final int maxNodes;
+
+    /**
+     * The number of nodes above which the table is collected: the bound, or twice the
+     * nodes retained by the last collection if that is more.
+     */
+    private int collectionThreshold;
+
+    /**
+     * The rule the universe evolves by.
+     */
+    private final Rule rule;
+
+    /**
+     * The table of canonical nodes, keyed by themselves.
+     */
+    private final Map<Node, Node> nodes = new HashMap<>();
+
+    /**
+     * The empty node of each level, indexed by level.
+     */
+    private final List<Node> emptyNodes = new ArrayList<>();
+
+    /**
+     * The canonical dead leaf.
+     */
+    private final Node off = new Node(false);
+
+    /**
+     * The canonical live leaf.
+     */
+    private final Node on = new Node(true);
+
+    /**
+     * The root of the universe, centered on the origin.
+     */
+    private Node root;
+
+    /**
+     * The number of generations the universe has been advanced.
+     */
+    private long generation;
+
+    /**
+     * Constructs an empty HashLife universe playing Conway's Game of Life with the
+     * default node table bound.
+     */
+    public HashLife() {
+        this(Rule.CONWAY, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Constructs an empty HashLife universe playing Conway's Game of Life.
+     *
+     * @param maxNodes the maximum number of nodes kept in the table before it is collected
+     * @throws IllegalArgumentException if the bound is not positive
+     */
+    public HashLife(int maxNodes) {
+        this(Rule.CONWAY, maxNodes);
+    }
+
+    /**
+     * Constructs an empty HashLife universe.
+     *
+     * @param rule     the rule the universe evolves by
+     * @param maxNodes the maximum number of nodes kept in the table before it is collected
+     * @throws IllegalArgumentException if the rule contains B0 or the bound is not positive
+     */
+    public HashLife(Rule rule, int maxNodes) {
+        if (rule.hasBirthOnZero()) throw new IllegalArgumentException("Rules with B0 need a bounded board.");
+        if (maxNodes < 1) throw new IllegalArgumentException("Invalid node table size.");
+        this.rule = rule;
+        this.maxNodes = maxNodes;
+        this.collectionThreshold = maxNodes;
+        emptyNodes.add(off);
+        this.root = empty(MIN_LEVEL);
+    }
+
+    /**
+     * Replaces the universe with the live cells of the specified matrix, placing its cell
+     * {@code (0, 0)} at the origin, and resets the generation counter.
+     *
+     * @param matrix the matrix to import
+     */
+    public void importMatrix(BufferedMatrix<Boolean> matrix) {
+        int level = MIN_LEVEL;
+        while ((1L << (level - 1)) < Math.max(matrix.getSizeX(), matrix.getSizeY())) level++;
+
+        long half = 1L << (level - 1);
+        root = build(matrix, level, -half, -half);
+        generation = 0;
+        collectIfFull();
+    }
+
+    /**
+     * Builds the node covering the specified square from the cells of a matrix.
+     *
+     * @param matrix the matrix to read
+     * @param level  the level of the node
+     * @param top    the row of the top edge of the square
+     * @param left   the column of the left edge of the square
+     * @return the canonical node
+     */
+    private Node build(BufferedMatrix<Boolean> matrix, int level, long top, long left) {
+        long size = 1L << level;
+        if (top >= matrix.getSizeX() || left >= matrix.getSizeY() || top + size <= 0 || left + size <= 0) {
+            return empty(level);
+        }
+        if (level == 0) {
+            return matrix.get((int) top, (int) left) ? on : off;
+        }
+
+        long half = size >> 1;
+        return join(build(matrix, level - 1, top, left),
+                build(matrix, level - 1, top, left + half),
+                build(matrix, level - 1, top + half, left),
+                build(matrix, level - 1, top + half, left + half));
+    }
+
+    /**
+     * Clears the specified matrix and copies into it the live cells of the universe that
+     * fall inside its window, which starts at the origin.
+     *
+     * @param matrix the matrix to write
+     */
+    public void exportMatrix(BufferedMatrix<Boolean> matrix) {
+        matrix.clear();
+        long half = 1L << (root.level - 1);
+        export(matrix, root, -half, -half);
+    }
+
+    /**
+     * Copies the live cells of a node that fall inside the matrix window.
+     *
+     * @param matrix the matrix to write
+     * @param node   the node to copy
+     * @param top    the row of the top edge of the node
+     * @param left   the column of the left edge of the node
+     */
+    private void export(BufferedMatrix<Boolean> matrix, Node node, long top, long left) {
+        long size = 1L << node.level;
+        if (node.population == 0 || top >= matrix.getSizeX() || left >= matrix.getSizeY()
+                || top + size <= 0 || left + size <= 0) {
+            return;
+        }
+        if (node.level == 0) {
+            matrix.update((int) top, (int) left, true);
+            return;
+        }
+
+        long half = size >> 1;
+        export(matrix, node.nw, top, left);
+        export(matrix, node.ne, top, left + half);
+        export(matrix, node.sw, top + half, left);
+        export(matrix, node.se, top + half, left + half);
+    }
+
+    /**
+     * Returns whether the cell at the specified plane coordinates is alive.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return true if the cell is alive
+     */
+    public boolean isAlive(long row, long col) {
+        long half = 1L << (root.level - 1);
+        if (row < -half || row >= half || col < -half || col >= half) return false;
+
+        Node node = root;
+        long top = -half;
+        long left = -half;
+        while (node.level > 0 && node.population > 0) {
+            long mid = 1L << (node.level - 1);
+            boolean south = row >= top + mid;
+            boolean east = col >= left + mid;
+            if (south) top += mid;
+            if (east) left += mid;
+            node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+        }
+        return node.population > 0;
+    }
+
+    /**
+     * Returns the number of live cells in the universe.
+     *
+     * @return the population
+     */
+    public long getPopulation() {
+        return root.population;
+    }
+
+    /**
+     * Returns the number of generations the universe has been advanced since the last import.
+     *
+     * @return the generation counter
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the rule the universe evolves by.
+     *
+     * @return the rule
+     */
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Returns the number of canonical nodes currently held in the table.
+     *
+     * @return the size of the node table
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Advances the universe by {@code 2^k} generations in a single call.
+     *
+     * @param k the base-2 logarithm of the number of generations, at most 59
+     * @throws IllegalArgumentException if {@code k} is negative or too large
+     * @throws IllegalStateException    if the pattern would grow past the largest
+     *                                  universe or the generation counter would overflow
+     */
+    public void advance(int k) {
+        if (k < 0 || k > MAX_LEVEL - 3) throw new IllegalArgumentException("Invalid step exponent.");
+        if (generation > Long.MAX_VALUE - (1L << k)) throw new IllegalStateException("The generation counter would overflow.");
+
+        Node expanded = root;
+        while (expanded.level < k + 2 || centre(expanded).population != expanded.population) {
+            if (expanded.level == MAX_LEVEL - 1) throw new IllegalStateException("The pattern would outgrow the universe.");
+            expanded = expand(expanded);
+        }
+        root = successor(expand(expanded), k);
+        generation += 1L << k;
+
+        while (root.level > MIN_LEVEL && centre(root).population == root.population) {
+            root = centre(root);
+        }
+        collectIfFull();
+    }
+
+    /**
+     * Rebuilds the node table from the nodes reachable from the root when it has grown
+     * past its bound, dropping every memoized result. Nodes of a step in progress that
+     * are not reachable from the root stay valid, they are just no longer shared.
+     */
+    private void collectIfFull() {
+        if (nodes.size() <= collectionThreshold) return;
+
+        nodes.clear();
+        emptyNodes.subList(1, emptyNodes.size()).clear();
+        retain(root, new IdentityHashMap<>());
+        collectionThreshold = Math.max(maxNodes, 2 * nodes.size());
+    }
+
+    /**
+     * Re-inserts a node and its descendants into the table, clearing their memoized results.
+     *
+     * @param node    the node to retain
+     * @param visited the nodes already retained
+     */
+    private void retain(Node node, Map<Node, Boolean> visited) {
+        if (node.level == 0 || visited.put(node, Boolean.TRUE) != null) return;
+
+        node.result = null;
+        nodes.put(node, node);
+        retain(node.nw, visited);
+        retain(node.ne, visited);
+        retain(node.sw, visited);
+        retain(node.se, visited);
+    }
+
+    /**
+     * Returns the canonical node with the specified quadrants.
+     *
+     * @param nw the north-west quadrant
+     * @param ne the north-east quadrant
+     * @param sw the south-west quadrant
+     * @param se the south-east quadrant
+     * @return the canonical node
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        Node key = new Node(nw, ne, sw, se);
+        Node node = nodes.putIfAbsent(key, key);
+        return node == null ? key : node;
+    }
+
+    /**
+     * Returns the canonical empty node of the specified level.
+     *
+     * @param level the level of the node
+     * @return the empty node
+     */
+    private Node empty(int level) {
+        while (emptyNodes.size() <= level) {
+            Node smaller = emptyNodes.get(emptyNodes.size() - 1);
+            emptyNodes.add(join(smaller, smaller, smaller, smaller));
+        }
+        return emptyNodes.get(level);
+    }
+
+    /**
+     * Returns a node one level larger with the specified node in its centre.
+     *
+     * @param node the node to surround with empty space
+     * @return the expanded node
+     */
+    private Node expand(Node node) {
+        Node border = empty(node.level - 1);
+        return join(join(border, border, border, node.nw),
+                join(border, border, node.ne, border),
+                join(border, node.sw, border, border),
+                join(node.se, border, border, border));
+    }
+
+    /**
+     * Returns the centre square of a node, one level smaller.
+     *
+     * @param node the node
+     * @return the centre of the node
+     */
+    private Node centre(Node node) {
+        return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    /**
+     * Returns the centre square of a node of level {@code k >= 2} advanced by
+     * {@code 2^min(j, k - 2)} generations.
+     *
+     * @param node the node to evolve
+     * @param j    the base-2 logarithm of the requested number of generations
+     * @return the evolved centre, one level smaller
+     */
+    private Node successor(Node node, int j) {
+        int step = Math.min(j, node.level - 2);
+        if (node.population == 0) return empty(node.level - 1);
+        if (node.result != null && node.resultStep == step) return node.result;
+        collectIfFull();
+
+        Node result;
+        if (node.level == 2) {
+            result = lifeFourByFour(node);
+        } else {
+            Node c1 = successor(node.nw, step);
+            Node c2 = successor(join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw), step);
+            Node c3 = successor(node.ne, step);
+            Node c4 = successor(join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne), step);
+            Node c5 = successor(centre(node), step);
+            Node c6 = successor(join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne), step);
+            Node c7 = successor(node.sw, step);
+            Node c8 = successor(join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw), step);
+            Node c9 = successor(node.se, step);
+
+            if (step < node.level - 2) {
+                result = join(join(c1.se, c2.sw, c4.ne, c5.nw),
+                        join(c2.se, c3.sw, c5.ne, c6.nw),
+                        join(c4.se, c5.sw, c7.ne, c8.nw),
+                        join(c5.se, c6.sw, c8.ne, c9.nw));
+            } else {
+                result = join(successor(join(c1, c2, c4, c5), step),
+                        successor(join(c2, c3, c5, c6), step),
+                        successor(join(c4, c5, c7, c8), step),
+                        successor(join(c5, c6, c8, c9), step));
+            }
+        }
+
+        node.result = result;
+        node.resultStep = step;
+        return result;
+    }
+
+    /**
+     * Evolves the centre 2x2 cells of a level-2 node by one generation under the rule.
+     *
+     * @param node the 4x4 node
+     * @return the level-1 node holding the next state of the centre
+     */
+    private Node lifeFourByFour(Node node) {
+        boolean[][] cells = new boolean[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                Node quadrant = i < 2 ? (j < 2 ? node.nw : node.ne) : (j < 2 ? node.sw : node.se);
+                Node leaf = (i & 1) == 0 ? ((j & 1) == 0 ? quadrant.nw : quadrant.ne)
+                        : ((j & 1) == 0 ? quadrant.sw : quadrant.se);
+                cells[i][j] = leaf.population > 0;
+            }
+        }
+
+        Node[] next = new Node[4];
+        for (int i = 1; i <= 2; i++) {
+            for (int j = 1; j <= 2; j++) {
+                int neighbors = 0;
+                for (int di = -1; di <= 1; di++) {
+                    for (int dj = -1; dj <= 1; dj++) {
+                        if ((di != 0 || dj != 0) && cells[i + di][j + dj]) neighbors++;
+                    }
+                }
+                next[(i - 1) * 2 + (j - 1)] = rule.next(cells[i][j], neighbors) ? on : off;
+            }
+        }
+        return join(next[0], next[1], next[2], next[3]);
+    }
+
+    /**
+     * A node of the quadtree. Leaves (level 0) are single cells; every other node is
+     * identified by the identity of its four canonical quadrants.
+     */
+    private static final class Node {
+        private final Node nw;
+        private final Node ne;
+        private final Node sw;
+        private final Node se;
+        private final int level;
+        private final long population;
+        private final int hash;
+
+        /**
+         * The memoized evolved centre of this node, or null if none is cached.
+         */
+        private Node result;
+
+        /**
+         * The step exponent the memoized result was computed for.
+         */
+        private int resultStep;
+
+        /**
+         * Constructs a leaf.
+         *
+         * @param alive whether the cell is alive
+         */
+        Node(boolean alive) {
+            this.nw = this.ne = this.sw = this.se = null;
+            this.level = 0;
+            this.population = alive ? 1 : 0;
+            this.hash = alive ? 1 : 0;
+        }
+
+        /**
+         * Constructs an inner node from four nodes of the same level.
+         *
+         * @param nw the north-west quadrant
+         * @param ne the north-east quadrant
+         * @param sw the south-west quadrant
+         * @param se the south-east quadrant
+         */
+        Node(Node nw, Node ne, Node sw, Node se) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            int h = System.identityHashCode(nw);
+            h = 31 * h + System.identityHashCode(ne);
+            h = 31 * h + System.identityHashCode(sw);
+            h = 31 * h + System.identityHashCode(se);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof Node node)) return false;
+            return level > 0 && nw == node.nw && ne == node.ne && sw == node.sw && se == node.se;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A stepping engine for {@link LargerThanLifeRule Larger-than-Life} rules, whose
+ * neighbourhoods reach up to {@value LargerThanLifeRule#MAX_RADIUS} cells away.
+ *
+ * <p>Counting the neighbourhood of every cell directly costs {@code O(R²)} per
+ * cell. Instead, every generation the board is copied into a table padded by
+ * {@code R + 1} cells on each side, filled according to the {@link Boundary} of
+ * the matrix, so that the edges need no special cases, and prefix sums are
+ * built over it once:</p>
+ * <ul>
+ * <li>For the Moore neighbourhood a summed-area table, from which the count of
+ * any square is four lookups.</li>
+ * <li>For the von Neumann neighbourhood two diagonal prefix sums. Moving a
+ * diamond by one cell adds two diagonal edges and removes two others, each of
+ * which is two lookups, so the counts are carried along every row and column
+ * from a single diamond counted directly.</li>
+ * </ul>
+ * <p>Either way the cost per cell is constant regardless of the radius. The
+ * tables are kept between generations, so stepping does not allocate memory
+ * unless the board changes size. The engine plays its own rule and ignores the
+ * {@link Rule} of the matrix. Statistics are counted from every output word as
+ * it is written.</p>
+ */
+public class LargerThanLifeEngine extends StatisticsCollectingEngine {
+    /**
+     * The rule played by the engine.
+     */
+    private final LargerThanLifeRule rule;
+
+    /**
+     * The number of rows and columns of the board the tables were sized for.
+     */
+    private int tableRows = -1, tableCols = -1;
+
+    /**
+     * The padded board, one int per cell.
+     */
+    private int[] padded = new int[0];
+
+    /**
+     * The summed-area table of the padded board, or its down-right diagonal prefix sums
+     * for the von Neumann neighbourhood.
+     */
+    private int[] sums = new int[0];
+
+    /**
+     * The down-left diagonal prefix sums of the padded board, for the von Neumann neighbourhood.
+     */
+    private int[] antiSums = new int[0];
+
+    /**
+     * The counts of the current row of diamonds, for the von Neumann neighbourhood.
+     */
+    private int[] diamonds = new int[0];
+
+    /**
+     * Constructs a LargerThanLifeEngine playing the specified rule.
+     *
+     * @param rule the Larger-than-Life rule
+     */
+    public LargerThanLifeEngine(LargerThanLifeRule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * Returns the rule played by the engine.
+     *
+     * @return the rule
+     */
+    public LargerThanLifeRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Returns the radius of the neighbourhood of the rule.
+     *
+     * @return the radius of the rule
+     */
+    @Override
+    public int getRadius() {
+        return rule.getRadius();
+    }
+
+    /**
+     * Computes the next generation of the specified matrix into its next buffer.
+     *
+     * @param matrix the matrix to step
+     */
+    @Override
+    public void step(BitMatrix matrix) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int margin = rule.getRadius() + 1;
+        int width = cols + 2 * margin;
+
+        if (rows != tableRows || cols != tableCols) {
+            int height = rows + 2 * margin;
+            padded = new int[height * width];
+            if (rule.getNeighborhood() == LargerThanLifeRule.Neighborhood.MOORE) {
+                sums = new int[(height + 1) * (width + 1)];
+            } else {
+                sums = new int[height * width];
+                antiSums = new int[height * width];
+                diamonds = new int[cols];
+            }
+            tableRows = rows;
+            tableCols = cols;
+        }
+
+        StatsAccumulator accumulator = startStatistics(matrix.getWordsPerRow());
+        fillPadded(matrix, margin, width);
+        if (rule.getNeighborhood() == LargerThanLifeRule.Neighborhood.MOORE) {
+            stepMoore(matrix, margin, width, accumulator);
+        } else {
+            stepVonNeumann(matrix, margin, width, accumulator);
+        }
+        finishStatistics(accumulator);
+    }
+
+    /**
+     * Copies the current state into the padded board, filling the margins according to
+     * the boundary of the matrix.
+     *
+     * @param matrix the matrix to copy
+     * @param margin the number of padding cells on each side
+     * @param width  the width of the padded board
+     */
+    private void fillPadded(BitMatrix matrix, int margin, int width) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int wordsPerRow = matrix.getWordsPerRow();
+        long[] words = matrix.getCurrentWords();
+        int height = rows + 2 * margin;
+        Boundary boundary = matrix.getBoundary();
+
+        for (int i = 0; i < height; i++) {
+            int row = boundary.map(i - margin, rows);
+            int out = i * width;
+            if (row < 0) {
+                Arrays.fill(padded, out, out + width, 0);
+                continue;
+            }
+            row *= wordsPerRow;
+            for (int j = 0; j < width; j++) {
+                int col = boundary.map(j - margin, cols);
+                padded[out + j] = col < 0 ? 0 : (int) (words[row + (col >>> 6)] >>> col) & 1;
+            }
+        }
+    }
+
+    /**
+     * Steps the board with the Moore neighbourhood, counting every square in the
+     * summed-area table.
+     *
+     * @param matrix      the matrix to step
+     * @param margin      the number of padding cells on each side
+     * @param width       the width of the padded board
+     * @param accumulator the accumulator counting the written words, or null
+     */
+    private void stepMoore(BitMatrix matrix, int margin, int width, StatsAccumulator accumulator) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int height = rows + 2 * margin;
+        int stride = width + 1;
+
+        for (int i = 0; i < height; i++) {
+            int rowSum = 0;
+            for (int j = 0; j < width; j++) {
+                rowSum += padded[i * width + j];
+                sums[(i + 1) * stride + j + 1] = sums[i * stride + j + 1] + rowSum;
+            }
+        }
+
+        int radius = rule.getRadius();
+        int middle = rule.countsMiddle() ? 0 : 1;
+        long[] src = matrix.getCurrentWords();
+        long[] dst = matrix.getNextWords();
+        int wordsPerRow = matrix.getWordsPerRow();
+        for (int r = 0; r < rows; r++) {
+            int top = (r + margin - radius) * stride;
+            int bottom = (r + margin + radius + 1) * stride;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = 0;
+                int end = Math.min(64, cols - w * 64);
+                for (int bit = 0; bit < end; bit++) {
+                    int c = w * 64 + bit;
+                    int left = c + margin - radius;
+                    int right = c + margin + radius + 1;
+                    int alive = padded[(r + margin) * width + c + margin];
+                    int count = sums[bottom + right] - sums[top + right] - sums[bottom + left] + sums[top + left]
+                            - middle * alive;
+                    if (rule.next(alive != 0, count)) word |= 1L << bit;
+                }
+                if (accumulator != null) accumulator.addWord(src[r * wordsPerRow + w], word, r, w);
+                dst[r * wordsPerRow + w] = word;
+            }
+        }
+    }
+
+    /**
+     * Steps the board with the von Neumann neighbourhood, carrying the diamond counts
+     * along the rows and columns with the diagonal prefix sums.
+     *
+     * @param matrix      the matrix to step
+     * @param margin      the number of padding cells on each side
+     * @param width       the width of the padded board
+     * @param accumulator the accumulator counting the written words, or null
+     */
+    private void stepVonNeumann(BitMatrix matrix, int margin, int width, StatsAccumulator accumulator) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int height = rows + 2 * margin;
+        int[] down = sums;
+        int[] anti = antiSums;
+
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                int index = i * width + j;
+                down[index] = padded[index] + (i > 0 && j > 0 ? down[index - width - 1] : 0);
+                anti[index] = padded[index] + (i > 0 && j < width - 1 ? anti[index - width + 1] : 0);
+            }
+        }
+
+        int radius = rule.getRadius();
+        int count = 0;
+        for (int dx = -radius; dx <= radius; dx++) {
+            int reach = radius - Math.abs(dx);
+            for (int dy = -reach; dy <= reach; dy++) {
+                count += padded[(margin + dx) * width + margin + dy];
+            }
+        }
+        diamonds[0] = count;
+        for (int c = 0; c < cols - 1; c++) {
+            int i = margin;
+            int j = c + margin;
+            diamonds[c + 1] = diamonds[c]
+                    + down[i * width + j + 1 + radius] - down[(i - radius - 1) * width + j]
+                    + anti[(i + radius) * width + j + 1] - anti[i * width + j + radius + 1]
+                    - anti[i * width + j - radius] + anti[(i - radius - 1) * width + j + 1]
+                    - down[(i + radius) * width + j] + down[i * width + j - radius];
+        }
+
+        int middle = rule.countsMiddle() ? 0 : 1;
+        long[] src = matrix.getCurrentWords();
+        long[] dst = matrix.getNextWords();
+        int wordsPerRow = matrix.getWordsPerRow();
+        for (int r = 0; r < rows; r++) {
+            int i = r + margin;
+            if (r > 0) {
+                i--;
+                for (int c = 0; c < cols; c++) {
+                    int j = c + margin;
+                    diamonds[c] += down[(i + 1 + radius) * width + j] - down[i * width + j - radius - 1]
+                            + anti[(i + radius) * width + j + 1] - anti[i * width + j + radius + 1]
+                            - anti[i * width + j - radius] + anti[(i - radius - 1) * width + j + 1]
+                            - down[i * width + j + radius] + down[(i - radius) * width + j];
+                }
+                i++;
+            }
+
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = 0;
+                int end = Math.min(64, cols - w * 64);
+                for (int bit = 0; bit < end; bit++) {
+                    int c = w * 64 + bit;
+                    int alive = padded[i * width + c + margin];
+                    if (rule.next(alive != 0, diamonds[c] - middle * alive)) word |= 1L << bit;
+                }
+                if (accumulator != null) accumulator.addWord(src[r * wordsPerRow + w], word, r, w);
+                dst[r * wordsPerRow + w] = word;
+            }
+        }
+    }
+}
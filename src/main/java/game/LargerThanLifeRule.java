@@ -0,0 +1,223 @@
+package game;
+
+/**
+ * A Larger-than-Life rule, in which cells count their live neighbours within a
+ * radius {@code R} instead of the eight adjacent cells.
+ *
+ * <p>Rules are written in the usual notation {@code Rr,Cc,Mm,Sa..b,Bc..d,Nn}, for
+ * example {@code R5,C0,M1,S34..58,B34..45,NM} (Bosco's Rule):</p>
+ * <ul>
+ * <li>{@code R} is the radius, from 1 to {@value #MAX_RADIUS}.</li>
+ * <li>{@code C} is the number of states; only two-state rules ({@code C0} or
+ * {@code C2}) are supported.</li>
+ * <li>{@code M1} counts the cell itself among its neighbours, {@code M0} does not.</li>
+ * <li>{@code S} and {@code B} are the inclusive ranges of counts for which a live
+ * cell survives and a dead cell comes alive.</li>
+ * <li>{@code NM} selects the Moore neighbourhood (a square) and {@code NN} the von
+ * Neumann neighbourhood (a diamond).</li>
+ * </ul>
+ * <p>Every part except {@code R} is optional and the parts may come in any order.
+ * A rule is compiled once into a table indexed by state and count.</p>
+ */
+public final class LargerThanLifeRule {
+    /**
+     * The largest supported radius.
+     */
+    public static final int MAX_RADIUS = 16;
+
+    /**
+     * The shapes of neighbourhood a rule can use.
+     */
+    public enum Neighborhood {
+        /**
+         * The cells within Chebyshev distance {@code R}, a square of side {@code 2R + 1}.
+         */
+        MOORE,
+
+        /**
+         * The cells within Manhattan distance {@code R}, a diamond.
+         */
+        VON_NEUMANN
+    }
+
+    /**
+     * The radius of the neighbourhood.
+     */
+    private final int radius;
+
+    /**
+     * The shape of the neighbourhood.
+     */
+    private final Neighborhood neighborhood;
+
+    /**
+     * Whether the cell itself is counted among its neighbours.
+     */
+    private final boolean countsMiddle;
+
+    /**
+     * The inclusive range of counts for which a live cell survives.
+     */
+    private final int survivalMin, survivalMax;
+
+    /**
+     * The inclusive range of counts for which a dead cell comes alive.
+     */
+    private final int birthMin, birthMax;
+
+    /**
+     * The next state of a dead cell at index {@code count}, and of a live cell at
+     * index {@code cells + count}, where {@code cells} is the size of the neighbourhood
+     * plus one.
+     */
+    private final boolean[] transitions;
+
+    /**
+     * Constructs a Larger-than-Life rule.
+     *
+     * @param radius       the radius of the neighbourhood, from 1 to {@value #MAX_RADIUS}
+     * @param neighborhood the shape of the neighbourhood
+     * @param countsMiddle whether the cell itself is counted
+     * @param survivalMin  the smallest count for which a live cell survives
+     * @param survivalMax  the largest count for which a live cell survives
+     * @param birthMin     the smallest count for which a dead cell comes alive
+     * @param birthMax     the largest count for which a dead cell comes alive
+     * @throws IllegalArgumentException if the radius is out of range
+     */
+    public LargerThanLifeRule(int radius, Neighborhood neighborhood, boolean countsMiddle,
+                              int survivalMin, int survivalMax, int birthMin, int birthMax) {
+        if (radius < 1 || radius > MAX_RADIUS) throw new IllegalArgumentException("Invalid radius.");
+        this.radius = radius;
+        this.neighborhood = neighborhood;
+        this.countsMiddle = countsMiddle;
+        this.survivalMin = survivalMin;
+        this.survivalMax = survivalMax;
+        this.birthMin = birthMin;
+        this.birthMax = birthMax;
+
+        int cells = getNeighborhoodSize() + 1;
+        this.transitions = new boolean[2 * cells];
+        for (int count = 0; count < cells; count++) {
+            transitions[count] = count >= birthMin && count <= birthMax;
+            transitions[cells + count] = count >= survivalMin && count <= survivalMax;
+        }
+    }
+
+    /**
+     * Parses a rule in {@code Rr,Cc,Mm,Sa..b,Bc..d,Nn} notation.
+     *
+     * @param notation the rule, for example {@code "R5,C0,M1,S34..58,B34..45,NM"}
+     * @return the compiled rule
+     * @throws IllegalArgumentException if the notation is not a valid two-state rule
+     */
+    public static LargerThanLifeRule parse(String notation) {
+        int radius = -1;
+        Neighborhood neighborhood = Neighborhood.MOORE;
+        boolean countsMiddle = false;
+        int[] survival = { 0, -1 };
+        int[] birth = { 0, -1 };
+
+        try {
+            for (String part : notation.trim().toUpperCase().split(",")) {
+                String value = part.substring(1).trim();
+                switch (part.trim().charAt(0)) {
+                    case 'R' -> radius = Integer.parseInt(value);
+                    case 'C' -> {
+                        int states = Integer.parseInt(value);
+                        if (states != 0 && states != 2) throw new IllegalArgumentException("Invalid rule.");
+                    }
+                    case 'M' -> countsMiddle = Integer.parseInt(value) != 0;
+                    case 'S' -> survival = parseRange(value);
+                    case 'B' -> birth = parseRange(value);
+                    case 'N' -> neighborhood = switch (value) {
+                        case "M" -> Neighborhood.MOORE;
+                        case "N" -> Neighborhood.VON_NEUMANN;
+                        default -> throw new IllegalArgumentException("Invalid rule.");
+                    };
+                    default -> throw new IllegalArgumentException("Invalid rule.");
+                }
+            }
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid rule.");
+        }
+        if (radius < 0) throw new IllegalArgumentException("Invalid rule.");
+        return new LargerThanLifeRule(radius, neighborhood, countsMiddle, survival[0], survival[1], birth[0], birth[1]);
+    }
+
+    /**
+     * Parses a count range written as {@code a..b} or as a single count.
+     *
+     * @param value the range
+     * @return the inclusive bounds of the range
+     * @throws NumberFormatException if a bound is not a number
+     */
+    private static int[] parseRange(String value) {
+        int separator = value.indexOf("..");
+        if (separator < 0) {
+            int count = Integer.parseInt(value);
+            return new int[] { count, count };
+        }
+        return new int[] { Integer.parseInt(value.substring(0, separator)), Integer.parseInt(value.substring(separator + 2)) };
+    }
+
+    /**
+     * Returns the radius of the neighbourhood.
+     *
+     * @return the radius
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the shape of the neighbourhood.
+     *
+     * @return the neighbourhood
+     */
+    public Neighborhood getNeighborhood() {
+        return neighborhood;
+    }
+
+    /**
+     * Returns whether the cell itself is counted among its neighbours.
+     *
+     * @return true if the middle cell is counted
+     */
+    public boolean countsMiddle() {
+        return countsMiddle;
+    }
+
+    /**
+     * Returns the number of cells in the neighbourhood, including the middle cell if
+     * it is counted.
+     *
+     * @return the largest possible count
+     */
+    public int getNeighborhoodSize() {
+        int side = 2 * radius + 1;
+        int cells = neighborhood == Neighborhood.MOORE ? side * side : 2 * radius * (radius + 1) + 1;
+        return countsMiddle ? cells : cells - 1;
+    }
+
+    /**
+     * Returns the next state of a cell.
+     *
+     * @param alive whether the cell is alive
+     * @param count the number of live cells in its neighbourhood, as counted by this rule
+     * @return true if the cell is alive in the next generation
+     */
+    public boolean next(boolean alive, int count) {
+        return transitions[alive ? transitions.length / 2 + count : count];
+    }
+
+    /**
+     * Returns the rule in {@code Rr,Cc,Mm,Sa..b,Bc..d,Nn} notation.
+     *
+     * @return the rule
+     */
+    @Override
+    public String toString() {
+        return "R" + radius + ",C0,M" + (countsMiddle ? 1 : 0) + ",S" + survivalMin + ".." + survivalMax
+                + ",B" + birthMin + ".." + birthMax + ",N" + (neighborhood == Neighborhood.MOORE ? "M" : "N");
+    }
+}
@@ -0,0 +1,190 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A stepping engine that advances the board by table lookups instead of counting
+ * neighbours cell by cell.
+ *
+ * <p>The table maps every 4x4 neighbourhood (65,536 entries) to the next state of
+ * its centre 2x2 block. The board is walked in 2x2 output blocks; for each block
+ * the four input rows of its 4x4 neighbourhood are read as nibbles and
+ * concatenated into the table index. The rows are first copied into a buffer
+ * that is widened by one cell on each side, filled according to the
+ * {@link Boundary}, so every nibble is a plain shift and the edges need no
+ * special cases. Rows beyond a dead edge read an extra all-zero row.</p>
+ *
+ * <p>The table is generated from the {@link Rule} of the matrix, so the engine
+ * works for any Life-like rule. It is rebuilt only when the rule changes.
+ * Statistics are counted from every output word as it is written.</p>
+ */
+public class LookupTableEngine extends StatisticsCollectingEngine {
+    /**
+     * The next state of the centre 2x2 block of every 4x4 neighbourhood. Bit
+     * {@code 4 * r + c} of the index is the cell at row {@code r}, column {@code c}
+     * of the neighbourhood; bit {@code 2 * r + c} of the entry is the cell at row
+     * {@code r + 1}, column {@code c + 1}.
+     */
+    private byte[] table;
+
+    /**
+     * The rule the table was generated from, or null if no table was generated yet.
+     */
+    private Rule tableRule;
+
+    /**
+     * The rows of the current state widened by one cell on each side, followed by an all-zero row.
+     */
+    private long[] extended = new long[0];
+
+    /**
+     * Generates the 4x4 to 2x2 table of a Life-like rule.
+     *
+     * @param rule the rule
+     * @return the table
+     */
+    private static byte[] buildTable(Rule rule) {
+        byte[] table = new byte[1 << 16];
+        for (int index = 0; index < table.length; index++) {
+            int result = 0;
+            for (int r = 1; r <= 2; r++) {
+                for (int c = 1; c <= 2; c++) {
+                    int neighbors = 0;
+                    for (int i = -1; i <= 1; i++) {
+                        for (int j = -1; j <= 1; j++) {
+                            if (i == 0 && j == 0) continue;
+                            neighbors += (index >>> (4 * (r + i) + c + j)) & 1;
+                        }
+                    }
+                    boolean alive = ((index >>> (4 * r + c)) & 1) != 0;
+                    if (rule.next(alive, neighbors)) result |= 1 << (2 * (r - 1) + (c - 1));
+                }
+            }
+            table[index] = (byte) result;
+        }
+        return table;
+    }
+
+    /**
+     * Computes the next generation of the specified matrix into its next buffer.
+     *
+     * @param matrix the matrix to step
+     */
+    @Override
+    public void step(BitMatrix matrix) {
+        long[] src = matrix.getCurrentWords();
+        long[] dst = matrix.getNextWords();
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int wordsPerRow = matrix.getWordsPerRow();
+        int extendedWords = ((cols + 2) >>> 6) + 2;
+
+        if (!matrix.getRule().equals(tableRule)) {
+            tableRule = matrix.getRule();
+            table = buildTable(tableRule);
+        }
+
+        Boundary boundary = matrix.getBoundary();
+        StatsAccumulator accumulator = startStatistics(wordsPerRow);
+        if (extended.length != (rows + 1) * extendedWords) extended = new long[(rows + 1) * extendedWords];
+        for (int row = 0; row < rows; row++) {
+            extendRow(boundary, src, row * wordsPerRow, wordsPerRow, cols, extended, row * extendedWords, extendedWords);
+        }
+
+        long lastMask = BitMatrix.lastWordMask(cols);
+        for (int top = 0; top < rows; top += 2) {
+            int r0 = extendedRow(boundary, top - 1, rows) * extendedWords;
+            int r1 = top * extendedWords;
+            int r2 = extendedRow(boundary, top + 1, rows) * extendedWords;
+            int r3 = extendedRow(boundary, top + 2, rows) * extendedWords;
+            boolean secondRow = top + 1 < rows;
+            int out0 = top * wordsPerRow;
+            int out1 = (top + 1) * wordsPerRow;
+
+            for (int w = 0; w < wordsPerRow; w++) {
+                long first = 0;
+                long second = 0;
+                int end = Math.min(64, cols - w * 64);
+                for (int bit = 0; bit < end; bit += 2) {
+                    int p = w * 64 + bit;
+                    int index = nibble(extended, r0, p)
+                            | (nibble(extended, r1, p) << 4)
+                            | (nibble(extended, r2, p) << 8)
+                            | (nibble(extended, r3, p) << 12);
+                    int result = table[index];
+                    first |= (long) (result & 3) << bit;
+                    second |= (long) ((result >>> 2) & 3) << bit;
+                }
+                if (w == wordsPerRow - 1) {
+                    first &= lastMask;
+                    second &= lastMask;
+                }
+                if (accumulator != null) {
+                    accumulator.addWord(src[out0 + w], first, top, w);
+                    if (secondRow) accumulator.addWord(src[out1 + w], second, top + 1, w);
+                }
+                dst[out0 + w] = first;
+                if (secondRow) dst[out1 + w] = second;
+            }
+        }
+        finishStatistics(accumulator);
+    }
+
+    /**
+     * Returns the widened row standing in for a row that may lie beyond the top or
+     * bottom edge. Rows beyond a dead edge map to the all-zero row after the last one.
+     *
+     * @param boundary what lies beyond the edges of the board
+     * @param row      the index of the row, possibly outside the board
+     * @param rows     the number of rows of the board
+     * @return the index of the widened row
+     */
+    private static int extendedRow(Boundary boundary, int row, int rows) {
+        if (row >= 0 && row < rows) return row;
+        int mapped = boundary.map(row, rows);
+        return mapped < 0 ? rows : mapped;
+    }
+
+    /**
+     * Copies a row into the widened buffer, shifted right by one cell, with the cells
+     * standing in for the ones beyond the left and right edges in front of and after it.
+     *
+     * @param boundary      what lies beyond the edges of the board
+     * @param src           the packed current state
+     * @param offset        the offset of the row
+     * @param wordsPerRow   the number of words per row
+     * @param cols          the number of columns of the board
+     * @param extended      the widened buffer
+     * @param out           the offset of the row in the widened buffer
+     * @param extendedWords the number of words per widened row
+     */
+    private static void extendRow(Boundary boundary, long[] src, int offset, int wordsPerRow, int cols,
+                                  long[] extended, int out, int extendedWords) {
+        Arrays.fill(extended, out, out + extendedWords, 0L);
+        for (int w = 0; w < wordsPerRow; w++) {
+            long word = src[offset + w];
+            extended[out + w] |= word << 1;
+            extended[out + w + 1] |= word >>> 63;
+        }
+        int last = wordsPerRow - 1;
+        int lastBit = (cols - 1) & 63;
+        extended[out] |= SwarEngine.westEdge(boundary, src, offset, last, lastBit);
+        extended[out + ((cols + 1) >>> 6)] |= SwarEngine.eastEdge(boundary, src, offset, last, lastBit) << (cols + 1);
+    }
+
+    /**
+     * Reads the four cells starting at the specified position of a widened row.
+     *
+     * @param extended the widened buffer
+     * @param row      the offset of the row in the widened buffer
+     * @param p        the position of the first cell
+     * @return the four cells as the low bits of an int
+     */
+    private static int nibble(long[] extended, int row, int p) {
+        int word = row + (p >>> 6);
+        int shift = p & 63;
+        long bits = extended[word] >>> shift;
+        if (shift > 60) bits |= extended[word + 1] << (64 - shift);
+        return (int) bits & 0xF;
+    }
+}
@@ -0,0 +1,570 @@
+package game;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A bit-packed {@link BufferedMatrix} of Boolean values whose two buffers live
+ * outside the Java heap, either in direct memory or in a file mapped into memory.
+ * The words are laid out exactly like in a {@link BitMatrix}, 64 cells per
+ * {@code long}, row after row.
+ *
+ * <p>A mapped matrix is backed by a file holding a small header, with the size,
+ * the rule, the boundary and which buffer is current, followed by both buffers.
+ * The operating system pages the board in and out as it is stepped, so the board
+ * may be larger than the heap, and {@link #open(File)} reopens a saved board
+ * instantly by mapping the file again instead of reading it. The header marks the
+ * other buffer as current only once a whole generation has been written to it.
+ * Direct buffers count against {@code -XX:MaxDirectMemorySize}, which defaults to
+ * the maximum heap size, so boards larger than the heap should be mapped.</p>
+ *
+ * <p>Every buffer is a single mapping and is therefore limited to 2 GiB, a board
+ * of about 17 billion cells.</p>
+ *
+ * <p>The stepping engines work on {@code long} arrays, so {@link #step(StepEngine)}
+ * streams the board through a small {@link BitMatrix} window: a band of rows
+ * that fits in the cache is copied into the window together with
+ * {@link StepEngine#getRadius()} rows above and below it, read through the
+ * {@link Boundary} of the matrix, the engine steps the window, and the rows of the
+ * band are copied to the next buffer. The extra rows are only there as neighbours
+ * and are dropped, so any engine computes the same generation as on a
+ * {@link BitMatrix}.</p>
+ */
+public final class OffHeapBitMatrix extends BufferedMatrix<Boolean> {
+    /**
+     * The first eight bytes of a mapped matrix file, "LIFEMAP1" in ASCII.
+     */
+    private static final long MAGIC = 0x4C4946454D415031L;
+
+    /**
+     * The size of the header in front of the buffers of a mapped matrix file.
+     */
+    private static final int HEADER_BYTES = 64;
+
+    /**
+     * The offsets of the fields of the header.
+     */
+    private static final int ROWS_OFFSET = 8, COLS_OFFSET = 12, BOUNDARY_OFFSET = 16, CURRENT_OFFSET = 20,
+            RULE_LENGTH_OFFSET = 24, RULE_OFFSET = 28;
+
+    /**
+     * A block of zero words used to clear the buffers.
+     */
+    private static final long[] ZERO_WORDS = new long[1024];
+
+    /**
+     * The file the buffers are mapped from, or null if they are in direct memory.
+     */
+    private final File file;
+
+    /**
+     * The header of the matrix, mapped from the file or kept on the heap.
+     */
+    private ByteBuffer header;
+
+    /**
+     * The two buffers as mapped from the file, or null if they are in direct memory.
+     */
+    private MappedByteBuffer[] mappings;
+
+    /**
+     * The number of {@code long} words used to store a single row.
+     */
+    private int wordsPerRow;
+
+    /**
+     * The current state of the matrix, packed 64 cells per word.
+     */
+    private LongBuffer currentWords;
+
+    /**
+     * The next state of the matrix, packed 64 cells per word.
+     */
+    private LongBuffer nextWords;
+
+    /**
+     * Which of the two buffers holds the current state, 0 or 1.
+     */
+    private int currentIndex;
+
+    /**
+     * The on-heap matrix the bands are stepped in, or null before the first step.
+     */
+    private BitMatrix window;
+
+    /**
+     * Constructs a new OffHeapBitMatrix in direct memory with the specified dimensions,
+     * with every cell dead.
+     *
+     * @param x the number of rows in the matrix
+     * @param y the number of columns in the matrix
+     * @throws IllegalArgumentException if a buffer would exceed 2 GiB
+     */
+    public OffHeapBitMatrix(int x, int y) {
+        super(x, y);
+        this.file = null;
+        try {
+            allocate(x, y);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Constructs an OffHeapBitMatrix mapped from the specified file.
+     *
+     * @param file the file backing the matrix
+     */
+    private OffHeapBitMatrix(File file) {
+        super(0, 0);
+        this.file = file;
+    }
+
+    /**
+     * Creates a new matrix with the specified dimensions mapped from the specified file,
+     * with every cell dead. An existing file is overwritten.
+     *
+     * @param file the file backing the matrix
+     * @param x    the number of rows in the matrix
+     * @param y    the number of columns in the matrix
+     * @return the new matrix
+     * @throws IOException if the file cannot be created or mapped
+     * @throws IllegalArgumentException if a buffer would exceed 2 GiB
+     */
+    public static OffHeapBitMatrix create(File file, int x, int y) throws IOException {
+        OffHeapBitMatrix matrix = new OffHeapBitMatrix(file);
+        matrix.allocate(x, y);
+        return matrix;
+    }
+
+    /**
+     * Reopens a matrix saved in the specified file by mapping it, without reading the
+     * cells. The matrix continues from the generation that was current when the file
+     * was last written.
+     *
+     * @param file the file written by a mapped matrix
+     * @return the reopened matrix
+     * @throws IOException if the file cannot be mapped or is not a matrix file
+     */
+    public static OffHeapBitMatrix open(File file) throws IOException {
+        OffHeapBitMatrix matrix = new OffHeapBitMatrix(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Not a matrix file.");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong(0) != MAGIC) throw new IOException("Not a matrix file.");
+
+            int rows = header.getInt(ROWS_OFFSET);
+            int cols = header.getInt(COLS_OFFSET);
+            long bufferBytes = bufferBytes(rows, cols);
+            if (channel.size() != HEADER_BYTES + 2 * bufferBytes) throw new IOException("Truncated matrix file.");
+
+            int ruleLength = header.getInt(RULE_LENGTH_OFFSET);
+            if (ruleLength < 0 || ruleLength > HEADER_BYTES - RULE_OFFSET) throw new IOException("Corrupt matrix file.");
+            byte[] rule = new byte[ruleLength];
+            header.get(RULE_OFFSET, rule);
+            Boundary boundary = Boundary.values()[header.getInt(BOUNDARY_OFFSET)];
+            matrix.map(channel, header, rows, cols, (int) bufferBytes);
+            matrix.currentIndex = header.getInt(CURRENT_OFFSET) & 1;
+            matrix.currentWords = matrix.mappings[matrix.currentIndex].asLongBuffer();
+            matrix.nextWords = matrix.mappings[matrix.currentIndex ^ 1].asLongBuffer();
+            matrix.setRule(Rule.parse(new String(rule, StandardCharsets.US_ASCII)));
+            matrix.setBoundary(boundary);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt matrix file.", e);
+        }
+        return matrix;
+    }
+
+    /**
+     * Returns the number of bytes of a buffer of a matrix of the specified dimensions.
+     *
+     * @param x the number of rows
+     * @param y the number of columns
+     * @return the size of one buffer in bytes
+     * @throws IllegalArgumentException if a buffer would exceed 2 GiB
+     */
+    private static long bufferBytes(int x, int y) {
+        long bytes = (long) x * BitMatrix.wordsPerRow(y) * Long.BYTES;
+        if (x < 1 || y < 1 || bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("Invalid matrix size.");
+        return bytes;
+    }
+
+    /**
+     * Allocates both buffers for a matrix of the specified dimensions, in direct memory
+     * or by mapping a new file of the matching size.
+     *
+     * @param x the number of rows
+     * @param y the number of columns
+     * @throws IOException if the file cannot be mapped
+     */
+    private void allocate(int x, int y) throws IOException {
+        int bufferBytes = (int) bufferBytes(x, y);
+        if (file == null) {
+            this.x = x;
+            this.y = y;
+            this.wordsPerRow = BitMatrix.wordsPerRow(y);
+            this.header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            this.currentWords = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            this.nextWords = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        } else {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                map(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN),
+                        x, y, bufferBytes);
+            }
+            this.currentWords = mappings[0].asLongBuffer();
+            this.nextWords = mappings[1].asLongBuffer();
+        }
+        this.currentIndex = 0;
+        writeHeader();
+    }
+
+    /**
+     * Maps both buffers of a matrix file of the specified dimensions.
+     *
+     * @param channel     the channel of the file
+     * @param header      the mapped header of the file
+     * @param x           the number of rows
+     * @param y           the number of columns
+     * @param bufferBytes the size of one buffer in bytes
+     * @throws IOException if the file cannot be mapped
+     */
+    private void map(FileChannel channel, ByteBuffer header, int x, int y, int bufferBytes) throws IOException {
+        this.x = x;
+        this.y = y;
+        this.wordsPerRow = BitMatrix.wordsPerRow(y);
+        this.header = header;
+        this.mappings = new MappedByteBuffer[2];
+        for (int i = 0; i < 2; i++) {
+            mappings[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) i * bufferBytes, bufferBytes);
+            mappings[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Writes the size, rule, boundary and current buffer into the header.
+     */
+    private void writeHeader() {
+        byte[] rule = getRule().toString().getBytes(StandardCharsets.US_ASCII);
+        header.putLong(0, MAGIC);
+        header.putInt(ROWS_OFFSET, x);
+        header.putInt(COLS_OFFSET, y);
+        header.putInt(BOUNDARY_OFFSET, getBoundary().ordinal());
+        header.putInt(CURRENT_OFFSET, currentIndex);
+        header.putInt(RULE_LENGTH_OFFSET, rule.length);
+        header.put(RULE_OFFSET, rule);
+    }
+
+    /**
+     * Returns the file the matrix is mapped from.
+     *
+     * @return the backing file, or null if the matrix is in direct memory
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the changes of a mapped matrix to its file, so that it can be reopened
+     * after the process ends. Does nothing for a matrix in direct memory.
+     */
+    public void flush() {
+        if (mappings == null) return;
+        for (MappedByteBuffer mapping : mappings) {
+            mapping.force();
+        }
+        ((MappedByteBuffer) header).force();
+    }
+
+    /**
+     * Retrieves the value at the specified position in the current matrix.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return the value at the specified position
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    @Override
+    public Boolean get(int x, int y) {
+        return isAlive(x, y);
+    }
+
+    /**
+     * Retrieves the value at the specified position in the current matrix without boxing.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return true if the cell is alive
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    public boolean isAlive(int x, int y) {
+        validateIndices(x, y);
+        return (currentWords.get(x * wordsPerRow + (y >>> 6)) & (1L << y)) != 0;
+    }
+
+    /**
+     * Updates the value at the specified position in the current matrix.
+     *
+     * @param x     the row index
+     * @param y     the column index
+     * @param value the new value to set
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    @Override
+    public void update(int x, int y, Boolean value) {
+        validateIndices(x, y);
+        writeBit(currentWords, x, y, value);
+    }
+
+    /**
+     * Sets a value at the specified position in the next matrix.
+     *
+     * @param x     the row index
+     * @param y     the column index
+     * @param value the value to set
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    @Override
+    public void set(int x, int y, Boolean value) {
+        validateIndices(x, y);
+        writeBit(nextWords, x, y, value);
+    }
+
+    /**
+     * Writes a single bit of the specified buffer.
+     *
+     * @param words the buffer to write
+     * @param x     the row index
+     * @param y     the column index
+     * @param value the value of the bit
+     */
+    private void writeBit(LongBuffer words, int x, int y, boolean value) {
+        int index = x * wordsPerRow + (y >>> 6);
+        long word = words.get(index);
+        words.put(index, value ? word | 1L << y : word & ~(1L << y));
+    }
+
+    /**
+     * Advances the current matrix to the next state and clears the next matrix.
+     */
+    @Override
+    public void next() {
+        swap();
+        fill(nextWords);
+    }
+
+    /**
+     * Advances the current matrix to the next state without clearing the next matrix,
+     * which is left holding the previous generation.
+     */
+    public void swap() {
+        LongBuffer previous = currentWords;
+        currentWords = nextWords;
+        nextWords = previous;
+        currentIndex ^= 1;
+        header.putInt(CURRENT_OFFSET, currentIndex);
+    }
+
+    /**
+     * Computes the next generation with the specified engine and advances the matrix to
+     * it, one band of rows at a time. The window the bands are stepped in is kept
+     * between calls, so stepping does not allocate memory unless the matrix changes
+     * size or the engine has a larger radius. Statistics collected by the engine
+     * describe the last window rather than the board.
+     *
+     * @param engine the engine computing the generation
+     */
+    public void step(StepEngine engine) {
+        int radius = engine.getRadius();
+        int bandRows = Math.max(1, Math.min(x, TemporalBlocking.CACHE_BYTES / (Long.BYTES * wordsPerRow)));
+        int height = bandRows + 2 * radius;
+        if (window == null || window.getSizeX() != height || window.getSizeY() != y) {
+            window = new BitMatrix(height, y);
+        }
+        Boundary boundary = getBoundary();
+        window.setRule(getRule());
+        window.setBoundary(boundary);
+        long[] words = window.getCurrentWords();
+
+        for (int fromRow = 0; fromRow < x; fromRow += bandRows) {
+            int toRow = Math.min(x, fromRow + bandRows);
+            int used = toRow - fromRow + 2 * radius;
+            for (int i = 0; i < height; i++) {
+                int row = i < used ? boundary.map(fromRow - radius + i, x) : -1;
+                if (row < 0) {
+                    Arrays.fill(words, i * wordsPerRow, (i + 1) * wordsPerRow, 0L);
+                } else {
+                    currentWords.get(row * wordsPerRow, words, i * wordsPerRow, wordsPerRow);
+                }
+            }
+            window.markModified();
+            engine.step(window);
+            nextWords.put(fromRow * wordsPerRow, window.getNextWords(), radius * wordsPerRow,
+                    (toRow - fromRow) * wordsPerRow);
+        }
+        swap();
+    }
+
+    /**
+     * Clears both the current and next matrices, resetting every cell to dead.
+     */
+    @Override
+    public void clear() {
+        fill(currentWords);
+        fill(nextWords);
+    }
+
+    /**
+     * Sets every word of the specified buffer to zero.
+     *
+     * @param words the buffer to clear
+     */
+    private static void fill(LongBuffer words) {
+        for (int index = 0; index < words.capacity(); index += ZERO_WORDS.length) {
+            words.put(index, ZERO_WORDS, 0, Math.min(ZERO_WORDS.length, words.capacity() - index));
+        }
+    }
+
+    /**
+     * Changes the size of the matrix to the specified dimensions, clearing the current
+     * and next matrices. A mapped matrix maps its file again at the new size.
+     *
+     * @param x the new number of rows
+     * @param y the new number of columns
+     * @throws IndexOutOfBoundsException if the new size is less than 1
+     * @throws UncheckedIOException if the file cannot be mapped again
+     */
+    @Override
+    public void changeSize(int x, int y) {
+        if (x < 1 || y < 1) throw new IndexOutOfBoundsException("Invalid matrix size.");
+        try {
+            allocate(x, y);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the rule of the game played on the matrix.
+     *
+     * @param rule the new rule
+     */
+    @Override
+    public void setRule(Rule rule) {
+        super.setRule(rule);
+        if (header != null) writeHeader();
+    }
+
+    /**
+     * Sets what lies beyond the edges of the matrix.
+     *
+     * @param boundary the new boundary
+     */
+    @Override
+    public void setBoundary(Boundary boundary) {
+        super.setBoundary(boundary);
+        if (header != null) writeHeader();
+    }
+
+    /**
+     * Returns the number of words used to store a single row.
+     *
+     * @return the number of words per row
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Serializes the current state of the matrix to a JSON file, using the same layout
+     * as {@link BitMatrix#toJson(File)}, streamed straight from the packed words.
+     *
+     * @param file the file to which the matrix should be saved
+     */
+    @Override
+    public void toJson(File file) {
+        try (JsonWriter writer = new JsonWriter(new FileWriter(file))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("x").value(x);
+            writer.name("y").value(y);
+            writer.name("currentMatrix");
+            writer.beginArray();
+            for (int i = 0; i < x; i++) {
+                writer.beginArray();
+                for (int j = 0; j < y; j++) {
+                    writer.value((currentWords.get(i * wordsPerRow + (j >>> 6)) & (1L << j)) != 0);
+                }
+                writer.endArray();
+            }
+            writer.endArray();
+            writer.name("defaultValue").value(false);
+            writer.name("rule").value(getRule().toString());
+            writer.name("boundary").value(getBoundary().name());
+            writer.endObject();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Deserializes the matrix state from a JSON file written by any matrix, updating the
+     * current instance. A mapped matrix maps its file again at the loaded size.
+     *
+     * @param file the file from which to load the matrix
+     */
+    @Override
+    public void fromJson(File file) {
+        try (JsonReader reader = new JsonReader(new FileReader(file))) {
+            int rows = -1;
+            int cols = -1;
+            Rule rule = Rule.CONWAY;
+            Boundary boundary = Boundary.TORUS;
+            List<long[]> packedRows = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "x" -> rows = reader.nextInt();
+                    case "y" -> cols = reader.nextInt();
+                    case "currentMatrix" -> BitMatrix.readRows(reader, packedRows);
+                    case "rule" -> rule = Rule.parse(reader.nextString());
+                    case "boundary" -> boundary = Boundary.valueOf(reader.nextString());
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (rows < 1 || cols < 1) throw new IOException("Missing matrix size.");
+            allocate(rows, cols);
+            setRule(rule);
+            setBoundary(boundary);
+
+            for (int i = 0; i < Math.min(rows, packedRows.size()); i++) {
+                long[] row = packedRows.get(i);
+                int length = Math.min(row.length, wordsPerRow);
+                currentWords.put(i * wordsPerRow, row, 0, length);
+                int last = (i + 1) * wordsPerRow - 1;
+                currentWords.put(last, currentWords.get(last) & BitMatrix.lastWordMask(cols));
+            }
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+}
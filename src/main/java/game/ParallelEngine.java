@@ -0,0 +1,206 @@
+package game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A multi-core stepping engine that splits the board into bands of rows and
+ * evolves the bands concurrently on a {@link ForkJoinPool}.
+ *
+ * <p>Each band is stepped with the {@link SwarEngine} kernel. The halo rows
+ * directly above and below a band are read from the current buffer, which no task
+ * writes to, and every task writes a disjoint range of rows of the next buffer,
+ * so the result is deterministic and identical to the serial engine.</p>
+ *
+ * <p>Boards too small to amortize the scheduling cost are stepped on the calling
+ * thread.</p>
+ *
+ * <p>When statistics are collected, every band counts its own rows and the counts
+ * of the bands are merged once all of them have finished.</p>
+ */
+public class ParallelEngine extends StatisticsCollectingEngine {
+    /**
+     * The minimum number of cells worth handing to a separate task.
+     */
+    private static final int MIN_BAND_CELLS = 1 << 16;
+
+    /**
+     * The number of bands created per worker, so that uneven bands still balance out.
+     */
+    private static final int BANDS_PER_WORKER = 4;
+
+    /**
+     * The pool that runs the band tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The root of the reusable task tree, built for the board size it was last used with.
+     */
+    private BandTask root;
+
+    /**
+     * The number of rows of the board the task tree was built for.
+     */
+    private int rootRows;
+
+    /**
+     * The number of columns of the board the task tree was built for.
+     */
+    private int rootCols;
+
+    /**
+     * Constructs a ParallelEngine using one worker per available processor.
+     */
+    public ParallelEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a ParallelEngine with the specified number of workers.
+     *
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if the parallelism is less than 1
+     */
+    public ParallelEngine(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Returns the number of worker threads of this engine.
+     *
+     * @return the parallelism of the pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Computes the next generation of the specified matrix into its next buffer.
+     * The band tasks are built once per board size and reused for every generation,
+     * so steady-state stepping does not allocate.
+     *
+     * @param matrix the matrix to step
+     */
+    @Override
+    public void step(BitMatrix matrix) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+
+        if (root == null || rootRows != rows || rootCols != cols) {
+            int minBandRows = Math.max(1, MIN_BAND_CELLS / cols);
+            int bandRows = Math.max(minBandRows, rows / (pool.getParallelism() * BANDS_PER_WORKER));
+            root = new BandTask(0, rows, bandRows);
+            rootRows = rows;
+            rootCols = cols;
+        }
+
+        StatsAccumulator accumulator = startStatistics(matrix.getWordsPerRow());
+        if (pool.getParallelism() == 1 || root.isLeaf()) {
+            SwarEngine.stepRows(matrix.getRule(), matrix.getBoundary(), matrix.getCurrentWords(), matrix.getNextWords(),
+                    rows, cols, 0, rows, accumulator);
+        } else {
+            root.prepare(matrix, accumulator != null);
+            pool.invoke(root);
+            if (accumulator != null) root.mergeInto(accumulator);
+        }
+        finishStatistics(accumulator);
+    }
+
+    /**
+     * Shuts down the worker threads of this engine. The engine cannot be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * A reusable task that steps a range of rows. Ranges larger than a single band
+     * are split in half once, at construction, and the two halves are forked on
+     * every generation.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static final class BandTask extends RecursiveAction {
+        private final int fromRow;
+        private final int toRow;
+        private final BandTask left;
+        private final BandTask right;
+        private BitMatrix matrix;
+        private boolean collecting;
+        private StatsAccumulator stats;
+
+        /**
+         * Constructs the task tree for the specified range of rows.
+         *
+         * @param fromRow  the first row of the range, inclusive
+         * @param toRow    the last row of the range, exclusive
+         * @param bandRows the largest number of rows stepped by a single task
+         */
+        BandTask(int fromRow, int toRow, int bandRows) {
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            if (toRow - fromRow <= bandRows) {
+                this.left = null;
+                this.right = null;
+            } else {
+                int middle = (fromRow + toRow) >>> 1;
+                this.left = new BandTask(fromRow, middle, bandRows);
+                this.right = new BandTask(middle, toRow, bandRows);
+            }
+        }
+
+        /**
+         * Returns whether this task steps its rows directly.
+         *
+         * @return true if the task has no subtasks
+         */
+        boolean isLeaf() {
+            return left == null;
+        }
+
+        /**
+         * Resets the completion state of the task so it can run again on the specified matrix.
+         *
+         * @param matrix     the matrix to step
+         * @param collecting whether the task counts the statistics of its rows
+         */
+        void prepare(BitMatrix matrix, boolean collecting) {
+            reinitialize();
+            this.matrix = matrix;
+            this.collecting = collecting;
+        }
+
+        /**
+         * Adds the statistics counted by the bands of this task to the specified accumulator.
+         *
+         * @param target the accumulator of the whole board
+         */
+        void mergeInto(StatsAccumulator target) {
+            if (isLeaf()) {
+                target.merge(stats);
+            } else {
+                left.mergeInto(target);
+                right.mergeInto(target);
+            }
+        }
+
+        /**
+         * Steps the range directly, or forks its two halves.
+         */
+        @Override
+        protected void compute() {
+            if (isLeaf()) {
+                if (collecting) {
+                    if (stats == null) stats = new StatsAccumulator();
+                    stats.reset(matrix.getWordsPerRow());
+                }
+                SwarEngine.stepRows(matrix.getRule(), matrix.getBoundary(), matrix.getCurrentWords(), matrix.getNextWords(),
+                        matrix.getSizeX(), matrix.getSizeY(), fromRow, toRow, collecting ? stats : null);
+            } else {
+                left.prepare(matrix, collecting);
+                right.prepare(matrix, collecting);
+                invokeAll(left, right);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package game;
+
+/**
+ * A Life-like cellular automaton rule written in B/S notation, such as
+ * {@code B3/S23} (Conway's Game of Life), {@code B36/S23} (HighLife) or
+ * {@code B2/S} (Seeds).
+ *
+ * <p>The digits after {@code B} are the neighbour counts for which a dead cell
+ * comes alive, and the digits after {@code S} the counts for which a live cell
+ * survives. A rule is compiled once into a birth and a survival bitmask, where
+ * bit {@code n} stands for {@code n} live neighbours, so that stepping a cell is
+ * a single shift of the mask instead of a chain of comparisons.</p>
+ *
+ * <p>Rules are immutable and compare equal when they have the same masks.</p>
+ */
+public final class Rule {
+    /**
+     * Conway's Game of Life, B3/S23.
+     */
+    public static final Rule CONWAY = new Rule(1 << 3, (1 << 2) | (1 << 3));
+
+    /**
+     * The largest number of neighbours a cell can have.
+     */
+    private static final int MAX_NEIGHBORS = 8;
+
+    /**
+     * The transitions of Conway's Game of Life.
+     */
+    private static final int CONWAY_TRANSITIONS = (1 << 3) | (((1 << 2) | (1 << 3)) << (MAX_NEIGHBORS + 1));
+
+    /**
+     * The neighbour counts, as bits 0 to 8, for which a dead cell comes alive.
+     */
+    private final int birthMask;
+
+    /**
+     * The neighbour counts, as bits 0 to 8, for which a live cell survives.
+     */
+    private final int survivalMask;
+
+    /**
+     * The birth mask in the low nine bits and the survival mask in the next nine, so
+     * that the next state of a cell is bit {@code neighbors + 9 * alive}.
+     */
+    private final int transitions;
+
+    /**
+     * For every neighbour count, all ones if a dead cell with that count comes alive.
+     */
+    private final long[] birthWords = new long[MAX_NEIGHBORS + 1];
+
+    /**
+     * For every neighbour count, all ones if a live cell with that count survives.
+     */
+    private final long[] survivalWords = new long[MAX_NEIGHBORS + 1];
+
+    /**
+     * Constructs a rule from its birth and survival masks.
+     *
+     * @param birthMask    the neighbour counts for which a dead cell comes alive
+     * @param survivalMask the neighbour counts for which a live cell survives
+     * @throws IllegalArgumentException if a mask has bits above 8
+     */
+    public Rule(int birthMask, int survivalMask) {
+        if ((birthMask | survivalMask) >>> (MAX_NEIGHBORS + 1) != 0) {
+            throw new IllegalArgumentException("Invalid rule masks.");
+        }
+        this.birthMask = birthMask;
+        this.survivalMask = survivalMask;
+        this.transitions = birthMask | (survivalMask << (MAX_NEIGHBORS + 1));
+        for (int n = 0; n <= MAX_NEIGHBORS; n++) {
+            birthWords[n] = -((birthMask >>> n) & 1L);
+            survivalWords[n] = -((survivalMask >>> n) & 1L);
+        }
+    }
+
+    /**
+     * Parses a rule in B/S notation. The parts may come in either order, letters are
+     * case-insensitive and either part may be empty, as in {@code B2/S}.
+     *
+     * @param notation the rule, for example {@code "B36/S23"}
+     * @return the compiled rule
+     * @throws IllegalArgumentException if the notation is not a valid B/S rule
+     */
+    public static Rule parse(String notation) {
+        String[] parts = notation.trim().toUpperCase().split("/", -1);
+        if (parts.length != 2) throw new IllegalArgumentException("Invalid rule.");
+
+        int birthMask = -1;
+        int survivalMask = -1;
+        for (String part : parts) {
+            if (part.startsWith("B") && birthMask < 0) {
+                birthMask = parseCounts(part);
+            } else if (part.startsWith("S") && survivalMask < 0) {
+                survivalMask = parseCounts(part);
+            } else {
+                throw new IllegalArgumentException("Invalid rule.");
+            }
+        }
+        return new Rule(birthMask, survivalMask);
+    }
+
+    /**
+     * Parses the neighbour counts following the letter of a rule part.
+     *
+     * @param part the part, including its leading letter
+     * @return the counts as a bitmask
+     * @throws IllegalArgumentException if a character is not a digit from 0 to 8
+     */
+    private static int parseCounts(String part) {
+        int mask = 0;
+        for (int i = 1; i < part.length(); i++) {
+            int n = part.charAt(i) - '0';
+            if (n < 0 || n > MAX_NEIGHBORS) throw new IllegalArgumentException("Invalid rule.");
+            mask |= 1 << n;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the neighbour counts for which a dead cell comes alive.
+     *
+     * @return the birth mask, bit {@code n} standing for {@code n} neighbours
+     */
+    public int getBirthMask() {
+        return birthMask;
+    }
+
+    /**
+     * Returns the neighbour counts for which a live cell survives.
+     *
+     * @return the survival mask, bit {@code n} standing for {@code n} neighbours
+     */
+    public int getSurvivalMask() {
+        return survivalMask;
+    }
+
+    /**
+     * Returns whether this rule is Conway's Game of Life.
+     *
+     * @return true if the rule is B3/S23
+     */
+    public boolean isConway() {
+        return transitions == CONWAY_TRANSITIONS;
+    }
+
+    /**
+     * Returns whether dead cells without any live neighbour come alive. Such rules turn
+     * every empty region on, so they cannot be played on an unbounded universe.
+     *
+     * @return true if the rule contains B0
+     */
+    public boolean hasBirthOnZero() {
+        return (birthMask & 1) != 0;
+    }
+
+    /**
+     * Returns the next state of a cell.
+     *
+     * @param alive     whether the cell is alive
+     * @param neighbors the number of live neighbours, from 0 to 8
+     * @return true if the cell is alive in the next generation
+     */
+    public boolean next(boolean alive, int neighbors) {
+        return ((transitions >>> (neighbors + (alive ? MAX_NEIGHBORS + 1 : 0))) & 1) != 0;
+    }
+
+    /**
+     * Applies the rule to 64 cells at once, given their neighbour counts as bit planes.
+     * Every count is matched against all four planes and selected by the compiled
+     * masks, so the result involves no branches.
+     *
+     * @param c      the cells themselves
+     * @param ones   bit 0 of the neighbour counts
+     * @param twos   bit 1 of the neighbour counts
+     * @param fours  bit 2 of the neighbour counts
+     * @param eights bit 3 of the neighbour counts
+     * @return the next state of the 64 cells
+     */
+    public long apply(long c, long ones, long twos, long fours, long eights) {
+        long result = 0;
+        for (int n = 0; n <= MAX_NEIGHBORS; n++) {
+            long count = (ones ^ ((n & 1) - 1L)) & (twos ^ (((n >>> 1) & 1) - 1L))
+                    & (fours ^ (((n >>> 2) & 1) - 1L)) & (eights ^ (((n >>> 3) & 1) - 1L));
+            result |= count & ((c & survivalWords[n]) | (~c & birthWords[n]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the rule in canonical B/S notation, with the counts in ascending order.
+     *
+     * @return the rule, for example {@code "B36/S23"}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("B");
+        for (int n = 0; n <= MAX_NEIGHBORS; n++) {
+            if (((birthMask >>> n) & 1) != 0) builder.append(n);
+        }
+        builder.append("/S");
+        for (int n = 0; n <= MAX_NEIGHBORS; n++) {
+            if (((survivalMask >>> n) & 1) != 0) builder.append(n);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns whether the specified object is a rule with the same masks.
+     *
+     * @param o the object to compare with
+     * @return true if the rules are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Rule rule && rule.transitions == transitions;
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return transitions;
+    }
+}
@@ -0,0 +1,503 @@
+package game;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sweeps a set of Life-like rules from the command line: every seed pattern is
+ * played by every rule, and how it ends up is written to a CSV file, one row per
+ * rule and seed.
+ *
+ * <p>Every pair of a rule and a seed is simulated by its own task on a pool of
+ * worker threads, one per core by default, each stepping a copy of the seed with a
+ * {@link SwarEngine}. A run ends early once the board dies out, once its population
+ * exceeds a fraction of the board and it counts as exploded, or once its
+ * {@link CycleDetector} confirms a cycle; otherwise it ends at the generation limit.
+ * More tasks are kept queued than there are threads, so the cores stay busy, and the
+ * rows are written in the order of the rules and seeds as soon as they are done.</p>
+ *
+ * <p>Only classes of the {@code game} package are used, so a sweep never initialises
+ * AWT or Swing.</p>
+ *
+ * <p>The arguments are given as {@code --name value} pairs:
+ * <ul>
+ * <li>{@code --output}: the CSV file (required)</li>
+ * <li>{@code --seeds}: the patterns to play, saved by the game, separated by commas (required)</li>
+ * <li>{@code --rules}: B/S rules separated by commas, such as {@code B3/S23,B36/S23}</li>
+ * <li>{@code --range}: every rule between a minimum and a maximum rule, such as
+ * {@code B3/S23:B3678/S2345}, whose births and survivals include those of the minimum
+ * and are included in those of the maximum</li>
+ * <li>{@code --generations}: the most generations a run lasts; defaults to 1000</li>
+ * <li>{@code --explosion}: the fraction of the board above which a population counts
+ * as exploded; defaults to 0.5</li>
+ * <li>{@code --threads}: the number of worker threads; defaults to the number of cores</li>
+ * </ul>
+ * At least one of {@code --rules} and {@code --range} must be given.
+ * </p>
+ */
+public final class RuleSweep {
+    /**
+     * The usage message printed when the arguments cannot be parsed.
+     */
+    public static final String USAGE = "Usage: sweep --output <metrics.csv> --seeds <a.json,b.json>"
+            + " [--rules <B3/S23,B36/S23>] [--range <B3/S23:B3678/S2345>] [--generations <limit>]"
+            + " [--explosion <0..1>] [--threads <count>]";
+
+    /**
+     * The header of the CSV file.
+     */
+    static final String HEADER = "rule,seed,outcome,generations,initial_population,final_population,growth_rate,period";
+
+    /**
+     * How a run ended.
+     */
+    public enum Outcome {
+        /**
+         * Every cell died.
+         */
+        EXTINCT,
+
+        /**
+         * The population exceeded the explosion threshold.
+         */
+        EXPLODED,
+
+        /**
+         * The board settled into a cycle, a still life being a cycle of period 1.
+         */
+        PERIODIC,
+
+        /**
+         * None of the above happened within the generation limit.
+         */
+        UNDECIDED
+    }
+
+    /**
+     * The rules to play.
+     */
+    private final List<Rule> rules;
+
+    /**
+     * The files the seeds are loaded from.
+     */
+    private final List<File> seeds;
+
+    /**
+     * The file the metrics are written to.
+     */
+    private final File output;
+
+    /**
+     * The most generations a run lasts.
+     */
+    private final int generations;
+
+    /**
+     * The fraction of the board above which a population counts as exploded.
+     */
+    private final double explosion;
+
+    /**
+     * The number of worker threads.
+     */
+    private final int threads;
+
+    /**
+     * Constructs a rule sweep.
+     *
+     * @param rules       the rules to play
+     * @param seeds       the files the seeds are loaded from
+     * @param output      the file the metrics are written to
+     * @param generations the most generations a run lasts
+     * @param explosion   the fraction of the board above which a population counts as exploded
+     * @param threads     the number of worker threads
+     * @throws IllegalArgumentException if there are no rules or seeds, or a setting is invalid
+     */
+    public RuleSweep(List<Rule> rules, List<File> seeds, File output, int generations, double explosion, int threads) {
+        if (rules.isEmpty()) throw new IllegalArgumentException("Missing rules.");
+        if (seeds.isEmpty()) throw new IllegalArgumentException("Missing seeds.");
+        if (generations < 0) throw new IllegalArgumentException("Invalid generation count.");
+        if (!(explosion > 0 && explosion <= 1)) throw new IllegalArgumentException("Invalid explosion threshold.");
+        if (threads < 1) throw new IllegalArgumentException("Invalid thread count.");
+        this.rules = List.copyOf(rules);
+        this.seeds = List.copyOf(seeds);
+        this.output = output;
+        this.generations = generations;
+        this.explosion = explosion;
+        this.threads = threads;
+    }
+
+    /**
+     * Parses the command-line arguments of a rule sweep.
+     *
+     * @param args the arguments, as {@code --name value} pairs
+     * @return the sweep described by the arguments
+     * @throws IllegalArgumentException if an argument is missing, unknown or invalid
+     */
+    public static RuleSweep parse(String[] args) {
+        File output = null;
+        List<File> seeds = new ArrayList<>();
+        List<Rule> rules = new ArrayList<>();
+        String generations = "1000";
+        String explosion = "0.5";
+        String threads = String.valueOf(Runtime.getRuntime().availableProcessors());
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value of " + args[i] + ".");
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--output" -> output = new File(value);
+                case "--seeds" -> {
+                    for (String seed : value.split(",")) {
+                        File file = new File(seed.trim());
+                        if (!file.isFile()) throw new IllegalArgumentException("Missing seed file: " + file + ".");
+                        seeds.add(file);
+                    }
+                }
+                case "--rules" -> {
+                    for (String rule : value.split(",")) {
+                        rules.add(Rule.parse(rule));
+                    }
+                }
+                case "--range" -> {
+                    String[] bounds = value.split(":", -1);
+                    if (bounds.length != 2) throw new IllegalArgumentException("Invalid rule range.");
+                    rules.addAll(range(Rule.parse(bounds[0]), Rule.parse(bounds[1])));
+                }
+                case "--generations" -> generations = value;
+                case "--explosion" -> explosion = value;
+                case "--threads" -> threads = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i] + ".");
+            }
+        }
+
+        if (output == null) throw new IllegalArgumentException("Missing option.");
+        try {
+            return new RuleSweep(rules, seeds, output, Integer.parseInt(generations), Double.parseDouble(explosion),
+                    Integer.parseInt(threads));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage() + ".", e);
+        }
+    }
+
+    /**
+     * Returns every rule between a minimum and a maximum rule: those whose births and
+     * survivals include those of the minimum and are included in those of the maximum,
+     * in increasing order of their masks.
+     *
+     * @param min the minimum rule
+     * @param max the maximum rule
+     * @return the rules of the range
+     * @throws IllegalArgumentException if the minimum is not included in the maximum
+     */
+    public static List<Rule> range(Rule min, Rule max) {
+        int low = min.getBirthMask() | min.getSurvivalMask() << 9;
+        int high = max.getBirthMask() | max.getSurvivalMask() << 9;
+        if ((low & ~high) != 0) throw new IllegalArgumentException("Invalid rule range.");
+
+        int free = high & ~low;
+        List<Rule> rules = new ArrayList<>(1 << Integer.bitCount(free));
+        int subset = 0;
+        do {
+            int mask = low | subset;
+            rules.add(new Rule(mask & 0x1FF, mask >>> 9));
+            subset = (subset - free) & free;
+        } while (subset != 0);
+        return rules;
+    }
+
+    /**
+     * Plays every seed with every rule and writes a row of metrics for each, in the order
+     * of the rules and then of the seeds.
+     *
+     * @return the summary of the sweep
+     * @throws UncheckedIOException if a seed cannot be loaded or the metrics cannot be written
+     */
+    public Summary run() {
+        List<BitMatrix> patterns = new ArrayList<>();
+        for (File seed : seeds) {
+            BitMatrix pattern = new BitMatrix(1, 1);
+            try {
+                pattern.readJson(seed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            patterns.add(pattern);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "rule-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<Outcome, Long> outcomes = new EnumMap<>(Outcome.class);
+        long start = System.nanoTime();
+        long total = (long) rules.size() * patterns.size();
+        try (PrintWriter writer = new PrintWriter(output, "UTF-8")) {
+            writer.println(HEADER);
+            ArrayDeque<Future<Run>> inFlight = new ArrayDeque<>();
+            long next = 0;
+            while (next < total || !inFlight.isEmpty()) {
+                while (next < total && inFlight.size() < 4 * threads) {
+                    Rule rule = rules.get((int) (next / patterns.size()));
+                    int seed = (int) (next % patterns.size());
+                    inFlight.add(pool.submit(() -> play(rule, seeds.get(seed).getName(), patterns.get(seed))));
+                    next++;
+                }
+                Run run = inFlight.poll().get();
+                outcomes.merge(run.outcome, 1L, Long::sum);
+                writer.println(run.toCsv());
+            }
+            if (writer.checkError()) throw new IOException("Failed to write " + output + ".");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Summary(total, outcomes, System.nanoTime() - start);
+    }
+
+    /**
+     * Plays a seed with a rule until it dies out, explodes, settles into a cycle or
+     * reaches the generation limit.
+     *
+     * @param rule    the rule to play
+     * @param name    the name of the seed
+     * @param pattern the seed, which is not changed
+     * @return the metrics of the run
+     */
+    private Run play(Rule rule, String name, BitMatrix pattern) {
+        BitMatrix board = new BitMatrix(pattern.getSizeX(), pattern.getSizeY());
+        board.setBoundary(pattern.getBoundary());
+        board.setRule(rule);
+        board.loadWords(pattern.getCurrentWords());
+        CellularAutomata automata = new CellularAutomata(board, new SwarEngine());
+        CycleDetector cycleDetector = new CycleDetector(board);
+        automata.setCycleDetector(cycleDetector);
+        automata.setCollectingStatistics(true);
+
+        long initial = GenerationStats.of(board).getPopulation();
+        long limit = (long) (explosion * pattern.getSizeX() * pattern.getSizeY());
+        long population = initial;
+        Outcome outcome = Outcome.UNDECIDED;
+        int generation = 0;
+        while (generation < generations) {
+            automata.next();
+            generation++;
+            population = automata.getStatistics().getPopulation();
+            if (population == 0) {
+                outcome = Outcome.EXTINCT;
+            } else if (population > limit) {
+                outcome = Outcome.EXPLODED;
+            } else if (cycleDetector.getPeriod() > 0) {
+                outcome = Outcome.PERIODIC;
+            } else {
+                continue;
+            }
+            break;
+        }
+
+        return new Run(rule, name, outcome, generation, initial, population,
+                outcome == Outcome.PERIODIC ? cycleDetector.getPeriod() : 0);
+    }
+
+    /**
+     * Quotes a value for a CSV file if it holds a comma, a quote or a line break.
+     *
+     * @param value the value
+     * @return the value as a CSV field
+     */
+    static String quote(String value) {
+        if (value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Runs a rule sweep described by the command-line arguments and prints its summary.
+     * Invalid arguments print the usage and exit with status 2, and a seed that cannot be
+     * loaded or metrics that cannot be written exit with status 1.
+     *
+     * @param args the arguments, as {@code --name value} pairs
+     */
+    public static void main(String[] args) {
+        RuleSweep sweep;
+        try {
+            sweep = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            System.out.println(sweep.run());
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getCause().getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The metrics of a seed played by a rule.
+     */
+    private static final class Run {
+        /**
+         * The rule the seed was played by.
+         */
+        private final Rule rule;
+
+        /**
+         * The name of the seed.
+         */
+        private final String seed;
+
+        /**
+         * How the run ended.
+         */
+        private final Outcome outcome;
+
+        /**
+         * The number of generations played.
+         */
+        private final int generations;
+
+        /**
+         * The population of the seed.
+         */
+        private final long initialPopulation;
+
+        /**
+         * The population after the last generation played.
+         */
+        private final long finalPopulation;
+
+        /**
+         * The period of the cycle the board settled into, or 0.
+         */
+        private final int period;
+
+        /**
+         * Constructs the metrics of a run.
+         *
+         * @param rule              the rule the seed was played by
+         * @param seed              the name of the seed
+         * @param outcome           how the run ended
+         * @param generations       the number of generations played
+         * @param initialPopulation the population of the seed
+         * @param finalPopulation   the population after the last generation played
+         * @param period            the period of the cycle the board settled into, or 0
+         */
+        Run(Rule rule, String seed, Outcome outcome, int generations, long initialPopulation, long finalPopulation,
+                int period) {
+            this.rule = rule;
+            this.seed = seed;
+            this.outcome = outcome;
+            this.generations = generations;
+            this.initialPopulation = initialPopulation;
+            this.finalPopulation = finalPopulation;
+            this.period = period;
+        }
+
+        /**
+         * Returns the metrics as a row of the CSV file, laid out like {@link #HEADER}.
+         *
+         * @return the row
+         */
+        String toCsv() {
+            double growth = generations == 0 ? 0 : (double) (finalPopulation - initialPopulation) / generations;
+            return String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%.4f,%d", rule, quote(seed), outcome, generations,
+                    initialPopulation, finalPopulation, growth, period);
+        }
+    }
+
+    /**
+     * The outcome of a rule sweep: how many runs ended in which way, and how long the
+     * sweep took.
+     */
+    public static final class Summary {
+        /**
+         * The number of runs, one per rule and seed.
+         */
+        private final long runs;
+
+        /**
+         * The number of runs that ended in each way.
+         */
+        private final Map<Outcome, Long> outcomes;
+
+        /**
+         * The time the sweep took, in nanoseconds.
+         */
+        private final long nanos;
+
+        /**
+         * Constructs a summary.
+         *
+         * @param runs     the number of runs
+         * @param outcomes the number of runs that ended in each way
+         * @param nanos    the time the sweep took, in nanoseconds
+         */
+        Summary(long runs, Map<Outcome, Long> outcomes, long nanos) {
+            this.runs = runs;
+            this.outcomes = outcomes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the number of runs, one per rule and seed.
+         *
+         * @return the number of runs
+         */
+        public long getRuns() {
+            return runs;
+        }
+
+        /**
+         * Returns the number of runs that ended in the specified way.
+         *
+         * @param outcome the way the runs ended
+         * @return the number of runs
+         */
+        public long getCount(Outcome outcome) {
+            return outcomes.getOrDefault(outcome, 0L);
+        }
+
+        /**
+         * Returns the time the sweep took.
+         *
+         * @return the elapsed time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns a one-line description of the sweep.
+         *
+         * @return the summary
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d runs in %.3f s: %d extinct, %d exploded, %d periodic, %d undecided",
+                    runs, nanos / 1e9, getCount(Outcome.EXTINCT), getCount(Outcome.EXPLODED),
+                    getCount(Outcome.PERIODIC), getCount(Outcome.UNDECIDED));
+        }
+    }
+}
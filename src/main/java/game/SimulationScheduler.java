@@ -0,0 +1,410 @@
+package game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs a simulation on a single worker thread at a target number of generations
+ * per second, or as fast as possible.
+ *
+ * <p>Generations are scheduled at a fixed rate: every generation has a deadline
+ * one period after the previous one, regardless of how long the steps take, so
+ * the achieved rate does not drift with the cost of a step. A simulation that
+ * falls behind runs the missed generations back to back, but at most
+ * {@link #getMaxCatchUp()} of them; beyond that the missed generations are
+ * skipped and the schedule starts over from the current time, so a slow board
+ * does not cause an ever-growing backlog.</p>
+ *
+ * <p>The worker thread is started the first time the simulation is started and
+ * then parked while paused, so playing and pausing never create threads. Pausing
+ * waits for the generation in progress, so the board can be changed safely as soon
+ * as {@link #pause()} returns. The achieved rate and how far the simulation lags
+ * behind its schedule can be read at any time.</p>
+ */
+public final class SimulationScheduler {
+    /**
+     * The target rate meaning that generations are computed as fast as possible.
+     */
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    /**
+     * The default number of missed generations that are caught up before the schedule
+     * is reset.
+     */
+    public static final int DEFAULT_MAX_CATCH_UP = 5;
+
+    /**
+     * How often the achieved rate is updated, in nanoseconds.
+     */
+    private static final long RATE_WINDOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Computes a single generation.
+     */
+    private final Runnable step;
+
+    /**
+     * Guards the state shared with the worker thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled whenever the state changes, to wake the worker or a thread waiting for it.
+     */
+    private final Condition changed = lock.newCondition();
+
+    /**
+     * The worker thread, or null before the simulation was first started.
+     */
+    private Thread worker;
+
+    /**
+     * Whether the simulation should run. Written while holding the lock, and volatile so
+     * that it can be read without it.
+     */
+    private volatile boolean running;
+
+    /**
+     * Whether the worker is computing a generation.
+     */
+    private boolean stepping;
+
+    /**
+     * Whether the scheduler was shut down.
+     */
+    private boolean stopped;
+
+    /**
+     * The target number of generations per second.
+     */
+    private volatile double targetRate;
+
+    /**
+     * Whether the target rate is ignored and generations are computed as fast as possible.
+     */
+    private volatile boolean turbo;
+
+    /**
+     * The number of missed generations caught up before the schedule is reset.
+     */
+    private volatile int maxCatchUp = DEFAULT_MAX_CATCH_UP;
+
+    /**
+     * The number of generations computed so far.
+     */
+    private volatile long generations;
+
+    /**
+     * The number of generations per second achieved over the last window.
+     */
+    private volatile double achievedRate;
+
+    /**
+     * How far the simulation was behind its schedule after the last generation, in nanoseconds.
+     */
+    private volatile long lagNanos;
+
+    /**
+     * The number of generations skipped because the simulation fell too far behind.
+     */
+    private volatile long skippedGenerations;
+
+    /**
+     * Constructs a scheduler stepping the specified automaton.
+     *
+     * @param automata   the automaton to step
+     * @param targetRate the target number of generations per second, or {@link #AS_FAST_AS_POSSIBLE}
+     */
+    public SimulationScheduler(CellularAutomata automata, double targetRate) {
+        this(automata::next, targetRate);
+    }
+
+    /**
+     * Constructs a scheduler running the specified step.
+     *
+     * @param step       computes a single generation
+     * @param targetRate the target number of generations per second, or {@link #AS_FAST_AS_POSSIBLE}
+     */
+    public SimulationScheduler(Runnable step, double targetRate) {
+        this.step = step;
+        setTargetRate(targetRate);
+    }
+
+    /**
+     * Returns the target number of generations per second.
+     *
+     * @return the target rate, or {@link #AS_FAST_AS_POSSIBLE}
+     */
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Sets the target number of generations per second. The schedule starts over from
+     * the current time.
+     *
+     * @param targetRate the target rate, or {@link #AS_FAST_AS_POSSIBLE}
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public void setTargetRate(double targetRate) {
+        if (!(targetRate > 0)) throw new IllegalArgumentException("Invalid generation rate.");
+        this.targetRate = targetRate;
+        signal();
+    }
+
+    /**
+     * Returns whether the simulation runs in turbo mode.
+     *
+     * @return true if the target rate is ignored
+     */
+    public boolean isTurbo() {
+        return turbo;
+    }
+
+    /**
+     * Turns turbo mode on or off. In turbo mode generations are computed as fast as
+     * possible, without ever waiting for a deadline; the target rate is kept and applies
+     * again once turbo mode is turned off. Nothing waits for the renderer either way:
+     * readers pick up the latest completed generation as a {@link Snapshot}.
+     *
+     * @param turbo whether to run as fast as possible
+     */
+    public void setTurbo(boolean turbo) {
+        this.turbo = turbo;
+        signal();
+    }
+
+    /**
+     * Returns the number of missed generations caught up before the schedule is reset.
+     *
+     * @return the catch-up limit
+     */
+    public int getMaxCatchUp() {
+        return maxCatchUp;
+    }
+
+    /**
+     * Sets the number of missed generations caught up before the schedule is reset.
+     *
+     * @param maxCatchUp the catch-up limit, 0 to never catch up
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public void setMaxCatchUp(int maxCatchUp) {
+        if (maxCatchUp < 0) throw new IllegalArgumentException("Invalid catch-up limit.");
+        this.maxCatchUp = maxCatchUp;
+    }
+
+    /**
+     * Starts or resumes the simulation. The worker thread is created on the first call.
+     *
+     * @throws IllegalStateException if the scheduler was shut down
+     */
+    public void start() {
+        lock.lock();
+        try {
+            if (stopped) throw new IllegalStateException("Scheduler was shut down.");
+            if (worker == null) {
+                worker = new Thread(this::run, "simulation");
+                worker.setDaemon(true);
+                worker.start();
+            }
+            running = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pauses the simulation and waits for the generation in progress to complete. When
+     * called from the worker thread itself it returns right away.
+     */
+    public void pause() {
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+            while (stepping && Thread.currentThread() != worker) {
+                changed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the simulation for good and waits for the worker thread to end.
+     */
+    public void shutdown() {
+        Thread worker;
+        lock.lock();
+        try {
+            running = false;
+            stopped = true;
+            changed.signalAll();
+            worker = this.worker;
+        } finally {
+            lock.unlock();
+        }
+        if (worker != null && worker != Thread.currentThread()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the simulation is running.
+     *
+     * @return true between {@link #start()} and {@link #pause()}
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the number of generations computed so far.
+     *
+     * @return the number of generations
+     */
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Returns the number of generations per second achieved recently, measured over
+     * about half a second. It drops to 0 while paused.
+     *
+     * @return the achieved rate
+     */
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+
+    /**
+     * Returns how far the simulation was behind its schedule after the last generation,
+     * that is how long past the deadline of the next generation it was completed.
+     *
+     * @return the lag in nanoseconds, 0 when on schedule or running as fast as possible
+     */
+    public long getLagNanos() {
+        return lagNanos;
+    }
+
+    /**
+     * Returns the number of generations skipped because the simulation fell further
+     * behind than the catch-up limit.
+     *
+     * @return the number of skipped generations
+     */
+    public long getSkippedGenerations() {
+        return skippedGenerations;
+    }
+
+    /**
+     * Wakes the worker so that it notices a changed setting.
+     */
+    private void signal() {
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The loop of the worker thread: waits while paused, waits for the deadline of the
+     * next generation, computes it and moves the deadline one period on. A generation
+     * that throws pauses the simulation; interrupting the worker shuts the scheduler
+     * down, rather than leaving it spinning on a wait that keeps being interrupted.
+     */
+    private void run() {
+        long deadline = 0;
+        double scheduledRate = 0;
+        long windowStart = 0;
+        long windowGenerations = 0;
+        boolean wasRunning = false;
+
+        while (true) {
+            lock.lock();
+            try {
+                while (true) {
+                    if (stopped) return;
+                    if (!running) {
+                        if (wasRunning) achievedRate = 0;
+                        wasRunning = false;
+                        changed.awaitUninterruptibly();
+                        continue;
+                    }
+
+                    long now = System.nanoTime();
+                    double rate = turbo ? AS_FAST_AS_POSSIBLE : targetRate;
+                    if (!wasRunning || rate != scheduledRate) {
+                        deadline = now;
+                        scheduledRate = rate;
+                        if (!wasRunning) {
+                            windowStart = now;
+                            windowGenerations = generations;
+                        }
+                        wasRunning = true;
+                    }
+                    if (rate == AS_FAST_AS_POSSIBLE || now >= deadline) break;
+                    changed.awaitNanos(deadline - now);
+                }
+                stepping = true;
+            } catch (InterruptedException e) {
+                running = false;
+                stopped = true;
+                changed.signalAll();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                lock.lock();
+                try {
+                    running = false;
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                lock.lock();
+                try {
+                    stepping = false;
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            generations++;
+
+            long now = System.nanoTime();
+            if (scheduledRate != AS_FAST_AS_POSSIBLE) {
+                long period = Math.max(1, Math.round(1e9 / scheduledRate));
+                deadline += period;
+                long lag = now - deadline;
+                lagNanos = Math.max(0, lag);
+                if (lag > (long) maxCatchUp * period) {
+                    skippedGenerations += lag / period;
+                    deadline = now;
+                }
+            } else {
+                lagNanos = 0;
+            }
+
+            if (now - windowStart >= RATE_WINDOW) {
+                achievedRate = (generations - windowGenerations) * 1e9 / (now - windowStart);
+                windowStart = now;
+                windowGenerations = generations;
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package game;
+
+/**
+ * An immutable copy of a completed generation of a {@link CellularAutomata},
+ * published by the thread stepping it for other threads, such as the renderer,
+ * to read without synchronization.
+ *
+ * <p>The cells are packed like in a {@link BitMatrix}, into an array that is
+ * never written after the snapshot was constructed. Since snapshots are handed
+ * over through a {@code volatile} field, a reader always sees a whole generation
+ * together with the statistics and cycle period that belong to it.</p>
+ *
+ * <p>A snapshot of a multi-state {@link ByteMatrix} also keeps the state of every
+ * cell, one byte per cell like in the matrix, and its packed cells are the live
+ * ones, in state 1.</p>
+ */
+public final class Snapshot {
+    /**
+     * The number of generations the automaton had computed when the snapshot was taken.
+     */
+    private final long generation;
+
+    /**
+     * The number of rows and columns of the board.
+     */
+    private final int rows, cols;
+
+    /**
+     * The number of words used to store a single row.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * The packed cells, 64 per word, row after row.
+     */
+    private final long[] words;
+
+    /**
+     * The state of every cell, row after row, for a multi-state board, or null.
+     */
+    private final byte[] states;
+
+    /**
+     * The number of states of the rule played on the board.
+     */
+    private final int stateCount;
+
+    /**
+     * The modification count of the matrix when the snapshot was taken, as counted by
+     * the automaton that took it.
+     */
+    private final long modificationCount;
+
+    /**
+     * The statistics of the generation, or null if none were collected.
+     */
+    private final GenerationStats statistics;
+
+    /**
+     * The period of the confirmed cycle, or 0.
+     */
+    private final int period;
+
+    /**
+     * Constructs a snapshot taking ownership of the specified words.
+     *
+     * @param generation        the number of generations computed so far
+     * @param rows              the number of rows
+     * @param cols              the number of columns
+     * @param words             the packed cells, not written afterwards
+     * @param modificationCount the modification count of the matrix
+     * @param statistics        the statistics of the generation, or null
+     * @param period            the period of the confirmed cycle, or 0
+     */
+    Snapshot(long generation, int rows, int cols, long[] words, long modificationCount, GenerationStats statistics,
+             int period) {
+        this(generation, rows, cols, words, null, 2, modificationCount, statistics, period);
+    }
+
+    /**
+     * Constructs a snapshot taking ownership of the specified words and states.
+     *
+     * @param generation        the number of generations computed so far
+     * @param rows              the number of rows
+     * @param cols              the number of columns
+     * @param words             the packed live cells, not written afterwards
+     * @param states            the state of every cell, not written afterwards, or null
+     * @param stateCount        the number of states of the rule
+     * @param modificationCount the modification count of the matrix
+     * @param statistics        the statistics of the generation, or null
+     * @param period            the period of the confirmed cycle, or 0
+     */
+    private Snapshot(long generation, int rows, int cols, long[] words, byte[] states, int stateCount,
+                     long modificationCount, GenerationStats statistics, int period) {
+        this.generation = generation;
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = BitMatrix.wordsPerRow(cols);
+        this.words = words;
+        this.states = states;
+        this.stateCount = stateCount;
+        this.modificationCount = modificationCount;
+        this.statistics = statistics;
+        this.period = period;
+    }
+
+    /**
+     * Copies the current state of the specified matrix into a new snapshot.
+     *
+     * @param matrix            the matrix to copy
+     * @param generation        the number of generations computed so far
+     * @param modificationCount the modification count of the matrix
+     * @param statistics        the statistics of the generation, or null
+     * @param period            the period of the confirmed cycle, or 0
+     * @return the snapshot
+     */
+    static Snapshot of(BufferedMatrix<Boolean> matrix, long generation, long modificationCount,
+                       GenerationStats statistics, int period) {
+        if (matrix instanceof BitMatrix bits) {
+            return new Snapshot(generation, bits.getSizeX(), bits.getSizeY(), bits.getCurrentWords().clone(),
+                    modificationCount, statistics, period);
+        }
+
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int wordsPerRow = BitMatrix.wordsPerRow(cols);
+        long[] words = new long[rows * wordsPerRow];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (matrix.get(i, j)) words[i * wordsPerRow + (j >>> 6)] |= 1L << j;
+            }
+        }
+        return new Snapshot(generation, rows, cols, words, modificationCount, statistics, period);
+    }
+
+    /**
+     * Copies the current state of the specified multi-state matrix into a new snapshot.
+     *
+     * @param matrix            the matrix to copy
+     * @param generation        the number of generations computed so far
+     * @param modificationCount the modification count of the matrix
+     * @return the snapshot
+     */
+    static Snapshot of(ByteMatrix matrix, long generation, long modificationCount) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int wordsPerRow = BitMatrix.wordsPerRow(cols);
+        byte[] states = matrix.getCurrentCells().clone();
+        long[] words = new long[rows * wordsPerRow];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (states[i * cols + j] == 1) words[i * wordsPerRow + (j >>> 6)] |= 1L << j;
+            }
+        }
+        return new Snapshot(generation, rows, cols, words, states, matrix.getRule().getStates(), modificationCount,
+                null, 0);
+    }
+
+    /**
+     * Returns the number of generations the automaton had computed when the snapshot
+     * was taken.
+     *
+     * @return the generation of the snapshot
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the number of rows of the board.
+     *
+     * @return the number of rows
+     */
+    public int getSizeX() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns of the board.
+     *
+     * @return the number of columns
+     */
+    public int getSizeY() {
+        return cols;
+    }
+
+    /**
+     * Returns whether the specified cell is alive.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return true if the cell is alive
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    public boolean isAlive(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= cols) throw new IndexOutOfBoundsException("Invalid matrix indices.");
+        return (words[x * wordsPerRow + (y >>> 6)] & (1L << y)) != 0;
+    }
+
+    /**
+     * Returns the state of the specified cell.
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return the state of the cell, 0 for dead and 1 for alive
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    public int getState(int x, int y) {
+        if (states == null) return isAlive(x, y) ? 1 : 0;
+        if (x < 0 || x >= rows || y < 0 || y >= cols) throw new IndexOutOfBoundsException("Invalid matrix indices.");
+        return states[x * cols + y] & 0xFF;
+    }
+
+    /**
+     * Returns the number of states of the rule played on the board.
+     *
+     * @return the number of states, 2 for a two-state board
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Returns a copy of the packed cells, laid out like {@link BitMatrix#getCurrentWords()}.
+     *
+     * @return the packed cells
+     */
+    public long[] getWords() {
+        return words.clone();
+    }
+
+    /**
+     * Returns the modification count of the matrix when the snapshot was taken.
+     *
+     * @return the modification count
+     */
+    long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Returns the statistics of the generation.
+     *
+     * @return the statistics, or null if none were collected
+     */
+    public GenerationStats getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the period of the cycle the board had been confirmed to be in.
+     *
+     * @return the period, or 0 if no cycle was confirmed
+     */
+    public int getPeriod() {
+        return period;
+    }
+}
@@ -0,0 +1,855 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches random soups from the command line: square soups of random cells are
+ * evolved until they stabilise, and the objects they settle into are counted.
+ *
+ * <p>Soups are evolved in batches on a pool of worker threads, one per core by
+ * default. Every batch draws its soups from its own {@link SplittableRandom}, split
+ * off a root generator seeded from the command line in batch order, so a search
+ * finds the same objects whatever the number of threads. Each soup is placed in
+ * the middle of a board with dead edges and a margin as wide as the soup, and is
+ * stepped by a {@link CellularAutomata} until its {@link CycleDetector} confirms a
+ * cycle. Spaceships flying away, such as gliders, are taken off the board once they
+ * come close to its edge, before they can crash into it and leave debris that no
+ * soup on an unbounded plane would; they are not counted. Soups that do not
+ * stabilise within the generation limit are only counted.</p>
+ *
+ * <p>The stable board is then split into objects, the groups of live cells that
+ * touch each other, including diagonally. Every object is named by its period and
+ * its cells in the orientation and phase that give the smallest name, such as
+ * {@code xs4_oo$oo} for a block or {@code xp2_o$o$o} for a blinker: {@code o} is a
+ * live cell, {@code b} a dead one and {@code $} ends a row.</p>
+ *
+ * <p>The census is written to a CSV file about once a second, replacing the previous
+ * one in a single move, and always covers the first soups of the search up to some
+ * batch. When the file already exists, the search picks up after the soups it
+ * covers, so a crash loses at most the last second of work.</p>
+ *
+ * <p>The arguments are given as {@code --name value} pairs:
+ * <ul>
+ * <li>{@code --output}: the census file (required)</li>
+ * <li>{@code --soups}: how many soups to search in total (required)</li>
+ * <li>{@code --seed}: the seed of the root generator; defaults to 1</li>
+ * <li>{@code --size}: the width and height of the soups; defaults to 16</li>
+ * <li>{@code --density}: the probability of a cell of a soup being alive; defaults to 0.5</li>
+ * <li>{@code --rule}: a B/S rule; defaults to {@code B3/S23}</li>
+ * <li>{@code --generations}: the most generations a soup is evolved; defaults to 10000</li>
+ * <li>{@code --threads}: the number of worker threads; defaults to the number of cores</li>
+ * </ul>
+ * </p>
+ */
+public final class SoupSearch {
+    /**
+     * The usage message printed when the arguments cannot be parsed.
+     */
+    public static final String USAGE = "Usage: soup --output <census.csv> --soups <count> [--seed <seed>] [--size <cells>]"
+            + " [--density <0..1>] [--rule <B3/S23>] [--generations <limit>] [--threads <count>]";
+
+    /**
+     * The number of soups searched by a single task.
+     */
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * How often the census is written, in nanoseconds.
+     */
+    private static final long CHECKPOINT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * How close to the edge of the board an object has to come to be checked for being
+     * a spaceship.
+     */
+    private static final int ESCAPE_DISTANCE = 4;
+
+    /**
+     * The longest period of the spaceships taken off the board, which covers the
+     * glider and the light, middle and heavy weight spaceships.
+     */
+    private static final int MAX_SPACESHIP_PERIOD = 4;
+
+    /**
+     * The file the census is written to.
+     */
+    private final File output;
+
+    /**
+     * The total number of soups to search.
+     */
+    private final long soups;
+
+    /**
+     * The seed of the root generator.
+     */
+    private final long seed;
+
+    /**
+     * The width and height of the soups.
+     */
+    private final int size;
+
+    /**
+     * The probability of a cell of a soup being alive.
+     */
+    private final double density;
+
+    /**
+     * The rule the soups are evolved by.
+     */
+    private final Rule rule;
+
+    /**
+     * The most generations a soup is evolved.
+     */
+    private final int generations;
+
+    /**
+     * The number of worker threads.
+     */
+    private final int threads;
+
+    /**
+     * Constructs a soup search.
+     *
+     * @param output      the file the census is written to
+     * @param soups       the total number of soups to search
+     * @param seed        the seed of the root generator
+     * @param size        the width and height of the soups
+     * @param density     the probability of a cell of a soup being alive
+     * @param rule        the rule the soups are evolved by
+     * @param generations the most generations a soup is evolved
+     * @param threads     the number of worker threads
+     * @throws IllegalArgumentException if a count, the size or the density is invalid
+     */
+    public SoupSearch(File output, long soups, long seed, int size, double density, Rule rule, int generations,
+                      int threads) {
+        if (soups < 0) throw new IllegalArgumentException("Invalid soup count.");
+        if (size < 1 || size > 4096) throw new IllegalArgumentException("Invalid soup size.");
+        if (!(density >= 0 && density <= 1)) throw new IllegalArgumentException("Invalid density.");
+        if (generations < 0) throw new IllegalArgumentException("Invalid generation count.");
+        if (threads < 1) throw new IllegalArgumentException("Invalid thread count.");
+        this.output = output;
+        this.soups = soups;
+        this.seed = seed;
+        this.size = size;
+        this.density = density;
+        this.rule = rule;
+        this.generations = generations;
+        this.threads = threads;
+    }
+
+    /**
+     * Parses the command-line arguments of a soup search.
+     *
+     * @param args the arguments, as {@code --name value} pairs
+     * @return the search described by the arguments
+     * @throws IllegalArgumentException if an argument is missing, unknown or invalid
+     */
+    public static SoupSearch parse(String[] args) {
+        File output = null;
+        String soups = null;
+        String seed = "1";
+        String size = "16";
+        String density = "0.5";
+        String rule = "B3/S23";
+        String generations = "10000";
+        String threads = String.valueOf(Runtime.getRuntime().availableProcessors());
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value of " + args[i] + ".");
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--output" -> output = new File(value);
+                case "--soups" -> soups = value;
+                case "--seed" -> seed = value;
+                case "--size" -> size = value;
+                case "--density" -> density = value;
+                case "--rule" -> rule = value;
+                case "--generations" -> generations = value;
+                case "--threads" -> threads = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i] + ".");
+            }
+        }
+
+        if (output == null || soups == null) throw new IllegalArgumentException("Missing option.");
+        try {
+            return new SoupSearch(output, Long.parseLong(soups), Long.parseLong(seed), Integer.parseInt(size),
+                    Double.parseDouble(density), Rule.parse(rule), Integer.parseInt(generations), Integer.parseInt(threads));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage() + ".", e);
+        }
+    }
+
+    /**
+     * Searches the soups not covered by the census file yet, writing the census as it
+     * grows, and returns the final census.
+     *
+     * @return the census of all soups searched so far
+     * @throws IllegalArgumentException if the census file was written with other settings
+     * @throws UncheckedIOException     if the census file cannot be read or written
+     */
+    public Census run() {
+        Census census = output.exists() ? resume() : new Census(0, 0, new HashMap<>());
+        if (census.soups % BATCH_SIZE != 0 && census.soups < soups) {
+            throw new IllegalArgumentException("Census file covers a finished search: " + output + ".");
+        }
+        SplittableRandom root = new SplittableRandom(seed);
+        long batches = (soups + BATCH_SIZE - 1) / BATCH_SIZE;
+        long merged = census.soups / BATCH_SIZE;
+        for (long batch = 0; batch < merged; batch++) {
+            root.split();
+        }
+        if (merged >= batches) {
+            write(census);
+            return census;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "soup-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorCompletionService<Census> completion = new ExecutorCompletionService<>(pool);
+        Map<Long, Census> done = new TreeMap<>();
+        Map<Future<Census>, Long> submitted = new HashMap<>();
+        long next = merged;
+        long lastWrite = System.nanoTime();
+        try {
+            while (next < batches && submitted.size() < 2 * threads) {
+                submitted.put(submit(completion, root.split(), next), next);
+                next++;
+            }
+            while (merged < batches) {
+                Future<Census> future = completion.take();
+                done.put(submitted.remove(future), future.get());
+                while (done.containsKey(merged)) {
+                    census.add(done.remove(merged));
+                    merged++;
+                }
+                if (next < batches) {
+                    submitted.put(submit(completion, root.split(), next), next);
+                    next++;
+                }
+                if (System.nanoTime() - lastWrite >= CHECKPOINT_INTERVAL) {
+                    write(census);
+                    lastWrite = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        write(census);
+        return census;
+    }
+
+    /**
+     * Submits the search of a batch of soups.
+     *
+     * @param completion the service running the batches
+     * @param random     the generator of the batch
+     * @param batch      the index of the batch
+     * @return the future census of the batch
+     */
+    private Future<Census> submit(ExecutorCompletionService<Census> completion,
+                                                       SplittableRandom random, long batch) {
+        int count = (int) Math.min(BATCH_SIZE, soups - batch * BATCH_SIZE);
+        return completion.submit(() -> searchBatch(random, count));
+    }
+
+    /**
+     * Evolves a batch of soups until they stabilise and takes the census of the objects
+     * they settle into.
+     *
+     * @param random the generator the soups are drawn from
+     * @param count  the number of soups
+     * @return the census of the batch
+     */
+    private Census searchBatch(SplittableRandom random, int count) {
+        Board board = new Board(size, size, rule);
+        Map<String, Long> objects = new HashMap<>();
+        long unstable = 0;
+        for (int soup = 0; soup < count; soup++) {
+            board.matrix.clear();
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (random.nextDouble() < density) board.matrix.update(size + i, size + j, true);
+                }
+            }
+
+            int period = board.settle(generations);
+            if (period == 0) {
+                unstable++;
+                continue;
+            }
+            census(board.matrix, period, board.engine).forEach((name, number) -> objects.merge(name, number, Long::sum));
+        }
+        return new Census(count, unstable, objects);
+    }
+
+    /**
+     * Evolves a single soup the way a search does, by its own rule, and takes the census
+     * of the objects it settles into.
+     *
+     * @param soup        the soup, which is not changed
+     * @param generations the most generations the soup is evolved
+     * @return the number of objects of every name, or null if the soup did not stabilise
+     */
+    public static Map<String, Long> search(BitMatrix soup, int generations) {
+        int rows = soup.getSizeX();
+        int cols = soup.getSizeY();
+        Board board = new Board(rows, cols, soup.getRule());
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (soup.isAlive(i, j)) board.matrix.update(rows + i, cols + j, true);
+            }
+        }
+
+        int period = board.settle(generations);
+        return period == 0 ? null : census(board.matrix, period, board.engine);
+    }
+
+    /**
+     * Takes the census of a board that has settled into a cycle: splits it into groups
+     * of live cells touching each other, including diagonally, and counts them by name.
+     *
+     * @param board  the stable board
+     * @param period the period of the board, 1 for a board of still lifes
+     * @return the number of objects of every name
+     */
+    public static Map<String, Long> census(BitMatrix board, int period) {
+        return census(board, period, new SwarEngine());
+    }
+
+    /**
+     * Takes the census of a stable board, naming the objects with the specified engine.
+     *
+     * @param board  the stable board
+     * @param period the period of the board
+     * @param engine the engine evolving the objects to find their periods and phases
+     * @return the number of objects of every name
+     */
+    private static Map<String, Long> census(BitMatrix board, int period, SwarEngine engine) {
+        int rows = board.getSizeX();
+        int cols = board.getSizeY();
+        int wordsPerRow = BitMatrix.wordsPerRow(cols);
+        long[] unvisited = board.getCurrentWords().clone();
+        int[] stack = new int[rows * cols];
+        int[] cells = new int[rows * cols];
+        Map<String, Long> objects = new HashMap<>();
+
+        for (int w = 0; w < unvisited.length; w++) {
+            while (unvisited[w] != 0) {
+                int start = (w / wordsPerRow) * cols + (w % wordsPerRow) * 64 + Long.numberOfTrailingZeros(unvisited[w]);
+                int count = component(unvisited, start, rows, cols, stack, cells);
+                objects.merge(name(cells, count, cols, board.getRule(), period, engine), 1L, Long::sum);
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * Collects the group of unvisited live cells touching a cell, including diagonally,
+     * and marks them visited.
+     *
+     * @param unvisited the packed cells not visited yet, laid out like the board
+     * @param start     the first cell of the group, as {@code row * cols + col}
+     * @param rows      the number of rows of the board
+     * @param cols      the number of columns of the board
+     * @param stack     room for the cells still to visit, one per cell of the board
+     * @param cells     receives the cells of the group, as {@code row * cols + col}
+     * @return the number of cells of the group
+     */
+    private static int component(long[] unvisited, int start, int rows, int cols, int[] stack, int[] cells) {
+        int wordsPerRow = BitMatrix.wordsPerRow(cols);
+        unvisited[(start / cols) * wordsPerRow + ((start % cols) >>> 6)] &= ~(1L << (start % cols));
+        int count = 0;
+        int top = 0;
+        stack[top++] = start;
+        while (top > 0) {
+            int cell = stack[--top];
+            cells[count++] = cell;
+            int x = cell / cols, y = cell % cols;
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(rows - 1, x + 1); nx++) {
+                for (int ny = Math.max(0, y - 1); ny <= Math.min(cols - 1, y + 1); ny++) {
+                    int word = nx * wordsPerRow + (ny >>> 6);
+                    long bit = 1L << ny;
+                    if ((unvisited[word] & bit) != 0) {
+                        unvisited[word] &= ~bit;
+                        stack[top++] = nx * cols + ny;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether an object is a spaceship: evolved on its own, it returns to its
+     * initial shape at another place within {@link #MAX_SPACESHIP_PERIOD} generations.
+     *
+     * @param cells  the cells of the object, as {@code row * cols + col}
+     * @param count  the number of cells of the object
+     * @param cols   the number of columns of the board
+     * @param rule   the rule of the board
+     * @param engine the engine evolving the object
+     * @return true if the object moves
+     */
+    private static boolean isSpaceship(int[] cells, int count, int cols, Rule rule, SwarEngine engine) {
+        BitMatrix alone = isolate(cells, count, cols, rule, MAX_SPACESHIP_PERIOD + 1);
+        int[] initial = bounds(alone);
+        String shape = render(alone, initial, 0);
+        for (int generation = 1; generation <= MAX_SPACESHIP_PERIOD; generation++) {
+            engine.step(alone);
+            alone.swap();
+            int[] moved = bounds(alone);
+            if (moved == null) return false;
+            if ((moved[0] != initial[0] || moved[1] != initial[1]) && render(alone, moved, 0).equals(shape)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Copies an object onto a board of its own with dead edges.
+     *
+     * @param cells the cells of the object, as {@code row * cols + col}
+     * @param count the number of cells of the object
+     * @param cols  the number of columns of the board holding the object
+     * @param rule  the rule of the board holding the object
+     * @param pad   the number of dead cells around the object
+     * @return the board holding only the object
+     */
+    private static BitMatrix isolate(int[] cells, int count, int cols, Rule rule, int pad) {
+        int minRow = Integer.MAX_VALUE, minCol = Integer.MAX_VALUE, maxRow = 0, maxCol = 0;
+        for (int k = 0; k < count; k++) {
+            int cell = cells[k];
+            minRow = Math.min(minRow, cell / cols);
+            maxRow = Math.max(maxRow, cell / cols);
+            minCol = Math.min(minCol, cell % cols);
+            maxCol = Math.max(maxCol, cell % cols);
+        }
+        BitMatrix alone = new BitMatrix(maxRow - minRow + 1 + 2 * pad, maxCol - minCol + 1 + 2 * pad);
+        alone.setRule(rule);
+        alone.setBoundary(Boundary.DEAD);
+        for (int k = 0; k < count; k++) {
+            int cell = cells[k];
+            alone.update(cell / cols - minRow + pad, cell % cols - minCol + pad, true);
+        }
+        return alone;
+    }
+
+    /**
+     * Names an object. The object is evolved on its own for up to the period of the
+     * board: if it returns to its initial state it is named by its own period and the
+     * smallest name of its phases, otherwise by the period of the board and its current
+     * phase.
+     *
+     * @param cells  the cells of the object, as {@code row * cols + col}
+     * @param count  the number of cells of the object
+     * @param cols   the number of columns of the board
+     * @param rule   the rule of the board
+     * @param period the period of the board
+     * @param engine the engine evolving the object
+     * @return the name of the object
+     */
+    private static String name(int[] cells, int count, int cols, Rule rule, int period, SwarEngine engine) {
+        BitMatrix alone = isolate(cells, count, cols, rule, period + 1);
+        long[] initial = alone.getCurrentWords().clone();
+        String phase = canonical(alone);
+        String smallest = phase;
+        int ownPeriod = 0;
+        for (int generation = 1; generation <= period; generation++) {
+            engine.step(alone);
+            alone.swap();
+            String next = canonical(alone);
+            if (next.compareTo(smallest) < 0) smallest = next;
+            if (Arrays.equals(initial, alone.getCurrentWords())) {
+                ownPeriod = generation;
+                break;
+            }
+        }
+        if (ownPeriod == 0) {
+            ownPeriod = period;
+            smallest = phase;
+        }
+        return (ownPeriod == 1 ? "xs" + count : "xp" + ownPeriod) + "_" + smallest;
+    }
+
+    /**
+     * Returns the smallest of the eight rotations and reflections of the live cells of
+     * a matrix, written row by row with {@code o} for live cells, {@code b} for dead
+     * cells and {@code $} between rows.
+     *
+     * @param matrix the matrix holding a single object
+     * @return the canonical cells of the object, or an empty string if none is alive
+     */
+    static String canonical(BitMatrix matrix) {
+        int[] bounds = bounds(matrix);
+        if (bounds == null) return "";
+
+        String smallest = null;
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            String candidate = render(matrix, bounds, symmetry);
+            if (smallest == null || candidate.compareTo(smallest) < 0) smallest = candidate;
+        }
+        return smallest;
+    }
+
+    /**
+     * Returns the bounding box of the live cells of a matrix.
+     *
+     * @param matrix the matrix
+     * @return the first row, first column, last row and last column, or null if no cell is alive
+     */
+    private static int[] bounds(BitMatrix matrix) {
+        int minRow = Integer.MAX_VALUE, minCol = Integer.MAX_VALUE, maxRow = -1, maxCol = -1;
+        for (int i = 0; i < matrix.getSizeX(); i++) {
+            for (int j = 0; j < matrix.getSizeY(); j++) {
+                if (matrix.isAlive(i, j)) {
+                    minRow = Math.min(minRow, i);
+                    maxRow = Math.max(maxRow, i);
+                    minCol = Math.min(minCol, j);
+                    maxCol = Math.max(maxCol, j);
+                }
+            }
+        }
+        return maxRow < 0 ? null : new int[] { minRow, minCol, maxRow, maxCol };
+    }
+
+    /**
+     * Writes the cells within a bounding box in one of their eight rotations and
+     * reflections, row by row with {@code o} for live cells, {@code b} for dead cells and
+     * {@code $} between rows.
+     *
+     * @param matrix   the matrix
+     * @param bounds   the bounding box, as returned by {@link #bounds(BitMatrix)}
+     * @param symmetry the rotation or reflection, from 0 for none to 7
+     * @return the cells
+     */
+    private static String render(BitMatrix matrix, int[] bounds, int symmetry) {
+        int height = bounds[2] - bounds[0] + 1, width = bounds[3] - bounds[1] + 1;
+        boolean transposed = symmetry >= 4;
+        int outRows = transposed ? width : height, outCols = transposed ? height : width;
+        StringBuilder name = new StringBuilder(outRows * (outCols + 1));
+        for (int r = 0; r < outRows; r++) {
+            if (r > 0) name.append('$');
+            for (int c = 0; c < outCols; c++) {
+                int i = transposed ? c : r, j = transposed ? r : c;
+                if ((symmetry & 1) != 0) i = height - 1 - i;
+                if ((symmetry & 2) != 0) j = width - 1 - j;
+                name.append(matrix.isAlive(bounds[0] + i, bounds[1] + j) ? 'o' : 'b');
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Reads the census written by an earlier run of the same search.
+     *
+     * @return the census read
+     * @throws IllegalArgumentException if the file was written with other settings
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    private Census resume() {
+        try (BufferedReader reader = new BufferedReader(new FileReader(output))) {
+            if (!settings().equals(reader.readLine())) {
+                throw new IllegalArgumentException("Census file was written with other settings: " + output + ".");
+            }
+            String[] progress = reader.readLine().substring(2).split(" ");
+            long soups = Long.parseLong(progress[0].substring("soups=".length()));
+            long unstable = Long.parseLong(progress[1].substring("unstable=".length()));
+            reader.readLine();
+            Map<String, Long> objects = new HashMap<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.lastIndexOf(',');
+                objects.put(line.substring(0, comma), Long.parseLong(line.substring(comma + 1)));
+            }
+            return new Census(soups, unstable, objects);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NumberFormatException | IndexOutOfBoundsException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid census file: " + output + ".", e);
+        }
+    }
+
+    /**
+     * Returns the first line of the census file, recording the settings of the search.
+     *
+     * @return the settings line
+     */
+    private String settings() {
+        return String.format(Locale.ROOT, "# rule=%s size=%d density=%s seed=%d generations=%d",
+                rule, size, density, seed, generations);
+    }
+
+    /**
+     * Writes the census to a temporary file and moves it over the census file, so that
+     * the census file is always complete.
+     *
+     * @param census the census to write
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    private void write(Census census) {
+        File temporary = new File(output.getPath() + ".tmp");
+        try {
+            try (PrintWriter writer = new PrintWriter(temporary, "UTF-8")) {
+                writer.println(settings());
+                writer.println("# soups=" + census.soups + " unstable=" + census.unstable);
+                writer.println("object,count");
+                for (Map.Entry<String, Long> entry : census.getObjects().entrySet()) {
+                    writer.println(entry.getKey() + "," + entry.getValue());
+                }
+            }
+            try {
+                Files.move(temporary.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs a soup search described by the command-line arguments and prints its census.
+     * Invalid arguments print the usage and exit with status 2.
+     *
+     * @param args the arguments, as {@code --name value} pairs
+     */
+    public static void main(String[] args) {
+        SoupSearch search;
+        try {
+            search = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        System.out.println(search.run());
+    }
+
+    /**
+     * The board a soup is evolved on: the soup in the middle with a margin as wide as the
+     * soup all around, dead edges, and the means to tell when it has stabilised.
+     */
+    private static final class Board {
+        /**
+         * The cells of the board.
+         */
+        final BitMatrix matrix;
+
+        /**
+         * The engine stepping the board and its objects.
+         */
+        final SwarEngine engine;
+
+        /**
+         * The automaton stepping the board.
+         */
+        private final CellularAutomata automata;
+
+        /**
+         * The detector telling when the board has settled into a cycle.
+         */
+        private final CycleDetector cycleDetector;
+
+        /**
+         * The cells within {@link #ESCAPE_DISTANCE} of the edge, laid out like the board.
+         */
+        private final long[] edge;
+
+        /**
+         * Room for the cells of an object and those still to visit, one per cell.
+         */
+        private final int[] stack, cells;
+
+        /**
+         * Constructs a board for soups of the specified size.
+         *
+         * @param rows the number of rows of the soups
+         * @param cols the number of columns of the soups
+         * @param rule the rule the soups are evolved by
+         */
+        Board(int rows, int cols, Rule rule) {
+            matrix = new BitMatrix(3 * rows, 3 * cols);
+            matrix.setRule(rule);
+            matrix.setBoundary(Boundary.DEAD);
+            engine = new SwarEngine();
+            automata = new CellularAutomata(matrix, engine);
+            cycleDetector = new CycleDetector(matrix);
+            automata.setCycleDetector(cycleDetector);
+
+            int wordsPerRow = BitMatrix.wordsPerRow(3 * cols);
+            edge = new long[3 * rows * wordsPerRow];
+            for (int i = 0; i < 3 * rows; i++) {
+                for (int j = 0; j < 3 * cols; j++) {
+                    if (i < ESCAPE_DISTANCE || i >= 3 * rows - ESCAPE_DISTANCE
+                            || j < ESCAPE_DISTANCE || j >= 3 * cols - ESCAPE_DISTANCE) {
+                        edge[i * wordsPerRow + (j >>> 6)] |= 1L << j;
+                    }
+                }
+            }
+            stack = new int[9 * rows * cols];
+            cells = new int[9 * rows * cols];
+        }
+
+        /**
+         * Evolves the board until it settles into a cycle, taking spaceships off it as
+         * they come close to its edge.
+         *
+         * @param generations the most generations the board is evolved
+         * @return the period of the cycle, or 0 if the board did not settle
+         */
+        int settle(int generations) {
+            int period = 0;
+            for (int generation = 0; generation < generations && period == 0; generation++) {
+                automata.next();
+                removeSpaceships();
+                period = cycleDetector.getPeriod();
+            }
+            return period;
+        }
+
+        /**
+         * Takes every spaceship close to the edge off the board. Objects close to the edge
+         * are only checked when they touch nothing else, so a spaceship still colliding
+         * with debris is left alone until it is clear of it.
+         */
+        private void removeSpaceships() {
+            int rows = matrix.getSizeX(), cols = matrix.getSizeY();
+            int wordsPerRow = BitMatrix.wordsPerRow(cols);
+            long[] unvisited = null;
+            for (int w = 0; w < edge.length; w++) {
+                if ((matrix.getCurrentWords()[w] & edge[w]) == 0) continue;
+                if (unvisited == null) unvisited = matrix.getCurrentWords().clone();
+                long near;
+                while ((near = unvisited[w] & edge[w]) != 0) {
+                    int start = (w / wordsPerRow) * cols + (w % wordsPerRow) * 64 + Long.numberOfTrailingZeros(near);
+                    int count = component(unvisited, start, rows, cols, stack, cells);
+                    if (isSpaceship(cells, count, cols, matrix.getRule(), engine)) {
+                        for (int k = 0; k < count; k++) {
+                            matrix.update(cells[k] / cols, cells[k] % cols, false);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The outcome of a soup search: how many soups were searched, how many of them did
+     * not stabilise, and how many objects of every name the others settled into.
+     */
+    public static final class Census {
+        /**
+         * The number of soups searched.
+         */
+        private long soups;
+
+        /**
+         * The number of soups that did not stabilise within the generation limit.
+         */
+        private long unstable;
+
+        /**
+         * The number of objects of every name.
+         */
+        private final Map<String, Long> objects;
+
+        /**
+         * Constructs a census.
+         *
+         * @param soups    the number of soups searched
+         * @param unstable the number of soups that did not stabilise
+         * @param objects  the number of objects of every name, owned by the census
+         */
+        Census(long soups, long unstable, Map<String, Long> objects) {
+            this.soups = soups;
+            this.unstable = unstable;
+            this.objects = objects;
+        }
+
+        /**
+         * Adds the counts of another census to this one.
+         *
+         * @param other the census to add
+         */
+        void add(Census other) {
+            soups += other.soups;
+            unstable += other.unstable;
+            other.objects.forEach((name, count) -> objects.merge(name, count, Long::sum));
+        }
+
+        /**
+         * Returns the number of soups searched.
+         *
+         * @return the number of soups
+         */
+        public long getSoups() {
+            return soups;
+        }
+
+        /**
+         * Returns the number of soups that did not stabilise within the generation limit.
+         *
+         * @return the number of unstable soups
+         */
+        public long getUnstable() {
+            return unstable;
+        }
+
+        /**
+         * Returns the number of objects of every name, most common first and then by name.
+         *
+         * @return the counts, in a map that must not be changed
+         */
+        public Map<String, Long> getObjects() {
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            objects.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+            return sorted;
+        }
+
+        /**
+         * Returns a one-line description of the census.
+         *
+         * @return the summary
+         */
+        @Override
+        public String toString() {
+            long total = objects.values().stream().mapToLong(Long::longValue).sum();
+            return String.format(Locale.ROOT, "%d soups, %d unstable, %d objects of %d kinds",
+                    soups, unstable, total, objects.size());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package game;
+
+/**
+ * The base of the engines that count the {@link GenerationStats} of a generation
+ * with a {@link StatsAccumulator} while they write it. It keeps the accumulator and
+ * the statistics of the last step, so an engine only has to start the count, feed
+ * it the words it writes and finish it.
+ */
+abstract class StatisticsCollectingEngine implements StepEngine {
+    /**
+     * The accumulator for the statistics of the current step, or null if they are not collected.
+     */
+    private StatsAccumulator accumulator;
+
+    /**
+     * The statistics of the generation computed by the last step, or null.
+     */
+    private volatile GenerationStats statistics;
+
+    /**
+     * Turns collecting statistics during steps on or off.
+     *
+     * @param collecting whether statistics should be collected
+     */
+    @Override
+    public void setCollectingStatistics(boolean collecting) {
+        accumulator = collecting ? new StatsAccumulator() : null;
+        if (!collecting) statistics = null;
+    }
+
+    /**
+     * Returns the statistics of the generation computed by the last step.
+     *
+     * @return the statistics, or null if none were collected
+     */
+    @Override
+    public GenerationStats getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Starts counting the statistics of a step.
+     *
+     * @param wordsPerRow the number of words per row of the board
+     * @return the cleared accumulator to count the written words with, or null if
+     *         statistics are not collected
+     */
+    final StatsAccumulator startStatistics(int wordsPerRow) {
+        StatsAccumulator accumulator = this.accumulator;
+        if (accumulator != null) accumulator.reset(wordsPerRow);
+        return accumulator;
+    }
+
+    /**
+     * Finishes counting the statistics of a step and makes them those of the last step.
+     *
+     * @param accumulator the accumulator returned by {@link #startStatistics(int)}, or null
+     */
+    final void finishStatistics(StatsAccumulator accumulator) {
+        if (accumulator != null) statistics = accumulator.toStats();
+    }
+}
@@ -0,0 +1,120 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Collects the {@link GenerationStats} of a generation while an engine writes it,
+ * one packed word at a time, so no separate pass over the board is needed.
+ *
+ * <p>Every word of the new state is counted with {@link Long#bitCount(long)}
+ * together with the word it replaces. Rows holding live cells widen the row
+ * range, and the words are OR-ed per word column, which gives the column range
+ * at the end from a single word per column. Accumulators of disjoint parts of
+ * the board, such as the bands of the {@link ParallelEngine}, can be merged.</p>
+ */
+final class StatsAccumulator {
+    /**
+     * The number of live cells counted so far.
+     */
+    private long population;
+
+    /**
+     * The number of births and deaths counted so far.
+     */
+    private long births, deaths;
+
+    /**
+     * The first and last row holding a live cell, or {@code Integer.MAX_VALUE} and -1.
+     */
+    private int minRow, maxRow;
+
+    /**
+     * The OR of the counted words of every word column.
+     */
+    private long[] columns = new long[0];
+
+    /**
+     * Clears the accumulator for a new generation.
+     *
+     * @param wordsPerRow the number of words per row of the board
+     */
+    void reset(int wordsPerRow) {
+        population = 0;
+        births = 0;
+        deaths = 0;
+        minRow = Integer.MAX_VALUE;
+        maxRow = -1;
+        if (columns.length != wordsPerRow) {
+            columns = new long[wordsPerRow];
+        } else {
+            Arrays.fill(columns, 0L);
+        }
+    }
+
+    /**
+     * Counts one word of the new state.
+     *
+     * @param previous the word in the previous state
+     * @param next     the word in the new state
+     * @param row      the row of the word
+     * @param w        the index of the word within the row
+     */
+    void addWord(long previous, long next, int row, int w) {
+        population += Long.bitCount(next);
+        births += Long.bitCount(next & ~previous);
+        deaths += Long.bitCount(previous & ~next);
+        if (next != 0) {
+            if (row < minRow) minRow = row;
+            if (row > maxRow) maxRow = row;
+            columns[w] |= next;
+        }
+    }
+
+    /**
+     * Counts a whole row of the new state, right after it was written.
+     *
+     * @param src         the packed previous state
+     * @param dst         the packed new state
+     * @param offset      the offset of the row in both states
+     * @param wordsPerRow the number of words per row
+     * @param row         the index of the row
+     */
+    void addRow(long[] src, long[] dst, int offset, int wordsPerRow, int row) {
+        for (int w = 0; w < wordsPerRow; w++) {
+            addWord(src[offset + w], dst[offset + w], row, w);
+        }
+    }
+
+    /**
+     * Adds the counts of another accumulator covering a disjoint part of the board.
+     *
+     * @param other the accumulator to merge
+     */
+    void merge(StatsAccumulator other) {
+        population += other.population;
+        births += other.births;
+        deaths += other.deaths;
+        minRow = Math.min(minRow, other.minRow);
+        maxRow = Math.max(maxRow, other.maxRow);
+        for (int w = 0; w < columns.length; w++) {
+            columns[w] |= other.columns[w];
+        }
+    }
+
+    /**
+     * Returns the statistics counted so far.
+     *
+     * @return the statistics of the generation
+     */
+    GenerationStats toStats() {
+        if (maxRow < 0) return new GenerationStats(population, births, deaths, -1, -1, -1, -1);
+
+        int first = 0;
+        while (columns[first] == 0) first++;
+        int last = columns.length - 1;
+        while (columns[last] == 0) last--;
+        return new GenerationStats(population, births, deaths, minRow, maxRow,
+                first * 64 + Long.numberOfTrailingZeros(columns[first]),
+                last * 64 + 63 - Long.numberOfLeadingZeros(columns[last]));
+    }
+}
@@ -0,0 +1,57 @@
+package game;
+
+/**
+ * A stepping engine computes the next generation of a {@link BitMatrix}.
+ *
+ * <p>An engine reads the current buffer of the matrix and writes every word of the
+ * next buffer. It does not advance the matrix itself; the caller invokes
+ * {@link BitMatrix#swap()} once the step has completed. Swapping, unlike
+ * {@link BitMatrix#next()}, does not clear the buffer it lets go of, so after the
+ * swap the next buffer still holds the previous generation: engines such as the
+ * {@link ActiveRegionEngine} and the {@link CycleDetector} rely on it to find the
+ * cells that changed, and would silently go wrong if the matrix were advanced with
+ * {@code next()}.</p>
+ *
+ * <p>An engine may also produce the {@link GenerationStats} of every generation it
+ * computes, counted from the packed words while it writes them. Collecting is off
+ * until it is turned on, so that stepping stays free of allocations.</p>
+ *
+ * @see CellularAutomata
+ */
+public interface StepEngine {
+    /**
+     * Computes the next generation of the specified matrix into its next buffer.
+     *
+     * @param matrix the matrix to step
+     */
+    void step(BitMatrix matrix);
+
+    /**
+     * Returns how many rows and columns away a cell can be and still affect the next
+     * state of another cell. A board stepped piecewise, such as an
+     * {@link OffHeapBitMatrix}, gives every piece this many extra rows on each side.
+     *
+     * @return the radius of the neighbourhood, 1 for the Moore neighbourhood
+     */
+    default int getRadius() {
+        return 1;
+    }
+
+    /**
+     * Turns collecting statistics during steps on or off. Engines that cannot collect
+     * statistics ignore the request.
+     *
+     * @param collecting whether statistics should be collected
+     */
+    default void setCollectingStatistics(boolean collecting) {
+    }
+
+    /**
+     * Returns the statistics of the generation computed by the last step.
+     *
+     * @return the statistics, or null if none were collected
+     */
+    default GenerationStats getStatistics() {
+        return null;
+    }
+}
@@ -0,0 +1,269 @@
+package game;
+
+/**
+ * A bit-parallel (SWAR) stepping engine that evolves 64 cells per iteration.
+ *
+ * <p>For every word of a row the engine builds the eight neighbour words by
+ * shifting the word and its left and right neighbours in the rows above, at and
+ * below it, and then sums them with a network of bitwise full and half adders.
+ * The result is the neighbour count of all 64 cells as four bit planes, from
+ * which the {@link Rule} of the matrix is applied: Conway's Game of Life takes a
+ * handful of boolean operations, any other rule is selected from the planes by
+ * its compiled masks.</p>
+ *
+ * <p>Only the outer ring of the board depends on its {@link Boundary}. Interior
+ * rows read the rows above and below directly and interior words take their
+ * carries from the neighbouring words; the first and last row pick their
+ * neighbour rows through the boundary, and the first and last word of every row
+ * take the carry across the edge from {@link #westEdge} and {@link #eastEdge}. A
+ * neighbour row beyond a dead edge is passed as offset {@code -1} and read as
+ * zeros. On a torus neighbours are counted with multiplicity, exactly like the
+ * per-cell loop of {@link CellularAutomata}, so boards narrower than three cells
+ * evolve identically as well.</p>
+ *
+ * <p>When statistics are collected, every row is counted right after it has been
+ * written, while it is still in the cache.</p>
+ */
+public class SwarEngine extends StatisticsCollectingEngine {
+    /**
+     * Computes the next generation of the specified matrix into its next buffer.
+     *
+     * @param matrix the matrix to step
+     */
+    @Override
+    public void step(BitMatrix matrix) {
+        StatsAccumulator accumulator = startStatistics(matrix.getWordsPerRow());
+        stepRows(matrix.getRule(), matrix.getBoundary(), matrix.getCurrentWords(), matrix.getNextWords(),
+                matrix.getSizeX(), matrix.getSizeY(), 0, matrix.getSizeX(), accumulator);
+        finishStatistics(accumulator);
+    }
+
+    /**
+     * Computes the next generation of a range of rows.
+     *
+     * @param rule     the rule to apply
+     * @param boundary what lies beyond the edges of the board
+     * @param src      the packed current state
+     * @param dst      the packed next state, written for the rows in range
+     * @param rows     the number of rows of the board
+     * @param cols     the number of columns of the board
+     * @param fromRow  the first row to compute, inclusive
+     * @param toRow    the last row to compute, exclusive
+     * @param stats    the accumulator counting the computed rows, or null
+     */
+    static void stepRows(Rule rule, Boundary boundary, long[] src, long[] dst, int rows, int cols,
+                         int fromRow, int toRow, StatsAccumulator stats) {
+        int wordsPerRow = BitMatrix.wordsPerRow(cols);
+        for (int row = fromRow; row < toRow; row++) {
+            int middle = row * wordsPerRow;
+            if (row > 0 && row < rows - 1) {
+                stepRow(rule, boundary, src, middle - wordsPerRow, middle, middle + wordsPerRow,
+                        dst, middle, wordsPerRow, cols);
+            } else {
+                stepRow(rule, boundary, src, rowOffset(boundary, row - 1, rows, wordsPerRow), middle,
+                        rowOffset(boundary, row + 1, rows, wordsPerRow), dst, middle, wordsPerRow, cols);
+            }
+            if (stats != null) stats.addRow(src, dst, middle, wordsPerRow, row);
+        }
+    }
+
+    /**
+     * Returns the offset of a row that may lie beyond the top or bottom edge.
+     *
+     * @param boundary    what lies beyond the edges of the board
+     * @param row         the index of the row, possibly outside the board
+     * @param rows        the number of rows of the board
+     * @param wordsPerRow the number of words per row
+     * @return the offset of the row standing in for it, or -1 if it is dead
+     */
+    static int rowOffset(Boundary boundary, int row, int rows, int wordsPerRow) {
+        if (row >= 0 && row < rows) return row * wordsPerRow;
+        int mapped = boundary.map(row, rows);
+        return mapped < 0 ? -1 : mapped * wordsPerRow;
+    }
+
+    /**
+     * Returns the cell standing in for the one left of the first column of a row.
+     *
+     * @param boundary what lies beyond the edges of the board
+     * @param src      the packed current state
+     * @param row      the offset of the row
+     * @param last     the index of the last word of the row
+     * @param lastBit  the bit of the last column within the last word
+     * @return the cell in bit 0
+     */
+    static long westEdge(Boundary boundary, long[] src, int row, int last, int lastBit) {
+        return switch (boundary) {
+            case TORUS -> (src[row + last] >>> lastBit) & 1;
+            case MIRROR -> src[row] & 1;
+            case DEAD -> 0;
+        };
+    }
+
+    /**
+     * Returns the cell standing in for the one right of the last column of a row.
+     *
+     * @param boundary what lies beyond the edges of the board
+     * @param src      the packed current state
+     * @param row      the offset of the row
+     * @param last     the index of the last word of the row
+     * @param lastBit  the bit of the last column within the last word
+     * @return the cell in bit 0
+     */
+    static long eastEdge(Boundary boundary, long[] src, int row, int last, int lastBit) {
+        return switch (boundary) {
+            case TORUS -> src[row] & 1;
+            case MIRROR -> (src[row + last] >>> lastBit) & 1;
+            case DEAD -> 0;
+        };
+    }
+
+    /**
+     * Computes the next generation of a single row from the row itself and the rows
+     * above and below it.
+     *
+     * @param rule        the rule to apply
+     * @param boundary    what lies beyond the edges of the board
+     * @param src         the packed current state
+     * @param above       the offset of the row above, or -1 if it is dead
+     * @param middle      the offset of the row
+     * @param below       the offset of the row below, or -1 if it is dead
+     * @param dst         the packed next state
+     * @param out         the offset of the row in the next state
+     * @param wordsPerRow the number of words per row
+     * @param cols        the number of columns of the board
+     */
+    static void stepRow(Rule rule, Boundary boundary, long[] src, int above, int middle, int below,
+                        long[] dst, int out, int wordsPerRow, int cols) {
+        int last = wordsPerRow - 1;
+        int lastBit = (cols - 1) & 63;
+        long aMask = above < 0 ? 0 : -1L;
+        long bMask = below < 0 ? 0 : -1L;
+        if (above < 0) above = middle;
+        if (below < 0) below = middle;
+
+        long a = src[above] & aMask, m = src[middle], b = src[below] & bMask;
+        long aPrev = westEdge(boundary, src, above, last, lastBit) & aMask;
+        long mPrev = westEdge(boundary, src, middle, last, lastBit);
+        long bPrev = westEdge(boundary, src, below, last, lastBit) & bMask;
+
+        for (int w = 0; w < last; w++) {
+            long aNext = src[above + w + 1] & aMask, mNext = src[middle + w + 1], bNext = src[below + w + 1] & bMask;
+
+            dst[out + w] = evolve(rule,
+                    (a << 1) | aPrev, a, (a >>> 1) | (aNext << 63),
+                    (m << 1) | mPrev, m, (m >>> 1) | (mNext << 63),
+                    (b << 1) | bPrev, b, (b >>> 1) | (bNext << 63));
+
+            aPrev = a >>> 63;
+            mPrev = m >>> 63;
+            bPrev = b >>> 63;
+            a = aNext;
+            m = mNext;
+            b = bNext;
+        }
+
+        long aEast = eastEdge(boundary, src, above, last, lastBit) & aMask;
+        long mEast = eastEdge(boundary, src, middle, last, lastBit);
+        long bEast = eastEdge(boundary, src, below, last, lastBit) & bMask;
+        dst[out + last] = BitMatrix.lastWordMask(cols) & evolve(rule,
+                (a << 1) | aPrev, a, (a >>> 1) | (aEast << lastBit),
+                (m << 1) | mPrev, m, (m >>> 1) | (mEast << lastBit),
+                (b << 1) | bPrev, b, (b >>> 1) | (bEast << lastBit));
+    }
+
+    /**
+     * Computes the next generation of a single word of a row from the row itself and the
+     * rows above and below it.
+     *
+     * @param rule        the rule to apply
+     * @param boundary    what lies beyond the edges of the board
+     * @param src         the packed current state
+     * @param above       the offset of the row above, or -1 if it is dead
+     * @param middle      the offset of the row
+     * @param below       the offset of the row below, or -1 if it is dead
+     * @param w           the index of the word within the row
+     * @param wordsPerRow the number of words per row
+     * @param cols        the number of columns of the board
+     * @return the next state of the 64 cells of the word
+     */
+    static long stepWord(Rule rule, Boundary boundary, long[] src, int above, int middle, int below,
+                         int w, int wordsPerRow, int cols) {
+        int last = wordsPerRow - 1;
+        int lastBit = (cols - 1) & 63;
+        long aMask = above < 0 ? 0 : -1L;
+        long bMask = below < 0 ? 0 : -1L;
+        if (above < 0) above = middle;
+        if (below < 0) below = middle;
+        long a = src[above + w] & aMask, m = src[middle + w], b = src[below + w] & bMask;
+
+        long aPrev, mPrev, bPrev;
+        if (w == 0) {
+            aPrev = westEdge(boundary, src, above, last, lastBit) & aMask;
+            mPrev = westEdge(boundary, src, middle, last, lastBit);
+            bPrev = westEdge(boundary, src, below, last, lastBit) & bMask;
+        } else {
+            aPrev = (src[above + w - 1] & aMask) >>> 63;
+            mPrev = src[middle + w - 1] >>> 63;
+            bPrev = (src[below + w - 1] & bMask) >>> 63;
+        }
+
+        if (w == last) {
+            long aEast = eastEdge(boundary, src, above, last, lastBit) & aMask;
+            long mEast = eastEdge(boundary, src, middle, last, lastBit);
+            long bEast = eastEdge(boundary, src, below, last, lastBit) & bMask;
+            return BitMatrix.lastWordMask(cols) & evolve(rule,
+                    (a << 1) | aPrev, a, (a >>> 1) | (aEast << lastBit),
+                    (m << 1) | mPrev, m, (m >>> 1) | (mEast << lastBit),
+                    (b << 1) | bPrev, b, (b >>> 1) | (bEast << lastBit));
+        }
+        return evolve(rule,
+                (a << 1) | aPrev, a, (a >>> 1) | ((src[above + w + 1] & aMask) << 63),
+                (m << 1) | mPrev, m, (m >>> 1) | (src[middle + w + 1] << 63),
+                (b << 1) | bPrev, b, (b >>> 1) | ((src[below + w + 1] & bMask) << 63));
+    }
+
+    /**
+     * Applies a rule to 64 cells at once. Each cell argument holds, at every bit
+     * position, the corresponding neighbour of the cell at that position in the
+     * word {@code c}.
+     *
+     * @param rule the rule to apply
+     * @param nw the north-west neighbours
+     * @param n  the north neighbours
+     * @param ne the north-east neighbours
+     * @param w  the west neighbours
+     * @param c  the cells themselves
+     * @param e  the east neighbours
+     * @param sw the south-west neighbours
+     * @param s  the south neighbours
+     * @param se the south-east neighbours
+     * @return the next state of the 64 cells
+     */
+    static long evolve(Rule rule, long nw, long n, long ne, long w, long c, long e, long sw, long s, long se) {
+        long aXor = nw ^ n;
+        long aSum = aXor ^ ne;
+        long aCarry = (nw & n) | (aXor & ne);
+
+        long bXor = sw ^ s;
+        long bSum = bXor ^ se;
+        long bCarry = (sw & s) | (bXor & se);
+
+        long mSum = w ^ e;
+        long mCarry = w & e;
+
+        long onesXor = aSum ^ bSum;
+        long ones = onesXor ^ mSum;
+        long onesCarry = (aSum & bSum) | (onesXor & mSum);
+
+        long twosXor = aCarry ^ bCarry;
+        long twosSum = twosXor ^ mCarry;
+        long twosCarry = (aCarry & bCarry) | (twosXor & mCarry);
+        long twos = twosSum ^ onesCarry;
+        long fours = twosCarry ^ (twosSum & onesCarry);
+        long eights = twosCarry & twosSum & onesCarry;
+
+        if (!rule.isConway()) return rule.apply(c, ones, twos, fours, eights);
+        return twos & ~fours & ~eights & (ones | c);
+    }
+}
@@ -0,0 +1,125 @@
+package game;
+
+/**
+ * Advances a {@link BitMatrix} several generations at a time with temporal
+ * (wavefront) blocking, so that a board much larger than the cache is streamed
+ * through memory once per pass instead of once per generation.
+ *
+ * <p>The board is cut into bands of whole rows, which are contiguous in memory,
+ * sized so that a band and its halo fit twice into {@value #CACHE_BYTES} bytes.
+ * For a pass of {@code k} generations each band is copied into a scratch buffer
+ * together with {@code k} halo rows above and below it, read through the
+ * {@link Boundary} of the matrix, and stepped {@code k} times with the
+ * {@link SwarEngine} kernel between two scratch buffers that stay in the cache.
+ * Every generation the rows next to the edge of the copied window can no longer
+ * be computed, so the stepped range shrinks by one row on each side; after
+ * {@code k} generations exactly the band itself is still correct and is written
+ * to the next buffer. At a dead edge there is no halo and the edge of the window
+ * is the edge of the board, which is stepped like in the single-generation
+ * engines.</p>
+ *
+ * <p>The halo rows are computed once per band, which costs {@code 2k} rows of
+ * extra work per band; passes are therefore limited to {@value #MAX_DEPTH}
+ * generations, and to an eighth of the rows that fit in the cache, so that a
+ * band is always several times taller than its halo. The scratch buffers are
+ * kept between calls, so advancing does not allocate memory unless the board
+ * grows.</p>
+ */
+final class TemporalBlocking {
+    /**
+     * The largest number of generations computed in a single pass over the board.
+     */
+    static final int MAX_DEPTH = 16;
+
+    /**
+     * The number of bytes the two scratch buffers of a band should fit in, about the
+     * size of a level-2 cache.
+     */
+    static final int CACHE_BYTES = 1 << 20;
+
+    /**
+     * The scratch buffer holding the band and its halo in the current generation.
+     */
+    private long[] current = new long[0];
+
+    /**
+     * The scratch buffer receiving the band and its halo in the next generation.
+     */
+    private long[] next = new long[0];
+
+    /**
+     * Advances the matrix by the specified number of generations. The matrix is left in
+     * the same state as after stepping it generation by generation with any engine.
+     *
+     * @param matrix      the matrix to advance
+     * @param generations the number of generations, at least 1
+     */
+    void advance(BitMatrix matrix, int generations) {
+        int remaining = generations;
+        int fittingRows = CACHE_BYTES / (2 * Long.BYTES * matrix.getWordsPerRow());
+        int maxDepth = Math.max(1, Math.min(MAX_DEPTH, fittingRows / 8));
+        while (remaining > 0) {
+            int depth = Math.min(remaining, maxDepth);
+            pass(matrix, depth);
+            matrix.swap();
+            remaining -= depth;
+        }
+        matrix.markModified();
+    }
+
+    /**
+     * Computes the generation {@code depth} steps after the current state into the next
+     * buffer of the matrix, band by band.
+     *
+     * @param matrix the matrix to step
+     * @param depth  the number of generations of the pass
+     */
+    private void pass(BitMatrix matrix, int depth) {
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+        int wordsPerRow = matrix.getWordsPerRow();
+        long[] src = matrix.getCurrentWords();
+        long[] dst = matrix.getNextWords();
+        Rule rule = matrix.getRule();
+        Boundary boundary = matrix.getBoundary();
+        boolean dead = boundary == Boundary.DEAD;
+
+        int bandRows = Math.min(rows, Math.max(2 * depth, CACHE_BYTES / (2 * Long.BYTES * wordsPerRow) - 2 * depth));
+        int windowWords = (bandRows + 2 * depth) * wordsPerRow;
+        if (current.length < windowWords) {
+            current = new long[windowWords];
+            next = new long[windowWords];
+        }
+
+        for (int fromRow = 0; fromRow < rows; fromRow += bandRows) {
+            int toRow = Math.min(rows, fromRow + bandRows);
+            int top = dead ? Math.max(0, fromRow - depth) : fromRow - depth;
+            int bottom = dead ? Math.min(rows, toRow + depth) : toRow + depth;
+            int height = bottom - top;
+            boolean openTop = !dead || top > 0;
+            boolean openBottom = !dead || bottom < rows;
+
+            for (int i = 0; i < height; i++) {
+                int row = dead ? top + i : boundary.map(top + i, rows);
+                System.arraycopy(src, row * wordsPerRow, current, i * wordsPerRow, wordsPerRow);
+            }
+
+            for (int generation = 1; generation <= depth; generation++) {
+                int first = openTop ? generation : 0;
+                int last = openBottom ? height - generation : height;
+                for (int i = first; i < last; i++) {
+                    int middle = i * wordsPerRow;
+                    int above = i > 0 ? middle - wordsPerRow : -1;
+                    int below = i < height - 1 ? middle + wordsPerRow : -1;
+                    SwarEngine.stepRow(rule, boundary, current, above, middle, below, next, middle, wordsPerRow, cols);
+                }
+                long[] previous = current;
+                current = next;
+                next = previous;
+            }
+
+            System.arraycopy(current, (fromRow - top) * wordsPerRow, dst, fromRow * wordsPerRow,
+                    (toRow - fromRow) * wordsPerRow);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package game;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A stepping engine that runs the {@link SwarEngine} adder network on several
+ * packed words at once with the JDK Vector API ({@code jdk.incubator.vector}).
+ *
+ * <p>Each lane of a vector holds one 64-cell word, so a 256-bit (AVX2) vector
+ * evolves 256 cells and a 512-bit (AVX-512) vector 512 cells per operation. The
+ * neighbour words of the lanes are obtained with unaligned loads shifted by one
+ * word. The outer ring of the board, whose neighbours depend on the
+ * {@link Boundary}, is handled by the scalar kernel: the first and last word of
+ * every row and the first and last row. So are boards too narrow to fill a
+ * single vector. Results are bit-identical to the scalar engine. The vector kernel
+ * implements Conway's Game of Life; matrices with any other {@link Rule} are
+ * stepped by the scalar kernel. Statistics are counted row by row like in the
+ * scalar engine.</p>
+ *
+ * <p>The Vector API is an incubator module and has to be enabled with
+ * {@code --add-modules jdk.incubator.vector}. When the module is missing, or the
+ * preferred vector species holds fewer than two words, the engine falls back to
+ * the scalar kernel; {@link #isVectorized()} tells which path is in use. The game
+ * only selects this engine when started with {@code -D}{@value #FLAG}{@code =true}.</p>
+ */
+public class VectorEngine extends StatisticsCollectingEngine {
+    /**
+     * The system property that enables the vector engine in the game.
+     */
+    public static final String FLAG = "game.vector";
+
+    /**
+     * Whether the vector kernel is usable on this JVM.
+     */
+    private static final boolean VECTORIZED = detect();
+
+    /**
+     * Returns whether the vector engine was requested with the {@value #FLAG} system property.
+     *
+     * @return true if the flag is set
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(FLAG);
+    }
+
+    /**
+     * Returns whether the engine runs the vector kernel rather than the scalar fallback.
+     *
+     * @return true if the Vector API is usable with at least two lanes
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Detects whether the Vector API module is present and worth using.
+     *
+     * @return true if the vector kernel can be used
+     */
+    private static boolean detect() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return false;
+        try {
+            return Kernel.SPECIES.length() >= 2;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Computes the next generation of the specified matrix into its next buffer.
+     *
+     * @param matrix the matrix to step
+     */
+    @Override
+    public void step(BitMatrix matrix) {
+        long[] src = matrix.getCurrentWords();
+        long[] dst = matrix.getNextWords();
+        int rows = matrix.getSizeX();
+        int cols = matrix.getSizeY();
+
+        int wordsPerRow = matrix.getWordsPerRow();
+        Rule rule = matrix.getRule();
+        Boundary boundary = matrix.getBoundary();
+        StatsAccumulator accumulator = startStatistics(wordsPerRow);
+        if (!VECTORIZED || !rule.isConway() || wordsPerRow < Kernel.minWordsPerRow()) {
+            SwarEngine.stepRows(rule, boundary, src, dst, rows, cols, 0, rows, accumulator);
+            finishStatistics(accumulator);
+            return;
+        }
+
+        for (int row = 0; row < rows; row++) {
+            int middle = row * wordsPerRow;
+            if (row > 0 && row < rows - 1) {
+                Kernel.stepRow(boundary, src, middle - wordsPerRow, middle, middle + wordsPerRow,
+                        dst, middle, wordsPerRow, cols);
+            } else {
+                SwarEngine.stepRow(rule, boundary, src, SwarEngine.rowOffset(boundary, row - 1, rows, wordsPerRow),
+                        middle, SwarEngine.rowOffset(boundary, row + 1, rows, wordsPerRow), dst, middle, wordsPerRow, cols);
+            }
+            if (accumulator != null) accumulator.addRow(src, dst, middle, wordsPerRow, row);
+        }
+        finishStatistics(accumulator);
+    }
+
+    /**
+     * The vectorized kernel. It is kept in a nested class so that the Vector API classes
+     * are only linked once the module is known to be present.
+     */
+    private static final class Kernel {
+        /**
+         * The preferred species of long vectors on this platform.
+         */
+        private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+        /**
+         * Computes the next generation of a single interior row, vectorizing every word
+         * that does not touch the left or right edge. The row must be at least
+         * {@link #minWordsPerRow()} words wide.
+         *
+         * @param boundary    what lies beyond the edges of the board
+         * @param src         the packed current state
+         * @param above       the offset of the row above
+         * @param middle      the offset of the row
+         * @param below       the offset of the row below
+         * @param dst         the packed next state
+         * @param out         the offset of the row in the next state
+         * @param wordsPerRow the number of words per row
+         * @param cols        the number of columns of the board
+         */
+        static void stepRow(Boundary boundary, long[] src, int above, int middle, int below,
+                            long[] dst, int out, int wordsPerRow, int cols) {
+            int last = wordsPerRow - 1;
+            dst[out] = SwarEngine.stepWord(Rule.CONWAY, boundary, src, above, middle, below, 0, wordsPerRow, cols);
+
+            int w = 1 + stepLanes(src, above, middle, below, dst, out, SPECIES.loopBound(last - 1));
+            for (; w <= last; w++) {
+                dst[out + w] = SwarEngine.stepWord(Rule.CONWAY, boundary, src, above, middle, below, w, wordsPerRow, cols);
+            }
+        }
+
+        /**
+         * Returns the narrowest row, in words, that holds at least one full vector besides
+         * its two wrapping edge words. Narrower boards are left to the scalar kernel, so
+         * the vector loop is never compiled for rows it would not run on.
+         *
+         * @return the minimum number of words per row for the vector kernel
+         */
+        static int minWordsPerRow() {
+            return SPECIES.length() + 2;
+        }
+
+        /**
+         * Computes the next generation of the words {@code 1} to {@code count} of a row,
+         * a whole vector at a time. None of these words wraps around the torus.
+         *
+         * @param src    the packed current state
+         * @param above  the offset of the row above
+         * @param middle the offset of the row
+         * @param below  the offset of the row below
+         * @param dst    the packed next state
+         * @param out    the offset of the row in the next state
+         * @param count  the number of words to compute, a multiple of the vector length
+         * @return the number of words computed
+         */
+        private static int stepLanes(long[] src, int above, int middle, int below, long[] dst, int out, int count) {
+            for (int w = 1; w <= count; w += SPECIES.length()) {
+                LongVector a = LongVector.fromArray(SPECIES, src, above + w);
+                LongVector aWest = LongVector.fromArray(SPECIES, src, above + w - 1);
+                LongVector aEast = LongVector.fromArray(SPECIES, src, above + w + 1);
+                LongVector m = LongVector.fromArray(SPECIES, src, middle + w);
+                LongVector mWest = LongVector.fromArray(SPECIES, src, middle + w - 1);
+                LongVector mEast = LongVector.fromArray(SPECIES, src, middle + w + 1);
+                LongVector b = LongVector.fromArray(SPECIES, src, below + w);
+                LongVector bWest = LongVector.fromArray(SPECIES, src, below + w - 1);
+                LongVector bEast = LongVector.fromArray(SPECIES, src, below + w + 1);
+
+                evolve(west(a, aWest), a, east(a, aEast),
+                        west(m, mWest), m, east(m, mEast),
+                        west(b, bWest), b, east(b, bEast)).intoArray(dst, out + w);
+            }
+            return count;
+        }
+
+        /**
+         * Returns the west neighbours of the cells in every lane.
+         *
+         * @param words the words
+         * @param west  the words one position to the left
+         * @return the west neighbour words
+         */
+        private static LongVector west(LongVector words, LongVector west) {
+            return words.lanewise(VectorOperators.LSHL, 1).or(west.lanewise(VectorOperators.LSHR, 63));
+        }
+
+        /**
+         * Returns the east neighbours of the cells in every lane.
+         *
+         * @param words the words
+         * @param east  the words one position to the right
+         * @return the east neighbour words
+         */
+        private static LongVector east(LongVector words, LongVector east) {
+            return words.lanewise(VectorOperators.LSHR, 1).or(east.lanewise(VectorOperators.LSHL, 63));
+        }
+
+        /**
+         * The lane-wise equivalent of {@link SwarEngine#evolve}.
+         *
+         * @return the next state of the cells in every lane
+         */
+        private static LongVector evolve(LongVector nw, LongVector n, LongVector ne,
+                                         LongVector w, LongVector c, LongVector e,
+                                         LongVector sw, LongVector s, LongVector se) {
+            LongVector aXor = nw.lanewise(VectorOperators.XOR, n);
+            LongVector aSum = aXor.lanewise(VectorOperators.XOR, ne);
+            LongVector aCarry = nw.and(n).or(aXor.and(ne));
+
+            LongVector bXor = sw.lanewise(VectorOperators.XOR, s);
+            LongVector bSum = bXor.lanewise(VectorOperators.XOR, se);
+            LongVector bCarry = sw.and(s).or(bXor.and(se));
+
+            LongVector mSum = w.lanewise(VectorOperators.XOR, e);
+            LongVector mCarry = w.and(e);
+
+            LongVector onesXor = aSum.lanewise(VectorOperators.XOR, bSum);
+            LongVector ones = onesXor.lanewise(VectorOperators.XOR, mSum);
+            LongVector onesCarry = aSum.and(bSum).or(onesXor.and(mSum));
+
+            LongVector twosXor = aCarry.lanewise(VectorOperators.XOR, bCarry);
+            LongVector twosSum = twosXor.lanewise(VectorOperators.XOR, mCarry);
+            LongVector twosCarry = aCarry.and(bCarry).or(twosXor.and(mCarry));
+            LongVector twos = twosSum.lanewise(VectorOperators.XOR, onesCarry);
+            LongVector highBits = twosCarry.or(twosSum.and(onesCarry));
+
+            return twos.lanewise(VectorOperators.AND_NOT, highBits).and(ones.or(c));
+        }
+    }
+}
@@ -4,8 +4,11 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import game.CellularAutomata;
+import game.CycleDetector;
+import game.SimulationScheduler;
 
 /**
  * A JPanel that visualizes and controls a Cellular Automaton.
@@ -16,9 +19,19 @@ import game.CellularAutomata;
  * <ul>
  *     <li>P: Toggles the play/pause state of the simulation.</li>
  *     <li>N: Advances the simulation to the next generation.</li>
+ *     <li>+ and -: Double or halve the target rate; above {@value #MAX_RATE}
+ *     generations per second the simulation runs as fast as possible.</li>
+ *     <li>T: Toggles turbo mode, in which the simulation runs as fast as possible
+ *     while the grid keeps drawing the latest generation at its own pace.</li>
  * </ul>
  * </p>
  *
+ * <p>Playing is scheduled by a {@link SimulationScheduler}, which steps the automaton
+ * at a fixed rate on a single worker thread that is reused every time playing starts.</p>
+ *
+ * <p>When the automaton has a {@link CycleDetector}, playing stops by itself once the
+ * board has stabilised, so an unattended game does not keep the CPU busy.</p>
+ *
  * @see CellularAutomata
  */
 public class CellularAutomataPanel extends JPanel implements KeyListener {
@@ -28,14 +41,19 @@ public class CellularAutomataPanel extends JPanel implements KeyListener {
     CellularAutomata cellularAutomata;
 
     /**
-     * A flag indicating whether the simulation is currently playing (true) or paused (false).
+     * The number of generations per second played by default.
      */
-    boolean playingToggle = false;
+    static final double DEFAULT_RATE = 16;
 
     /**
-     * The thread that runs the simulation when playing.
+     * The highest target rate before the simulation runs as fast as possible.
      */
-    Thread playThread = null;
+    static final double MAX_RATE = 1024;
+
+    /**
+     * The scheduler that runs the simulation when playing.
+     */
+    final SimulationScheduler scheduler;
 
     /**
      * Constructs a CellularAutomataPanel with the specified CellularAutomata.
@@ -44,10 +62,33 @@ public class CellularAutomataPanel extends JPanel implements KeyListener {
      */
     public CellularAutomataPanel(CellularAutomata cellularAutomata) {
         this.cellularAutomata = cellularAutomata;
+        this.scheduler = new SimulationScheduler(cellularAutomata, DEFAULT_RATE);
+        CycleDetector cycleDetector = cellularAutomata.getCycleDetector();
+        if (cycleDetector != null) {
+            cycleDetector.setListener(period -> SwingUtilities.invokeLater(this::stopPlaying));
+        }
         addKeyListener(this);
         setFocusable(true);
     }
 
+    /**
+     * Returns the CellularAutomata instance controlled by this panel.
+     *
+     * @return the controlled CellularAutomata instance.
+     */
+    public CellularAutomata getCellularAutomata() {
+        return cellularAutomata;
+    }
+
+    /**
+     * Returns the scheduler that runs the simulation when playing.
+     *
+     * @return the scheduler, which reports the achieved rate and lag.
+     */
+    public SimulationScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Invoked when a key has been typed. This implementation does not perform any action.
      *
@@ -63,6 +104,8 @@ public class CellularAutomataPanel extends JPanel implements KeyListener {
      * <ul>
      *     <li>P: Toggles the play/pause state of the simulation.</li>
      *     <li>N: Advances the simulation to the next generation.</li>
+     *     <li>+ and -: Double or halve the target rate.</li>
+     *     <li>T: Toggles turbo mode.</li>
      * </ul>
      *
      * @param e the key event to be processed.
@@ -71,7 +114,7 @@ public class CellularAutomataPanel extends JPanel implements KeyListener {
     public void keyPressed(KeyEvent e) {
         switch (e.getKeyCode()) {
             case KeyEvent.VK_P -> {
-                if (!playingToggle) {
+                if (!isPlaying()) {
                     startPlaying();
                 } else {
                     stopPlaying();
@@ -79,6 +122,15 @@ public class CellularAutomataPanel extends JPanel implements KeyListener {
                 break;
             }
             case KeyEvent.VK_N -> cellularAutomata.next();
+            case KeyEvent.VK_T -> scheduler.setTurbo(!scheduler.isTurbo());
+            case KeyEvent.VK_PLUS, KeyEvent.VK_EQUALS, KeyEvent.VK_ADD -> {
+                double rate = scheduler.getTargetRate() * 2;
+                scheduler.setTargetRate(rate > MAX_RATE ? SimulationScheduler.AS_FAST_AS_POSSIBLE : rate);
+            }
+            case KeyEvent.VK_MINUS, KeyEvent.VK_SUBTRACT -> {
+                double rate = scheduler.getTargetRate();
+                scheduler.setTargetRate(rate == SimulationScheduler.AS_FAST_AS_POSSIBLE ? MAX_RATE : Math.max(1, rate / 2));
+            }
         }
     }
 
@@ -93,41 +145,26 @@ public class CellularAutomataPanel extends JPanel implements KeyListener {
     }
 
     /**
-     * Starts the simulation in a separate thread, updating the CellularAutomata instance
-     * at regular intervals.
+     * Starts playing the simulation at the target rate of the scheduler.
      */
     public void startPlaying() {
-        playThread = new Thread(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                cellularAutomata.next();
-
-                try {
-                    Thread.sleep(60);
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        });
-        playThread.start();
-
-        playingToggle = true;
+        scheduler.start();
     }
 
     /**
-     * Stops the simulation and waits for the playing thread to terminate.
+     * Stops playing the simulation and waits for the generation in progress to complete.
      */
     public void stopPlaying() {
-        if (playThread != null) {
-            playThread.interrupt();
-            try {
-                playThread.join();
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-            }
-            playThread = null;
-        }
+        scheduler.pause();
+    }
 
-        playingToggle = false;
+    /**
+     * Returns whether the simulation is playing. The scheduler is asked rather than
+     * remembered, since it stops by itself when a generation fails.
+     *
+     * @return true if the scheduler is running.
+     */
+    public boolean isPlaying() {
+        return scheduler.isRunning();
     }
 }
-
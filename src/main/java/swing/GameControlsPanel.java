@@ -72,6 +72,7 @@ public class GameControlsPanel extends JPanel implements KeyListener {
         JLabel movementLabel = createControlLabel("WASD / Arrow Keys - Screen Movement");
         JLabel playPauseLabel = createControlLabel("P - Play/Pause the Game");
         JLabel nextStepLabel = createControlLabel("N - Next Step");
+        JLabel turboLabel = createControlLabel("T - Turbo Mode");
         JLabel randomizeLabel = createControlLabel("F - Randomize");
         JLabel resetLabel = createControlLabel("R - Reset");
         JLabel homeLabel = createControlLabel("HOME - Return Display To Home");
@@ -85,6 +86,7 @@ public class GameControlsPanel extends JPanel implements KeyListener {
         controlsPanel.add(movementLabel);
         controlsPanel.add(playPauseLabel);
         controlsPanel.add(nextStepLabel);
+        controlsPanel.add(turboLabel);
         controlsPanel.add(randomizeLabel);
         controlsPanel.add(resetLabel);
         controlsPanel.add(homeLabel);
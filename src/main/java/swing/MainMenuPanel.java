@@ -12,6 +12,9 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import game.BufferedMatrix;
+import game.ByteMatrix;
+import game.GenerationsAutomata;
+import game.GenerationsRule;
 
 /**
  * MainMenuPanel represents the main menu of the game, allowing users to start a new game,
@@ -86,7 +89,28 @@ public class MainMenuPanel extends JPanel {
             File file = fileChooser.getSelectedFile();
             if (!file.isFile()) return;
 
-            matrix.fromJson(file);
+            GenerationsRule rule = ByteMatrix.readRule(file);
+            if (rule == null) return;
+
+            ByteMatrix generations = null;
+            if (rule.getStates() > 2) {
+                generations = new ByteMatrix(1, 1);
+                generations.fromJson(file);
+            } else {
+                matrix.fromJson(file);
+            }
+
+            ScalableGridPanel grid = (ScalableGridPanel) switcher.getPanel("grid");
+            if (grid != null) {
+                grid.setUniverse(null);
+                grid.setGenerations(generations);
+            }
+
+            CellularAutomataPanel nextStep = (CellularAutomataPanel) switcher.getPanel("nextStep");
+            if (nextStep != null) {
+                nextStep.getCellularAutomata().setUniverse(null);
+                nextStep.getCellularAutomata().setGenerations(generations != null ? new GenerationsAutomata(generations) : null);
+            }
 
             switcher.switchTo("grid");
             switcher.registerKeyListener("pause");
@@ -11,16 +11,27 @@ import java.awt.event.KeyListener;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSpinner;
 import javax.swing.SpinnerNumberModel;
 
+import game.Boundary;
 import game.BufferedMatrix;
+import game.ByteMatrix;
+import game.ChunkedUniverse;
+import game.GenerationsAutomata;
+import game.GenerationsRule;
 
 /**
  * This class represents the menu panel for setting the size of the matrix in the Game of Life application.
- * It allows the user to specify the number of rows and columns for the grid.
+ * It allows the user to specify the number of rows and columns for the grid, or to play
+ * on an unbounded universe instead of a fixed-size board, and to pick the rule of the game and
+ * what lies beyond the edges of a fixed-size board.
+ * Rules with more than two states are played on a multi-state matrix of the chosen size.
  * The panel includes buttons for navigation and input fields for user interaction.
  */
 public class MatrixSizeMenuPanel extends JPanel implements KeyListener {
@@ -35,6 +46,18 @@ public class MatrixSizeMenuPanel extends JPanel implements KeyListener {
      */
     private final BufferedMatrix<Boolean> matrix;
 
+    /**
+     * The rules offered in the rule selector, in B/S or B/S/C notation. Any other rule can be typed in.
+     */
+    private static final String[] RULES = {
+            "B3/S23", "B36/S23", "B2/S", "B3678/S34678", "B368/S245", "B1357/S1357", "B2/S/C3", "B2/S345/C4"
+    };
+
+    /**
+     * The names shown in the boundary selector, in the order of {@link Boundary#values()}.
+     */
+    private static final String[] BOUNDARIES = { "Torus", "Dead edge", "Mirrored" };
+
     /**
      * Constructs a new MatrixSizeMenuPanel with the specified switcher and matrix.
      *
@@ -89,10 +112,65 @@ public class MatrixSizeMenuPanel extends JPanel implements KeyListener {
 
         gbc.gridx = 0;
         gbc.gridy = 2;
+        contentPanel.add(createLabel("Rule:"), gbc);
+
+        JComboBox<String> ruleComboBox = new JComboBox<>(RULES);
+        ruleComboBox.setEditable(true);
+        ruleComboBox.setFont(new Font("Arial", Font.PLAIN, 20));
+        gbc.gridx = 1;
+        contentPanel.add(ruleComboBox, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        contentPanel.add(createLabel("Boundary:"), gbc);
+
+        JComboBox<String> boundaryComboBox = new JComboBox<>(BOUNDARIES);
+        boundaryComboBox.setSelectedIndex(matrix.getBoundary().ordinal());
+        boundaryComboBox.setFont(new Font("Arial", Font.PLAIN, 20));
+        gbc.gridx = 1;
+        contentPanel.add(boundaryComboBox, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 4;
         gbc.gridwidth = 2;
+        JCheckBox unboundedCheckBox = new JCheckBox("Unbounded Universe");
+        unboundedCheckBox.setFont(new Font("Arial", Font.PLAIN, 24));
+        unboundedCheckBox.addActionListener(e -> {
+            rowsSpinner.setEnabled(!unboundedCheckBox.isSelected());
+            colsSpinner.setEnabled(!unboundedCheckBox.isSelected());
+            boundaryComboBox.setEnabled(!unboundedCheckBox.isSelected());
+        });
+        contentPanel.add(unboundedCheckBox, gbc);
+
+        gbc.gridy = 5;
         JButton submitButton = createButton("Set Matrix Size");
         submitButton.addActionListener(e -> {
-            matrix.changeSize((Integer) rowsSpinner.getValue(), (Integer) colsSpinner.getValue());
+            GenerationsRule rule;
+            try {
+                rule = GenerationsRule.parse(String.valueOf(ruleComboBox.getSelectedItem()));
+            } catch (IllegalArgumentException ex) {
+                showError("The rule must be written in B/S or B/S/C notation, for example B3/S23 or B2/S/C3.");
+                return;
+            }
+            boolean multiState = rule.getStates() > 2;
+            if (unboundedCheckBox.isSelected() && (multiState || rule.getLifeRule().hasBirthOnZero())) {
+                showError("Rules with B0 or more than two states can only be played on a fixed-size board.");
+                return;
+            }
+
+            int rows = (Integer) rowsSpinner.getValue();
+            int cols = (Integer) colsSpinner.getValue();
+            matrix.setRule(rule.getLifeRule());
+            matrix.setBoundary(Boundary.values()[boundaryComboBox.getSelectedIndex()]);
+            matrix.changeSize(rows, cols);
+
+            ByteMatrix generations = null;
+            if (multiState) {
+                generations = new ByteMatrix(rows, cols);
+                generations.setRule(rule);
+                generations.setBoundary(matrix.getBoundary());
+            }
+            attach(unboundedCheckBox.isSelected() ? new ChunkedUniverse() : null, generations);
             switcher.switchTo("grid");
             switcher.registerKeyListener("pause");
             switcher.registerKeyListener("nextStep");
@@ -102,6 +180,36 @@ public class MatrixSizeMenuPanel extends JPanel implements KeyListener {
         add(contentPanel, BorderLayout.CENTER);
     }
 
+    /**
+     * Attaches an unbounded universe or a multi-state matrix to the grid and the
+     * simulation, or detaches both to play on the matrix.
+     *
+     * @param universe    The universe to play on, or null.
+     * @param generations The multi-state matrix to play on, or null.
+     */
+    private void attach(ChunkedUniverse universe, ByteMatrix generations) {
+        ScalableGridPanel grid = (ScalableGridPanel) switcher.getPanel("grid");
+        if (grid != null) {
+            grid.setUniverse(universe);
+            grid.setGenerations(generations);
+        }
+
+        CellularAutomataPanel nextStep = (CellularAutomataPanel) switcher.getPanel("nextStep");
+        if (nextStep != null) {
+            nextStep.getCellularAutomata().setUniverse(universe);
+            nextStep.getCellularAutomata().setGenerations(generations != null ? new GenerationsAutomata(generations) : null);
+        }
+    }
+
+    /**
+     * Shows an error dialog about the settings entered in the panel.
+     *
+     * @param message The message to be displayed.
+     */
+    private void showError(String message) {
+        JOptionPane.showMessageDialog(this, message, "Invalid Settings", JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * Creates a JButton with the specified text and default font settings.
      *
@@ -14,7 +14,10 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
+import game.BitMatrix;
 import game.BufferedMatrix;
+import game.ByteMatrix;
+import game.ChunkedUniverse;
 
 /**
  * The {@code PauseMenuPanel} class represents a pause menu in the game.
@@ -105,7 +108,18 @@ public class PauseMenuPanel extends JPanel implements KeyListener {
             File fileToSave = fileChooser.getSelectedFile();
             if (!fileToSave.getName().toLowerCase().endsWith(".json")) fileToSave = new File(fileToSave.getAbsolutePath() + ".json");
 
-            matrix.toJson(fileToSave);
+            ScalableGridPanel grid = (ScalableGridPanel) switcher.getPanel("grid");
+            ChunkedUniverse universe = grid != null ? grid.getUniverse() : null;
+            ByteMatrix generations = grid != null ? grid.getGenerations() : null;
+            if (generations != null) {
+                generations.toJson(fileToSave);
+            } else if (universe != null) {
+                BitMatrix region = universe.toMatrix();
+                region.setRule(matrix.getRule());
+                region.toJson(fileToSave);
+            } else {
+                matrix.toJson(fileToSave);
+            }
 
             didUserSave = true;
         });
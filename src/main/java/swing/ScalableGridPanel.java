@@ -1,6 +1,7 @@
 package swing;
 
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
@@ -16,12 +17,22 @@ import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.awt.geom.AffineTransform;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Consumer;
 
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
 import game.BufferedMatrix;
+import game.ByteMatrix;
+import game.ChunkedUniverse;
+import game.CellularAutomata;
+import game.CycleDetector;
+import game.GenerationStats;
+import game.SimulationScheduler;
+import game.Snapshot;
 
 /**
  * ScalableGridPanel is a custom JPanel designed to display a grid based on a BufferedMatrix
@@ -33,6 +44,26 @@ import game.BufferedMatrix;
  * by dragging with the right mouse button, and toggle cells on or off by clicking them.
  * Additional functionality includes resetting the grid, randomizing cells, and moving the
  * viewport using keyboard inputs.
+ *
+ * When an unbounded {@link ChunkedUniverse} is attached, the panel displays and edits it
+ * instead of the matrix. The view can then be panned without limit, and only the chunks
+ * inside the view are drawn.
+ *
+ * When a multi-state {@link ByteMatrix} is attached, the panel displays and edits it
+ * instead, drawing dead cells white, live cells black and dying cells in fading shades
+ * of blue. Like the matrix, it is drawn from snapshots and edited through the simulation.
+ *
+ * When the simulation is attached, the panel shows the population, births and deaths of
+ * the last generation, and tells the user once the {@link CycleDetector} has found the
+ * board stabilised into a cycle, along with its period. The matrix is then drawn from
+ * the {@link Snapshot} of the last completed generation, so a frame never mixes two
+ * generations, and edits are handed to the simulation, which applies them between
+ * generations.
+ *
+ * When the scheduler playing the simulation is attached, the panel also shows, on every
+ * kind of board, how many generations per second are computed and how many frames per
+ * second are drawn. The two are independent: the panel keeps drawing at the pace of its timer, and in turbo mode it
+ * only picks up the latest completed generation, without ever holding up the simulation.
  */
 public class ScalableGridPanel extends JPanel implements MouseWheelListener, KeyListener, ActionListener, MouseListener,
         MouseMotionListener, ComponentListener {
@@ -43,6 +74,56 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
      */
     private final BufferedMatrix<Boolean> matrix;
 
+    /**
+     * The unbounded universe displayed instead of the matrix, or null to display the matrix.
+     */
+    private ChunkedUniverse universe;
+
+    /**
+     * The multi-state matrix displayed instead of the matrix, or null to display the matrix.
+     */
+    private ByteMatrix generations;
+
+    /**
+     * The simulation whose snapshots are drawn and whose statistics and cycles are reported, or null.
+     */
+    private CellularAutomata cellularAutomata;
+
+    /**
+     * The scheduler playing the simulation, whose rate and turbo mode are reported, or null.
+     */
+    private SimulationScheduler scheduler;
+
+    /**
+     * How often the frame rate is updated, in nanoseconds.
+     */
+    private static final long FRAME_RATE_WINDOW = 500_000_000L;
+
+    /**
+     * The start of the current frame rate window.
+     */
+    private long frameWindowStart = System.nanoTime();
+
+    /**
+     * The number of frames drawn in the current frame rate window.
+     */
+    private long frameWindowFrames;
+
+    /**
+     * The number of frames per second drawn over the last window.
+     */
+    private double framesPerSecond;
+
+    /**
+     * The colours of the states of the multi-state matrix, indexed by state.
+     */
+    private Color[] palette = new Color[0];
+
+    /**
+     * The size of the region filled with random cells in an unbounded universe.
+     */
+    private static final int UNIVERSE_RANDOM_SIZE = 64;
+
     /**
      * Random instance used for randomizing the grid.
      */
@@ -108,6 +189,103 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
         setDoubleBuffered(true);
     }
 
+    /**
+     * Attaches an unbounded universe to be displayed and edited instead of the matrix,
+     * or detaches it to go back to the matrix.
+     *
+     * @param universe The universe to display, or null to display the matrix.
+     */
+    public void setUniverse(ChunkedUniverse universe) {
+        this.universe = universe;
+    }
+
+    /**
+     * Returns the unbounded universe displayed instead of the matrix.
+     *
+     * @return The attached universe, or null if the matrix is displayed.
+     */
+    public ChunkedUniverse getUniverse() {
+        return universe;
+    }
+
+    /**
+     * Attaches a multi-state matrix to be displayed and edited instead of the matrix,
+     * or detaches it to go back to the matrix.
+     *
+     * @param generations The multi-state matrix to display, or null to display the matrix.
+     */
+    public void setGenerations(ByteMatrix generations) {
+        this.generations = generations;
+    }
+
+    /**
+     * Returns the multi-state matrix displayed instead of the matrix.
+     *
+     * @return The attached multi-state matrix, or null if the matrix is displayed.
+     */
+    public ByteMatrix getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Attaches the simulation whose snapshots are drawn, with its statistics and confirmed
+     * cycles reported on top of the grid, and which applies the edits made on the grid.
+     *
+     * @param cellularAutomata The simulation stepping the matrix, or null.
+     */
+    public void setCellularAutomata(CellularAutomata cellularAutomata) {
+        this.cellularAutomata = cellularAutomata;
+    }
+
+    /**
+     * Attaches the scheduler playing the simulation, so that the generations per second
+     * it computes are reported next to the frames per second drawn.
+     *
+     * @param scheduler The scheduler playing the simulation, or null.
+     */
+    public void setScheduler(SimulationScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the number of rows of the displayed board.
+     *
+     * @return The number of rows of the multi-state matrix if attached, else of the matrix.
+     */
+    private int getRows() {
+        return generations != null ? generations.getSizeX() : matrix.getSizeX();
+    }
+
+    /**
+     * Returns the number of columns of the displayed board.
+     *
+     * @return The number of columns of the multi-state matrix if attached, else of the matrix.
+     */
+    private int getCols() {
+        return generations != null ? generations.getSizeY() : matrix.getSizeY();
+    }
+
+    /**
+     * Returns the colour of a state of the multi-state matrix. Dying states fade from
+     * blue towards white as they get closer to dead.
+     *
+     * @param state  The state of the cell.
+     * @param states The number of states of the rule.
+     * @return The colour to draw the cell with.
+     */
+    private Color getStateColor(int state, int states) {
+        if (palette.length != states) {
+            palette = new Color[states];
+            palette[0] = Color.WHITE;
+            palette[1] = Color.BLACK;
+            for (int i = 2; i < states; i++) {
+                float fade = (i - 2) / (float) Math.max(1, states - 2);
+                palette[i] = new Color((int) (40 + 180 * fade), (int) (90 + 140 * fade), 230);
+            }
+        }
+        return palette[state];
+    }
+
     /**
      * Converts screen coordinates (mouse X, Y) to grid coordinates (row, column).
      * 
@@ -116,13 +294,19 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
      * @return An array with row and column coordinates, or null if outside the grid.
      */
     private int[] getCellCoordinates(int mouseX, int mouseY) {
+        if (universe != null) {
+            int col = (int) Math.floor((mouseX - offsetX) / scale / CELL_SIZE);
+            int row = (int) Math.floor((mouseY - offsetY) / scale / CELL_SIZE);
+            return new int[] { row, col };
+        }
+
         int realX = (int) ((mouseX - offsetX) / scale);
         int realY = (int) ((mouseY - offsetY) / scale);
 
         int col = realX / CELL_SIZE;
         int row = realY / CELL_SIZE;
 
-        if (row >= 0 && row < matrix.getSizeX() && col >= 0 && col < matrix.getSizeY()) {
+        if (row >= 0 && row < getRows() && col >= 0 && col < getCols()) {
             return new int[] { row, col };
         }
         return null;
@@ -139,7 +323,13 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
         if (coordinates != null) {
             int row = coordinates[0];
             int col = coordinates[1];
-            matrix.update(row,col,!matrix.get(row,col));
+            if (universe != null) {
+                universe.update(row, col, !universe.get(row, col));
+            } else if (generations != null) {
+                editGenerations(m -> m.update(row, col, m.get(row, col) == 0 ? 1 : 0));
+            } else {
+                editMatrix(m -> m.update(row,col,!m.get(row,col)));
+            }
         }
     }
 
@@ -155,7 +345,41 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
         if (coordinates != null) {
             int row = coordinates[0];
             int col = coordinates[1];
-            matrix.update(row,col,cellValue);
+            if (universe != null) {
+                universe.update(row, col, cellValue);
+            } else if (generations != null) {
+                editGenerations(m -> m.update(row, col, cellValue ? 1 : 0));
+            } else {
+                editMatrix(m -> m.update(row,col,cellValue));
+            }
+        }
+    }
+
+    /**
+     * Applies an edit to the matrix. While the simulation is attached the edit is handed
+     * to it, so that it never overlaps the computation of a generation.
+     *
+     * @param edit The change to make to the matrix.
+     */
+    private void editMatrix(Consumer<BufferedMatrix<Boolean>> edit) {
+        if (cellularAutomata != null) {
+            cellularAutomata.edit(edit);
+        } else {
+            edit.accept(matrix);
+        }
+    }
+
+    /**
+     * Applies an edit to the multi-state matrix. While the simulation is attached the
+     * edit is handed to it, so that it never overlaps the computation of a generation.
+     *
+     * @param edit The change to make to the multi-state matrix.
+     */
+    private void editGenerations(Consumer<ByteMatrix> edit) {
+        if (cellularAutomata != null && cellularAutomata.getGenerations() != null) {
+            cellularAutomata.editGenerations(edit);
+        } else {
+            edit.accept(generations);
         }
     }
 
@@ -175,8 +399,20 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
     private void calculateInitialFit() {
         double panelWidth = getWidth();
         double panelHeight = getHeight();
-        double gridHeight = matrix.getSizeX() * CELL_SIZE;
-        double gridWidth = matrix.getSizeY() * CELL_SIZE;
+
+        if (universe != null) {
+            int[] bounds = universe.getBounds();
+            if (bounds == null) bounds = new int[] { 0, 0, UNIVERSE_RANDOM_SIZE - 1, UNIVERSE_RANDOM_SIZE - 1 };
+
+            targetScale = Math.min(panelWidth / ((bounds[3] - bounds[1] + 1) * (double) CELL_SIZE),
+                    panelHeight / ((bounds[2] - bounds[0] + 1) * (double) CELL_SIZE));
+            targetOffsetX = -bounds[1] * (double) CELL_SIZE * targetScale;
+            targetOffsetY = -bounds[0] * (double) CELL_SIZE * targetScale;
+            return;
+        }
+
+        double gridHeight = getRows() * CELL_SIZE;
+        double gridWidth = getCols() * CELL_SIZE;
 
         double scaleX = panelWidth / gridWidth;
         double scaleY = panelHeight / gridHeight;
@@ -185,7 +421,8 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
     }
 
     /**
-     * Paints the grid of cells onto the panel. Cells are drawn as black (alive) or white (dead).
+     * Paints the grid of cells onto the panel. Cells are drawn as black (alive) or white (dead),
+     * and dying cells of a multi-state matrix in shades of blue.
      * 
      * @param g The Graphics object used for drawing.
      */
@@ -193,6 +430,7 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
+        countFrame();
 
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
@@ -201,17 +439,34 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
         transform.scale(scale, scale);
         g2d.setTransform(transform);
 
+        if (universe != null) {
+            paintUniverse(g2d);
+            paintOverlay(g2d, null);
+            return;
+        }
+
+        Snapshot snapshot = null;
+        if (cellularAutomata != null) {
+            boolean turbo = scheduler != null && scheduler.isRunning() && scheduler.isTurbo();
+            snapshot = turbo ? cellularAutomata.getLatestSnapshot() : cellularAutomata.getSnapshot();
+        }
+        int rows = snapshot != null ? snapshot.getSizeX() : getRows();
+        int cols = snapshot != null ? snapshot.getSizeY() : getCols();
+
         int startCol = Math.max(0, (int) (-offsetX / scale / CELL_SIZE));
         int startRow = Math.max(0, (int) (-offsetY / scale / CELL_SIZE));
-        int endRow = Math.min(matrix.getSizeX(), (int) ((getHeight() - offsetY) / scale / CELL_SIZE) + 1);
-        int endCol = Math.min(matrix.getSizeY(), (int) ((getWidth() - offsetX) / scale / CELL_SIZE) + 1);
+        int endRow = Math.min(rows, (int) ((getHeight() - offsetY) / scale / CELL_SIZE) + 1);
+        int endCol = Math.min(cols, (int) ((getWidth() - offsetX) / scale / CELL_SIZE) + 1);
 
         for (int row = startRow; row < endRow; row++) {
             for (int col = startCol; col < endCol; col++) {
                 int x = col * CELL_SIZE;
                 int y = row * CELL_SIZE;
 
-                if (matrix.get(row, col)) {
+                if (generations != null) {
+                    g2d.setColor(snapshot != null ? getStateColor(snapshot.getState(row, col), snapshot.getStateCount())
+                            : getStateColor(generations.get(row, col), generations.getRule().getStates()));
+                } else if (snapshot != null ? snapshot.isAlive(row, col) : matrix.get(row, col)) {
                     g2d.setColor(Color.BLACK);
                 } else {
                     g2d.setColor(Color.WHITE);
@@ -222,6 +477,142 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
                 g2d.drawRect(x, y, CELL_SIZE, CELL_SIZE);
             }
         }
+
+        paintOverlay(g2d, snapshot);
+    }
+
+    /**
+     * Paints the status lines on top of the board, whatever kind of board is displayed:
+     * the statistics and confirmed cycle of the drawn snapshot, and the rates and turbo
+     * mode of the scheduler while it plays.
+     *
+     * @param g2d      The Graphics2D object used for drawing.
+     * @param snapshot The snapshot the board was drawn from, or null.
+     */
+    private void paintOverlay(Graphics2D g2d, Snapshot snapshot) {
+        g2d.setTransform(new AffineTransform());
+        int line = 0;
+        if (snapshot != null) {
+            GenerationStats statistics = snapshot.getStatistics();
+            if (statistics != null) {
+                paintStatus(g2d, line++, Color.BLACK, "Population: " + statistics.getPopulation()
+                        + "  +" + statistics.getBirths() + " / -" + statistics.getDeaths());
+            }
+            int period = snapshot.getPeriod();
+            if (period > 0) {
+                paintStatus(g2d, line++, new Color(0, 120, 0), period == 1 ? "Stabilised: still life" : "Stabilised: period " + period);
+            }
+        }
+        if (scheduler != null && scheduler.isRunning()) {
+            paintStatus(g2d, line, scheduler.isTurbo() ? new Color(160, 0, 0) : Color.BLACK,
+                    String.format(Locale.ROOT, "%.0f gens/s  %.0f fps%s", scheduler.getAchievedRate(), framesPerSecond,
+                            scheduler.isTurbo() ? "  (turbo)" : ""));
+        }
+    }
+
+    /**
+     * Counts a drawn frame and updates the frame rate about twice a second.
+     */
+    private void countFrame() {
+        frameWindowFrames++;
+        long now = System.nanoTime();
+        if (now - frameWindowStart >= FRAME_RATE_WINDOW) {
+            framesPerSecond = frameWindowFrames * 1e9 / (now - frameWindowStart);
+            frameWindowStart = now;
+            frameWindowFrames = 0;
+        }
+    }
+
+    /**
+     * Paints a line of status text in the top left corner of the panel, unaffected by
+     * zooming and panning.
+     *
+     * @param g2d     The untransformed Graphics2D object used for drawing.
+     * @param line    The index of the line, from the top.
+     * @param color   The color of the text.
+     * @param message The message to be displayed.
+     */
+    private void paintStatus(Graphics2D g2d, int line, Color color, String message) {
+        g2d.setFont(new Font("Arial", Font.BOLD, 18));
+        int width = g2d.getFontMetrics().stringWidth(message);
+        int top = 5 + line * 34;
+        g2d.setColor(new Color(255, 255, 255, 200));
+        g2d.fillRect(5, top, width + 20, 32);
+        g2d.setColor(color);
+        g2d.drawString(message, 15, top + 22);
+    }
+
+    /**
+     * Paints the part of the unbounded universe inside the view. Only the chunks that
+     * overlap the view are visited; grid lines are drawn while cells are large enough
+     * to tell apart.
+     *
+     * @param g2d The transformed Graphics2D object used for drawing.
+     */
+    private void paintUniverse(Graphics2D g2d) {
+        int startCol = (int) Math.floor(-offsetX / scale / CELL_SIZE);
+        int startRow = (int) Math.floor(-offsetY / scale / CELL_SIZE);
+        int endCol = (int) Math.floor((getWidth() - offsetX) / scale / CELL_SIZE) + 1;
+        int endRow = (int) Math.floor((getHeight() - offsetY) / scale / CELL_SIZE) + 1;
+
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(startCol * CELL_SIZE, startRow * CELL_SIZE,
+                (endCol - startCol) * CELL_SIZE, (endRow - startRow) * CELL_SIZE);
+
+        int startChunkRow = startRow >> 6, endChunkRow = (endRow - 1) >> 6;
+        int startChunkCol = startCol >> 6, endChunkCol = (endCol - 1) >> 6;
+        Map<Long, long[]> chunks = universe.getChunks();
+
+        g2d.setColor(Color.BLACK);
+        long visibleChunks = (long) (endChunkRow - startChunkRow + 1) * (endChunkCol - startChunkCol + 1);
+        if (visibleChunks > chunks.size()) {
+            for (Map.Entry<Long, long[]> entry : chunks.entrySet()) {
+                int chunkRow = ChunkedUniverse.chunkRow(entry.getKey());
+                int chunkCol = ChunkedUniverse.chunkCol(entry.getKey());
+                if (chunkRow >= startChunkRow && chunkRow <= endChunkRow
+                        && chunkCol >= startChunkCol && chunkCol <= endChunkCol) {
+                    paintChunk(g2d, entry.getValue(), chunkRow, chunkCol);
+                }
+            }
+        } else {
+            for (int chunkRow = startChunkRow; chunkRow <= endChunkRow; chunkRow++) {
+                for (int chunkCol = startChunkCol; chunkCol <= endChunkCol; chunkCol++) {
+                    long[] chunk = chunks.get(ChunkedUniverse.key(chunkRow, chunkCol));
+                    if (chunk != null) paintChunk(g2d, chunk, chunkRow, chunkCol);
+                }
+            }
+        }
+
+        if (CELL_SIZE * scale >= 4) {
+            for (int row = startRow; row <= endRow; row++) {
+                g2d.drawLine(startCol * CELL_SIZE, row * CELL_SIZE, endCol * CELL_SIZE, row * CELL_SIZE);
+            }
+            for (int col = startCol; col <= endCol; col++) {
+                g2d.drawLine(col * CELL_SIZE, startRow * CELL_SIZE, col * CELL_SIZE, endRow * CELL_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Paints the live cells of a single chunk of the unbounded universe.
+     *
+     * @param g2d The transformed Graphics2D object used for drawing.
+     * @param chunk The rows of the chunk.
+     * @param chunkRow The row of the chunk.
+     * @param chunkCol The column of the chunk.
+     */
+    private void paintChunk(Graphics2D g2d, long[] chunk, int chunkRow, int chunkCol) {
+        for (int r = 0; r < ChunkedUniverse.CHUNK_SIZE; r++) {
+            long word = chunk[r];
+            while (word != 0) {
+                int c = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+
+                int row = chunkRow * ChunkedUniverse.CHUNK_SIZE + r;
+                int col = chunkCol * ChunkedUniverse.CHUNK_SIZE + c;
+                g2d.fillRect(col * CELL_SIZE, row * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+            }
+        }
     }
 
     /**
@@ -360,7 +751,8 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
     /**
      * Handles key press events. It allows the user to move the view using
      * arrow keys or WASD, reset the view with the Home key, clear the grid
-     * with the 'R' key, or randomize the grid with the 'F' key.
+     * with the 'R' key, or randomize the grid with the 'F' key. In an unbounded
+     * universe 'F' randomizes a square region around the centre of the view.
      *
      * @param e The KeyEvent triggered by a key press.
      */
@@ -393,20 +785,56 @@ public class ScalableGridPanel extends JPanel implements MouseWheelListener, Key
                 break;
             }
             case KeyEvent.VK_R: {
-                matrix.clear();
+                if (universe != null) {
+                    universe.clear();
+                } else if (generations != null) {
+                    editGenerations(ByteMatrix::clear);
+                } else {
+                    editMatrix(BufferedMatrix::clear);
+                }
                 break;
             }
             case KeyEvent.VK_F: {
-                for (int i = 0; i < matrix.getSizeX(); i++) {
-                    for (int j = 0; j < matrix.getSizeY(); j++) {
-                        matrix.update(i,j,random.nextBoolean());
-                    }
+                if (universe != null) {
+                    randomizeUniverse();
+                    break;
+                }
+                if (generations != null) {
+                    editGenerations(m -> {
+                        for (int i = 0; i < m.getSizeX(); i++) {
+                            for (int j = 0; j < m.getSizeY(); j++) {
+                                m.update(i, j, random.nextBoolean() ? 1 : 0);
+                            }
+                        }
+                    });
+                    break;
                 }
+                editMatrix(m -> {
+                    for (int i = 0; i < m.getSizeX(); i++) {
+                        for (int j = 0; j < m.getSizeY(); j++) {
+                            m.update(i,j,random.nextBoolean());
+                        }
+                    }
+                });
                 break;
             }
         }
     }
 
+    /**
+     * Fills a square region of the unbounded universe, centered on the view, with random cells.
+     */
+    private void randomizeUniverse() {
+        int[] center = getCellCoordinates(getWidth() / 2, getHeight() / 2);
+        int top = center[0] - UNIVERSE_RANDOM_SIZE / 2;
+        int left = center[1] - UNIVERSE_RANDOM_SIZE / 2;
+        for (int i = 0; i < UNIVERSE_RANDOM_SIZE; i++) {
+            for (int j = 0; j < UNIVERSE_RANDOM_SIZE; j++) {
+                universe.update(top + i, left + j, random.nextBoolean());
+            }
+        }
+    }
+
     /**
      * Responds to key release events. Currently does nothing.
      *
@@ -0,0 +1,60 @@
+import game.ActiveRegionEngine;
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.SwarEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ActiveRegionEngineTest {
+
+    @Test
+    void testMatchesSwarEngine() {
+        int[][] sizes = {{150, 200}, {64, 64}, {3, 70}, {200, 130}, {1, 1}};
+        for (int[] size : sizes) {
+            BitMatrix expected = new BitMatrix(size[0], size[1]);
+            BitMatrix actual = new BitMatrix(size[0], size[1]);
+            TestBoards.fillRandom(expected, 0, size[0], 0, Math.min(size[1], 40), new Random(11));
+            TestBoards.fillRandom(actual, 0, size[0], 0, Math.min(size[1], 40), new Random(11));
+
+            CellularAutomata reference = new CellularAutomata(expected, new SwarEngine());
+            CellularAutomata automata = new CellularAutomata(actual, new ActiveRegionEngine());
+            for (int generation = 0; generation < 300; generation++) {
+                if (generation == 150) {
+                    expected.update(size[0] - 1, size[1] - 1, true);
+                    actual.update(size[0] - 1, size[1] - 1, true);
+                }
+                reference.next();
+                automata.next();
+                assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                        "Boards of size " + size[0] + "x" + size[1] + " differ after generation " + generation + ".");
+            }
+        }
+    }
+
+    @Test
+    void testStableBoardIsSkipped() {
+        BitMatrix matrix = new BitMatrix(512, 512);
+        ActiveRegionEngine engine = new ActiveRegionEngine();
+        CellularAutomata automata = new CellularAutomata(matrix, engine);
+
+        matrix.update(10, 10, true);
+        matrix.update(10, 11, true);
+        matrix.update(11, 10, true);
+        matrix.update(11, 11, true);
+
+        matrix.update(300, 300, true);
+        matrix.update(300, 301, true);
+        matrix.update(300, 302, true);
+
+        automata.next();
+        assertEquals(engine.getTileCount(), engine.getActiveTiles(), "The first step should compute every tile.");
+
+        automata.next();
+        assertEquals(9, engine.getActiveTiles(), "Only the tiles around the blinker should be computed.");
+        assertEquals(64, engine.getTileCount(), "A 512x512 board should have 64 tiles.");
+    }
+}
@@ -0,0 +1,108 @@
+import game.BatchSimulation;
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.LargerThanLifeEngine;
+import game.LargerThanLifeRule;
+import game.Rule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSimulationTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testEnginesWriteTheSameFinalState() {
+        File input = writePattern();
+        BitMatrix expected = loadPattern(input);
+        expected.setRule(Rule.parse("B36/S23"));
+        CellularAutomata automata = new CellularAutomata(expected);
+        for (int generation = 0; generation < 25; generation++) {
+            automata.next();
+        }
+
+        for (String engine : new String[] { "swar", "parallel", "active", "lookup", "vector", "blocked" }) {
+            File output = new File(directory, engine + ".json");
+            BatchSimulation.Summary summary = BatchSimulation.parse(new String[] {
+                    "--input", input.getPath(), "--output", output.getPath(), "--generations", "25",
+                    "--rule", "B36/S23", "--engine", engine
+            }).run();
+
+            BitMatrix result = loadPattern(output);
+            assertArrayEquals(expected.getCurrentWords(), result.getCurrentWords(), "The " + engine + " engine differs.");
+            assertEquals("B36/S23", result.getRule().toString(), "The rule should be saved with the result.");
+            assertEquals(25, summary.getGenerations(), "The summary should count the generations.");
+            assertEquals(Arrays.stream(expected.getCurrentWords()).map(Long::bitCount).sum(), summary.getPopulation(),
+                    "The summary should count the final population.");
+            assertTrue(summary.getCellsPerSecond() > 0, "The summary should report the throughput.");
+        }
+    }
+
+    @Test
+    void testLargerThanLifeRule() throws IOException {
+        File input = writePattern();
+        File output = new File(directory, "ltl.json");
+        String rule = "R2,C0,M1,S6..11,B7..9,NM";
+        BatchSimulation.parse(new String[] {
+                "--input", input.getPath(), "--output", output.getPath(), "--generations", "6", "--rule", rule,
+                "--engine", "blocked"
+        }).run();
+
+        BitMatrix expected = loadPattern(input);
+        CellularAutomata automata = new CellularAutomata(expected, new LargerThanLifeEngine(LargerThanLifeRule.parse(rule)));
+        automata.next(6);
+        assertArrayEquals(expected.getCurrentWords(), loadPattern(output).getCurrentWords(),
+                "A Larger-than-Life rule should be played by its own engine.");
+        assertTrue(Files.readString(output.toPath()).contains("\"largerThanLifeRule\": \"" + rule + "\""),
+                "The rule that was played should be saved with the result.");
+    }
+
+    @Test
+    void testInvalidPatternFails() throws IOException {
+        File input = new File(directory, "broken.json");
+        Files.writeString(input.toPath(), "{ \"x\": 3, \"currentMatrix\": [ [ true");
+        BatchSimulation simulation = BatchSimulation.parse(new String[] {
+                "--input", input.getPath(), "--output", new File(directory, "out.json").getPath(), "--generations", "1" });
+
+        assertThrows(UncheckedIOException.class, simulation::run, "A broken pattern should not be played as an empty board.");
+    }
+
+    @Test
+    void testInvalidArguments() {
+        File input = writePattern();
+        String path = input.getPath();
+        assertThrows(IllegalArgumentException.class, () -> BatchSimulation.parse(new String[] { "--input", path }));
+        assertThrows(IllegalArgumentException.class, () -> BatchSimulation.parse(new String[] {
+                "--input", path, "--output", "out.json", "--generations", "ten" }));
+        assertThrows(IllegalArgumentException.class, () -> BatchSimulation.parse(new String[] {
+                "--input", path, "--output", "out.json", "--generations", "10", "--engine", "gpu" }));
+        assertThrows(IllegalArgumentException.class, () -> BatchSimulation.parse(new String[] {
+                "--input", new File(directory, "missing.json").getPath(), "--output", "out.json", "--generations", "10" }));
+    }
+
+    private File writePattern() {
+        BitMatrix matrix = new BitMatrix(30, 90);
+        int[][] rPentomino = { { 0, 1 }, { 0, 2 }, { 1, 0 }, { 1, 1 }, { 2, 1 } };
+        for (int[] cell : rPentomino) {
+            matrix.update(14 + cell[0], 44 + cell[1], true);
+        }
+        File file = new File(directory, "pattern.json");
+        matrix.toJson(file);
+        return file;
+    }
+
+    private static BitMatrix loadPattern(File file) {
+        BitMatrix matrix = new BitMatrix(1, 1);
+        matrix.fromJson(file);
+        return matrix;
+    }
+}
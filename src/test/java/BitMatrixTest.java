@@ -0,0 +1,144 @@
+import game.BitMatrix;
+import game.BufferedMatrix;
+import game.Rule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitMatrixTest {
+
+    private BitMatrix matrix;
+    private final String testFilePath = "testBitMatrix.json";
+
+    @BeforeEach
+    void setUp() {
+        matrix = new BitMatrix(3, 70);
+    }
+
+    @AfterEach
+    void tearDown() {
+        File file = new File(testFilePath);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    void testInitialValues() {
+        for (int i = 0; i < matrix.getSizeX(); i++) {
+            for (int j = 0; j < matrix.getSizeY(); j++) {
+                assertFalse(matrix.get(i, j), "Initial value should be false.");
+            }
+        }
+    }
+
+    @Test
+    void testPackedLayout() {
+        assertEquals(2, matrix.getWordsPerRow(), "A 70 column row should take two words.");
+        matrix.update(1, 65, true);
+        assertEquals(1L << 1, matrix.getCurrentWords()[3], "Cell (1, 65) should be bit 1 of word 3.");
+    }
+
+    @Test
+    void testUpdateValue() {
+        matrix.update(1, 64, true);
+        assertTrue(matrix.get(1, 64), "Value at (1, 64) should be true after update.");
+        matrix.update(1, 64, false);
+        assertFalse(matrix.get(1, 64), "Value at (1, 64) should be false after update.");
+    }
+
+    @Test
+    void testSetValue() {
+        matrix.set(2, 69, true);
+        assertFalse(matrix.get(2, 69), "Value at (2, 69) should still be false in current matrix.");
+        matrix.next();
+        assertTrue(matrix.get(2, 69), "Value at (2, 69) should be true after next call.");
+        matrix.next();
+        assertFalse(matrix.get(2, 69), "Next matrix should have been cleared by the previous next call.");
+    }
+
+    @Test
+    void testClear() {
+        matrix.update(0, 0, true);
+        matrix.clear();
+        assertFalse(matrix.get(0, 0), "Value at (0, 0) should be false after clear.");
+    }
+
+    @Test
+    void testChangeSize() {
+        matrix.changeSize(2, 2);
+        assertEquals(2, matrix.getSizeX(), "Matrix should have 2 rows after change.");
+        assertEquals(2, matrix.getSizeY(), "Matrix should have 2 columns after change.");
+        assertEquals(1, matrix.getWordsPerRow(), "Matrix should have 1 word per row after change.");
+        assertFalse(matrix.get(0, 0), "New matrix value should be default false.");
+    }
+
+    @Test
+    void testToJsonAndFromJson() {
+        matrix.update(0, 0, true);
+        matrix.update(2, 69, true);
+        File file = new File(testFilePath);
+        matrix.toJson(file);
+
+        BitMatrix newMatrix = new BitMatrix(1, 1);
+        newMatrix.fromJson(file);
+        assertEquals(3, newMatrix.getSizeX(), "Loaded matrix should have 3 rows.");
+        assertEquals(70, newMatrix.getSizeY(), "Loaded matrix should have 70 columns.");
+        assertTrue(newMatrix.get(0, 0), "Value at (0, 0) should be true after loading from JSON.");
+        assertTrue(newMatrix.get(2, 69), "Value at (2, 69) should be true after loading from JSON.");
+        assertFalse(newMatrix.get(1, 1), "Value at (1, 1) should be false after loading from JSON.");
+    }
+
+    @Test
+    void testJsonCompatibleWithBufferedMatrix() {
+        BufferedMatrix<Boolean> boxed = new BufferedMatrix<>(2, 3, false);
+        boxed.update(1, 2, true);
+        File file = new File(testFilePath);
+        boxed.toJson(file);
+
+        matrix.fromJson(file);
+        assertTrue(matrix.get(1, 2), "Bit matrix should load a boxed matrix save.");
+
+        matrix.update(0, 1, true);
+        matrix.toJson(file);
+        boxed.fromJson(file);
+        assertTrue(boxed.get(0, 1), "Boxed matrix should load a bit matrix save.");
+        assertTrue(boxed.get(1, 2), "Boxed matrix should load a bit matrix save.");
+    }
+
+    @Test
+    void testRuleSavedWithMatrix() {
+        File file = new File(testFilePath);
+        matrix.setRule(Rule.parse("B36/S23"));
+        matrix.toJson(file);
+
+        BufferedMatrix<Boolean> boxed = new BufferedMatrix<>(1, 1, false);
+        boxed.fromJson(file);
+        assertEquals(Rule.parse("B36/S23"), boxed.getRule(), "Boxed matrix should load the rule of a bit matrix save.");
+
+        boxed.setRule(Rule.parse("B2/S"));
+        boxed.toJson(file);
+        matrix.fromJson(file);
+        assertEquals(Rule.parse("B2/S"), matrix.getRule(), "Bit matrix should load the rule of a boxed matrix save.");
+    }
+
+    @Test
+    void testInvalidIndices() {
+        Exception exception = assertThrows(IndexOutOfBoundsException.class, () -> {
+            matrix.get(3, 3);
+        });
+        assertEquals("Invalid matrix indices.", exception.getMessage());
+    }
+
+    @Test
+    void testInvalidChangeSize() {
+        Exception exception = assertThrows(IndexOutOfBoundsException.class, () -> {
+            matrix.changeSize(0, 0);
+        });
+        assertEquals("Invalid matrix size.", exception.getMessage());
+    }
+}
@@ -0,0 +1,177 @@
+import game.ActiveRegionEngine;
+import game.BitMatrix;
+import game.Boundary;
+import game.BufferedMatrix;
+import game.CellularAutomata;
+import game.LargerThanLifeEngine;
+import game.LargerThanLifeRule;
+import game.LookupTableEngine;
+import game.ParallelEngine;
+import game.Rule;
+import game.StepEngine;
+import game.SwarEngine;
+import game.VectorEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundaryTest {
+
+    private static final int[][] SIZES = { { 1, 1 }, { 2, 3 }, { 3, 3 }, { 5, 64 }, { 7, 65 }, { 37, 300 }, { 64, 129 } };
+
+    private final String testFilePath = "testBoundary.json";
+
+    @AfterEach
+    void tearDown() {
+        File file = new File(testFilePath);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    void testMap() {
+        assertEquals(4, Boundary.TORUS.map(-1, 5), "Torus should wrap to the last index.");
+        assertEquals(0, Boundary.TORUS.map(5, 5), "Torus should wrap to the first index.");
+        assertEquals(-1, Boundary.DEAD.map(-1, 5), "Dead edge should have no cell before the first index.");
+        assertEquals(-1, Boundary.DEAD.map(5, 5), "Dead edge should have no cell after the last index.");
+        assertEquals(0, Boundary.MIRROR.map(-1, 5), "Mirror should reflect onto the first index.");
+        assertEquals(1, Boundary.MIRROR.map(-2, 5), "Mirror should reflect onto the second index.");
+        assertEquals(4, Boundary.MIRROR.map(5, 5), "Mirror should reflect onto the last index.");
+        assertEquals(3, Boundary.MIRROR.map(6, 5), "Mirror should reflect onto the second to last index.");
+        for (Boundary boundary : Boundary.values()) {
+            for (int index = 0; index < 5; index++) {
+                assertEquals(index, boundary.map(index, 5), boundary + " should keep indices inside the board.");
+            }
+        }
+    }
+
+    @Test
+    void testEnginesAgreeWithReference() {
+        Random random = new Random(13);
+        for (Boundary boundary : Boundary.values()) {
+            for (int[] size : SIZES) {
+                for (String notation : new String[] { "B3/S23", "B0/S8" }) {
+                    Rule rule = Rule.parse(notation);
+                    boolean[][] expected = new boolean[size[0]][size[1]];
+                    BufferedMatrix<Boolean> boxed = new BufferedMatrix<>(size[0], size[1], false);
+                    for (int i = 0; i < size[0]; i++) {
+                        for (int j = 0; j < size[1]; j++) {
+                            expected[i][j] = random.nextInt(3) == 0;
+                            boxed.update(i, j, expected[i][j]);
+                        }
+                    }
+                    boxed.setRule(rule);
+                    boxed.setBoundary(boundary);
+                    CellularAutomata legacy = new CellularAutomata(boxed);
+
+                    StepEngine[] engines = {
+                            new SwarEngine(), new ParallelEngine(2), new ActiveRegionEngine(), new LookupTableEngine(),
+                            new VectorEngine(), new LargerThanLifeEngine(LargerThanLifeRule.parse(
+                                    rule.isConway() ? "R1,C0,M0,S2..3,B3..3,NM" : "R1,C0,M0,S8..8,B0..0,NM"))
+                    };
+                    BitMatrix[] matrices = new BitMatrix[engines.length];
+                    CellularAutomata[] automata = new CellularAutomata[engines.length];
+                    for (int k = 0; k < engines.length; k++) {
+                        matrices[k] = TestBoards.copyOf(boxed);
+                        automata[k] = new CellularAutomata(matrices[k], engines[k]);
+                    }
+
+                    for (int generation = 0; generation < 6; generation++) {
+                        expected = step(expected, rule, boundary);
+                        String context = boundary + " " + size[0] + "x" + size[1] + " " + notation
+                                + " after generation " + generation;
+                        legacy.next();
+                        TestBoards.assertSameCells(expected, boxed, "Legacy loop on " + context);
+                        for (int k = 0; k < engines.length; k++) {
+                            automata[k].next();
+                            TestBoards.assertSameCells(expected, matrices[k], engines[k].getClass().getSimpleName() + " on " + context);
+                        }
+                    }
+                    ((ParallelEngine) engines[1]).shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testGliderDiesAtDeadEdge() {
+        BitMatrix matrix = new BitMatrix(8, 8);
+        matrix.setBoundary(Boundary.DEAD);
+        int[][] glider = { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } };
+        for (int[] cell : glider) {
+            matrix.update(cell[0], cell[1], true);
+        }
+
+        CellularAutomata automata = new CellularAutomata(matrix);
+        for (int generation = 0; generation < 40; generation++) {
+            automata.next();
+        }
+        assertTrue(matrix.get(6, 6) && matrix.get(6, 7) && matrix.get(7, 6) && matrix.get(7, 7),
+                "A glider hitting a dead corner should turn into a block.");
+        assertEquals(4, population(matrix), "Only the block should remain.");
+    }
+
+    @Test
+    void testBlinkerAtMirroredEdge() {
+        BitMatrix matrix = new BitMatrix(6, 6);
+        matrix.setBoundary(Boundary.MIRROR);
+        matrix.update(0, 2, true);
+        matrix.update(0, 3, true);
+
+        new CellularAutomata(matrix).next();
+        assertTrue(matrix.get(0, 2) && matrix.get(0, 3), "A domino on a mirrored edge is a block with its reflection.");
+        assertEquals(2, population(matrix), "The mirrored block should be still.");
+    }
+
+    @Test
+    void testBoundarySavedWithMatrix() {
+        File file = new File(testFilePath);
+        BitMatrix matrix = new BitMatrix(3, 4);
+        matrix.setBoundary(Boundary.MIRROR);
+        matrix.toJson(file);
+
+        BufferedMatrix<Boolean> boxed = new BufferedMatrix<>(1, 1, false);
+        boxed.fromJson(file);
+        assertEquals(Boundary.MIRROR, boxed.getBoundary(), "Boxed matrix should load the boundary of a bit matrix save.");
+
+        boxed.setBoundary(Boundary.DEAD);
+        boxed.toJson(file);
+        matrix.fromJson(file);
+        assertEquals(Boundary.DEAD, matrix.getBoundary(), "Bit matrix should load the boundary of a boxed matrix save.");
+    }
+
+    private static boolean[][] step(boolean[][] cells, Rule rule, Boundary boundary) {
+        int rows = cells.length;
+        int cols = cells[0].length;
+        boolean[][] next = new boolean[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int count = 0;
+                for (int di = -1; di <= 1; di++) {
+                    for (int dj = -1; dj <= 1; dj++) {
+                        int x = boundary.map(i + di, rows);
+                        int y = boundary.map(j + dj, cols);
+                        if ((di != 0 || dj != 0) && x >= 0 && y >= 0 && cells[x][y]) count++;
+                    }
+                }
+                next[i][j] = rule.next(cells[i][j], count);
+            }
+        }
+        return next;
+    }
+
+    private static int population(BitMatrix matrix) {
+        int population = 0;
+        for (int i = 0; i < matrix.getSizeX(); i++) {
+            for (int j = 0; j < matrix.getSizeY(); j++) {
+                if (matrix.get(i, j)) population++;
+            }
+        }
+        return population;
+    }
+}
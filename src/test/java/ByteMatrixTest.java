@@ -0,0 +1,105 @@
+import game.BitMatrix;
+import game.Boundary;
+import game.ByteMatrix;
+import game.GenerationsRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteMatrixTest {
+
+    private ByteMatrix matrix;
+    private final String testFilePath = "testByteMatrix.json";
+
+    @BeforeEach
+    void setUp() {
+        matrix = new ByteMatrix(3, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        File file = new File(testFilePath);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    void testInitialValues() {
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(0, matrix.get(i, j), "Initial value should be dead.");
+            }
+        }
+        assertEquals(GenerationsRule.BRIANS_BRAIN, matrix.getRule(), "Default rule should be Brian's Brain.");
+    }
+
+    @Test
+    void testUpdateAndClear() {
+        matrix.update(1, 2, 2);
+        assertEquals(2, matrix.get(1, 2), "Value at (1, 2) should be the dying state 2.");
+
+        matrix.clear();
+        assertEquals(0, matrix.get(1, 2), "Value at (1, 2) should be dead after clear.");
+    }
+
+    @Test
+    void testSetRuleKillsMissingStates() {
+        matrix.update(0, 0, 2);
+        matrix.update(0, 1, 1);
+        matrix.setRule(GenerationsRule.parse("B3/S23"));
+        assertEquals(0, matrix.get(0, 0), "A state the new rule lacks should be killed.");
+        assertEquals(1, matrix.get(0, 1), "Live cells should stay alive.");
+    }
+
+    @Test
+    void testToJsonAndFromJson() {
+        matrix.setRule(GenerationsRule.parse("B2/S345/C4"));
+        matrix.update(0, 0, 1);
+        matrix.update(2, 3, 3);
+        matrix.setBoundary(Boundary.MIRROR);
+        File file = new File(testFilePath);
+        matrix.toJson(file);
+
+        assertEquals(GenerationsRule.parse("B2/S345/C4"), ByteMatrix.readRule(file), "Saved rule should be readable alone.");
+
+        ByteMatrix newMatrix = new ByteMatrix(1, 1);
+        newMatrix.fromJson(file);
+        assertEquals(3, newMatrix.getSizeX(), "Loaded matrix should have 3 rows.");
+        assertEquals(4, newMatrix.getSizeY(), "Loaded matrix should have 4 columns.");
+        assertEquals(1, newMatrix.get(0, 0), "Value at (0, 0) should be alive after loading.");
+        assertEquals(3, newMatrix.get(2, 3), "Value at (2, 3) should be in state 3 after loading.");
+        assertEquals(matrix.getRule(), newMatrix.getRule(), "Rule should be loaded with the cells.");
+        assertEquals(Boundary.MIRROR, newMatrix.getBoundary(), "Boundary should be loaded with the cells.");
+    }
+
+    @Test
+    void testLoadsBooleanSave() {
+        BitMatrix bits = new BitMatrix(2, 2);
+        bits.update(1, 0, true);
+        bits.setBoundary(Boundary.DEAD);
+        File file = new File(testFilePath);
+        bits.toJson(file);
+
+        matrix.fromJson(file);
+        assertEquals(1, matrix.get(1, 0), "A live boolean cell should load as alive.");
+        assertEquals(2, matrix.getRule().getStates(), "A boolean save should load as a two-state rule.");
+        assertEquals(Boundary.DEAD, matrix.getBoundary(), "A boolean save should keep its boundary.");
+    }
+
+    @Test
+    void testInvalidIndices() {
+        Exception exception = assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(3, 0));
+        assertEquals("Invalid matrix indices.", exception.getMessage());
+    }
+
+    @Test
+    void testInvalidState() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> matrix.update(0, 0, 3));
+        assertEquals("Invalid cell state.", exception.getMessage());
+    }
+}
@@ -1,8 +1,21 @@
+import game.BitMatrix;
+import game.Boundary;
 import game.BufferedMatrix;
 import game.CellularAutomata;
+import game.ParallelEngine;
+import game.Rule;
+import game.Snapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
@@ -91,4 +104,167 @@ class CellularAutomataTest {
         assertFalse(matrix.get(1, 1), "Cell at (1,1) should be dead.");
 
     }
+
+    @Test
+    void testSteadyStateSteppingDoesNotAllocate() {
+        BitMatrix bits = TestBoards.randomMatrix(512, 512, 3);
+
+        assertEquals(0, allocatedBytesPerGeneration(new CellularAutomata(bits)),
+                "Stepping a bit matrix should not allocate.");
+        assertEquals(0, allocatedBytesPerGeneration(automata),
+                "Stepping a boxed matrix should not allocate.");
+
+        ParallelEngine engine = new ParallelEngine(4);
+        assertTrue(allocatedBytesPerGeneration(new CellularAutomata(bits, engine)) < 64,
+                "Stepping with the parallel engine should only allocate pool bookkeeping on the calling thread.");
+        engine.shutdown();
+    }
+
+    @Test
+    void testMultiGenerationMatchesSingleSteps() {
+        Random random = new Random(17);
+        int[][] sizes = { { 1, 1 }, { 3, 5 }, { 40, 40 }, { 37, 300 }, { 700, 4100 } };
+        for (Boundary boundary : Boundary.values()) {
+            for (int[] size : sizes) {
+                BitMatrix single = TestBoards.randomMatrix(size[0], size[1], random);
+                single.setBoundary(boundary);
+                single.setRule(size[0] == 3 ? Rule.parse("B36/S23") : Rule.CONWAY);
+                BitMatrix blocked = TestBoards.copyOf(single);
+
+                CellularAutomata singleAutomata = new CellularAutomata(single);
+                CellularAutomata blockedAutomata = new CellularAutomata(blocked);
+                for (int generations : new int[] { 1, 2, 5, 16, 35 }) {
+                    if (size[0] == 700 && generations > 16) continue;
+                    for (int generation = 0; generation < generations; generation++) singleAutomata.next();
+                    blockedAutomata.next(generations);
+                    assertArrayEquals(single.getCurrentWords(), blocked.getCurrentWords(),
+                            "Advancing " + generations + " generations at once should match single steps on a "
+                                    + size[0] + "x" + size[1] + " board with " + boundary + " boundary.");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMultiGenerationCollectsStatisticsOfLastGeneration() {
+        BitMatrix bits = new BitMatrix(20, 20);
+        bits.update(5, 4, true);
+        bits.update(5, 5, true);
+        bits.update(5, 6, true);
+        CellularAutomata blinker = new CellularAutomata(bits);
+        blinker.setCollectingStatistics(true);
+        blinker.next(7);
+        assertTrue(bits.get(4, 5) && bits.get(6, 5), "A blinker should be vertical after an odd number of generations.");
+        assertEquals(3, blinker.getStatistics().getPopulation(), "Statistics should describe the last generation.");
+        assertEquals(2, blinker.getStatistics().getBirths(), "A blinker should have two births per generation.");
+    }
+
+    @Test
+    void testSnapshotsAreImmutableCompletedGenerations() {
+        BitMatrix bits = new BitMatrix(8, 8);
+        bits.update(3, 2, true);
+        bits.update(3, 3, true);
+        bits.update(3, 4, true);
+        CellularAutomata blinker = new CellularAutomata(bits);
+
+        Snapshot first = blinker.getSnapshot();
+        assertEquals(0, first.getGeneration(), "The first snapshot should show the initial board.");
+        assertTrue(first.isAlive(3, 2), "The snapshot should show the horizontal blinker.");
+
+        blinker.next();
+        assertTrue(first.isAlive(3, 2) && !first.isAlive(2, 3), "A published snapshot should never change.");
+        Snapshot second = blinker.getSnapshot();
+        assertEquals(1, second.getGeneration(), "A requested snapshot should be published after the next step.");
+        assertTrue(second.isAlive(2, 3) && !second.isAlive(3, 2), "The snapshot should show the vertical blinker.");
+
+        bits.clear();
+        assertFalse(blinker.getSnapshot().isAlive(2, 3), "Changes made while idle should refresh the snapshot.");
+    }
+
+    @Test
+    void testSnapshotsOfOtherMatricesAreReused() {
+        matrix.update(2, 1, true);
+        matrix.update(2, 2, true);
+        matrix.update(2, 3, true);
+
+        Snapshot first = automata.getSnapshot();
+        assertSame(first, automata.getSnapshot(), "An unchanged board should not be copied again.");
+
+        automata.edit(m -> m.update(0, 0, true));
+        Snapshot edited = automata.getSnapshot();
+        assertNotSame(first, edited, "An edit should refresh the snapshot.");
+        assertTrue(edited.isAlive(0, 0), "The snapshot should show the edit.");
+
+        automata.next();
+        Snapshot stepped = automata.getSnapshot();
+        assertEquals(1, stepped.getGeneration(), "A step should refresh the snapshot.");
+        assertSame(stepped, automata.getSnapshot(), "An unchanged board should not be copied again.");
+    }
+
+    @Test
+    void testSnapshotsAreConsistentWhileStepping() throws InterruptedException {
+        BitMatrix bits = new BitMatrix(16, 16);
+        int[][] glider = { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } };
+        for (int[] cell : glider) {
+            bits.update(cell[0], cell[1], true);
+        }
+        BitMatrix reference = new BitMatrix(16, 16);
+        reference.loadWords(bits.getCurrentWords());
+        CellularAutomata referenceAutomata = new CellularAutomata(reference);
+        long[][] states = new long[64][];
+        for (int generation = 0; generation < 64; generation++) {
+            states[generation] = reference.getCurrentWords().clone();
+            referenceAutomata.next();
+        }
+
+        CellularAutomata automata = new CellularAutomata(bits);
+        assertNotNull(automata.getSnapshot(), "The initial board should be published while idle.");
+        Thread stepper = new Thread(() -> {
+            for (int generation = 0; generation < 200000; generation++) automata.next();
+        });
+        stepper.start();
+        int checked = 0;
+        while (stepper.isAlive() || checked == 0) {
+            Snapshot snapshot = automata.getSnapshot();
+            assertArrayEquals(states[(int) (snapshot.getGeneration() % 64)], snapshot.getWords(),
+                    "Snapshot of generation " + snapshot.getGeneration() + " should be a whole generation.");
+            checked++;
+        }
+        stepper.join();
+    }
+
+    @Test
+    void testEditsWhileSteppingAreNeverLost() throws InterruptedException {
+        BitMatrix bits = new BitMatrix(64, 64);
+        bits.setRule(Rule.parse("B/S012345678"));
+        CellularAutomata automata = new CellularAutomata(bits);
+        Thread stepper = new Thread(() -> {
+            for (int generation = 0; generation < 20000; generation++) automata.next();
+        });
+        stepper.start();
+        for (int cell = 0; cell < 64 * 64; cell++) {
+            int row = cell / 64, col = cell % 64;
+            automata.edit(m -> m.update(row, col, true));
+        }
+        stepper.join();
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                assertTrue(bits.get(i, j), "The edit of cell (" + i + ", " + j + ") should have been applied.");
+            }
+        }
+    }
+
+    private static long allocatedBytesPerGeneration(CellularAutomata automata) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < 2000; i++) automata.next();
+
+        long overhead = threads.getCurrentThreadAllocatedBytes();
+        overhead = threads.getCurrentThreadAllocatedBytes() - overhead;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100; i++) automata.next();
+        long after = threads.getCurrentThreadAllocatedBytes();
+
+        return (after - before - overhead) / 100;
+    }
 }
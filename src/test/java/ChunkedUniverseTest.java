@@ -0,0 +1,106 @@
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.ChunkedUniverse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkedUniverseTest {
+
+    private ChunkedUniverse universe;
+
+    @BeforeEach
+    void setUp() {
+        universe = new ChunkedUniverse();
+    }
+
+    private void addGlider(int row, int col) {
+        universe.update(row, col + 1, true);
+        universe.update(row + 1, col + 2, true);
+        universe.update(row + 2, col, true);
+        universe.update(row + 2, col + 1, true);
+        universe.update(row + 2, col + 2, true);
+    }
+
+    @Test
+    void testNegativeCoordinates() {
+        universe.update(-1, -1, true);
+        universe.update(-64, 63, true);
+        assertTrue(universe.get(-1, -1), "Cell at (-1, -1) should be alive.");
+        assertTrue(universe.get(-64, 63), "Cell at (-64, 63) should be alive.");
+        assertFalse(universe.get(0, 0), "Cell at (0, 0) should be dead.");
+        assertEquals(2, universe.getChunkCount(), "Cells in two chunks should allocate two chunks.");
+    }
+
+    @Test
+    void testGliderTravelsAcrossChunks() {
+        addGlider(0, 0);
+        for (int i = 0; i < 4 * 200; i++) universe.next();
+
+        assertEquals(5, universe.getPopulation(), "Glider should keep its five cells.");
+        assertArrayEquals(new int[] { 200, 200, 202, 202 }, universe.getBounds(),
+                "Glider should have moved 200 cells diagonally without wrapping.");
+        assertEquals(1, universe.getChunkCount(), "Chunks left behind by the glider should be freed.");
+    }
+
+    @Test
+    void testMatchesTorusAwayFromEdges() {
+        BitMatrix matrix = new BitMatrix(200, 200);
+        Random random = new Random(5);
+        for (int i = 60; i < 140; i++) {
+            for (int j = 60; j < 140; j++) {
+                boolean alive = random.nextInt(3) == 0;
+                matrix.update(i, j, alive);
+                universe.update(i - 100, j - 100, alive);
+            }
+        }
+
+        CellularAutomata automata = new CellularAutomata(matrix);
+        for (int generation = 0; generation < 30; generation++) {
+            automata.next();
+            universe.next();
+        }
+
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 200; j++) {
+                assertEquals(matrix.get(i, j), universe.get(i - 100, j - 100),
+                        "Cell (" + i + "," + j + ") should match the torus.");
+            }
+        }
+    }
+
+    @Test
+    void testClearAndToMatrix() {
+        assertNull(universe.getBounds(), "Empty universe should have no bounds.");
+        addGlider(-10, 70);
+        BitMatrix matrix = universe.toMatrix();
+        assertEquals(3, matrix.getSizeX(), "Matrix should cover the bounding box.");
+        assertTrue(matrix.get(0, 1), "Top cell of the glider should be copied.");
+        assertTrue(matrix.get(2, 2), "Bottom right cell of the glider should be copied.");
+
+        universe.clear();
+        assertEquals(0, universe.getChunkCount(), "Clearing should free every chunk.");
+    }
+
+    @Test
+    void testCellularAutomataStepsAttachedUniverse() {
+        CellularAutomata automata = new CellularAutomata(new BitMatrix(5, 5));
+        automata.setUniverse(universe);
+        universe.update(0, -1, true);
+        universe.update(0, 0, true);
+        universe.update(0, 1, true);
+
+        automata.next();
+
+        assertTrue(universe.get(-1, 0), "Blinker should turn vertical across the chunk border.");
+        assertTrue(universe.get(1, 0), "Blinker should turn vertical.");
+        assertFalse(universe.get(0, -1), "Blinker should turn vertical across the chunk border.");
+    }
+}
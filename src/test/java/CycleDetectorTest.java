@@ -0,0 +1,133 @@
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.CycleDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleDetectorTest {
+
+    private BitMatrix matrix;
+    private CycleDetector detector;
+    private CellularAutomata automata;
+
+    @BeforeEach
+    void setUp() {
+        matrix = new BitMatrix(16, 70);
+        detector = new CycleDetector(matrix);
+        automata = new CellularAutomata(matrix);
+        automata.setCycleDetector(detector);
+    }
+
+    @Test
+    void testStillLifeIsDetected() {
+        matrix.update(3, 3, true);
+        matrix.update(3, 4, true);
+        matrix.update(4, 3, true);
+        matrix.update(4, 4, true);
+
+        AtomicInteger reported = new AtomicInteger();
+        detector.setListener(reported::set);
+        for (int generation = 0; generation < 3; generation++) {
+            automata.next();
+        }
+        assertTrue(detector.isStable(), "A block should be detected as stable.");
+        assertEquals(1, detector.getPeriod(), "A block should have period 1.");
+        assertEquals(1, reported.get(), "The listener should be told the period.");
+    }
+
+    @Test
+    void testBlinkerIsDetected() {
+        matrix.update(5, 4, true);
+        matrix.update(5, 5, true);
+        matrix.update(5, 6, true);
+
+        for (int generation = 0; generation < 5; generation++) {
+            automata.next();
+        }
+        assertEquals(2, detector.getPeriod(), "A blinker should have period 2.");
+    }
+
+    @Test
+    void testGliderOnTorusIsDetected() {
+        BitMatrix small = new BitMatrix(8, 8);
+        CycleDetector smallDetector = new CycleDetector(small);
+        CellularAutomata smallAutomata = new CellularAutomata(small);
+        smallAutomata.setCycleDetector(smallDetector);
+        int[][] glider = { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } };
+        for (int[] cell : glider) {
+            small.update(cell[0], cell[1], true);
+        }
+
+        for (int generation = 0; generation < 65; generation++) {
+            smallAutomata.next();
+        }
+        assertEquals(32, smallDetector.getPeriod(), "A glider should return to its start on an 8x8 torus after 32 generations.");
+    }
+
+    @Test
+    void testFastForwardMatchesStepping() {
+        TestBoards.fillRandom(matrix, 0, matrix.getSizeX(), 0, matrix.getSizeY(), new Random(5));
+        BitMatrix reference = TestBoards.copyOf(matrix);
+        CellularAutomata referenceAutomata = new CellularAutomata(reference);
+
+        long generations = 1_000_003;
+        automata.fastForward(generations);
+        assertTrue(detector.isStable(), "A random soup this small should stabilise long before a million generations.");
+
+        for (int generation = 0; generation < 2000; generation++) {
+            referenceAutomata.next();
+        }
+        int period = detector.getPeriod();
+        for (long generation = 2000; generation % period != generations % period; generation++) {
+            referenceAutomata.next();
+        }
+        assertArrayEquals(reference.getCurrentWords(), matrix.getCurrentWords(), "Fast-forwarding should reach the stepped state.");
+
+        automata.next();
+        referenceAutomata.next();
+        assertArrayEquals(reference.getCurrentWords(), matrix.getCurrentWords(), "Stepping a stable board should follow the cycle.");
+    }
+
+    @Test
+    void testIncrementalHashMatchesFreshHash() {
+        TestBoards.fillRandom(matrix, 0, matrix.getSizeX(), 0, matrix.getSizeY(), new Random(9));
+        automata.next();
+        for (int generation = 0; generation < 20; generation++) {
+            automata.next();
+            CycleDetector fresh = new CycleDetector(matrix);
+            fresh.observe();
+            assertEquals(fresh.getHash(), detector.getHash(), "Incremental hash should match the hash of the board.");
+        }
+    }
+
+    @Test
+    void testEditClearsCycle() {
+        matrix.update(3, 3, true);
+        matrix.update(3, 4, true);
+        matrix.update(4, 3, true);
+        matrix.update(4, 4, true);
+        for (int generation = 0; generation < 3; generation++) {
+            automata.next();
+        }
+        assertTrue(detector.isStable(), "A block should be detected as stable.");
+
+        matrix.update(10, 10, true);
+        assertFalse(detector.isStable(), "An edit should clear the cycle.");
+        automata.next();
+        assertFalse(matrix.get(10, 10), "The edited board should be stepped, not replayed.");
+    }
+
+    @Test
+    void testEmptyBoardIsStillLife() {
+        automata.fastForward(10);
+        assertEquals(1, detector.getPeriod(), "An empty board should be a still life.");
+        long[] empty = new long[matrix.getCurrentWords().length];
+        assertTrue(Arrays.equals(empty, matrix.getCurrentWords()), "An empty board should stay empty.");
+    }
+}
@@ -0,0 +1,100 @@
+import game.BitMatrix;
+import game.Boundary;
+import game.CellularAutomata;
+import game.CycleDetector;
+import game.GenerationPipeline;
+import game.Rule;
+import game.SwarEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationPipelineTest {
+
+    @Test
+    void testPipelinedStepsMatchDirectSteps() {
+        BitMatrix direct = TestBoards.randomMatrix(70, 150, 42);
+        BitMatrix pipelined = TestBoards.randomMatrix(70, 150, 42);
+        CellularAutomata directAutomata = new CellularAutomata(direct);
+        CellularAutomata pipelinedAutomata = new CellularAutomata(pipelined);
+        directAutomata.setCollectingStatistics(true);
+        pipelinedAutomata.setCollectingStatistics(true);
+        pipelinedAutomata.setPipelineDepth(3);
+
+        for (int generation = 0; generation < 300; generation++) {
+            if (generation == 50) {
+                directAutomata.edit(m -> m.update(10, 10, true));
+                pipelinedAutomata.edit(m -> m.update(10, 10, true));
+            } else if (generation == 100) {
+                direct.setRule(Rule.parse("B36/S23"));
+                pipelined.setRule(Rule.parse("B36/S23"));
+            } else if (generation == 150) {
+                direct.setBoundary(Boundary.DEAD);
+                pipelined.setBoundary(Boundary.DEAD);
+            } else if (generation == 200) {
+                direct.changeSize(90, 64);
+                pipelined.changeSize(90, 64);
+            }
+            directAutomata.next();
+            pipelinedAutomata.next();
+            assertArrayEquals(direct.getCurrentWords(), pipelined.getCurrentWords(),
+                    "Generation " + generation + " should match direct stepping.");
+            assertEquals(directAutomata.getStatistics().getPopulation(), pipelinedAutomata.getStatistics().getPopulation(),
+                    "The statistics of generation " + generation + " should match direct stepping.");
+        }
+        pipelinedAutomata.setPipelineDepth(0);
+    }
+
+    @Test
+    void testWorksAheadAndRecyclesBuffers() throws InterruptedException {
+        BitMatrix matrix = TestBoards.randomMatrix(256, 256, 7);
+        BitMatrix reference = TestBoards.randomMatrix(256, 256, 7);
+        SwarEngine referenceEngine = new SwarEngine();
+        GenerationPipeline pipeline = new GenerationPipeline(new SwarEngine(), 2);
+        pipeline.sync(matrix);
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (pipeline.getReady() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(2, pipeline.getReady(), "The pipeline should compute generations ahead before they are asked for.");
+        Thread.sleep(50);
+        assertEquals(2, pipeline.getReady(), "The pipeline should never work further ahead than its depth.");
+
+        Set<long[]> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int generation = 0; generation < 500; generation++) {
+            pipeline.advance(matrix);
+            referenceEngine.step(reference);
+            reference.swap();
+            assertArrayEquals(reference.getCurrentWords(), matrix.getCurrentWords(), "Generation " + generation + " should be right.");
+            buffers.add(matrix.getCurrentWords());
+        }
+        assertTrue(buffers.size() <= 5, "Buffers should be recycled, not allocated per generation, but " + buffers.size() + " were used.");
+
+        pipeline.shutdown();
+        assertThrows(IllegalStateException.class, () -> pipeline.advance(matrix));
+        assertThrows(IllegalArgumentException.class, () -> new GenerationPipeline(new SwarEngine(), 0));
+    }
+
+    @Test
+    void testCycleDetectorSeesPipelinedGenerations() {
+        BitMatrix bits = new BitMatrix(16, 16);
+        bits.update(3, 2, true);
+        bits.update(3, 3, true);
+        bits.update(3, 4, true);
+        CellularAutomata automata = new CellularAutomata(bits);
+        CycleDetector cycleDetector = new CycleDetector(bits);
+        automata.setCycleDetector(cycleDetector);
+        automata.setPipelineDepth(GenerationPipeline.DEFAULT_DEPTH);
+
+        for (int generation = 0; generation < 10; generation++) {
+            automata.next();
+        }
+        assertEquals(2, cycleDetector.getPeriod(), "A blinker stepped through the pipeline should be found to have period 2.");
+        automata.setPipelineDepth(0);
+    }
+}
@@ -0,0 +1,134 @@
+import game.ActiveRegionEngine;
+import game.BitMatrix;
+import game.Boundary;
+import game.CellularAutomata;
+import game.GenerationStats;
+import game.LargerThanLifeEngine;
+import game.LargerThanLifeRule;
+import game.LookupTableEngine;
+import game.ParallelEngine;
+import game.StepEngine;
+import game.SwarEngine;
+import game.VectorEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationStatsTest {
+
+    @Test
+    void testEnginesMatchCountedStatistics() {
+        Random random = new Random(21);
+        for (int[] size : new int[][] { { 1, 1 }, { 5, 64 }, { 37, 300 }, { 130, 200 }, { 1400, 64 } }) {
+            StepEngine[] engines = {
+                    new SwarEngine(), new ParallelEngine(2), new ActiveRegionEngine(), new LookupTableEngine(),
+                    new VectorEngine(), new LargerThanLifeEngine(LargerThanLifeRule.parse("R1,C0,M0,S2..3,B3..3,NM"))
+            };
+            boolean[][] cells = new boolean[size[0]][size[1]];
+            for (int i = 0; i < size[0]; i++) {
+                for (int j = 0; j < size[1]; j++) {
+                    cells[i][j] = random.nextInt(5) == 0;
+                }
+            }
+
+            for (StepEngine engine : engines) {
+                BitMatrix matrix = new BitMatrix(size[0], size[1]);
+                matrix.setBoundary(Boundary.DEAD);
+                for (int i = 0; i < size[0]; i++) {
+                    for (int j = 0; j < size[1]; j++) {
+                        matrix.update(i, j, cells[i][j]);
+                    }
+                }
+                CellularAutomata automata = new CellularAutomata(matrix, engine);
+                automata.setCollectingStatistics(true);
+
+                for (int generation = 0; generation < 12; generation++) {
+                    boolean[][] previous = snapshot(matrix);
+                    automata.next();
+                    assertStatistics(previous, snapshot(matrix), automata.getStatistics(),
+                            engine.getClass().getSimpleName() + " on " + size[0] + "x" + size[1] + " after generation " + generation);
+                }
+            }
+            ((ParallelEngine) engines[1]).shutdown();
+        }
+    }
+
+    @Test
+    void testActiveRegionKeepsStatisticsOfSkippedTiles() {
+        BitMatrix matrix = new BitMatrix(256, 256);
+        int[][] glider = { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } };
+        for (int[] cell : glider) {
+            matrix.update(10 + cell[0], 10 + cell[1], true);
+        }
+        matrix.update(200, 200, true);
+        matrix.update(200, 201, true);
+        matrix.update(201, 200, true);
+        matrix.update(201, 201, true);
+
+        CellularAutomata automata = new CellularAutomata(matrix, new ActiveRegionEngine());
+        automata.next();
+        automata.setCollectingStatistics(true);
+        for (int generation = 0; generation < 100; generation++) {
+            boolean[][] previous = snapshot(matrix);
+            automata.next();
+            assertStatistics(previous, snapshot(matrix), automata.getStatistics(), "generation " + generation);
+        }
+        assertEquals(9, automata.getStatistics().getPopulation(), "A glider and a block should remain.");
+    }
+
+    @Test
+    void testStatisticsAreOffByDefault() {
+        CellularAutomata automata = new CellularAutomata(new BitMatrix(8, 8));
+        automata.next();
+        assertNull(automata.getStatistics(), "Statistics should only be collected when turned on.");
+    }
+
+    @Test
+    void testEmptyBoard() {
+        CellularAutomata automata = new CellularAutomata(new BitMatrix(8, 70));
+        automata.setCollectingStatistics(true);
+        automata.next();
+        GenerationStats statistics = automata.getStatistics();
+        assertTrue(statistics.isEmpty(), "An empty board should have no population.");
+        assertEquals(-1, statistics.getMinRow(), "An empty board should have no bounding box.");
+        assertEquals(-1, statistics.getMaxCol(), "An empty board should have no bounding box.");
+    }
+
+    private static boolean[][] snapshot(BitMatrix matrix) {
+        boolean[][] cells = new boolean[matrix.getSizeX()][matrix.getSizeY()];
+        for (int i = 0; i < matrix.getSizeX(); i++) {
+            for (int j = 0; j < matrix.getSizeY(); j++) {
+                cells[i][j] = matrix.get(i, j);
+            }
+        }
+        return cells;
+    }
+
+    private static void assertStatistics(boolean[][] previous, boolean[][] current, GenerationStats statistics, String message) {
+        long population = 0, births = 0, deaths = 0;
+        int minRow = -1, maxRow = -1, minCol = -1, maxCol = -1;
+        for (int i = 0; i < current.length; i++) {
+            for (int j = 0; j < current[0].length; j++) {
+                if (current[i][j] && !previous[i][j]) births++;
+                if (!current[i][j] && previous[i][j]) deaths++;
+                if (!current[i][j]) continue;
+
+                population++;
+                if (minRow < 0) minRow = i;
+                maxRow = i;
+                if (minCol < 0 || j < minCol) minCol = j;
+                maxCol = Math.max(maxCol, j);
+            }
+        }
+        assertNotNull(statistics, "Statistics should be collected: " + message + ".");
+        assertEquals(population, statistics.getPopulation(), "Population differs: " + message + ".");
+        assertEquals(births, statistics.getBirths(), "Births differ: " + message + ".");
+        assertEquals(deaths, statistics.getDeaths(), "Deaths differ: " + message + ".");
+        assertEquals(minRow, statistics.getMinRow(), "First row differs: " + message + ".");
+        assertEquals(maxRow, statistics.getMaxRow(), "Last row differs: " + message + ".");
+        assertEquals(minCol, statistics.getMinCol(), "First column differs: " + message + ".");
+        assertEquals(maxCol, statistics.getMaxCol(), "Last column differs: " + message + ".");
+    }
+}
@@ -0,0 +1,164 @@
+import game.BitMatrix;
+import game.Boundary;
+import game.ByteMatrix;
+import game.CellularAutomata;
+import game.GenerationsAutomata;
+import game.GenerationsRule;
+import game.Rule;
+import game.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationsAutomataTest {
+
+    @Test
+    void testParseRule() {
+        GenerationsRule rule = GenerationsRule.parse("b2/s345/c4");
+        assertEquals(4, rule.getStates(), "Star Wars should have four states.");
+        assertEquals(Rule.parse("B2/S345"), rule.getLifeRule(), "Birth and survival should be parsed.");
+        assertEquals("B2/S345/C4", rule.toString(), "Rule should print in canonical notation.");
+        assertEquals(GenerationsRule.BRIANS_BRAIN, GenerationsRule.parse("C3/B2/S"), "Parts may come in any order.");
+        assertEquals(2, GenerationsRule.parse("B3/S23").getStates(), "A B/S rule should have two states.");
+
+        for (String notation : new String[] { "B2/S/C1", "B2/S/C257", "B2/S/Cx", "B2/C3" }) {
+            assertThrows(IllegalArgumentException.class, () -> GenerationsRule.parse(notation), notation);
+        }
+    }
+
+    @Test
+    void testBriansBrain() {
+        ByteMatrix matrix = new ByteMatrix(10, 10);
+        matrix.update(4, 4, 1);
+        matrix.update(4, 5, 1);
+        GenerationsAutomata automata = new GenerationsAutomata(matrix);
+
+        automata.next();
+        assertEquals(2, matrix.get(4, 4), "Live cells should always start dying in Brian's Brain.");
+        assertEquals(2, matrix.get(4, 5), "Live cells should always start dying in Brian's Brain.");
+        assertEquals(1, matrix.get(3, 4), "A dead cell with two live neighbours should come alive.");
+        assertEquals(1, matrix.get(5, 5), "A dead cell with two live neighbours should come alive.");
+        assertEquals(0, matrix.get(3, 3), "A dead cell with one live neighbour should stay dead.");
+
+        automata.next();
+        assertEquals(0, matrix.get(4, 4), "Dying cells should be dead after the last state.");
+        assertEquals(2, matrix.get(3, 4), "Live cells should always start dying in Brian's Brain.");
+    }
+
+    @Test
+    void testTwoStatesMatchLife() {
+        Random random = new Random(11);
+        for (Boundary boundary : Boundary.values()) {
+            for (int[] size : new int[][] { {1, 1}, {2, 3}, {17, 70} }) {
+                ByteMatrix cells = new ByteMatrix(size[0], size[1]);
+                cells.setRule(new GenerationsRule(Rule.CONWAY, 2));
+                cells.setBoundary(boundary);
+                BitMatrix bits = TestBoards.randomMatrix(size[0], size[1], random);
+                bits.setBoundary(boundary);
+                for (int i = 0; i < size[0]; i++) {
+                    for (int j = 0; j < size[1]; j++) {
+                        cells.update(i, j, bits.get(i, j) ? 1 : 0);
+                    }
+                }
+
+                GenerationsAutomata generations = new GenerationsAutomata(cells);
+                CellularAutomata life = new CellularAutomata(bits);
+                for (int generation = 0; generation < 20; generation++) {
+                    generations.next();
+                    life.next();
+                    for (int i = 0; i < size[0]; i++) {
+                        for (int j = 0; j < size[1]; j++) {
+                            assertEquals(bits.get(i, j) ? 1 : 0, cells.get(i, j), "Cell (" + i + "," + j + ") differs with "
+                                    + boundary + " after generation " + generation + ".");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSteppingThroughCellularAutomata() {
+        ByteMatrix matrix = new ByteMatrix(5, 5);
+        matrix.update(2, 2, 1);
+        CellularAutomata automata = new CellularAutomata(new BitMatrix(5, 5));
+        automata.setGenerations(new GenerationsAutomata(matrix));
+
+        automata.next();
+        assertEquals(2, matrix.get(2, 2), "The attached multi-state automaton should be stepped.");
+    }
+
+    @Test
+    void testSnapshotsOfMultiStateBoards() {
+        ByteMatrix matrix = new ByteMatrix(6, 6);
+        matrix.update(2, 2, 1);
+        CellularAutomata automata = new CellularAutomata(new BitMatrix(6, 6));
+        automata.setGenerations(new GenerationsAutomata(matrix));
+
+        Snapshot first = automata.getSnapshot();
+        assertEquals(1, first.getState(2, 2), "The snapshot should show the live cell.");
+        assertEquals(3, first.getStateCount(), "The snapshot should know the states of Brian's Brain.");
+        assertSame(first, automata.getSnapshot(), "An unchanged board should not be copied again.");
+
+        automata.next();
+        Snapshot stepped = automata.getSnapshot();
+        assertEquals(1, first.getState(2, 2), "A published snapshot should never change.");
+        assertEquals(2, stepped.getState(2, 2), "The snapshot should show the dying cell.");
+        assertFalse(stepped.isAlive(2, 2), "A dying cell should not count as alive.");
+
+        automata.editGenerations(m -> m.update(0, 0, 1));
+        assertEquals(1, automata.getSnapshot().getState(0, 0), "An edit should refresh the snapshot.");
+
+        automata.setGenerations(null);
+        assertEquals(2, automata.getSnapshot().getStateCount(), "Detaching the board should drop its snapshot.");
+    }
+
+    @Test
+    void testEditsWhileSteppingAreNeverLost() throws InterruptedException {
+        ByteMatrix matrix = new ByteMatrix(64, 64);
+        matrix.setRule(GenerationsRule.parse("B/S012345678/C3"));
+        CellularAutomata automata = new CellularAutomata(new BitMatrix(64, 64));
+        automata.setGenerations(new GenerationsAutomata(matrix));
+        Thread stepper = new Thread(() -> {
+            for (int generation = 0; generation < 20000; generation++) automata.next();
+        });
+        stepper.start();
+        for (int cell = 0; cell < 64 * 64; cell++) {
+            int row = cell / 64, col = cell % 64;
+            automata.editGenerations(m -> m.update(row, col, 1));
+        }
+        stepper.join();
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                assertEquals(1, matrix.get(i, j), "The edit of cell (" + i + ", " + j + ") should have been applied.");
+            }
+        }
+    }
+
+    @Test
+    void testSteadyStateSteppingDoesNotAllocate() {
+        ByteMatrix matrix = new ByteMatrix(64, 64);
+        matrix.setRule(GenerationsRule.parse("B2/S345/C4"));
+        Random random = new Random(5);
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                matrix.update(i, j, random.nextInt(4));
+            }
+        }
+        GenerationsAutomata automata = new GenerationsAutomata(matrix);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < 2000; i++) automata.next();
+
+        long overhead = threads.getCurrentThreadAllocatedBytes();
+        overhead = threads.getCurrentThreadAllocatedBytes() - overhead;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100; i++) automata.next();
+        long after = threads.getCurrentThreadAllocatedBytes();
+
+        assertEquals(0, (after - before - overhead) / 100, "Stepping a multi-state matrix should not allocate.");
+    }
+}
@@ -0,0 +1,176 @@
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.HashLife;
+import game.Rule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashLifeTest {
+
+    private static BitMatrix rPentomino() {
+        BitMatrix matrix = new BitMatrix(256, 256);
+        matrix.update(127, 128, true);
+        matrix.update(127, 129, true);
+        matrix.update(128, 127, true);
+        matrix.update(128, 128, true);
+        matrix.update(129, 128, true);
+        return matrix;
+    }
+
+    @Test
+    void testMatchesStepByStepEvolution() {
+        for (int k = 0; k <= 6; k++) {
+            BitMatrix expected = rPentomino();
+            CellularAutomata automata = new CellularAutomata(expected);
+            for (int i = 0; i < (1 << k); i++) automata.next();
+
+            HashLife hashLife = new HashLife();
+            hashLife.importMatrix(rPentomino());
+            hashLife.advance(k);
+
+            BitMatrix actual = new BitMatrix(256, 256);
+            hashLife.exportMatrix(actual);
+            assertEquals(1L << k, hashLife.getGeneration(), "Generation counter should advance by 2^k.");
+            assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                    "HashLife should match stepping after 2^" + k + " generations.");
+        }
+    }
+
+    @Test
+    void testRepeatedAdvancesMatchStepping() {
+        BitMatrix expected = rPentomino();
+        CellularAutomata automata = new CellularAutomata(expected);
+        for (int i = 0; i < 100; i++) automata.next();
+
+        HashLife hashLife = new HashLife();
+        hashLife.importMatrix(rPentomino());
+        hashLife.advance(6);
+        hashLife.advance(5);
+        hashLife.advance(2);
+
+        BitMatrix actual = new BitMatrix(256, 256);
+        hashLife.exportMatrix(actual);
+        assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                "HashLife should match stepping after 100 generations.");
+    }
+
+    @Test
+    void testGliderFastForward() {
+        BitMatrix glider = new BitMatrix(3, 3);
+        glider.update(0, 1, true);
+        glider.update(1, 2, true);
+        glider.update(2, 0, true);
+        glider.update(2, 1, true);
+        glider.update(2, 2, true);
+
+        HashLife hashLife = new HashLife();
+        hashLife.importMatrix(glider);
+        hashLife.advance(40);
+
+        long shift = 1L << 38;
+        assertEquals(5, hashLife.getPopulation(), "Glider should keep its five cells.");
+        assertTrue(hashLife.isAlive(shift, shift + 1), "Glider should have moved 2^38 cells diagonally.");
+        assertTrue(hashLife.isAlive(shift + 2, shift + 2), "Glider should have moved 2^38 cells diagonally.");
+        assertFalse(hashLife.isAlive(0, 1), "Glider should have left its starting position.");
+    }
+
+    @Test
+    void testBoundedNodeTable() {
+        HashLife hashLife = new HashLife(1000);
+        hashLife.importMatrix(rPentomino());
+        for (int i = 0; i < 20; i++) {
+            hashLife.advance(3);
+            assertTrue(hashLife.getNodeCount() <= 1000,
+                    "Node table should be collected once it exceeds its bound.");
+        }
+
+        BitMatrix expected = rPentomino();
+        CellularAutomata automata = new CellularAutomata(expected);
+        for (int i = 0; i < 160; i++) automata.next();
+
+        BitMatrix actual = new BitMatrix(256, 256);
+        hashLife.exportMatrix(actual);
+        assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                "Collecting the node table should not change the result.");
+    }
+
+    @Test
+    void testCollectsDuringASingleStep() {
+        HashLife hashLife = new HashLife(200);
+        hashLife.importMatrix(rPentomino());
+        hashLife.advance(7);
+
+        BitMatrix expected = rPentomino();
+        CellularAutomata automata = new CellularAutomata(expected);
+        for (int i = 0; i < 128; i++) automata.next();
+
+        BitMatrix actual = new BitMatrix(256, 256);
+        hashLife.exportMatrix(actual);
+        assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                "Collecting the node table in the middle of a step should not change the result.");
+    }
+
+    @Test
+    void testOtherRules() {
+        Rule highLife = Rule.parse("B36/S23");
+        for (int k = 0; k <= 6; k++) {
+            BitMatrix expected = rPentomino();
+            expected.setRule(highLife);
+            CellularAutomata automata = new CellularAutomata(expected);
+            for (int i = 0; i < (1 << k); i++) automata.next();
+
+            HashLife hashLife = new HashLife(highLife, HashLife.DEFAULT_MAX_NODES);
+            hashLife.importMatrix(rPentomino());
+            hashLife.advance(k);
+
+            BitMatrix actual = new BitMatrix(256, 256);
+            hashLife.exportMatrix(actual);
+            assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                    "HashLife should play HighLife like stepping after 2^" + k + " generations.");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new HashLife(Rule.parse("B03/S23"), 1000),
+                "Rules with B0 should be rejected.");
+    }
+
+    @Test
+    void testLimits() {
+        BitMatrix block = new BitMatrix(2, 2);
+        block.update(0, 0, true);
+        block.update(0, 1, true);
+        block.update(1, 0, true);
+        block.update(1, 1, true);
+        HashLife still = new HashLife();
+        still.importMatrix(block);
+        for (int i = 0; i < 15; i++) still.advance(59);
+        assertThrows(IllegalStateException.class, () -> still.advance(59), "The generation counter should not overflow.");
+        assertEquals(15L << 59, still.getGeneration(), "A refused step should leave the generation unchanged.");
+
+        BitMatrix glider = new BitMatrix(3, 3);
+        glider.update(0, 1, true);
+        glider.update(1, 2, true);
+        glider.update(2, 0, true);
+        glider.update(2, 1, true);
+        glider.update(2, 2, true);
+        HashLife hashLife = new HashLife();
+        hashLife.importMatrix(glider);
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 15; i++) hashLife.advance(59);
+        });
+        assertEquals("The pattern would outgrow the universe.", exception.getMessage());
+        long top = hashLife.getGeneration() / 4;
+        assertEquals(5, hashLife.getPopulation(), "A refused step should leave the glider unchanged.");
+        assertTrue(hashLife.isAlive(top, top + 1), "The glider should stay where the last step left it.");
+    }
+
+    @Test
+    void testInvalidStep() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> new HashLife().advance(-1));
+        assertEquals("Invalid step exponent.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new HashLife().advance(60));
+    }
+}
@@ -0,0 +1,96 @@
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.LargerThanLifeEngine;
+import game.LargerThanLifeRule;
+import game.SwarEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LargerThanLifeEngineTest {
+
+    private static final int[][] SIZES = { {1, 1}, {3, 5}, {12, 9}, {20, 70}, {31, 130} };
+
+    @Test
+    void testParse() {
+        LargerThanLifeRule rule = LargerThanLifeRule.parse("R5,C0,M1,S34..58,B34..45,NM");
+        assertEquals(5, rule.getRadius(), "Radius should be parsed.");
+        assertTrue(rule.countsMiddle(), "M1 should count the middle cell.");
+        assertEquals(LargerThanLifeRule.Neighborhood.MOORE, rule.getNeighborhood(), "NM should be the Moore neighbourhood.");
+        assertEquals(121, rule.getNeighborhoodSize(), "A radius 5 square holds 121 cells.");
+        assertTrue(rule.next(true, 34) && rule.next(true, 58) && !rule.next(true, 59), "Survival range should be inclusive.");
+        assertTrue(rule.next(false, 45) && !rule.next(false, 33), "Birth range should be inclusive.");
+        assertEquals("R5,C0,M1,S34..58,B34..45,NM", rule.toString(), "Rule should print in the same notation.");
+
+        LargerThanLifeRule diamond = LargerThanLifeRule.parse("r2,s3,b3,nn");
+        assertEquals(12, diamond.getNeighborhoodSize(), "A radius 2 diamond holds 12 cells besides the middle.");
+
+        for (String notation : new String[] { "", "C0,S1,B1", "R0,S1,B1", "R17,S1,B1", "R2,C3,S1,B1", "R2,NX", "R2,Sx" }) {
+            assertThrows(IllegalArgumentException.class, () -> LargerThanLifeRule.parse(notation), notation);
+        }
+    }
+
+    @Test
+    void testRadiusOneMatchesConway() {
+        Random random = new Random(1);
+        BitMatrix expected = TestBoards.randomMatrix(23, 100, random);
+        BitMatrix actual = new BitMatrix(23, 100);
+        System.arraycopy(expected.getCurrentWords(), 0, actual.getCurrentWords(), 0, expected.getCurrentWords().length);
+
+        CellularAutomata life = new CellularAutomata(expected, new SwarEngine());
+        CellularAutomata ltl = new CellularAutomata(actual, new LargerThanLifeEngine(LargerThanLifeRule.parse("R1,C0,M0,S2..3,B3..3,NM")));
+        for (int generation = 0; generation < 20; generation++) {
+            life.next();
+            ltl.next();
+            assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(), "Boards differ after generation " + generation + ".");
+        }
+    }
+
+    @Test
+    void testMatchesDirectCounting() {
+        String[] rules = {
+                "R2,C0,M0,S4..8,B5..6,NM", "R5,C0,M1,S34..58,B34..45,NM", "R10,C0,M1,S100..200,B120..160,NM",
+                "R1,C0,M0,S1..2,B1..1,NN", "R3,C0,M1,S5..12,B6..9,NN", "R7,C0,M0,S20..50,B25..35,NN"
+        };
+        Random random = new Random(2);
+        for (String notation : rules) {
+            LargerThanLifeRule rule = LargerThanLifeRule.parse(notation);
+            for (int[] size : SIZES) {
+                BitMatrix matrix = TestBoards.randomMatrix(size[0], size[1], random);
+                CellularAutomata automata = new CellularAutomata(matrix, new LargerThanLifeEngine(rule));
+                for (int generation = 0; generation < 3; generation++) {
+                    boolean[][] expected = directStep(matrix, rule);
+                    automata.next();
+                    for (int i = 0; i < size[0]; i++) {
+                        for (int j = 0; j < size[1]; j++) {
+                            assertEquals(expected[i][j], matrix.get(i, j), "Cell (" + i + "," + j + ") differs for " + notation
+                                    + " on a " + size[0] + "x" + size[1] + " board after generation " + generation + ".");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean[][] directStep(BitMatrix matrix, LargerThanLifeRule rule) {
+        int rows = matrix.getSizeX(), cols = matrix.getSizeY(), radius = rule.getRadius();
+        boolean[][] next = new boolean[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int count = 0;
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        if (rule.getNeighborhood() == LargerThanLifeRule.Neighborhood.VON_NEUMANN
+                                && Math.abs(dx) + Math.abs(dy) > radius) continue;
+                        if (dx == 0 && dy == 0 && !rule.countsMiddle()) continue;
+                        if (matrix.get(Math.floorMod(i + dx, rows), Math.floorMod(j + dy, cols))) count++;
+                    }
+                }
+                next[i][j] = rule.next(matrix.get(i, j), count);
+            }
+        }
+        return next;
+    }
+}
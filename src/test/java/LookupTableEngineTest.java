@@ -0,0 +1,70 @@
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.LookupTableEngine;
+import game.Rule;
+import game.SwarEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LookupTableEngineTest {
+
+    private static final int[][] SIZES = {
+            {1, 1}, {1, 5}, {2, 2}, {3, 1}, {5, 5}, {5, 63}, {7, 64}, {9, 65}, {4, 127}, {33, 130}, {64, 192}
+    };
+
+    @Test
+    void testMatchesSwarEngine() {
+        Random random = new Random(42);
+        for (int[] size : SIZES) {
+            BitMatrix expected = TestBoards.randomMatrix(size[0], size[1], random);
+            BitMatrix actual = new BitMatrix(size[0], size[1]);
+            System.arraycopy(expected.getCurrentWords(), 0, actual.getCurrentWords(), 0, expected.getCurrentWords().length);
+
+            CellularAutomata swar = new CellularAutomata(expected, new SwarEngine());
+            CellularAutomata table = new CellularAutomata(actual, new LookupTableEngine());
+            for (int generation = 0; generation < 20; generation++) {
+                swar.next();
+                table.next();
+                assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                        "Boards differ on a " + size[0] + "x" + size[1] + " board after generation " + generation + ".");
+            }
+        }
+    }
+
+    @Test
+    void testOtherLifeLikeRule() {
+        Rule rule = Rule.parse("B36/S23");
+        Random random = new Random(7);
+        BitMatrix matrix = TestBoards.randomMatrix(13, 70, random);
+        matrix.setRule(rule);
+        CellularAutomata automata = new CellularAutomata(matrix, new LookupTableEngine());
+
+        for (int generation = 0; generation < 10; generation++) {
+            boolean[][] expected = new boolean[13][70];
+            for (int i = 0; i < 13; i++) {
+                for (int j = 0; j < 70; j++) {
+                    int neighbors = 0;
+                    for (int di = -1; di <= 1; di++) {
+                        for (int dj = -1; dj <= 1; dj++) {
+                            if ((di != 0 || dj != 0) && matrix.get((i + di + 13) % 13, (j + dj + 70) % 70)) neighbors++;
+                        }
+                    }
+                    int mask = matrix.get(i, j) ? rule.getSurvivalMask() : rule.getBirthMask();
+                    expected[i][j] = ((mask >>> neighbors) & 1) != 0;
+                }
+            }
+
+            automata.next();
+            for (int i = 0; i < 13; i++) {
+                for (int j = 0; j < 70; j++) {
+                    assertEquals(expected[i][j], matrix.get(i, j),
+                            "Cell (" + i + "," + j + ") differs after generation " + generation + ".");
+                }
+            }
+        }
+    }
+}
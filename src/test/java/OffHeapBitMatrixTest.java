@@ -0,0 +1,141 @@
+import game.ActiveRegionEngine;
+import game.BitMatrix;
+import game.Boundary;
+import game.CellularAutomata;
+import game.LargerThanLifeEngine;
+import game.LargerThanLifeRule;
+import game.LookupTableEngine;
+import game.OffHeapBitMatrix;
+import game.ParallelEngine;
+import game.Rule;
+import game.StepEngine;
+import game.SwarEngine;
+import game.VectorEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBitMatrixTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testUpdateSetAndNext() {
+        OffHeapBitMatrix matrix = new OffHeapBitMatrix(3, 70);
+        matrix.update(1, 65, true);
+        assertTrue(matrix.get(1, 65), "Value at (1, 65) should be true after update.");
+        matrix.set(2, 69, true);
+        assertFalse(matrix.get(2, 69), "Value at (2, 69) should still be false in current matrix.");
+        matrix.next();
+        assertTrue(matrix.get(2, 69), "Value at (2, 69) should be true after next call.");
+        assertFalse(matrix.get(1, 65), "Value at (1, 65) should be cleared after next call.");
+        matrix.clear();
+        assertFalse(matrix.get(2, 69), "Value at (2, 69) should be false after clear.");
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(3, 0));
+    }
+
+    @Test
+    void testEnginesMatchBitMatrix() {
+        Random random = new Random(17);
+        for (int[] size : new int[][] { { 1, 1 }, { 3, 5 }, { 40, 130 }, { 100, 1 << 17 } }) {
+            for (Boundary boundary : Boundary.values()) {
+                for (Supplier<StepEngine> engine : engines(size[1] > 1000)) {
+                    BitMatrix expected = new BitMatrix(size[0], size[1]);
+                    OffHeapBitMatrix matrix = new OffHeapBitMatrix(size[0], size[1]);
+                    expected.setBoundary(boundary);
+                    matrix.setBoundary(boundary);
+                    for (int i = 0; i < size[0]; i++) {
+                        for (int j = 0; j < size[1]; j += 1 + random.nextInt(3)) {
+                            expected.update(i, j, true);
+                            matrix.update(i, j, true);
+                        }
+                    }
+
+                    CellularAutomata reference = new CellularAutomata(expected, engine.get());
+                    StepEngine stepEngine = engine.get();
+                    CellularAutomata automata = new CellularAutomata(matrix, stepEngine);
+                    for (int generation = 0; generation < 3; generation++) {
+                        reference.next();
+                        automata.next();
+                    }
+                    TestBoards.assertSameCells(expected, matrix, stepEngine.getClass().getSimpleName() + " with " + boundary
+                            + " on " + size[0] + "x" + size[1]);
+                    if (stepEngine instanceof ParallelEngine parallel) parallel.shutdown();
+                    if (reference.getEngine() instanceof ParallelEngine parallel) parallel.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMappedMatrixReopens() throws IOException {
+        File file = new File(directory, "board.life");
+        OffHeapBitMatrix matrix = OffHeapBitMatrix.create(file, 20, 100);
+        matrix.setRule(Rule.parse("B36/S23"));
+        matrix.setBoundary(Boundary.MIRROR);
+        int[][] glider = { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } };
+        for (int[] cell : glider) {
+            matrix.update(5 + cell[0], 70 + cell[1], true);
+        }
+        CellularAutomata automata = new CellularAutomata(matrix);
+        for (int generation = 0; generation < 5; generation++) {
+            automata.next();
+        }
+        matrix.flush();
+
+        OffHeapBitMatrix reopened = OffHeapBitMatrix.open(file);
+        assertEquals(20, reopened.getSizeX(), "The number of rows should be restored.");
+        assertEquals(100, reopened.getSizeY(), "The number of columns should be restored.");
+        assertEquals("B36/S23", reopened.getRule().toString(), "The rule should be restored.");
+        assertEquals(Boundary.MIRROR, reopened.getBoundary(), "The boundary should be restored.");
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 100; j++) {
+                assertEquals(matrix.get(i, j), reopened.get(i, j), "Cell (" + i + ", " + j + ") should be restored.");
+            }
+        }
+    }
+
+    @Test
+    void testOpenRejectsOtherFiles() throws IOException {
+        File file = new File(directory, "board.json");
+        new BitMatrix(4, 4).toJson(file);
+        assertThrows(IOException.class, () -> OffHeapBitMatrix.open(file));
+    }
+
+    @Test
+    void testJsonRoundTripWithBitMatrix() {
+        File file = new File(directory, "board.json");
+        BitMatrix source = new BitMatrix(7, 90);
+        source.update(3, 80, true);
+        source.update(6, 0, true);
+        source.setBoundary(Boundary.DEAD);
+        source.toJson(file);
+
+        OffHeapBitMatrix matrix = new OffHeapBitMatrix(1, 1);
+        matrix.fromJson(file);
+        TestBoards.assertSameCells(source, matrix, "after loading");
+        assertEquals(Boundary.DEAD, matrix.getBoundary(), "The boundary should be loaded.");
+
+        matrix.update(0, 1, true);
+        matrix.toJson(file);
+        BitMatrix loaded = new BitMatrix(1, 1);
+        loaded.fromJson(file);
+        TestBoards.assertSameCells(loaded, matrix, "after saving");
+    }
+
+    private static Supplier<StepEngine>[] engines(boolean large) {
+        LargerThanLifeRule rule = LargerThanLifeRule.parse("R2,C0,M1,S6..11,B7..9,NM");
+        if (large) return new Supplier[] { SwarEngine::new, () -> new ParallelEngine(2), () -> new LargerThanLifeEngine(rule) };
+        return new Supplier[] {
+                SwarEngine::new, () -> new ParallelEngine(2), ActiveRegionEngine::new, LookupTableEngine::new,
+                VectorEngine::new, () -> new LargerThanLifeEngine(rule)
+        };
+    }
+}
@@ -0,0 +1,39 @@
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.ParallelEngine;
+import game.SwarEngine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelEngineTest {
+
+    @Test
+    void testMatchesSerialEngine() {
+        int[][] sizes = {{300, 1000}, {517, 333}, {3, 4000}, {10, 10}};
+        for (int[] size : sizes) {
+            BitMatrix serial = TestBoards.randomMatrix(size[0], size[1], 7);
+            BitMatrix parallel = TestBoards.randomMatrix(size[0], size[1], 7);
+
+            CellularAutomata serialAutomata = new CellularAutomata(serial, new SwarEngine());
+            ParallelEngine engine = new ParallelEngine(4);
+            CellularAutomata parallelAutomata = new CellularAutomata(parallel, engine);
+
+            for (int generation = 0; generation < 10; generation++) {
+                serialAutomata.next();
+                parallelAutomata.next();
+                assertArrayEquals(serial.getCurrentWords(), parallel.getCurrentWords(),
+                        "Boards of size " + size[0] + "x" + size[1] + " differ after generation " + generation + ".");
+            }
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testConfigurableParallelism() {
+        ParallelEngine engine = new ParallelEngine(3);
+        assertEquals(3, engine.getParallelism(), "Engine should use the requested number of workers.");
+        engine.shutdown();
+    }
+}
@@ -0,0 +1,109 @@
+import game.BitMatrix;
+import game.Rule;
+import game.RuleSweep;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSweepTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testRuleRange() {
+        assertEquals(List.of(Rule.CONWAY), RuleSweep.range(Rule.CONWAY, Rule.CONWAY), "A range of one rule should hold it.");
+        assertEquals(List.of(Rule.parse("B3/S23"), Rule.parse("B36/S23")),
+                RuleSweep.range(Rule.parse("B3/S23"), Rule.parse("B36/S23")), "The range should be in mask order.");
+        assertEquals(32, RuleSweep.range(Rule.parse("B3/S23"), Rule.parse("B3678/S2345")).size(),
+                "Five free neighbour counts should give 32 rules.");
+        assertThrows(IllegalArgumentException.class, () -> RuleSweep.range(Rule.parse("B36/S23"), Rule.parse("B3/S23")));
+    }
+
+    @Test
+    void testOutcomesOfEveryRuleAndSeed() throws IOException {
+        File blinker = writePattern("blinker.json", new int[][] { { 5, 4 }, { 5, 5 }, { 5, 6 } });
+        File rPentomino = writePattern("r.json", new int[][] { { 9, 10 }, { 9, 11 }, { 10, 9 }, { 10, 10 }, { 11, 10 } });
+        File single = new File(directory, "single.csv");
+        File parallel = new File(directory, "parallel.csv");
+        String seeds = blinker.getPath() + "," + rPentomino.getPath();
+
+        RuleSweep.Summary summary = RuleSweep.parse(new String[] {
+                "--output", single.getPath(), "--seeds", seeds, "--rules", "B3/S23,B/S,B12345678/S012345678", "--threads", "1"
+        }).run();
+        RuleSweep.parse(new String[] {
+                "--output", parallel.getPath(), "--seeds", seeds, "--rules", "B3/S23,B/S,B12345678/S012345678", "--threads", "4"
+        }).run();
+
+        List<String> rows = Files.readAllLines(single.toPath());
+        assertEquals(7, rows.size(), "There should be a header and a row per rule and seed.");
+        assertEquals("rule,seed,outcome,generations,initial_population,final_population,growth_rate,period", rows.get(0));
+        assertEquals("B3/S23,blinker.json,PERIODIC", prefix(rows.get(1)), "The blinker should be found to oscillate.");
+        assertTrue(rows.get(1).endsWith(",2"), "The blinker should have period 2.");
+        assertEquals("B3/S23,r.json,", rows.get(2).substring(0, 14), "The rows should be in the order of rules and seeds.");
+        assertEquals("B/S,blinker.json,EXTINCT,1,3,0,-3.0000,0", rows.get(3), "Without births or survivals all should die at once.");
+        assertEquals("B12345678/S012345678,blinker.json,EXPLODED", prefix(rows.get(5)),
+                "Births on any neighbour without deaths should fill the board.");
+        assertEquals(6, summary.getRuns(), "Every rule should play every seed.");
+        assertEquals(2, summary.getCount(RuleSweep.Outcome.EXTINCT), "Both seeds should die out with B/S.");
+        assertEquals(rows, Files.readAllLines(parallel.toPath()), "The metrics should not depend on the number of threads.");
+    }
+
+    @Test
+    void testSeedNamesAreQuoted() throws IOException {
+        File blinker = writePattern("blinker, \"vertical\".json", new int[][] { { 5, 4 }, { 5, 5 }, { 5, 6 } });
+        File output = new File(directory, "quoted.csv");
+        new RuleSweep(List.of(Rule.CONWAY), List.of(blinker), output, 1000, 0.5, 1).run();
+
+        assertTrue(Files.readAllLines(output.toPath()).get(1).startsWith("B3/S23,\"blinker, \"\"vertical\"\".json\",PERIODIC,"),
+                "A seed name holding a comma or a quote should be quoted.");
+    }
+
+    @Test
+    void testInvalidSeedFails() throws IOException {
+        File broken = new File(directory, "broken.json");
+        Files.writeString(broken.toPath(), "{ \"x\": 3, \"currentMatrix\": [ [ true");
+        RuleSweep sweep = RuleSweep.parse(new String[] {
+                "--output", new File(directory, "out.csv").getPath(), "--seeds", broken.getPath(), "--rules", "B3/S23" });
+
+        assertThrows(UncheckedIOException.class, sweep::run, "A broken seed should not be played as an empty board.");
+    }
+
+    @Test
+    void testInvalidArguments() {
+        File blinker = writePattern("blinker.json", new int[][] { { 5, 4 }, { 5, 5 }, { 5, 6 } });
+        String seed = blinker.getPath();
+        assertThrows(IllegalArgumentException.class, () -> RuleSweep.parse(new String[] {
+                "--output", "out.csv", "--seeds", seed }));
+        assertThrows(IllegalArgumentException.class, () -> RuleSweep.parse(new String[] {
+                "--output", "out.csv", "--rules", "B3/S23" }));
+        assertThrows(IllegalArgumentException.class, () -> RuleSweep.parse(new String[] {
+                "--output", "out.csv", "--seeds", seed, "--range", "B3/S23" }));
+        assertThrows(IllegalArgumentException.class, () -> RuleSweep.parse(new String[] {
+                "--output", "out.csv", "--seeds", new File(directory, "missing.json").getPath(), "--rules", "B3/S23" }));
+        assertThrows(IllegalArgumentException.class, () -> RuleSweep.parse(new String[] {
+                "--output", "out.csv", "--seeds", seed, "--rules", "B3/S23", "--explosion", "0" }));
+    }
+
+    private static String prefix(String row) {
+        String[] columns = row.split(",");
+        return columns[0] + "," + columns[1] + "," + columns[2];
+    }
+
+    private File writePattern(String name, int[][] cells) {
+        BitMatrix matrix = new BitMatrix(20, 20);
+        for (int[] cell : cells) {
+            matrix.update(cell[0], cell[1], true);
+        }
+        File file = new File(directory, name);
+        matrix.toJson(file);
+        return file;
+    }
+}
@@ -0,0 +1,98 @@
+import game.ActiveRegionEngine;
+import game.BitMatrix;
+import game.BufferedMatrix;
+import game.CellularAutomata;
+import game.ChunkedUniverse;
+import game.LookupTableEngine;
+import game.ParallelEngine;
+import game.Rule;
+import game.StepEngine;
+import game.SwarEngine;
+import game.VectorEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleTest {
+
+    private static final String[] RULES = {
+            "B3/S23", "B36/S23", "B2/S", "B0/S8", "B3678/S34678", "B1357/S1357", "B012345678/S012345678", "B/S"
+    };
+
+    @Test
+    void testParse() {
+        Rule rule = Rule.parse("b36/s23");
+        assertEquals((1 << 3) | (1 << 6), rule.getBirthMask(), "Birth mask should hold 3 and 6.");
+        assertEquals((1 << 2) | (1 << 3), rule.getSurvivalMask(), "Survival mask should hold 2 and 3.");
+        assertEquals("B36/S23", rule.toString(), "Rule should print in canonical notation.");
+        assertEquals(rule, Rule.parse("S32/B63"), "Parts may come in either order.");
+        assertEquals(Rule.CONWAY, Rule.parse("B3/S23"), "B3/S23 should equal the Conway constant.");
+        assertTrue(Rule.CONWAY.isConway(), "Conway constant should be recognised.");
+        assertFalse(rule.isConway(), "HighLife should not be recognised as Conway.");
+        assertEquals("B2/S", Rule.parse("B2/S").toString(), "An empty survival part should be kept.");
+    }
+
+    @Test
+    void testInvalidNotation() {
+        for (String notation : new String[] { "", "B3", "B3/S23/S1", "B9/S23", "B3/X23", "B3/B3", "B3a/S23" }) {
+            Exception exception = assertThrows(IllegalArgumentException.class, () -> Rule.parse(notation));
+            assertEquals("Invalid rule.", exception.getMessage());
+        }
+    }
+
+    @Test
+    void testNext() {
+        Rule rule = Rule.parse("B36/S23");
+        for (int n = 0; n <= 8; n++) {
+            assertEquals(n == 3 || n == 6, rule.next(false, n), "Dead cell with " + n + " neighbours.");
+            assertEquals(n == 2 || n == 3, rule.next(true, n), "Live cell with " + n + " neighbours.");
+        }
+    }
+
+    @Test
+    void testEnginesAgreeOnEveryRule() {
+        Random random = new Random(3);
+        for (String notation : RULES) {
+            Rule rule = Rule.parse(notation);
+            BufferedMatrix<Boolean> boxed = new BufferedMatrix<>(37, 300, false);
+            TestBoards.fillRandom(boxed, 0, boxed.getSizeX(), 0, boxed.getSizeY(), random);
+            boxed.setRule(rule);
+            CellularAutomata reference = new CellularAutomata(boxed);
+
+            StepEngine[] engines = {
+                    new SwarEngine(), new ParallelEngine(2), new ActiveRegionEngine(), new LookupTableEngine(), new VectorEngine()
+            };
+            BitMatrix[] matrices = new BitMatrix[engines.length];
+            CellularAutomata[] automata = new CellularAutomata[engines.length];
+            for (int k = 0; k < engines.length; k++) {
+                matrices[k] = TestBoards.copyOf(boxed);
+                automata[k] = new CellularAutomata(matrices[k], engines[k]);
+            }
+
+            for (int generation = 0; generation < 8; generation++) {
+                reference.next();
+                for (int k = 0; k < engines.length; k++) {
+                    automata[k].next();
+                    TestBoards.assertSameCells(boxed, matrices[k], engines[k].getClass().getSimpleName() + " on " + notation
+                            + " after generation " + generation);
+                }
+            }
+            ((ParallelEngine) engines[1]).shutdown();
+        }
+    }
+
+    @Test
+    void testUniverseFollowsRule() {
+        ChunkedUniverse universe = new ChunkedUniverse();
+        universe.update(0, 0, true);
+        universe.update(0, 1, true);
+        universe.next(Rule.parse("B2/S"));
+        assertEquals(4, universe.getPopulation(), "A Seeds domino should give birth to four cells.");
+        assertFalse(universe.get(0, 0), "Seeds cells should never survive.");
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> universe.next(Rule.parse("B0/S")));
+        assertEquals("Rules with B0 need a bounded board.", exception.getMessage());
+    }
+}
@@ -0,0 +1,162 @@
+import game.BitMatrix;
+import game.CellularAutomata;
+import game.SimulationScheduler;
+import game.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationSchedulerTest {
+
+    @Test
+    void testRunsAtTargetRate() throws InterruptedException {
+        AtomicLong steps = new AtomicLong();
+        SimulationScheduler scheduler = new SimulationScheduler(steps::incrementAndGet, 100);
+        scheduler.start();
+        Thread.sleep(1200);
+        scheduler.pause();
+
+        assertTrue(steps.get() >= 90 && steps.get() <= 135, "About 120 generations should run in 1.2 s, not " + steps.get() + ".");
+        assertEquals(steps.get(), scheduler.getGenerations(), "Every generation should be counted.");
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testAsFastAsPossible() throws InterruptedException {
+        AtomicLong steps = new AtomicLong();
+        SimulationScheduler scheduler = new SimulationScheduler(steps::incrementAndGet, SimulationScheduler.AS_FAST_AS_POSSIBLE);
+        scheduler.start();
+        Thread.sleep(700);
+        double rate = scheduler.getAchievedRate();
+        scheduler.pause();
+
+        assertTrue(rate > 10000, "Running as fast as possible should far exceed any target rate, not " + rate + ".");
+        assertEquals(0, scheduler.getLagNanos(), "Running as fast as possible should never lag.");
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testTurboRendersOnlyLatestGenerations() throws InterruptedException {
+        BitMatrix bits = new BitMatrix(64, 64);
+        bits.update(3, 2, true);
+        bits.update(3, 3, true);
+        bits.update(3, 4, true);
+        CellularAutomata automata = new CellularAutomata(bits);
+        SimulationScheduler scheduler = new SimulationScheduler(automata, 10);
+        scheduler.setTurbo(true);
+        scheduler.start();
+
+        long previous = -1;
+        int frames = 0, skipping = 0;
+        long end = System.nanoTime() + 800_000_000L;
+        while (System.nanoTime() < end) {
+            Snapshot snapshot = automata.getLatestSnapshot();
+            if (snapshot != null) {
+                if (previous >= 0 && snapshot.getGeneration() > previous + 1) skipping++;
+                assertTrue(snapshot.getGeneration() >= previous, "Frames should never go back in time.");
+                previous = snapshot.getGeneration();
+                frames++;
+            }
+            Thread.sleep(16);
+        }
+        double rate = scheduler.getAchievedRate();
+        scheduler.setTurbo(false);
+        Thread.sleep(100);
+        long before = scheduler.getGenerations();
+        Thread.sleep(500);
+        long afterTurbo = scheduler.getGenerations() - before;
+        scheduler.shutdown();
+
+        assertTrue(rate > 1000, "Turbo mode should ignore the target rate, not run at " + rate + " gens/s.");
+        assertTrue(frames > 10 && skipping > frames / 2, "Frames should skip the generations computed in between.");
+        assertTrue(afterTurbo <= 10, "Leaving turbo mode should return to the target rate, not " + afterTurbo + " in 0.5 s.");
+    }
+
+    @Test
+    void testPauseWaitsForStepAndReusesThread() throws InterruptedException {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicLong steps = new AtomicLong();
+        SimulationScheduler scheduler = new SimulationScheduler(() -> {
+            threads.add(Thread.currentThread());
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            steps.incrementAndGet();
+        }, 1000);
+
+        for (int round = 0; round < 5; round++) {
+            scheduler.start();
+            Thread.sleep(50);
+            scheduler.pause();
+            assertFalse(scheduler.isRunning(), "The scheduler should be paused.");
+            long paused = steps.get();
+            Thread.sleep(30);
+            assertEquals(paused, steps.get(), "No generation should run or complete after pausing.");
+        }
+        assertEquals(1, threads.size(), "Every start should reuse the same worker thread.");
+
+        scheduler.shutdown();
+        assertThrows(IllegalStateException.class, scheduler::start);
+    }
+
+    @Test
+    void testSlowStepsCatchUpOnlyToTheLimit() throws InterruptedException {
+        SimulationScheduler scheduler = new SimulationScheduler(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1000);
+        scheduler.setMaxCatchUp(3);
+        scheduler.start();
+        Thread.sleep(1000);
+        scheduler.pause();
+
+        assertTrue(scheduler.getSkippedGenerations() > 500, "Generations beyond the catch-up limit should be skipped.");
+        assertTrue(scheduler.getLagNanos() < 50_000_000L, "The lag should stay bounded, not " + scheduler.getLagNanos() + " ns.");
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testFailingStepPauses() throws InterruptedException {
+        AtomicLong steps = new AtomicLong();
+        SimulationScheduler scheduler = new SimulationScheduler(() -> {
+            if (steps.incrementAndGet() == 3) throw new IllegalStateException("Expected by the test.");
+        }, 1000);
+        scheduler.start();
+        Thread.sleep(200);
+
+        assertFalse(scheduler.isRunning(), "A failing generation should pause the simulation.");
+        assertEquals(3, steps.get(), "No generation should run after the failure.");
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testInterruptedWorkerShutsDown() throws InterruptedException {
+        AtomicLong steps = new AtomicLong();
+        SimulationScheduler scheduler = new SimulationScheduler(() -> {
+            if (steps.incrementAndGet() == 3) Thread.currentThread().interrupt();
+        }, 100);
+        scheduler.start();
+        Thread.sleep(300);
+
+        assertFalse(scheduler.isRunning(), "An interrupted worker should stop the simulation.");
+        assertEquals(3, steps.get(), "No generation should run after the interrupt.");
+        assertThrows(IllegalStateException.class, scheduler::start, "The scheduler should be shut down.");
+    }
+
+    @Test
+    void testInvalidSettings() {
+        SimulationScheduler scheduler = new SimulationScheduler(() -> { }, 10);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setTargetRate(0));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setTargetRate(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setMaxCatchUp(-1));
+    }
+}
@@ -0,0 +1,96 @@
+import game.BitMatrix;
+import game.Boundary;
+import game.SoupSearch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoupSearchTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testCensusNamesObjects() {
+        BitMatrix board = new BitMatrix(20, 20);
+        board.setBoundary(Boundary.DEAD);
+        int[][] cells = {
+                { 1, 1 }, { 1, 2 }, { 2, 1 }, { 2, 2 },
+                { 1, 10 }, { 2, 10 }, { 3, 10 },
+                { 10, 2 }, { 10, 3 }, { 11, 1 }, { 11, 4 }, { 12, 2 }, { 12, 3 },
+                { 15, 15 }, { 15, 16 }, { 16, 15 }, { 16, 16 }
+        };
+        for (int[] cell : cells) {
+            board.update(cell[0], cell[1], true);
+        }
+
+        Map<String, Long> census = SoupSearch.census(board, 2);
+        assertEquals(Long.valueOf(2), census.get("xs4_oo$oo"), "Both blocks should be counted.");
+        assertEquals(Long.valueOf(1), census.get("xp2_o$o$o"), "The vertical blinker should be named in its smallest phase.");
+        assertEquals(Long.valueOf(1), census.get("xs6_bob$obo$obo$bob"), "The beehive should be named in its smallest orientation.");
+        assertEquals(3, census.size(), "There should be no other objects.");
+    }
+
+    @Test
+    void testEscapingGlidersLeaveNoDebris() {
+        BitMatrix soup = new BitMatrix(16, 16);
+        int[][] cells = {
+                { 2, 2 }, { 2, 3 }, { 3, 2 }, { 3, 3 },
+                { 10, 11 }, { 11, 12 }, { 12, 10 }, { 12, 11 }, { 12, 12 }
+        };
+        for (int[] cell : cells) {
+            soup.update(cell[0], cell[1], true);
+        }
+
+        assertEquals(Map.of("xs4_oo$oo", 1L), SoupSearch.search(soup, 1000),
+                "The glider should fly off without crashing into the edge of the board.");
+    }
+
+    @Test
+    void testSameCensusWithAnyNumberOfThreads() throws IOException {
+        File single = new File(directory, "single.csv");
+        File parallel = new File(directory, "parallel.csv");
+        SoupSearch.Census census = SoupSearch.parse(new String[] {
+                "--output", single.getPath(), "--soups", "600", "--seed", "7", "--threads", "1" }).run();
+        SoupSearch.parse(new String[] {
+                "--output", parallel.getPath(), "--soups", "600", "--seed", "7", "--threads", "4" }).run();
+
+        assertEquals(600, census.getSoups(), "Every soup should be searched.");
+        assertEquals("xs4_oo$oo", census.getObjects().keySet().iterator().next(), "Blocks should be the most common object.");
+        assertEquals(Files.readAllLines(single.toPath()), Files.readAllLines(parallel.toPath()),
+                "The census should not depend on the number of threads.");
+    }
+
+    @Test
+    void testResumesFromTheCensusFile() throws IOException {
+        File once = new File(directory, "once.csv");
+        File resumed = new File(directory, "resumed.csv");
+        SoupSearch.parse(new String[] { "--output", once.getPath(), "--soups", "768", "--seed", "3" }).run();
+        SoupSearch.parse(new String[] { "--output", resumed.getPath(), "--soups", "512", "--seed", "3" }).run();
+        SoupSearch.Census census = SoupSearch.parse(new String[] {
+                "--output", resumed.getPath(), "--soups", "768", "--seed", "3" }).run();
+
+        assertEquals(768, census.getSoups(), "The resumed search should cover every soup.");
+        assertEquals(Files.readAllLines(once.toPath()), Files.readAllLines(resumed.toPath()),
+                "A resumed search should find what an uninterrupted one finds.");
+        assertThrows(IllegalArgumentException.class, () -> SoupSearch.parse(new String[] {
+                "--output", resumed.getPath(), "--soups", "1024", "--seed", "4" }).run());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> SoupSearch.parse(new String[] { "--soups", "10" }));
+        assertThrows(IllegalArgumentException.class, () -> SoupSearch.parse(new String[] {
+                "--output", "census.csv", "--soups", "many" }));
+        assertThrows(IllegalArgumentException.class, () -> SoupSearch.parse(new String[] {
+                "--output", "census.csv", "--soups", "10", "--density", "2" }));
+        assertThrows(IllegalArgumentException.class, () -> SoupSearch.parse(new String[] {
+                "--output", "census.csv", "--soups", "10", "--rule", "B3/S99" }));
+    }
+}
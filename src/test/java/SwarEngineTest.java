@@ -0,0 +1,51 @@
+import game.BitMatrix;
+import game.BufferedMatrix;
+import game.CellularAutomata;
+import game.SwarEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SwarEngineTest {
+
+    private static final int[][] SIZES = {
+            {1, 1}, {1, 5}, {2, 2}, {3, 1}, {5, 5}, {5, 63}, {7, 64}, {9, 65}, {4, 127}, {33, 130}, {64, 192}
+    };
+
+    @Test
+    void testMatchesCellByCellStepping() {
+        Random random = new Random(42);
+        for (int[] size : SIZES) {
+            BufferedMatrix<Boolean> boxed = new BufferedMatrix<>(size[0], size[1], false);
+            TestBoards.fillRandom(boxed, 0, size[0], 0, size[1], random);
+            BitMatrix bits = TestBoards.copyOf(boxed);
+
+            CellularAutomata reference = new CellularAutomata(boxed);
+            CellularAutomata swar = new CellularAutomata(bits, new SwarEngine());
+            for (int generation = 0; generation < 20; generation++) {
+                reference.next();
+                swar.next();
+                TestBoards.assertSameCells(boxed, bits, "on a " + size[0] + "x" + size[1] + " board after generation " + generation);
+            }
+        }
+    }
+
+    @Test
+    void testGliderCrossesWordBoundary() {
+        BitMatrix bits = new BitMatrix(8, 70);
+        bits.update(0, 61, true);
+        bits.update(1, 62, true);
+        bits.update(2, 60, true);
+        bits.update(2, 61, true);
+        bits.update(2, 62, true);
+
+        CellularAutomata automata = new CellularAutomata(bits);
+        for (int i = 0; i < 4 * 8; i++) automata.next();
+
+        assertTrue(bits.get(0, 69), "Glider should have moved 8 cells right and wrapped back to row 0.");
+        assertTrue(bits.get(1, 0), "Glider should have wrapped around the right edge.");
+        assertTrue(bits.get(2, 68), "Glider should have wrapped around the bottom edge.");
+    }
+}
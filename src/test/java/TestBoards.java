@@ -0,0 +1,65 @@
+import game.BitMatrix;
+import game.BufferedMatrix;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Boards shared by the engine and matrix tests: random boards, copies, and cell by
+ * cell comparisons that work across every kind of matrix.
+ */
+final class TestBoards {
+
+    private TestBoards() {
+    }
+
+    static BitMatrix randomMatrix(int rows, int cols, long seed) {
+        return randomMatrix(rows, cols, new Random(seed));
+    }
+
+    static BitMatrix randomMatrix(int rows, int cols, Random random) {
+        BitMatrix matrix = new BitMatrix(rows, cols);
+        fillRandom(matrix, 0, rows, 0, cols, random);
+        return matrix;
+    }
+
+    static void fillRandom(BufferedMatrix<Boolean> matrix, int fromRow, int toRow, int fromCol, int toCol, Random random) {
+        for (int i = fromRow; i < toRow; i++) {
+            for (int j = fromCol; j < toCol; j++) {
+                matrix.update(i, j, random.nextInt(3) == 0);
+            }
+        }
+    }
+
+    static BitMatrix copyOf(BufferedMatrix<Boolean> matrix) {
+        BitMatrix bits = new BitMatrix(matrix.getSizeX(), matrix.getSizeY());
+        for (int i = 0; i < matrix.getSizeX(); i++) {
+            for (int j = 0; j < matrix.getSizeY(); j++) {
+                bits.update(i, j, matrix.get(i, j));
+            }
+        }
+        bits.setRule(matrix.getRule());
+        bits.setBoundary(matrix.getBoundary());
+        return bits;
+    }
+
+    static void assertSameCells(BufferedMatrix<Boolean> expected, BufferedMatrix<Boolean> actual, String message) {
+        assertEquals(expected.getSizeX(), actual.getSizeX(), "Rows differ: " + message + ".");
+        assertEquals(expected.getSizeY(), actual.getSizeY(), "Columns differ: " + message + ".");
+        for (int i = 0; i < expected.getSizeX(); i++) {
+            for (int j = 0; j < expected.getSizeY(); j++) {
+                if (!expected.get(i, j).equals(actual.get(i, j))) fail("Cell (" + i + "," + j + ") differs: " + message + ".");
+            }
+        }
+    }
+
+    static void assertSameCells(boolean[][] expected, BufferedMatrix<Boolean> actual, String message) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[0].length; j++) {
+                if (expected[i][j] != actual.get(i, j)) fail("Cell (" + i + "," + j + ") differs: " + message + ".");
+            }
+        }
+    }
+}
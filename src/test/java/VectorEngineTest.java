@@ -0,0 +1,32 @@
+import game.BitMatrix;
+import game.StepEngine;
+import game.SwarEngine;
+import game.VectorEngine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VectorEngineTest {
+
+    @Test
+    void testMatchesSwarEngine() {
+        assumeTrue(VectorEngine.isVectorized(), "The vector kernel is not used on this platform.");
+        int[][] sizes = {{50, 1000}, {7, 130}, {5, 200}, {3, 64}, {9, 65}, {1, 1}, {17, 64 * 11 - 3}};
+        for (int[] size : sizes) {
+            BitMatrix expected = TestBoards.randomMatrix(size[0], size[1], 9);
+            BitMatrix actual = TestBoards.randomMatrix(size[0], size[1], 9);
+            StepEngine swar = new SwarEngine();
+            StepEngine vector = new VectorEngine();
+
+            for (int generation = 0; generation < 10; generation++) {
+                swar.step(expected);
+                expected.swap();
+                vector.step(actual);
+                actual.swap();
+                assertArrayEquals(expected.getCurrentWords(), actual.getCurrentWords(),
+                        "Boards of size " + size[0] + "x" + size[1] + " differ after generation " + generation + ".");
+            }
+        }
+    }
+}